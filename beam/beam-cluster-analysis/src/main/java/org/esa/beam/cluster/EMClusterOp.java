@@ -33,9 +33,12 @@ import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
 import org.esa.beam.util.ProductUtils;
 
+import javax.media.jai.JAI;
 import java.awt.Rectangle;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Operator for cluster analysis.
@@ -266,10 +269,18 @@ public class EMClusterOp extends Operator {
 
             final EMClusterer clusterer = createClusterer(SubProgressMonitor.create(pm, 100));
 
-            for (int i = 0; i < iterationCount; ++i) {
-                checkForCancellation();
-                clusterer.iterate();
-                pm.worked(1);
+            final int parallelism = Math.max(1, JAI.getDefaultInstance().getTileScheduler().getParallelism());
+            final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                clusterer.setExecutor(executor);
+                boolean converged = false;
+                for (int i = 0; (i < iterationCount && !converged); ++i) {
+                    checkForCancellation();
+                    converged = clusterer.iterate();
+                    pm.worked(1);
+                }
+            } finally {
+                executor.shutdownNow();
             }
 
             if (clusterComparator == null) {
@@ -304,52 +315,11 @@ public class EMClusterOp extends Operator {
     }
 
     private EMClusterer createClusterer(ProgressMonitor pm) {
-        final int sceneWidth = sourceProduct.getSceneRasterWidth();
-        final int sceneHeight = sourceProduct.getSceneRasterHeight();
+        final FeatureMatrix points = FeatureMatrix.extract(this, sourceBands, roi, pm);
 
-        // check ROI size
-        int roiSize = 0;
-        if (roi == null) {
-            roiSize = sceneWidth * sceneHeight;
-        } else {
-            for (int y = 0; y < sceneHeight; y++) {
-                for (int x = 0; x < sceneWidth; x++) {
-                    if (roi.contains(x, y)) {
-                        roiSize++;
-                    }
-                }
-            }
-        }
-
-        if (roiSize < clusterCount) {
+        if (points.getPointCount() < clusterCount) {
             throw new OperatorException("The combination of ROI and valid pixel masks contain " +
-                                        roiSize + " pixel. These are too few to initialize the clustering.");
-        }
-
-        final double[][] points = new double[roiSize][sourceBands.length];
-
-        try {
-            pm.beginTask("Extracting data points...", sourceBands.length * sceneHeight);
-
-            for (int i = 0; i < sourceBands.length; i++) {
-                int index = 0;
-                for (int y = 0; y < sceneHeight; y++) {
-                    checkForCancellation();
-
-                    final Tile sourceTile = getSourceTile(sourceBands[i], new Rectangle(0, y, sceneWidth, 1));
-                    for (int x = 0; x < sceneWidth; x++) {
-                        if (roi == null || roi.contains(x, y)) {
-                            final double sample = sourceTile.getSampleDouble(x, y);
-                            points[index][i] = sample;
-                            index++;
-                        }
-                    }
-
-                    pm.worked(1);
-                }
-            }
-        } finally {
-            pm.done();
+                                        points.getPointCount() + " pixel. These are too few to initialize the clustering.");
         }
 
         return new EMClusterer(points, clusterCount, randomSeed);
@@ -17,12 +17,13 @@ package org.esa.beam.cluster;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Expectation maximization (EM) cluster algorithm.
  * <p/>
- * todo - make algorithm use a point acessor instead of a point array
  * todo - revise API to reduce the number of fields
  *
  * @author Ralf Quast
@@ -30,11 +31,14 @@ import java.util.Random;
  */
 class EMClusterer {
 
+    // the maximum change of the priors and the relative change of the means at convergence
+    static final double CONVERGENCE_TOLERANCE = 1.0e-6;
+
     private final int pointCount;
     private final int dimensionCount;
     private final int clusterCount;
 
-    private final double[][] points;
+    private final FeatureMatrix points;
 
     // prior cluster probabilities
     private final double[] priors;
@@ -48,6 +52,9 @@ class EMClusterer {
     // strategy for calculating posterior cluster probabilities
     private final ProbabilityCalculator calculator;
 
+    // executor for processing the points in parallel, may be null
+    private ExecutorService executor;
+
     /**
      * Creates a probability calculator for a set of clusters.
      *
@@ -89,8 +96,19 @@ class EMClusterer {
      * @param randomSeed   the seed used to initialize the cluster algorithm
      */
     EMClusterer(double[][] points, int clusterCount, int randomSeed) {
-        pointCount = points.length;
-        dimensionCount = points[0].length;
+        this(new FeatureMatrix(points), clusterCount, randomSeed);
+    }
+
+    /**
+     * Constructs a new instance of this class.
+     *
+     * @param points       the data points.
+     * @param clusterCount the number of clusters.
+     * @param randomSeed   the seed used to initialize the cluster algorithm
+     */
+    EMClusterer(FeatureMatrix points, int clusterCount, int randomSeed) {
+        pointCount = points.getPointCount();
+        dimensionCount = points.getDimensionCount();
 
         this.points = points;
         this.clusterCount = clusterCount;
@@ -105,6 +123,15 @@ class EMClusterer {
         initialize(new Random(randomSeed));
     }
 
+    /**
+     * Sets the executor used for processing the points of an iteration in parallel.
+     *
+     * @param executor the executor, may be {@code null}.
+     */
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     /**
      * Finds a collection of clusters.
      *
@@ -113,8 +140,9 @@ class EMClusterer {
      * @return the cluster decomposition.
      */
     private EMCluster[] findClusters(int iterationCount) {
-        while (iterationCount > 0) {
-            iterate();
+        boolean converged = false;
+        while (iterationCount > 0 && !converged) {
+            converged = iterate();
             iterationCount--;
             // todo - logging
         }
@@ -149,7 +177,7 @@ class EMClusterer {
      */
     private void initialize(Random random) {
         for (int k = 0; k < clusterCount; ++k) {
-            System.arraycopy(points[random.nextInt(pointCount)], 0, means[k], 0, dimensionCount);
+            points.getPoint(random.nextInt(pointCount), means[k]);
         }
 
         for (int k = 0; k < clusterCount; ++k) {
@@ -167,13 +195,62 @@ class EMClusterer {
 
     /**
      * Carries out a single EM iteration.
+     * <p/>
+     * The weighted means and covariances of the clusters are computed in a single pass for each
+     * block of points and the block results are merged in block order.
+     *
+     * @return {@code true} if no prior probability and no mean has changed by more than
+     *         {@link #CONVERGENCE_TOLERANCE}, relative to the magnitude of the mean.
      */
-    void iterate() {
-        final double[] sums = new double[clusterCount];
+    boolean iterate() {
+        final List<Moments> partials = points.processBlocks(new FeatureMatrix.BlockProcessor<Moments>() {
+            @Override
+            public Moments process(int firstPoint, int endPoint) {
+                return computeMoments(firstPoint, endPoint);
+            }
+        }, executor);
+
+        final Moments moments = partials.get(0);
+        for (int b = 1; b < partials.size(); ++b) {
+            moments.merge(partials.get(b));
+        }
+
+        boolean converged = true;
+        for (int k = 0; k < clusterCount; ++k) {
+            final double[][] c = moments.covariances[k];
+            for (int l = 0; l < dimensionCount; ++l) {
+                final double mean = moments.means[k][l];
+                if (Math.abs(mean - means[k][l]) > CONVERGENCE_TOLERANCE * Math.max(1.0, Math.abs(mean))) {
+                    converged = false;
+                }
+                means[k][l] = mean;
+                for (int m = l; m < dimensionCount; ++m) {
+                    covariances[k][l][m] = c[l][m] / moments.sums[k];
+                    covariances[k][m][l] = covariances[k][l][m];
+                }
+            }
+
+            final double prior = moments.sums[k] / pointCount;
+            if (Math.abs(prior - priors[k]) > CONVERGENCE_TOLERANCE) {
+                converged = false;
+            }
+            priors[k] = prior;
+            distributions[k] = new MultinormalDistribution(means[k], covariances[k]);
+        }
+        return converged;
+    }
+
+    private Moments computeMoments(int firstPoint, int endPoint) {
+        final Moments moments = new Moments(clusterCount, dimensionCount);
+        final double[] sums = moments.sums;
+        final double[][] means = moments.means;
+        final double[][][] covariances = moments.covariances;
+        final double[] point = new double[dimensionCount];
         final double[] posteriors = new double[clusterCount];
 
-        for (int i = 0; i < pointCount; ++i) {
-            calculator.calculate(points[i], posteriors);
+        for (int i = firstPoint; i < endPoint; ++i) {
+            points.getPoint(i, point);
+            calculator.calculate(point, posteriors);
 
             // ensure non-zero probabilities for all clusters to prevent the
             // covariance matrixes from becoming singular
@@ -188,14 +265,9 @@ class EMClusterer {
 
             // calculate cluster means and covariances in a single pass
             // D. H. D. West (1979, Communications of the ACM, 22, 532)
-            if (i == 0) {
+            if (i == firstPoint) {
                 for (int k = 0; k < clusterCount; ++k) {
-                    for (int l = 0; l < dimensionCount; ++l) {
-                        means[k][l] = points[0][l];
-                        for (int m = l; m < dimensionCount; ++m) {
-                            covariances[k][l][m] = 0.0;
-                        }
-                    }
+                    System.arraycopy(point, 0, means[k], 0, dimensionCount);
                     sums[k] = posteriors[k];
                 }
             } else {
@@ -204,26 +276,58 @@ class EMClusterer {
 
                     for (int l = 0; l < dimensionCount; ++l) {
                         for (int m = l; m < dimensionCount; ++m) {
-                            covariances[k][l][m] += sums[k] * posteriors[k] * (points[i][l] - means[k][l]) * (points[i][m] - means[k][m]) / temp;
+                            covariances[k][l][m] += sums[k] * posteriors[k] * (point[l] - means[k][l]) * (point[m] - means[k][m]) / temp;
                         }
-                        means[k][l] += posteriors[k] * (points[i][l] - means[k][l]) / temp;
+                        means[k][l] += posteriors[k] * (point[l] - means[k][l]) / temp;
                     }
 
                     sums[k] = temp;
                 }
             }
         }
+        return moments;
+    }
 
-        for (int k = 0; k < clusterCount; ++k) {
-            for (int l = 0; l < dimensionCount; ++l) {
-                for (int m = l; m < dimensionCount; ++m) {
-                    covariances[k][l][m] /= sums[k];
-                    covariances[k][m][l] = covariances[k][l][m];
+    /**
+     * The weighted cluster means and unnormalised covariances of a block of points.
+     */
+    private static class Moments {
+
+        private final double[] sums;
+        private final double[][] means;
+        private final double[][][] covariances;
+
+        Moments(int clusterCount, int dimensionCount) {
+            sums = new double[clusterCount];
+            means = new double[clusterCount][dimensionCount];
+            covariances = new double[clusterCount][dimensionCount][dimensionCount];
+        }
+
+        /**
+         * Merges the moments of the following block of points, using the pairwise update of
+         * T. F. Chan, G. H. Golub and R. J. LeVeque (1979).
+         *
+         * @param other the moments of the following block.
+         */
+        void merge(Moments other) {
+            final int dimensionCount = means.length > 0 ? means[0].length : 0;
+            final double[] delta = new double[dimensionCount];
+
+            for (int k = 0; k < sums.length; ++k) {
+                final double total = sums[k] + other.sums[k];
+                final double f = sums[k] * other.sums[k] / total;
+
+                for (int l = 0; l < dimensionCount; ++l) {
+                    delta[l] = other.means[k][l] - means[k][l];
+                }
+                for (int l = 0; l < dimensionCount; ++l) {
+                    for (int m = l; m < dimensionCount; ++m) {
+                        covariances[k][l][m] += other.covariances[k][l][m] + f * delta[l] * delta[m];
+                    }
+                    means[k][l] += delta[l] * other.sums[k] / total;
                 }
+                sums[k] = total;
             }
-
-            priors[k] = sums[k] / pointCount;
-            distributions[k] = new MultinormalDistribution(means[k], covariances[k]);
         }
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.cluster;
+
+import com.bc.ceres.core.ProgressMonitor;
+import com.bc.ceres.core.SubProgressMonitor;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.aggregation.Accumulator;
+import org.esa.beam.framework.gpf.aggregation.TileAggregator;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The feature vectors of all pixels used for a cluster analysis, stored as a compact
+ * row-major {@code float} matrix, so that the iterations of a clustering algorithm
+ * do not need to read the source bands again.
+ * <p/>
+ * The points are processed in blocks of a fixed size. The partial results of the blocks are
+ * returned in block order, so the results of an iteration do not depend on the number of threads.
+ * <p/>
+ * If the pixels within the ROI have more than {@link #MAX_ELEMENT_COUNT} features, every n-th pixel
+ * is used, so that the matrix stays within a fixed amount of memory.
+ *
+ * @since BEAM 4.10.4
+ */
+final class FeatureMatrix {
+
+    static final int BLOCK_SIZE = 16384;
+    static final int MAX_ELEMENT_COUNT = 1 << 26;
+
+    private final int pointCount;
+    private final int dimensionCount;
+    private final float[] data;
+
+    /**
+     * Processes the points of a single block.
+     *
+     * @param <T> the type of the partial result
+     */
+    interface BlockProcessor<T> {
+
+        /**
+         * @param firstPoint the index of the first point of the block
+         * @param endPoint   the index after the last point of the block
+         *
+         * @return the partial result of the block
+         */
+        T process(int firstPoint, int endPoint);
+    }
+
+    FeatureMatrix(int pointCount, int dimensionCount, float[] data) {
+        this.pointCount = pointCount;
+        this.dimensionCount = dimensionCount;
+        this.data = data;
+    }
+
+    FeatureMatrix(double[][] points) {
+        this(points.length, points[0].length, new float[points.length * points[0].length]);
+        for (int i = 0; i < pointCount; i++) {
+            for (int d = 0; d < dimensionCount; d++) {
+                data[i * dimensionCount + d] = (float) points[i][d];
+            }
+        }
+    }
+
+    /**
+     * Extracts the feature vectors of all pixels within the ROI. The pixels within the ROI are counted first,
+     * then the tiles of the source bands are read in parallel and written directly into the matrix.
+     * Each source tile is read only once.
+     *
+     * @param operator    the operator requesting the source tiles
+     * @param sourceBands the bands providing the features
+     * @param roi         the ROI, may be {@code null}
+     * @param pm          a progress monitor
+     *
+     * @return the feature matrix
+     */
+    static FeatureMatrix extract(final Operator operator, final Band[] sourceBands, final Roi roi,
+                                 ProgressMonitor pm) {
+        return extract(operator, sourceBands, roi, MAX_ELEMENT_COUNT, pm);
+    }
+
+    static FeatureMatrix extract(final Operator operator, final Band[] sourceBands, final Roi roi,
+                                 final int maxElementCount, ProgressMonitor pm) {
+        final int dimensionCount = sourceBands.length;
+        pm.beginTask("Extracting data points...", 2);
+        try {
+            // the offset of the first pixel of each tile within all pixels of the ROI, in tile order
+            final TileAggregator<PointCounts> counter = new TileAggregator<PointCounts>(sourceBands[0].getProduct()) {
+                @Override
+                protected PointCounts createAccumulator() {
+                    return new PointCounts();
+                }
+
+                @Override
+                protected void accumulate(PointCounts counts, Rectangle rectangle) {
+                    long count = 0;
+                    for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                            if (roi == null || roi.contains(x, y)) {
+                                count++;
+                            }
+                        }
+                    }
+                    counts.counts.put(getTileKey(rectangle), count);
+                }
+            };
+            final Map<Long, Long> offsets = new TreeMap<Long, Long>();
+            long totalCount = 0;
+            for (Map.Entry<Long, Long> entry : counter.aggregate(SubProgressMonitor.create(pm, 1)).counts.entrySet()) {
+                offsets.put(entry.getKey(), totalCount);
+                totalCount += entry.getValue();
+            }
+
+            // use every step-th pixel if all pixels do not fit
+            final long step = Math.max(1, (totalCount * dimensionCount + maxElementCount - 1) / maxElementCount);
+            final int pointCount = (int) ((totalCount + step - 1) / step);
+            final float[] data = new float[pointCount * dimensionCount];
+
+            // the tiles are written directly into the matrix, the accumulators stay empty
+            final TileAggregator<PointCounts> extractor = new TileAggregator<PointCounts>(sourceBands[0].getProduct()) {
+                @Override
+                protected PointCounts createAccumulator() {
+                    return new PointCounts();
+                }
+
+                @Override
+                protected void accumulate(PointCounts counts, Rectangle rectangle) {
+                    final Tile[] sourceTiles = new Tile[dimensionCount];
+                    for (int i = 0; i < dimensionCount; i++) {
+                        sourceTiles[i] = operator.getSourceTile(sourceBands[i], rectangle);
+                    }
+                    final float[][] rows = new float[dimensionCount][];
+                    long pixelIndex = offsets.get(getTileKey(rectangle));
+                    for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                        for (int i = 0; i < dimensionCount; i++) {
+                            rows[i] = sourceTiles[i].getSamplesRow(y, rows[i]);
+                        }
+                        for (int x = 0; x < rectangle.width; x++) {
+                            if (roi == null || roi.contains(rectangle.x + x, y)) {
+                                if (pixelIndex % step == 0) {
+                                    final int offset = (int) (pixelIndex / step) * dimensionCount;
+                                    for (int i = 0; i < dimensionCount; i++) {
+                                        data[offset + i] = rows[i][x];
+                                    }
+                                }
+                                pixelIndex++;
+                            }
+                        }
+                    }
+                }
+            };
+            extractor.aggregate(SubProgressMonitor.create(pm, 1));
+            return new FeatureMatrix(pointCount, dimensionCount, data);
+        } finally {
+            pm.done();
+        }
+    }
+
+    int getPointCount() {
+        return pointCount;
+    }
+
+    int getDimensionCount() {
+        return dimensionCount;
+    }
+
+    double[] getPoint(int index, double[] point) {
+        final int offset = index * dimensionCount;
+        for (int d = 0; d < dimensionCount; d++) {
+            point[d] = data[offset + d];
+        }
+        return point;
+    }
+
+    /**
+     * Processes all points block by block.
+     *
+     * @param processor the block processor
+     * @param executor  the executor processing the blocks in parallel, may be {@code null}
+     *
+     * @return the partial results in block order
+     */
+    <T> List<T> processBlocks(final BlockProcessor<T> processor, ExecutorService executor) {
+        final int blockCount = (pointCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final List<T> results = new ArrayList<T>(blockCount);
+        if (executor == null || blockCount == 1) {
+            for (int b = 0; b < blockCount; b++) {
+                results.add(processor.process(b * BLOCK_SIZE, Math.min((b + 1) * BLOCK_SIZE, pointCount)));
+            }
+            return results;
+        }
+
+        final List<Future<T>> futures = new ArrayList<Future<T>>(blockCount);
+        for (int b = 0; b < blockCount; b++) {
+            final int firstPoint = b * BLOCK_SIZE;
+            final int endPoint = Math.min(firstPoint + BLOCK_SIZE, pointCount);
+            futures.add(executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return processor.process(firstPoint, endPoint);
+                }
+            }));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            throw new OperatorException(e);
+        } catch (ExecutionException e) {
+            throw new OperatorException(e.getCause());
+        }
+        return results;
+    }
+
+    private static long getTileKey(Rectangle rectangle) {
+        return ((long) rectangle.y << 32) | rectangle.x;
+    }
+
+    /**
+     * The number of pixels within the ROI of each tile, in tile order.
+     */
+    private static class PointCounts implements Accumulator<PointCounts> {
+
+        private final Map<Long, Long> counts = new TreeMap<Long, Long>();
+
+        @Override
+        public void merge(PointCounts other) {
+            counts.putAll(other.counts);
+        }
+    }
+}
@@ -31,12 +31,13 @@ import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
 import org.esa.beam.framework.gpf.annotations.Parameter;
 import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
-import org.esa.beam.jai.ImageManager;
 import org.esa.beam.util.ProductUtils;
-import org.esa.beam.util.math.MathUtils;
 
-import java.awt.Dimension;
+import javax.media.jai.JAI;
 import java.awt.Rectangle;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Operator for k-means cluster analysis.
@@ -74,6 +75,9 @@ public class KMeansClusterOp extends Operator {
                description = "The name of the ROI-Mask that should be used.", defaultValue = "",
                rasterDataNodeType = Mask.class)
     private String roiMaskName;
+    @Parameter(label = "K-means++ initialisation", defaultValue = "false",
+               description = "Chooses the initial cluster centres with the k-means++ seeding instead of randomly.")
+    private boolean useKMeansPlusPlus;
 
     private transient Roi roi;
     private transient Band[] sourceBands;
@@ -171,24 +175,21 @@ public class KMeansClusterOp extends Operator {
 
     private synchronized KMeansClusterSet getClusterSet(ProgressMonitor pm) {
         if (clusterSet == null) {
-            Rectangle[] tileRectangles = getAllTileRectangles();
-            pm.beginTask("Extracting data points...", tileRectangles.length * iterationCount * 2 + 2);
+            pm.beginTask("Extracting data points...", iterationCount + 12);
+            final ExecutorService executor = createExecutor();
             try {
                 roi = new Roi(sourceProduct, sourceBands, roiMaskName);
                 pm.worked(1);
-                final KMeansClusterer clusterer = createClusterer();
+                final FeatureMatrix matrix = FeatureMatrix.extract(this, sourceBands, roi,
+                                                                   SubProgressMonitor.create(pm, 10));
+                final KMeansClusterer clusterer = createClusterer(matrix, executor);
                 pm.worked(1);
 
                 boolean endIteration = false;
                 for (int i = 0; (i < iterationCount && !endIteration); ++i) {
-                    clusterer.startIteration();
-                    for (Rectangle rectangle : tileRectangles) {
-                        checkForCancellation();
-                        PixelIter pixelIterr = createPixelIter(rectangle, SubProgressMonitor.create(pm, 1));
-                        clusterer.iterateTile(pixelIterr);
-                        pm.worked(1);
-                    }
-                    endIteration = clusterer.endIteration();
+                    checkForCancellation();
+                    endIteration = clusterer.iterate(matrix, executor);
+                    pm.worked(1);
                 }
                 clusterSet = clusterer.getClusters();
 
@@ -197,59 +198,30 @@ public class KMeansClusterOp extends Operator {
                 ClusterMetaDataUtils.addCenterToMetadata(
                         clusterAnalysis, sourceBands, clusterSet.getMeans());
             } finally {
+                executor.shutdownNow();
                 pm.done();
             }
         }
         return clusterSet;
     }
 
-    private KMeansClusterer createClusterer() {
+    private KMeansClusterer createClusterer(FeatureMatrix matrix, ExecutorService executor) {
         final KMeansClusterer clusterer = new KMeansClusterer(clusterCount, sourceBands.length);
-        RandomSceneIter randomSceneIter = new RandomSceneIter(this, sourceBands, roi, randomSeed);
-        if (randomSceneIter.getRoiMemberCount() < clusterCount) {
+        if (matrix.getPointCount() < clusterCount) {
             throw new OperatorException("The combination of ROI and valid pixel masks contain " +
-                                        randomSceneIter.getRoiMemberCount() + " pixel. These are too few to initialize the clustering.");
+                                        matrix.getPointCount() + " pixel. These are too few to initialize the clustering.");
         }
-        clusterer.initialize(randomSceneIter);
-        return clusterer;
-    }
-
-    private Rectangle[] getAllTileRectangles() {
-        Dimension tileSize = ImageManager.getPreferredTileSize(sourceProduct);
-        final int rasterHeight = sourceProduct.getSceneRasterHeight();
-        final int rasterWidth = sourceProduct.getSceneRasterWidth();
-        final Rectangle boundary = new Rectangle(rasterWidth, rasterHeight);
-        final int tileCountX = MathUtils.ceilInt(boundary.width / (double) tileSize.width);
-        final int tileCountY = MathUtils.ceilInt(boundary.height / (double) tileSize.height);
-
-        Rectangle[] rectangles = new Rectangle[tileCountX * tileCountY];
-        int index = 0;
-        for (int tileY = 0; tileY < tileCountY; tileY++) {
-            for (int tileX = 0; tileX < tileCountX; tileX++) {
-                final Rectangle tileRectangle = new Rectangle(tileX * tileSize.width,
-                                                              tileY * tileSize.height,
-                                                              tileSize.width,
-                                                              tileSize.height);
-                final Rectangle intersection = boundary.intersection(tileRectangle);
-                rectangles[index] = intersection;
-                index++;
-            }
+        if (useKMeansPlusPlus) {
+            clusterer.initialize(matrix, new Random(randomSeed), executor);
+        } else {
+            clusterer.initialize(new RandomSceneIter(this, sourceBands, roi, randomSeed));
         }
-        return rectangles;
+        return clusterer;
     }
 
-    private PixelIter createPixelIter(Rectangle rectangle, ProgressMonitor pm) {
-        final Tile[] sourceTiles = new Tile[sourceBands.length];
-        try {
-            pm.beginTask("Extracting data points...", sourceBands.length);
-            for (int i = 0; i < sourceBands.length; i++) {
-                sourceTiles[i] = getSourceTile(sourceBands[i], rectangle);
-                pm.worked(1);
-            }
-        } finally {
-            pm.done();
-        }
-        return new PixelIter(sourceTiles, roi);
+    private static ExecutorService createExecutor() {
+        final int parallelism = Math.max(1, JAI.getDefaultInstance().getTileScheduler().getParallelism());
+        return Executors.newFixedThreadPool(parallelism);
     }
 
     public static class Spi extends OperatorSpi {
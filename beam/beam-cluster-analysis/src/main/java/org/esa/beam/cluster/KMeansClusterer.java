@@ -17,6 +17,9 @@ package org.esa.beam.cluster;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 /**
  * K-means clustering algorithm.
@@ -61,25 +64,103 @@ class KMeansClusterer {
         }
     }
     
-    void startIteration() {
-        sums = new double[clusterCount][dimensionCount];
-        Arrays.fill(memberCounts, 0);
+    /**
+     * Initializes the clusters with the k-means++ seeding: the first cluster mean is a random point,
+     * each further mean is a point chosen with a probability proportional to its squared distance
+     * from the nearest mean chosen so far.
+     *
+     * @param matrix   the points.
+     * @param random   the random number generator.
+     * @param executor the executor used for computing the distances, may be {@code null}.
+     */
+    void initialize(final FeatureMatrix matrix, Random random, ExecutorService executor) {
+        final int pointCount = matrix.getPointCount();
+        final double[] minDistances = new double[pointCount];
+        Arrays.fill(minDistances, Double.MAX_VALUE);
+
+        means[0] = matrix.getPoint(random.nextInt(pointCount), new double[dimensionCount]);
+        for (int c = 1; c < clusterCount; ++c) {
+            final double[] lastMean = means[c - 1];
+            final List<Double> blockSums = matrix.processBlocks(new FeatureMatrix.BlockProcessor<Double>() {
+                @Override
+                public Double process(int firstPoint, int endPoint) {
+                    final double[] point = new double[dimensionCount];
+                    double sum = 0.0;
+                    for (int i = firstPoint; i < endPoint; ++i) {
+                        final double distance = squaredDistance(lastMean, matrix.getPoint(i, point));
+                        if (distance < minDistances[i]) {
+                            minDistances[i] = distance;
+                        }
+                        sum += minDistances[i];
+                    }
+                    return sum;
+                }
+            }, executor);
+
+            double sum = 0.0;
+            for (Double blockSum : blockSums) {
+                sum += blockSum;
+            }
+            // all remaining points coincide with a mean, choose any point
+            int chosen = random.nextInt(pointCount);
+            if (sum > 0.0) {
+                final double threshold = random.nextDouble() * sum;
+                double cumulative = 0.0;
+                for (int i = 0; i < pointCount; ++i) {
+                    cumulative += minDistances[i];
+                    if (cumulative >= threshold && minDistances[i] > 0.0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            }
+            means[c] = matrix.getPoint(chosen, new double[dimensionCount]);
+        }
     }
-    
-    void iterateTile(PixelIter iter) {
-        final double[] point = new double[dimensionCount];
 
-        while (iter.next(point) != null) {
-            final int closestCluster = getClosestCluster(means, point);
-            final double[] sumsOfClosestCluster = sums[closestCluster];
-            for (int d = 0; d < dimensionCount; ++d) {
-                sumsOfClosestCluster[d] += point[d];
+    /**
+     * Carries out a single k-means iteration, assigning the points to the closest cluster
+     * and updating the cluster means.
+     *
+     * @param matrix   the points.
+     * @param executor the executor used for processing the points in parallel, may be {@code null}.
+     *
+     * @return {@code true} if the cluster means did not change.
+     */
+    boolean iterate(final FeatureMatrix matrix, ExecutorService executor) {
+        final List<PartialSums> partials = matrix.processBlocks(new FeatureMatrix.BlockProcessor<PartialSums>() {
+            @Override
+            public PartialSums process(int firstPoint, int endPoint) {
+                final PartialSums partial = new PartialSums(clusterCount, dimensionCount);
+                final double[] point = new double[dimensionCount];
+                for (int i = firstPoint; i < endPoint; ++i) {
+                    matrix.getPoint(i, point);
+                    final int closestCluster = getClosestCluster(means, point);
+                    final double[] sumsOfClosestCluster = partial.sums[closestCluster];
+                    for (int d = 0; d < dimensionCount; ++d) {
+                        sumsOfClosestCluster[d] += point[d];
+                    }
+                    partial.memberCounts[closestCluster]++;
+                }
+                return partial;
+            }
+        }, executor);
+
+        sums = new double[clusterCount][dimensionCount];
+        Arrays.fill(memberCounts, 0);
+        for (PartialSums partial : partials) {
+            for (int c = 0; c < clusterCount; ++c) {
+                for (int d = 0; d < dimensionCount; ++d) {
+                    sums[c][d] += partial.sums[c][d];
+                }
+                memberCounts[c] += partial.memberCounts[c];
             }
-            memberCounts[closestCluster]++;
         }
+        return endIteration();
     }
+
     
-    boolean endIteration() {
+    private boolean endIteration() {
         double diff = 0;
         for (int c = 0; c < clusterCount; ++c) {
             final double[] sumsOfC = sums[c];
@@ -140,6 +221,19 @@ class KMeansClusterer {
         return distance;
     }
     
+    /**
+     * The sums and member counts of the clusters for a block of points.
+     */
+    private static class PartialSums {
+        private final double[][] sums;
+        private final int[] memberCounts;
+
+        PartialSums(int clusterCount, int dimensionCount) {
+            sums = new double[clusterCount][dimensionCount];
+            memberCounts = new int[clusterCount];
+        }
+    }
+
     /**
      * Cluster comparator.
      * <p/>
@@ -31,17 +31,19 @@ public class EMClustererTest extends TestCase {
     private static final double A = 1.0;
     private static final double B = 2.0;
 
+    private static final double[] VALUES = {
+            A, B, A, B, A, B, A, B,
+            B, A, B, A, B, A, B, A,
+            A, B, A, B, A, B, A, B,
+            B, A, B, A, B, A, B, A,
+            A, B, A, B, A, B, A, B,
+            B, A, B, A, B, A, B, A,
+            A, B, A, B, A, B, A, B,
+            B, A, B, A, B, A, B, A,
+    };
+
     public void testFindClusters() {
-        final double[][] points = createRandomPoints(new double[]{
-                A, B, A, B, A, B, A, B,
-                B, A, B, A, B, A, B, A,
-                A, B, A, B, A, B, A, B,
-                B, A, B, A, B, A, B, A,
-                A, B, A, B, A, B, A, B,
-                B, A, B, A, B, A, B, A,
-                A, B, A, B, A, B, A, B,
-                B, A, B, A, B, A, B, A,
-        });
+        final double[][] points = createRandomPoints(VALUES);
 
         final EMCluster[] clusters = EMClusterer.findClusters(points, 2, 100, 5489);
         assertEquals(2, clusters.length);
@@ -57,6 +59,20 @@ public class EMClustererTest extends TestCase {
         assertEquals(B, clusters[1].getMean(0), 0.1);
     }
 
+    public void testIterateUntilConverged() {
+        final EMClusterer clusterer = new EMClusterer(createRandomPoints(VALUES), 2, 5489);
+
+        int iterationCount = 0;
+        boolean converged = false;
+        while (!converged && iterationCount < 1000) {
+            converged = clusterer.iterate();
+            ++iterationCount;
+        }
+        assertTrue(converged);
+        assertTrue(iterationCount > 1);
+        assertTrue(clusterer.iterate());
+    }
+
     private static double[][] createRandomPoints(double[] doubles) {
         final double[][] points = new double[doubles.length][1];
 
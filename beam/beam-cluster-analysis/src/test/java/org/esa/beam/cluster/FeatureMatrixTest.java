@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.cluster;
+
+import com.bc.ceres.core.ProgressMonitor;
+import junit.framework.TestCase;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for class {@link FeatureMatrix}.
+ */
+public class FeatureMatrixTest extends TestCase {
+
+    private static final int W = 100;
+    private static final int H = 60;
+
+    private Band[] bands;
+    private Operator operator;
+
+    @Override
+    protected void setUp() throws Exception {
+        final Product product = new Product("p", "t", W, H);
+        product.setPreferredTileSize(32, 32);
+        bands = new Band[]{addBand(product, "x", 0), addBand(product, "y", 1)};
+
+        operator = new Operator() {
+            @Override
+            public void initialize() throws OperatorException {
+                setTargetProduct(new Product("t", "t", W, H));
+            }
+        };
+        operator.setSourceProduct(product);
+        operator.getTargetProduct();
+    }
+
+    public void testExtractAllPixels() {
+        final FeatureMatrix matrix = FeatureMatrix.extract(operator, bands, null, ProgressMonitor.NULL);
+        assertEquals(W * H, matrix.getPointCount());
+        assertEquals(2, matrix.getDimensionCount());
+        assertEquals(W * H, getDistinctPixels(matrix).size());
+    }
+
+    public void testExtractEveryNthPixelAboveMaxElementCount() {
+        final FeatureMatrix matrix = FeatureMatrix.extract(operator, bands, null, 2 * W * H / 3, ProgressMonitor.NULL);
+        assertEquals(W * H / 3, matrix.getPointCount());
+        assertEquals(W * H / 3, getDistinctPixels(matrix).size());
+    }
+
+    private static Set<Integer> getDistinctPixels(FeatureMatrix matrix) {
+        final Set<Integer> pixels = new HashSet<Integer>();
+        final double[] point = new double[matrix.getDimensionCount()];
+        for (int i = 0; i < matrix.getPointCount(); i++) {
+            matrix.getPoint(i, point);
+            pixels.add((int) point[1] * W + (int) point[0]);
+        }
+        return pixels;
+    }
+
+    private static Band addBand(Product product, String name, int axis) {
+        final Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        final ProductData data = band.createCompatibleRasterData();
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                data.setElemFloatAt(y * W + x, axis == 0 ? x : y);
+            }
+        }
+        band.setRasterData(data);
+        return band;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.cluster;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests for class {@link KMeansClusterer}.
+ */
+public class KMeansClustererTest extends TestCase {
+
+    public void testFindClustersInParallel() {
+        final Random random = new Random(5489);
+        final int pointCount = 3 * FeatureMatrix.BLOCK_SIZE + 17;
+        final double[][] points = new double[pointCount][2];
+        for (int i = 0; i < pointCount; i++) {
+            final double centre = (i % 2 == 0) ? 1.0 : 5.0;
+            points[i][0] = centre + 0.1 * random.nextGaussian();
+            points[i][1] = -centre + 0.1 * random.nextGaussian();
+        }
+        final FeatureMatrix matrix = new FeatureMatrix(points);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final KMeansClusterer clusterer = new KMeansClusterer(2, 2);
+            clusterer.initialize(matrix, new Random(31415), executor);
+            boolean converged = false;
+            for (int i = 0; i < 30 && !converged; i++) {
+                converged = clusterer.iterate(matrix, executor);
+            }
+            assertTrue(converged);
+
+            final KMeansClusterSet clusterSet = clusterer.getClusters();
+            final double[][] means = clusterSet.getMeans();
+            final double x0 = Math.min(means[0][0], means[1][0]);
+            final double x1 = Math.max(means[0][0], means[1][0]);
+            assertEquals(1.0, x0, 0.01);
+            assertEquals(5.0, x1, 0.01);
+            assertEquals(clusterSet.getMembership(points[0]), clusterSet.getMembership(new double[]{1.0, -1.0}));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
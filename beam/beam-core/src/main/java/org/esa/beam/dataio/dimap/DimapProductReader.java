@@ -146,15 +146,20 @@ public class DimapProductReader extends AbstractProductReader {
 
         bindBandsToFiles(dom);
         if (existingProduct == null) {
-            readVectorData(ImageManager.DEFAULT_IMAGE_CRS, true);
+            if (isMetadataOnly()) {
+                // vector data, pins and masks are not needed to inspect the metadata
+                initGeoCodings(dom);
+            } else {
+                readVectorData(ImageManager.DEFAULT_IMAGE_CRS, true);
 
-            // read GCPs and pins from DOM (old-style)
-            DimapProductHelpers.addGcps(dom, this.product);
-            DimapProductHelpers.addPins(dom, this.product);
+                // read GCPs and pins from DOM (old-style)
+                DimapProductHelpers.addGcps(dom, this.product);
+                DimapProductHelpers.addPins(dom, this.product);
 
-            initGeoCodings(dom);
-            readVectorData(ImageManager.getModelCrs(product.getGeoCoding()), false);
-            DimapProductHelpers.addMaskUsages(dom, this.product);
+                initGeoCodings(dom);
+                readVectorData(ImageManager.getModelCrs(product.getGeoCoding()), false);
+                DimapProductHelpers.addMaskUsages(dom, this.product);
+            }
         }
         //ProductFunctions.discardUnusedMetadata(this.product);
         this.product.setProductReader(this);
@@ -402,6 +402,15 @@ public class DimapProductWriter extends AbstractProductWriter {
         }
     }
 
+    /**
+     * The band images in the DIMAP data directory are written with random access, one file per band,
+     * so the regions of the bands may arrive in any order.
+     */
+    @Override
+    public boolean isBandSequential() {
+        return false;
+    }
+
     @Override
     public boolean shouldWrite(ProductNode node) {
         if (node instanceof VirtualBand) {
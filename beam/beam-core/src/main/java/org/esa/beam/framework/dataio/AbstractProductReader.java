@@ -111,6 +111,15 @@ public abstract class AbstractProductReader implements ProductReader {
         return ignoreMetadata;
     }
 
+    /**
+     * Checks if this reader is only asked to read the metadata of a product.
+     *
+     * @return <code>true</code> if so
+     */
+    public boolean isMetadataOnly() {
+        return subsetDef != null && subsetDef.isMetadataOnly();
+    }
+
     /**
      * Returns the subset information with which this data product is read from its physical source.
      *
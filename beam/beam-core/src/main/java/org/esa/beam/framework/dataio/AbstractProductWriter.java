@@ -157,6 +157,17 @@ public abstract class AbstractProductWriter implements ProductWriter {
         return true;
     }
 
+    /**
+     * Returns whether the band data must be written band after band. Writers able to write the regions
+     * of different bands in any order should return <code>false</code>, so that the tiles of all bands
+     * can be computed concurrently while writing.
+     *
+     * @return <code>true</code> if the bands must be written one after another
+     */
+    public boolean isBandSequential() {
+        return true;
+    }
+
     /**
      * Enables resp. disables incremental writing of this product writer. By default, a reader should enable progress
      * listening.
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.framework.dataio;
+
+/**
+ * Can be implemented by a {@link ProductReaderPlugIn} which recognises its files by their first bytes,
+ * e.g. by a magic number. When looking for the reader of a file, the header of the file is read once and
+ * {@link ProductReaderPlugIn#getDecodeQualification(Object)} is not called for plug-ins rejecting it.
+ *
+ * @since BEAM 4.10.4
+ */
+public interface FileHeaderCheck {
+
+    /**
+     * The maximum number of bytes passed to {@link #isHeaderAccepted(byte[])}.
+     */
+    int HEADER_LENGTH = 4096;
+
+    /**
+     * Tests whether a file starting with the given bytes may be decoded. Implementations must only
+     * return {@code false} if the decode qualification of the file would be {@link DecodeQualification#UNABLE}.
+     *
+     * @param header the first bytes of the file, fewer than {@link #HEADER_LENGTH} if the file is shorter
+     * @return {@code false} if the plug-in is unable to decode the file
+     */
+    boolean isHeaderAccepted(byte[] header);
+}
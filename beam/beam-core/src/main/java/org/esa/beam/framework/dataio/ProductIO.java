@@ -20,14 +20,31 @@ import com.bc.ceres.core.SubProgressMonitor;
 import org.esa.beam.dataio.dimap.DimapProductConstants;
 import org.esa.beam.framework.datamodel.Band;
 import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
 import org.esa.beam.util.Guardian;
 import org.esa.nest.util.ProductFunctions;
 
+import javax.media.jai.JAI;
+import javax.media.jai.PlanarImage;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The <code>ProductIO</code> class provides several utility methods concerning data I/O for remote sensing data
@@ -144,30 +161,58 @@ public class ProductIO {
             throw new FileNotFoundException("File not found: " + file.getPath());
         }
 
+        final ProductReader productReader = getProductReaderForFile(file, formatNames);
+        if (productReader != null) {
+            return productReader.readProductNodes(file, null);
+        }
+        return null;
+    }
+
+    /**
+     * Reads only the header and metadata of the data product specified by the given file.
+     * <p>The product is read with a {@link ProductSubsetDef#isMetadataOnly() metadata only} subset so that
+     * readers supporting it can skip setting up band image streams, masks and vector data. Readers not
+     * supporting it read the product nodes as usual. The product is neither taken from nor added to the
+     * product cache and this method may be called concurrently.</p>
+     * <p>The returned product is meant for inspecting metadata and geocoding and should be disposed
+     * by the caller.</p>
+     *
+     * @param file the data product file
+     * @return a data model of the given product file or <code>null</code> if no
+     *         appropriate reader was found for the given product file
+     * @throws IOException if an I/O error occurs
+     */
+    public static Product readProductMetadata(File file) throws IOException {
+        Guardian.assertNotNull("file", file);
+        if (!file.exists()) {
+            throw new FileNotFoundException("File not found: " + file.getPath());
+        }
+
+        ProductReader productReader = getProductReaderForFile(file, ProductFunctions.getCommonFormatNames(file));
+        if (productReader == null) {
+            productReader = getProductReaderForFile(file);
+        }
+        if (productReader == null) {
+            return null;
+        }
+        final ProductSubsetDef subsetDef = new ProductSubsetDef();
+        subsetDef.setMetadataOnly(true);
+        return productReader.readProductNodes(file, subsetDef);
+    }
+
+    private static ProductReader getProductReaderForFile(File file, String... formatNames) {
         final ProductIOPlugInManager registry = ProductIOPlugInManager.getInstance();
 
         for (String formatName : formatNames) {
-            final Iterator<ProductReaderPlugIn> it = registry.getReaderPlugIns(formatName);
-
-            ProductReaderPlugIn selectedPlugIn = null;
-            while (it.hasNext()) {
-                ProductReaderPlugIn plugIn = it.next();
-                DecodeQualification decodeQualification = plugIn.getDecodeQualification(file);
-                if (decodeQualification == DecodeQualification.INTENDED) {
-                    selectedPlugIn = plugIn;
-                    break;
-                } else if (decodeQualification == DecodeQualification.SUITABLE) {
-                    selectedPlugIn = plugIn;
-                }
-            }
+            final ProductReaderPlugIn selectedPlugIn = ProductReaderDetector.findReaderPlugIn(
+                    file, formatName, registry.getReaderPlugIns(formatName));
             if (selectedPlugIn != null) {
-                ProductReader productReader = selectedPlugIn.createReaderInstance();
+                final ProductReader productReader = selectedPlugIn.createReaderInstance();
                 if (productReader != null) {
-                    return productReader.readProductNodes(file, null);
+                    return productReader;
                 }
             }
         }
-
         return null;
     }
 
@@ -244,18 +289,8 @@ public class ProductIO {
      */
     public static ProductReader getProductReaderForFile(File file) {
         ProductIOPlugInManager registry = ProductIOPlugInManager.getInstance();
-        Iterator<ProductReaderPlugIn> it = registry.getAllReaderPlugIns();
-        ProductReaderPlugIn selectedPlugIn = null;
-        while (it.hasNext()) {
-            ProductReaderPlugIn plugIn = it.next();
-            DecodeQualification decodeQualification = plugIn.getDecodeQualification(file);
-            if (decodeQualification == DecodeQualification.INTENDED) {
-                selectedPlugIn = plugIn;
-                break;
-            } else if (decodeQualification == DecodeQualification.SUITABLE) {
-                selectedPlugIn = plugIn;
-            }
-        }
+        ProductReaderPlugIn selectedPlugIn = ProductReaderDetector.findReaderPlugIn(
+                file, null, registry.getAllReaderPlugIns());
         if (selectedPlugIn != null) {
             return selectedPlugIn.createReaderInstance();
         }
@@ -387,8 +422,8 @@ public class ProductIO {
 
     /*
      * This implementation helper methods writes all bands of the given product using the specified product writer. If a
-     * band is entirely loaded its data is written out immediately, if not, a band's data raster is written out
-     * line-by-line without producing any memory overhead.
+     * band is entirely loaded its data is written out immediately, if not, the tiles of the band's source image are
+     * computed concurrently and written out in order, keeping only a limited number of tiles in memory.
      */
     private static void writeAllBands(Product product, ProgressMonitor pm) throws IOException {
         ProductWriter productWriter = product.getProductWriter();
@@ -404,20 +439,192 @@ public class ProductIO {
         }
 
         if (!bandsToWrite.isEmpty()) {
-            pm.beginTask("Writing bands of product '" + product.getName() + "'...", bandsToWrite.size());
+            final ArrayList<Band> bandsToCompute = new ArrayList<Band>();
+            for (Band band : bandsToWrite) {
+                if (!band.hasRasterData()) {
+                    bandsToCompute.add(band);
+                }
+            }
+            final boolean bandSequential = !(productWriter instanceof AbstractProductWriter) ||
+                                           ((AbstractProductWriter) productWriter).isBandSequential();
+            final List<TileToWrite> tiles = getTilesToWrite(bandsToCompute, bandSequential);
+
+            pm.beginTask("Writing bands of product '" + product.getName() + "'...",
+                         bandsToWrite.size() - bandsToCompute.size() + tiles.size());
             try {
-                for (Band band : bandsToWrite) {
-                    if (pm.isCanceled()) {
-                        break;
+                if (bandSequential) {
+                    // keep the band order, the tiles of each band are still computed concurrently
+                    int tileIndex = 0;
+                    for (Band band : bandsToWrite) {
+                        if (pm.isCanceled()) {
+                            break;
+                        }
+                        if (band.hasRasterData()) {
+                            band.writeRasterDataFully(SubProgressMonitor.create(pm, 1));
+                        } else {
+                            final int firstTile = tileIndex;
+                            while (tileIndex < tiles.size() && tiles.get(tileIndex).band == band) {
+                                tileIndex++;
+                            }
+                            writeTiles(productWriter, tiles.subList(firstTile, tileIndex), pm);
+                        }
                     }
-                    band.writeRasterDataFully(SubProgressMonitor.create(pm, 1));
+                } else {
+                    for (Band band : bandsToWrite) {
+                        if (pm.isCanceled()) {
+                            break;
+                        }
+                        if (band.hasRasterData()) {
+                            band.writeRasterDataFully(SubProgressMonitor.create(pm, 1));
+                        }
+                    }
+                    writeTiles(productWriter, tiles, pm);
                 }
             } finally {
+                for (Band band : bandsToCompute) {
+                    if (band.isSourceImageSet()) {
+                        band.getSourceImage().reset();
+                    }
+                }
                 pm.done();
             }
         }
     }
 
+    private static List<TileToWrite> getTilesToWrite(List<Band> bands, boolean bandSequential) {
+        final List<Rectangle[]> bandTiles = new ArrayList<Rectangle[]>(bands.size());
+        int maxNumTiles = 0;
+        for (Band band : bands) {
+            final PlanarImage sourceImage = band.getSourceImage();
+            final Point[] tileIndices = sourceImage.getTileIndices(
+                    new Rectangle(0, 0, sourceImage.getWidth(), sourceImage.getHeight()));
+            final List<Rectangle> rects = new ArrayList<Rectangle>(tileIndices.length);
+            for (Point tileIndex : tileIndices) {
+                final Rectangle rect = sourceImage.getTileRect(tileIndex.x, tileIndex.y);
+                if (!rect.isEmpty()) {
+                    rects.add(rect);
+                }
+            }
+            bandTiles.add(rects.toArray(new Rectangle[rects.size()]));
+            maxNumTiles = Math.max(maxNumTiles, rects.size());
+        }
+
+        final List<TileToWrite> tiles = new ArrayList<TileToWrite>();
+        if (bandSequential) {
+            for (int b = 0; b < bands.size(); b++) {
+                for (Rectangle rect : bandTiles.get(b)) {
+                    tiles.add(new TileToWrite(bands.get(b), rect));
+                }
+            }
+        } else {
+            // interleave the bands so that all bands of a tile are computed together
+            for (int i = 0; i < maxNumTiles; i++) {
+                for (int b = 0; b < bands.size(); b++) {
+                    final Rectangle[] rects = bandTiles.get(b);
+                    if (i < rects.length) {
+                        tiles.add(new TileToWrite(bands.get(b), rects[i]));
+                    }
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /*
+     * Computes the tiles on the shared worker pool and writes them in the given order from the calling thread.
+     * At most two tiles per worker are computed ahead of the writer.
+     */
+    private static void writeTiles(ProductWriter productWriter, List<TileToWrite> tiles,
+                                   ProgressMonitor pm) throws IOException {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        final int maxPending = 2 * Math.min(TileExecutorHolder.NUM_THREADS, tiles.size());
+        final ExecutorService executor = TileExecutorHolder.INSTANCE;
+        final LinkedList<Future<ProductData>> pending = new LinkedList<Future<ProductData>>();
+        try {
+            int next = 0;
+            for (TileToWrite tile : tiles) {
+                while (next < tiles.size() && pending.size() < maxPending) {
+                    pending.add(executor.submit(tiles.get(next++)));
+                }
+                if (pm.isCanceled()) {
+                    break;
+                }
+                final ProductData rasterData = getTileData(pending.removeFirst());
+                final Rectangle rect = tile.rect;
+                productWriter.writeBandRasterData(tile.band, rect.x, rect.y, rect.width, rect.height,
+                                                  rasterData, ProgressMonitor.NULL);
+                pm.worked(1);
+            }
+        } finally {
+            // after cancellation or an error
+            for (Future<ProductData> future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /*
+     * The worker pool computing the tiles of all products being written. It has as many threads as the
+     * JAI tile scheduler, which computes the tiles of the source images. Idle threads are released.
+     */
+    private static class TileExecutorHolder {
+
+        private static final int NUM_THREADS =
+                Math.max(1, JAI.getDefaultInstance().getTileScheduler().getParallelism());
+        private static final ExecutorService INSTANCE = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    NUM_THREADS, NUM_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "ProductIO-tile-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static ProductData getTileData(Future<ProductData> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new IOException("Writing interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static final class TileToWrite implements Callable<ProductData> {
+
+        private final Band band;
+        private final Rectangle rect;
+
+        private TileToWrite(Band band, Rectangle rect) {
+            this.band = band;
+            this.rect = rect;
+        }
+
+        @Override
+        public ProductData call() {
+            final Raster data = band.getSourceImage().getData(rect);
+            final ProductData rasterData = band.createCompatibleRasterData(rect.width, rect.height);
+            data.getDataElements(rect.x, rect.y, rect.width, rect.height, rasterData.getElems());
+            return rasterData;
+        }
+    }
+
     /**
      * Constructor. Private, in order to prevent instantiation.
      */
@@ -15,10 +15,10 @@
  */
 package org.esa.beam.framework.dataio;
 
+import com.bc.ceres.core.ServiceKeyIndex;
 import com.bc.ceres.core.ServiceRegistry;
 import com.bc.ceres.core.ServiceRegistryManager;
 import org.esa.beam.BeamCoreActivator;
-import org.esa.beam.util.Debug;
 import org.esa.beam.util.Guardian;
 import org.esa.beam.util.StringUtils;
 
@@ -36,6 +36,8 @@ public class ProductIOPlugInManager {
 
     private final ServiceRegistry<ProductReaderPlugIn> readerPlugIns;
     private final ServiceRegistry<ProductWriterPlugIn> writerPlugIns;
+    private final ServiceKeyIndex<ProductReaderPlugIn> readerFormatIndex;
+    private final ServiceKeyIndex<ProductWriterPlugIn> writerFormatIndex;
 
     /**
      * Gets this's managers singleton instance.
@@ -64,7 +66,7 @@ public class ProductIOPlugInManager {
      */
     public Iterator<ProductReaderPlugIn> getReaderPlugIns(String formatName) {
         Guardian.assertNotNull("formatName", formatName);
-        return getProductIOPlugIns(readerPlugIns.getServices(), formatName);
+        return readerFormatIndex.getServices(formatName.toLowerCase(Locale.ENGLISH)).iterator();
     }
 
     /**
@@ -109,7 +111,7 @@ public class ProductIOPlugInManager {
      */
     public Iterator<ProductWriterPlugIn> getWriterPlugIns(String formatName) {
         Guardian.assertNotNull("formatName", formatName);
-        return getProductIOPlugIns(writerPlugIns.getServices(), formatName);
+        return writerFormatIndex.getServices(formatName.toLowerCase(Locale.ENGLISH)).iterator();
     }
 
 
@@ -169,20 +171,22 @@ public class ProductIOPlugInManager {
     /////// END OF PUBLIC
     ///////////////////////////////////////////////////////////////////////////
 
-    private static <T extends ProductIOPlugIn> Iterator<T> getProductIOPlugIns(Set<T> ioPlugIns, String formatName) {
-        Debug.assertNotNull(ioPlugIns);
-        Debug.assertNotNull(formatName);
-
-        List<T> validPlugins = new ArrayList<T>();
-        for (T plugIn : ioPlugIns) {
-            String[] formatNames = plugIn.getFormatNames();
-            for (String otherFormatName : formatNames) {
-                if (otherFormatName.equalsIgnoreCase(formatName)) {
-                    validPlugins.add(plugIn);
+    /**
+     * Creates an index of the plug-ins of a registry by their lower-case format names. Declared plug-ins are
+     * only created when one of their format names, as cached from an earlier run, is looked up.
+     */
+    private static <T extends ProductIOPlugIn> ServiceKeyIndex<T> createFormatIndex(ServiceRegistry<T> registry) {
+        return new ServiceKeyIndex<T>(registry, new ServiceKeyIndex.KeyProvider<T>() {
+            @Override
+            public String[] getKeys(T plugIn) {
+                final String[] formatNames = plugIn.getFormatNames();
+                final String[] keys = new String[formatNames.length];
+                for (int i = 0; i < formatNames.length; i++) {
+                    keys[i] = formatNames[i].toLowerCase(Locale.ENGLISH);
                 }
+                return keys;
             }
-        }
-        return validPlugins.iterator();
+        }, ServiceRegistryManager.getInstance().getServiceKeyCache());
     }
 
     /**
@@ -192,6 +196,8 @@ public class ProductIOPlugInManager {
         ServiceRegistryManager serviceRegistryManager = ServiceRegistryManager.getInstance();
         readerPlugIns = serviceRegistryManager.getServiceRegistry(ProductReaderPlugIn.class);
         writerPlugIns = serviceRegistryManager.getServiceRegistry(ProductWriterPlugIn.class);
+        readerFormatIndex = createFormatIndex(readerPlugIns);
+        writerFormatIndex = createFormatIndex(writerPlugIns);
 
         if (!BeamCoreActivator.isStarted()) {
             BeamCoreActivator.loadServices(readerPlugIns);
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.framework.dataio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the reader plug-in able to decode a product file.
+ * <p/>
+ * Plug-ins implementing {@link FileHeaderCheck} are skipped without asking them for their decode
+ * qualification if they reject the header of the file, which is read only once.
+ * A found plug-in is remembered per file path, modification time and size, so that
+ * opening the same file again does not ask the plug-ins at all. Files for which no plug-in has been
+ * found are not remembered, since a plug-in able to decode them may be installed later.
+ *
+ * @since BEAM 4.10.4
+ */
+final class ProductReaderDetector {
+
+    private static final int MAX_CACHE_SIZE = 2000;
+
+    private static final Map<String, Detection> cache = new LinkedHashMap<String, Detection>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Detection> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    private ProductReaderDetector() {
+    }
+
+    /**
+     * Finds the plug-in best suited to decode the given file. The first intended plug-in is selected,
+     * or the last suitable one if no plug-in is intended.
+     *
+     * @param file       the product file
+     * @param formatName the format the plug-ins are restricted to or <code>null</code> for all plug-ins
+     * @param plugIns    the plug-ins to ask
+     * @return the plug-in or <code>null</code> if no plug-in can decode the file
+     */
+    static ProductReaderPlugIn findReaderPlugIn(File file, String formatName, Iterator<ProductReaderPlugIn> plugIns) {
+        final List<ProductReaderPlugIn> plugInList = new ArrayList<ProductReaderPlugIn>();
+        while (plugIns.hasNext()) {
+            plugInList.add(plugIns.next());
+        }
+
+        final String key = formatName == null ? file.getAbsolutePath() : formatName + '|' + file.getAbsolutePath();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        synchronized (cache) {
+            final Detection detection = cache.get(key);
+            if (detection != null && detection.lastModified == lastModified && detection.length == length &&
+                detection.numPlugIns == plugInList.size() && plugInList.contains(detection.plugIn)) {
+                return detection.plugIn;
+            }
+        }
+
+        byte[] header = null;
+        boolean headerRead = false;
+        ProductReaderPlugIn selectedPlugIn = null;
+        for (ProductReaderPlugIn plugIn : plugInList) {
+            if (plugIn instanceof FileHeaderCheck) {
+                if (!headerRead) {
+                    header = readHeader(file);
+                    headerRead = true;
+                }
+                if (header != null && !((FileHeaderCheck) plugIn).isHeaderAccepted(header)) {
+                    continue;
+                }
+            }
+            final DecodeQualification decodeQualification = plugIn.getDecodeQualification(file);
+            if (decodeQualification == DecodeQualification.INTENDED) {
+                selectedPlugIn = plugIn;
+                break;
+            } else if (decodeQualification == DecodeQualification.SUITABLE) {
+                selectedPlugIn = plugIn;
+            }
+        }
+
+        if (selectedPlugIn != null) {
+            synchronized (cache) {
+                cache.put(key, new Detection(selectedPlugIn, lastModified, length, plugInList.size()));
+            }
+        }
+        return selectedPlugIn;
+    }
+
+    /**
+     * Forgets all detected plug-ins.
+     */
+    static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return the first bytes of the file or <code>null</code> if it is not a readable file,
+     *         e.g. a directory, in which case the header checks are not applied
+     */
+    private static byte[] readHeader(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final InputStream stream = new FileInputStream(file);
+            try {
+                final byte[] header = new byte[FileHeaderCheck.HEADER_LENGTH];
+                int length = 0;
+                int n;
+                while (length < header.length && (n = stream.read(header, length, header.length - length)) > 0) {
+                    length += n;
+                }
+                return length < header.length ? Arrays.copyOf(header, length) : header;
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class Detection {
+
+        private final ProductReaderPlugIn plugIn;
+        private final long lastModified;
+        private final long length;
+        private final int numPlugIns;
+
+        private Detection(ProductReaderPlugIn plugIn, long lastModified, long length, int numPlugIns) {
+            this.plugIn = plugIn;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.numPlugIns = numPlugIns;
+        }
+    }
+}
@@ -64,6 +64,11 @@ public class ProductSubsetDef {
      */
     private boolean ignoreMetadata = false;
 
+    /**
+     * only reads the header and metadata, raster data access need not be set up
+     */
+    private boolean metadataOnly = false;
+
     private boolean treatVirtualBandsAsRealBands = false;
 
     /**
@@ -312,6 +317,23 @@ public class ProductSubsetDef {
         return ignoreMetadata;
     }
 
+    /**
+     * Sets the metadata only information. Readers supporting it may skip setting up band image streams
+     * and auxiliary data which are not needed to inspect the metadata and geocoding of a product.
+     *
+     * @param metadataOnly if <code>true</code>, the product is read only to access its metadata
+     */
+    public void setMetadataOnly(boolean metadataOnly) {
+        this.metadataOnly = metadataOnly;
+    }
+
+    /**
+     * Gets the metadata only information
+     */
+    public boolean isMetadataOnly() {
+        return metadataOnly;
+    }
+
     /**
      * Checks whether or not this subset definition select the entire product.
      */
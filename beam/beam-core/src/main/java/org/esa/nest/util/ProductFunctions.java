@@ -131,33 +131,55 @@ public class ProductFunctions {
     }
 
     /**
-     * Quickly return the product read by the right reader without testing many readers
+     * Get the format names of the common readers able to read the file without testing many readers
      * @param file input file
-     * @return the product
-     * @throws IOException if can't be read
+     * @return the preferred format names or an empty array if the file is not a common product
      */
-    public static Product readCommonProductReader(final File file) throws IOException {
+    public static String[] getCommonFormatNames(final File file) {
         final String filename = file.getName().toLowerCase();
         if(filename.endsWith("n1")) {
-            return ProductIO.readProduct(file, "ENVISAT");
+            return new String[] { "ENVISAT" };
         } else if(filename.endsWith("e1") || filename.endsWith("e2")) {
-            return ProductIO.readProduct(file, "ERS1/2");
+            return new String[] { "ERS1/2" };
         } else if(filename.endsWith("dim")) {
-            return ProductIO.readProduct(file, "BEAM-DIMAP");
-        } else if((filename.startsWith("TSX") || filename.startsWith("TDX")) && filename.endsWith("xml")) {
-            return ProductIO.readProduct(file, "TerraSarX");
+            return new String[] { "BEAM-DIMAP" };
+        } else if((filename.startsWith("tsx") || filename.startsWith("tdx")) && filename.endsWith("xml")) {
+            return new String[] { "TerraSarX" };
         } else if(filename.equals("product.xml")) {
-            try {
-                return ProductIO.readProduct(file, "RADARSAT-2");
-            } catch(IOException e) {
-                return ProductIO.readProduct(file, "RADARSAT-2 NITF");
-            }
+            return new String[] { "RADARSAT-2", "RADARSAT-2 NITF" };
+        } else if(filename.equals("manifest.safe")) {
+            return new String[] { "SENTINEL-1" };
         } else if(filename.endsWith("tif")) {
-            return ProductIO.readProduct(file, "GeoTIFF");
+            return new String[] { "GeoTIFF" };
         } else if(file.isDirectory()) {
-            return ProductIO.readProduct(file, "PolSARPro");
+            return new String[] { "PolSARPro" };
         } else if(filename.endsWith("dbl")) {
-            return ProductIO.readProduct(file, "SMOS-DBL");
+            return new String[] { "SMOS-DBL" };
+        }
+        return new String[] {};
+    }
+
+    /**
+     * Quickly return the product read by the right reader without testing many readers
+     * @param file input file
+     * @return the product
+     * @throws IOException if can't be read
+     */
+    public static Product readCommonProductReader(final File file) throws IOException {
+        final String[] formatNames = getCommonFormatNames(file);
+        for(int i=0; i < formatNames.length; ++i) {
+            final boolean last = i == formatNames.length-1;
+            try {
+                final Product product = ProductIO.readProduct(file, formatNames[i]);
+                if(product != null || last) {
+                    return product;
+                }
+            } catch(IOException e) {
+                // try the next format
+                if(last) {
+                    throw e;
+                }
+            }
         }
         return null;
     }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.dataio;
+
+import junit.framework.TestCase;
+import org.esa.beam.util.io.BeamFileFilter;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class ProductReaderDetectorTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        ProductReaderDetector.clearCache();
+        file = File.createTempFile("detector", ".abc");
+        writeFile("first");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+        ProductReaderDetector.clearCache();
+    }
+
+    public void testFirstIntendedPlugInIsSelected() {
+        final TestPlugIn first = new TestPlugIn(".xyz", DecodeQualification.INTENDED);
+        final TestPlugIn second = new TestPlugIn(".abc", DecodeQualification.INTENDED);
+
+        final ProductReaderPlugIn plugIn = ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(first, second).iterator());
+        assertSame(first, plugIn);
+        assertEquals(1, first.numCalls);
+        assertEquals(0, second.numCalls);
+    }
+
+    public void testPlugInRejectingHeaderIsNotAsked() {
+        final HeaderCheckingPlugIn rejecting = new HeaderCheckingPlugIn("second");
+        final HeaderCheckingPlugIn accepting = new HeaderCheckingPlugIn("first");
+
+        final ProductReaderPlugIn plugIn = ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(rejecting, accepting).iterator());
+        assertSame(accepting, plugIn);
+        assertEquals(0, rejecting.numCalls);
+        assertEquals(1, accepting.numCalls);
+    }
+
+    public void testSuitablePlugInIsUsedIfNoneIsIntended() {
+        final TestPlugIn suitable = new TestPlugIn(".xyz", DecodeQualification.SUITABLE);
+        final TestPlugIn unable = new TestPlugIn(".abc", DecodeQualification.UNABLE);
+
+        final ProductReaderPlugIn plugIn = ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(suitable, unable).iterator());
+        assertSame(suitable, plugIn);
+    }
+
+    public void testDetectionIsCachedUntilFileChanges() throws IOException {
+        final TestPlugIn plugIn = new TestPlugIn(".abc", DecodeQualification.INTENDED);
+
+        assertSame(plugIn, ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(plugIn).iterator()));
+        assertSame(plugIn, ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(plugIn).iterator()));
+        assertEquals(1, plugIn.numCalls);
+
+        writeFile("second and longer");
+        assertSame(plugIn, ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(plugIn).iterator()));
+        assertEquals(2, plugIn.numCalls);
+    }
+
+    public void testMissingPlugInIsNotCached() {
+        final TestPlugIn plugIn = new TestPlugIn(".abc", DecodeQualification.UNABLE);
+
+        assertNull(ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(plugIn).iterator()));
+        assertNull(ProductReaderDetector.findReaderPlugIn(
+                file, null, Arrays.<ProductReaderPlugIn>asList(plugIn).iterator()));
+        assertEquals(2, plugIn.numCalls);
+    }
+
+    private void writeFile(String content) throws IOException {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static class HeaderCheckingPlugIn extends TestPlugIn implements FileHeaderCheck {
+
+        private final String magic;
+
+        private HeaderCheckingPlugIn(String magic) {
+            super(".abc", DecodeQualification.INTENDED);
+            this.magic = magic;
+        }
+
+        public boolean isHeaderAccepted(byte[] header) {
+            return new String(header).startsWith(magic);
+        }
+    }
+
+    private static class TestPlugIn implements ProductReaderPlugIn {
+
+        private final String extension;
+        private final DecodeQualification qualification;
+        int numCalls;
+
+        TestPlugIn(String extension, DecodeQualification qualification) {
+            this.extension = extension;
+            this.qualification = qualification;
+        }
+
+        public DecodeQualification getDecodeQualification(Object input) {
+            numCalls++;
+            return qualification;
+        }
+
+        public Class[] getInputTypes() {
+            return new Class[]{File.class};
+        }
+
+        public ProductReader createReaderInstance() {
+            return null;
+        }
+
+        public String[] getFormatNames() {
+            return new String[]{"TEST" + extension};
+        }
+
+        public String[] getDefaultFileExtensions() {
+            return new String[]{extension};
+        }
+
+        public String getDescription(Locale locale) {
+            return "test";
+        }
+
+        public BeamFileFilter getProductFileFilter() {
+            return null;
+        }
+    }
+}
@@ -263,6 +263,15 @@ public class EnviProductWriter extends AbstractProductWriter {
         randomAccessFile.close();
     }
 
+    /**
+     * Every band has its own <code>.img</code> file beside its header, and each region is written at its
+     * offset in that file, so the bands need not be written one after another.
+     */
+    @Override
+    public boolean isBandSequential() {
+        return false;
+    }
+
     @Override
     public boolean shouldWrite(ProductNode node) {
         if (node instanceof VirtualBand) {
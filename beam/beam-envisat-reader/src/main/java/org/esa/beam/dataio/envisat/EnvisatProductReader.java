@@ -242,10 +242,14 @@ public final class EnvisatProductReader extends AbstractProductReader {
             addDatasetAnnotationsToProduct(product);
             addTiePointGridsToProduct(product);
             addGeoCodingToProduct(product);
-            initPointingFactory(product);
+            if (!isMetadataOnly()) {
+                initPointingFactory(product);
+            }
+        }
+        if (!isMetadataOnly()) {
+            addDefaultMasksToProduct(product);
+            addDefaultMasksDefsToBands(product);
         }
-        addDefaultMasksToProduct(product);
-        addDefaultMasksDefsToBands(product);
         productFile.addCustomMetadata(product);
 
         return product;
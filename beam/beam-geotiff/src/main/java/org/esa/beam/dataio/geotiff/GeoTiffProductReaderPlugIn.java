@@ -17,6 +17,7 @@ package org.esa.beam.dataio.geotiff;
 
 import com.sun.media.imageioimpl.plugins.tiff.TIFFImageReader;
 import org.esa.beam.framework.dataio.DecodeQualification;
+import org.esa.beam.framework.dataio.FileHeaderCheck;
 import org.esa.beam.framework.dataio.ProductReader;
 import org.esa.beam.framework.dataio.ProductReaderPlugIn;
 import org.esa.beam.util.io.BeamFileFilter;
@@ -26,11 +27,13 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Locale;
 
-public class GeoTiffProductReaderPlugIn implements ProductReaderPlugIn {
+public class GeoTiffProductReaderPlugIn implements ProductReaderPlugIn, FileHeaderCheck {
 
     private static final String[] FORMAT_NAMES = new String[]{"GeoTIFF"};
 
@@ -47,7 +50,7 @@ public class GeoTiffProductReaderPlugIn implements ProductReaderPlugIn {
             }
 			if(input instanceof String || input instanceof File) {
 				 final String ext = FileUtils.getExtension((File)imageIOInput);
-                 if(ext.equalsIgnoreCase(".tif") || ext.equalsIgnoreCase(".tiff"))
+                 if((ext.equalsIgnoreCase(".tif") || ext.equalsIgnoreCase(".tiff")) && hasTiffHeader((File)imageIOInput))
                      return DecodeQualification.INTENDED;
                  else
                      return DecodeQualification.UNABLE;
@@ -65,6 +68,38 @@ public class GeoTiffProductReaderPlugIn implements ProductReaderPlugIn {
         return DecodeQualification.UNABLE;
     }
 
+    /**
+     * Accepts the byte order marks of TIFF and BigTIFF files, "II" or "MM" followed by the version 42 or 43.
+     */
+    @Override
+    public boolean isHeaderAccepted(byte[] header) {
+        if (header.length < 4) {
+            return false;
+        }
+        if (header[0] == 'I' && header[1] == 'I') {
+            return (header[2] == 42 || header[2] == 43) && header[3] == 0;
+        }
+        if (header[0] == 'M' && header[1] == 'M') {
+            return header[2] == 0 && (header[3] == 42 || header[3] == 43);
+        }
+        return false;
+    }
+
+    private boolean hasTiffHeader(File file) throws IOException {
+        final byte[] header = new byte[4];
+        final InputStream stream = new FileInputStream(file);
+        try {
+            int length = 0;
+            int n;
+            while (length < header.length && (n = stream.read(header, length, header.length - length)) > 0) {
+                length += n;
+            }
+            return length == header.length && isHeaderAccepted(header);
+        } finally {
+            stream.close();
+        }
+    }
+
     static DecodeQualification getDecodeQualificationImpl(ImageInputStream stream) {
         try {
             Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(stream);
@@ -113,6 +113,14 @@ public class GeoTiffProductWriter extends AbstractProductWriter {
     }
 
 
+    /**
+     * The bands are stored as separate strips at fixed offsets, so the tiles of all bands may be written in any order.
+     */
+    @Override
+    public boolean isBandSequential() {
+        return false;
+    }
+
     @Override
     public boolean shouldWrite(ProductNode node) {
         return Utils.shouldWriteNode(node);
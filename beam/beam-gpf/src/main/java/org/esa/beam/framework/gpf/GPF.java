@@ -49,6 +49,21 @@ public class GPF {
     public static final String DISABLE_TILE_CACHE_PROPERTY = SystemUtils.getApplicationContextId()+".gpf.disableTileCache";
     public static final String USE_FILE_TILE_CACHE_PROPERTY = SystemUtils.getApplicationContextId()+".gpf.useFileTileCache";
     public static final String TILE_COMPUTATION_OBSERVER_PROPERTY = SystemUtils.getApplicationContextId()+".gpf.tileComputationObserver";
+    /**
+     * The file the {@link org.esa.beam.framework.gpf.monitor.TileComputationTracer TileComputationTracer}
+     * writes the tile computation trace to.
+     *
+     * @since BEAM 4.10.4
+     */
+    public static final String TILE_COMPUTATION_TRACE_FILE_PROPERTY = SystemUtils.getApplicationContextId()+".gpf.tileComputationTraceFile";
+    /**
+     * If set to {@code false}, tiles of point-wise operators requested by other point-wise operators are
+     * always computed through the tile cache.
+     *
+     * @see org.esa.beam.framework.gpf.annotations.OperatorMetadata#pointWise()
+     * @since BEAM 4.10.4
+     */
+    public static final String FUSE_POINT_OPERATORS_PROPERTY = SystemUtils.getApplicationContextId()+".gpf.fusePointOperators";
 
     public static final String SOURCE_PRODUCT_FIELD_NAME = "sourceProduct";
     public static final String TARGET_PRODUCT_FIELD_NAME = "targetProduct";
@@ -95,6 +95,16 @@ import java.util.Iterator;
  * The {@link #getDataBufferFloat()} and its derivatives all return arrays of raw, non-calibrated sample values.
  * Use the {@link #toGeoPhysical(float)} and {@link #toRaw(float)} to convert between physical and raw
  * sample values.</p>
+ * <p>If the data type is not known, the (geo-)physical samples can be processed row by row
+ * at nearly the same speed, reusing one buffer for all rows:</p>
+ * <pre>
+ *   double[] row = null;
+ *   for (int y = tile.getMinY(); y &lt;= tile.getMaxY(); y++) {
+ *       row = sourceTile.getSamplesRow(y, row);
+ *       // compute sample values...
+ *       tile.setSamplesRow(y, row);
+ *   }
+ * </pre>
  *
  * @author Norman Fomferra
  * @author Marco Peters
@@ -270,6 +280,8 @@ public interface Tile extends Iterable<Tile.Pos> {
      *       lineOffset += lineStride;
      *   }
      * </pre>
+     * <p>The data buffer of a source tile may be shared with the tile cache of the source image,
+     * so it must not be modified.</p>
      *
      * @return the sample data
      */
@@ -355,6 +367,22 @@ public interface Tile extends Iterable<Tile.Pos> {
      */
     int getScanlineStride();
 
+    /**
+     * Gets the index of the first sample of an image row in the primitive data buffer.
+     * Together with {@link #getDataBufferFloat()} and its derivatives this gives a typed view of the
+     * row: the samples of row {@code y} are found at the indexes
+     * {@code getRowOffset(y)} to {@code getRowOffset(y) + getWidth() - 1}.
+     *
+     * @param y the image pixel y-coordinate, must be in the range {@link #getMinY()} to {@link #getMaxY()}
+     *
+     * @return The index of the sample at ({@link #getMinX() minX}, y) in the data buffer.
+     *
+     * @see #getScanlineOffset()
+     * @see #getScanlineStride()
+     * @since BEAM 4.10.4
+     */
+    int getRowOffset(int y);
+
     /**
      * Gets the raw (unscaled, uncalibrated) samples, e.g. detector counts, copied from or wrapping the underlying
      * data buffer. In contradiction to the {@link #getDataBuffer()} method, the returned samples
@@ -461,6 +489,64 @@ public interface Tile extends Iterable<Tile.Pos> {
      */
     void setSamples(double[] samples);
 
+    /**
+     * Gets the scaled, (geo-)physical samples of a single image row as {@code float}s.
+     * The samples are read directly from the primitive data buffer and the scaling is applied to the
+     * whole row at once. Like {@link #getSampleFloat(int, int)}, masked out samples are not replaced.
+     * <p>The given buffer is reused if it has at least {@link #getWidth() width} elements, so that a
+     * single buffer can be passed in for all rows of a tile.</p>
+     *
+     * @param y       the image pixel y-coordinate, must be in the range {@link #getMinY()} to {@link #getMaxY()}
+     * @param samples a buffer for the samples, may be {@code null}
+     *
+     * @return The buffer holding the sample at x-coordinate {@link #getMinX() minX}{@code + i} at index {@code i}.
+     *
+     * @see #setSamplesRow(int, float[])
+     * @since BEAM 4.10.4
+     */
+    float[] getSamplesRow(int y, float[] samples);
+
+    /**
+     * Gets the scaled, (geo-)physical samples of a single image row as {@code double}s.
+     * The samples are read directly from the primitive data buffer and the scaling is applied to the
+     * whole row at once. Like {@link #getSampleDouble(int, int)}, masked out samples are not replaced.
+     * <p>The given buffer is reused if it has at least {@link #getWidth() width} elements, so that a
+     * single buffer can be passed in for all rows of a tile.</p>
+     *
+     * @param y       the image pixel y-coordinate, must be in the range {@link #getMinY()} to {@link #getMaxY()}
+     * @param samples a buffer for the samples, may be {@code null}
+     *
+     * @return The buffer holding the sample at x-coordinate {@link #getMinX() minX}{@code + i} at index {@code i}.
+     *
+     * @see #setSamplesRow(int, double[])
+     * @since BEAM 4.10.4
+     */
+    double[] getSamplesRow(int y, double[] samples);
+
+    /**
+     * Sets the scaled, (geo-)physical samples of a single image row. The first {@link #getWidth() width}
+     * elements of the given array are converted to raw values and written directly into the primitive data buffer.
+     *
+     * @param y       the image pixel y-coordinate, must be in the range {@link #getMinY()} to {@link #getMaxY()}
+     * @param samples the (geo-)physical samples to be set
+     *
+     * @see #getSamplesRow(int, float[])
+     * @since BEAM 4.10.4
+     */
+    void setSamplesRow(int y, float[] samples);
+
+    /**
+     * Sets the scaled, (geo-)physical samples of a single image row. The first {@link #getWidth() width}
+     * elements of the given array are converted to raw values and written directly into the primitive data buffer.
+     *
+     * @param y       the image pixel y-coordinate, must be in the range {@link #getMinY()} to {@link #getMaxY()}
+     * @param samples the (geo-)physical samples to be set
+     *
+     * @see #getSamplesRow(int, double[])
+     * @since BEAM 4.10.4
+     */
+    void setSamplesRow(int y, double[] samples);
+
     /**
      * Checks whether or not the sample value exists and is valid at a given image pixel position.
      *
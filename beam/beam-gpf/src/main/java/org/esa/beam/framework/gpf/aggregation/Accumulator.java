@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.beam.framework.gpf.aggregation;
+
+/**
+ * The partial result of a whole-image computation. An accumulator is filled by a single thread
+ * from a single tile and is afterwards merged with the partial results of the other tiles.
+ *
+ * @param <A> the type of the accumulator itself
+ * @see TileAggregator
+ * @since BEAM 4.10.4
+ */
+public interface Accumulator<A extends Accumulator<A>> {
+
+    /**
+     * Merges the partial result of another tile into this accumulator.
+     * The other accumulator must not be modified.
+     *
+     * @param other the partial result to merge
+     */
+    void merge(A other);
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.gpf.aggregation;
+
+/**
+ * Accumulates statistics of complex samples given as real (i) and imaginary (q) parts.
+ * The moments are accumulated for the intensity i*i + q*q and for the amplitude.
+ *
+ * @since BEAM 4.10.4
+ */
+public class ComplexAccumulator implements Accumulator<ComplexAccumulator> {
+
+    private final MomentsAccumulator intensity = new MomentsAccumulator();
+    private final MomentsAccumulator amplitude = new MomentsAccumulator();
+    private double sumI;
+    private double sumQ;
+
+    public void add(double i, double q) {
+        final double intensityValue = i * i + q * q;
+        intensity.add(intensityValue);
+        amplitude.add(Math.sqrt(intensityValue));
+        sumI += i;
+        sumQ += q;
+    }
+
+    @Override
+    public void merge(ComplexAccumulator other) {
+        intensity.merge(other.intensity);
+        amplitude.merge(other.amplitude);
+        sumI += other.sumI;
+        sumQ += other.sumQ;
+    }
+
+    public long getCount() {
+        return intensity.getCount();
+    }
+
+    public MomentsAccumulator getIntensity() {
+        return intensity;
+    }
+
+    public MomentsAccumulator getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * @return the mean of the real and imaginary parts
+     */
+    public double[] getMean() {
+        final long count = getCount();
+        return new double[]{sumI / count, sumQ / count};
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.gpf.aggregation;
+
+/**
+ * Accumulates the mean vector and covariance matrix of feature vectors, e.g. the samples of several bands
+ * at the same pixel.
+ *
+ * @since BEAM 4.10.4
+ */
+public class CovarianceAccumulator implements Accumulator<CovarianceAccumulator> {
+
+    private final int dimension;
+    private final double[] sums;
+    private final double[][] productSums;
+    private long count;
+
+    public CovarianceAccumulator(int dimension) {
+        this.dimension = dimension;
+        this.sums = new double[dimension];
+        this.productSums = new double[dimension][dimension];
+    }
+
+    public void add(double[] values) {
+        for (int i = 0; i < dimension; i++) {
+            final double vi = values[i];
+            sums[i] += vi;
+            final double[] row = productSums[i];
+            for (int j = i; j < dimension; j++) {
+                row[j] += vi * values[j];
+            }
+        }
+        count++;
+    }
+
+    @Override
+    public void merge(CovarianceAccumulator other) {
+        if (other.dimension != dimension) {
+            throw new IllegalArgumentException("dimensions differ");
+        }
+        for (int i = 0; i < dimension; i++) {
+            sums[i] += other.sums[i];
+            for (int j = i; j < dimension; j++) {
+                productSums[i][j] += other.productSums[i][j];
+            }
+        }
+        count += other.count;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double[] getMean() {
+        final double[] mean = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            mean[i] = sums[i] / count;
+        }
+        return mean;
+    }
+
+    /**
+     * @return the population covariance matrix
+     */
+    public double[][] getCovariance() {
+        final double[] mean = getMean();
+        final double[][] cov = new double[dimension][dimension];
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                cov[i][j] = productSums[i][j] / count - mean[i] * mean[j];
+                cov[j][i] = cov[i][j];
+            }
+        }
+        return cov;
+    }
+}
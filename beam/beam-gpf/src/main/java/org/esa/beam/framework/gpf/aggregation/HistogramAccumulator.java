@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.gpf.aggregation;
+
+/**
+ * Accumulates a histogram with a fixed value range. Values outside of the range are counted separately.
+ *
+ * @since BEAM 4.10.4
+ */
+public class HistogramAccumulator implements Accumulator<HistogramAccumulator> {
+
+    private final int[] bins;
+    private final double min;
+    private final double max;
+    private final double binWidth;
+    private long outOfRangeCount;
+
+    public HistogramAccumulator(int numBins, double min, double max) {
+        this.bins = new int[numBins];
+        this.min = min;
+        this.max = max;
+        this.binWidth = (max - min) / numBins;
+    }
+
+    public void add(double value) {
+        if (value >= min && value <= max) {
+            int i = (int) ((value - min) / binWidth);
+            if (i >= bins.length) {
+                i = bins.length - 1;
+            }
+            bins[i]++;
+        } else {
+            outOfRangeCount++;
+        }
+    }
+
+    @Override
+    public void merge(HistogramAccumulator other) {
+        if (other.bins.length != bins.length || other.min != min || other.max != max) {
+            throw new IllegalArgumentException("histograms must have the same bins");
+        }
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += other.bins[i];
+        }
+        outOfRangeCount += other.outOfRangeCount;
+    }
+
+    public int[] getBins() {
+        return bins;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getBinWidth() {
+        return binWidth;
+    }
+
+    public long getOutOfRangeCount() {
+        return outOfRangeCount;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.gpf.aggregation;
+
+import org.esa.beam.framework.datamodel.ProductData;
+
+/**
+ * Accumulates count, minimum, maximum and the sums of the first, second and fourth power of sample values.
+ * <p/>
+ * The mean and the variance of the values and of their squares are updated with Welford's method
+ * and merged with the pairwise formula of Chan et al., so that the variance does not suffer from
+ * the cancellation of {@code sum2/count - mean*mean} when the mean is large compared to the deviation.
+ *
+ * @since BEAM 4.10.4
+ */
+public class MomentsAccumulator implements Accumulator<MomentsAccumulator> {
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double sum2;
+    private double sum4;
+    private double mean;
+    private double m2;
+    private double meanOfSquares;
+    private double m2OfSquares;
+
+    public void add(double value) {
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        final double value2 = value * value;
+        sum += value;
+        sum2 += value2;
+        sum4 += value2 * value2;
+        count++;
+        final double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        final double deltaOfSquares = value2 - meanOfSquares;
+        meanOfSquares += deltaOfSquares / count;
+        m2OfSquares += deltaOfSquares * (value2 - meanOfSquares);
+    }
+
+    /**
+     * Adds all elements of the given data.
+     *
+     * @param data the sample values
+     */
+    public void add(ProductData data) {
+        final int n = data.getNumElems();
+        for (int i = 0; i < n; i++) {
+            add(data.getElemDoubleAt(i));
+        }
+    }
+
+    @Override
+    public void merge(MomentsAccumulator other) {
+        if (other.count == 0) {
+            return;
+        }
+        final long newCount = count + other.count;
+        final double weight = (double) count * other.count / newCount;
+        final double delta = other.mean - mean;
+        mean += delta * other.count / newCount;
+        m2 += other.m2 + delta * delta * weight;
+        final double deltaOfSquares = other.meanOfSquares - meanOfSquares;
+        meanOfSquares += deltaOfSquares * other.count / newCount;
+        m2OfSquares += other.m2OfSquares + deltaOfSquares * deltaOfSquares * weight;
+        if (other.min < min) {
+            min = other.min;
+        }
+        if (other.max > max) {
+            max = other.max;
+        }
+        sum += other.sum;
+        sum2 += other.sum2;
+        sum4 += other.sum4;
+        count = newCount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getSum2() {
+        return sum2;
+    }
+
+    public double getSum4() {
+        return sum4;
+    }
+
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * @return the population variance
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : Double.NaN;
+    }
+
+    /**
+     * @return the mean of the squared values
+     */
+    public double getMeanOfSquares() {
+        return count > 0 ? meanOfSquares : Double.NaN;
+    }
+
+    /**
+     * @return the population variance of the squared values, e.g. the variance of the intensity
+     *         for amplitude samples
+     */
+    public double getVarianceOfSquares() {
+        return count > 0 ? m2OfSquares / count : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.beam.framework.gpf.aggregation;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.jai.ImageManager;
+
+import javax.media.jai.JAI;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a whole-image computation as a map-reduce over the tiles of an image.
+ * <p/>
+ * For every tile a new {@link Accumulator} is created and filled by {@link #accumulate(Accumulator, Rectangle)}.
+ * Tiles may either be passed in from {@link org.esa.beam.framework.gpf.Operator#computeTile computeTile}
+ * via {@link #accumulateTile(Rectangle)}, or be computed in parallel by {@link #aggregate(ProgressMonitor)}.
+ * The partial results are merged in tile order, so the result does not depend on the order
+ * in which the tiles were computed. A tile computed twice replaces its earlier partial result.
+ * <p/>
+ * Clients must use the same tile grid for all tiles, usually the preferred tile size of the target product.
+ *
+ * @param <A> the type of the accumulator
+ * @since BEAM 4.10.4
+ */
+public abstract class TileAggregator<A extends Accumulator<A>> {
+
+    private final Product product;
+    private final int width;
+    private final int height;
+    private final Dimension tileSize;
+    private final Map<Long, A> partials = new ConcurrentHashMap<Long, A>();
+
+    /**
+     * Creates an aggregator using the tile grid of the given product. The tile size is
+     * read when the tiles are aggregated, after the framework has set it.
+     *
+     * @param product the product, usually the target product of the operator
+     */
+    protected TileAggregator(Product product) {
+        this.product = product;
+        this.width = product.getSceneRasterWidth();
+        this.height = product.getSceneRasterHeight();
+        this.tileSize = null;
+    }
+
+    /**
+     * @param width    the image width
+     * @param height   the image height
+     * @param tileSize the tile size used by {@link #aggregate(ProgressMonitor)}
+     */
+    protected TileAggregator(int width, int height, Dimension tileSize) {
+        this.product = null;
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * @return a new, empty accumulator
+     */
+    protected abstract A createAccumulator();
+
+    /**
+     * Accumulates the data of a single tile. Called concurrently for different tiles.
+     *
+     * @param accumulator the accumulator of this tile
+     * @param rectangle   the tile rectangle
+     */
+    protected abstract void accumulate(A accumulator, Rectangle rectangle);
+
+    /**
+     * Computes and keeps the partial result of a single tile.
+     *
+     * @param rectangle the tile rectangle
+     */
+    public void accumulateTile(Rectangle rectangle) {
+        final A accumulator = createAccumulator();
+        accumulate(accumulator, rectangle);
+        putTile(rectangle, accumulator);
+    }
+
+    /**
+     * Keeps the partial result of a single tile which the caller has accumulated itself,
+     * e.g. from source data it has already fetched for other purposes.
+     *
+     * @param rectangle   the tile rectangle
+     * @param accumulator the partial result of this tile
+     */
+    public void putTile(Rectangle rectangle, A accumulator) {
+        partials.put(getTileKey(rectangle), accumulator);
+    }
+
+    /**
+     * @return true if no tile has been accumulated yet
+     */
+    public boolean isEmpty() {
+        return partials.isEmpty();
+    }
+
+    /**
+     * Merges the partial results of all tiles accumulated so far.
+     *
+     * @return a new accumulator holding the merged result
+     */
+    public A getResult() {
+        final A result = createAccumulator();
+        for (A partial : new TreeMap<Long, A>(partials).values()) {
+            result.merge(partial);
+        }
+        return result;
+    }
+
+    /**
+     * Accumulates all tiles not yet accumulated in parallel and merges the partial results.
+     *
+     * @param pm a progress monitor
+     * @return a new accumulator holding the merged result
+     * @throws OperatorException if the computation of a tile fails or has been cancelled
+     */
+    public A aggregate(ProgressMonitor pm) throws OperatorException {
+        final Dimension tileSize = product != null ? ImageManager.getPreferredTileSize(product) : this.tileSize;
+        final List<Rectangle> rectangles = new ArrayList<Rectangle>();
+        for (int y = 0; y < height; y += tileSize.height) {
+            for (int x = 0; x < width; x += tileSize.width) {
+                final Rectangle rectangle = new Rectangle(x, y,
+                                                          Math.min(tileSize.width, width - x),
+                                                          Math.min(tileSize.height, height - y));
+                if (!partials.containsKey(getTileKey(rectangle))) {
+                    rectangles.add(rectangle);
+                }
+            }
+        }
+
+        final int parallelism = Math.max(1, JAI.getDefaultInstance().getTileScheduler().getParallelism());
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, rectangles.size())));
+        pm.beginTask("Aggregating tiles...", rectangles.size());
+        try {
+            final List<Future<Object>> futures = new ArrayList<Future<Object>>(rectangles.size());
+            for (final Rectangle rectangle : rectangles) {
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        accumulateTile(rectangle);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> future : futures) {
+                if (pm.isCanceled()) {
+                    throw new OperatorException("Operation cancelled.");
+                }
+                waitFor(future);
+                pm.worked(1);
+            }
+        } finally {
+            executor.shutdownNow();
+            pm.done();
+        }
+        return getResult();
+    }
+
+    private static void waitFor(Future<Object> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            throw new OperatorException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof OperatorException) {
+                throw (OperatorException) cause;
+            }
+            throw new OperatorException(cause);
+        }
+    }
+
+    private static long getTileKey(Rectangle rectangle) {
+        return ((long) rectangle.y << 32) | rectangle.x;
+    }
+}
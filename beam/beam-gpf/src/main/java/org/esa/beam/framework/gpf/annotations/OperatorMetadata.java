@@ -68,6 +68,24 @@ public @interface OperatorMetadata {
      */
     boolean internal() default false;
 
+    /**
+     * Point-wise operators compute each target pixel from the source pixels at the same position only,
+     * and request source tiles of the same rectangle as the target tile. The result must not depend on
+     * the target rectangle, since the operator may be asked for rectangles which are not aligned to its tiles.
+     * <p/>
+     * When a point-wise operator requests a tile of another point-wise operator, the tile is computed
+     * for the request only and is not put into the tile cache, so that the intermediate tiles of a chain
+     * of point-wise operators do not fill the cache. Requests for the same rectangle at about the same time,
+     * e.g. for several target bands, share one computation.
+     * Operators derived from {@link org.esa.beam.framework.gpf.pointop.PointOperator PointOperator}
+     * are always point-wise.
+     *
+     * @return If {@code true}, the operator is point-wise.
+     * @see org.esa.beam.framework.gpf.GPF#FUSE_POINT_OPERATORS_PROPERTY
+     * @since BEAM 4.10.4
+     */
+    boolean pointWise() default false;
+
 	/** @return A Category to group the operator in.
      *         Defaults to the empty string (= not set).
      */
@@ -52,6 +52,7 @@ import org.esa.beam.framework.gpf.graph.GraphOp;
 import org.esa.beam.framework.gpf.internal.OperatorConfiguration.Reference;
 import org.esa.beam.framework.gpf.monitor.TileComputationEvent;
 import org.esa.beam.framework.gpf.monitor.TileComputationObserver;
+import org.esa.beam.framework.gpf.pointop.PointOperator;
 import org.esa.beam.util.jai.JAIUtils;
 import org.esa.beam.util.logging.BeamLogManager;
 import org.esa.beam.gpf.operators.standard.ReadOp;
@@ -59,10 +60,12 @@ import org.esa.beam.gpf.operators.standard.ReadOp;
 import javax.media.jai.BorderExtender;
 import javax.media.jai.JAI;
 import javax.media.jai.OpImage;
+import javax.media.jai.PlanarImage;
 import javax.media.jai.TileCache;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.lang.reflect.Field;
@@ -87,8 +90,20 @@ import java.util.regex.Pattern;
  */
 public class OperatorContext {
 
+    private static final boolean fusePointOperators =
+            Boolean.parseBoolean(System.getProperty(GPF.FUSE_POINT_OPERATORS_PROPERTY, "true"));
+
     private static TileCache tileCache;
     private static TileComputationObserver tileComputationObserver;
+    /**
+     * The time each thread spent in {@link #getSourceTile}, only maintained while tile computations are observed.
+     */
+    private static final ThreadLocal<long[]> sourceWaitNanos = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
 
     private final Operator operator;
     private final List<Product> sourceProductList;
@@ -101,6 +116,7 @@ public class OperatorContext {
     private OperatorSpi operatorSpi;
     private boolean computeTileMethodUsable;
     private boolean computeTileStackMethodUsable;
+    private final boolean pointWise;
     private Map<Band, OperatorImage> targetImageMap;
     private OperatorConfiguration configuration;
     private Logger logger;
@@ -119,6 +135,7 @@ public class OperatorContext {
         this.operator = operator;
         this.computeTileMethodUsable = canOperatorComputeTile(operator.getClass());
         this.computeTileStackMethodUsable = canOperatorComputeTileStack(operator.getClass());
+        this.pointWise = isPointWise(operator);
         this.sourceProductList = new ArrayList<Product>(3);
         this.sourceProductMap = new HashMap<String, Product>(3);
         this.targetPropertyMap = new HashMap<String, Object>(3);
@@ -375,13 +392,39 @@ public class OperatorContext {
     }
 
     public Tile getSourceTile(RasterDataNode rasterDataNode, Rectangle region, BorderExtender borderExtender) {
+        if (tileComputationObserver == null) {
+            return computeSourceTile(rasterDataNode, region, borderExtender);
+        }
+        final long[] waitNanos = sourceWaitNanos.get();
+        final long waitNanosBefore = waitNanos[0];
+        final long startNanos = System.nanoTime();
+        try {
+            return computeSourceTile(rasterDataNode, region, borderExtender);
+        } finally {
+            // source tiles computed by this thread in the meantime are part of the wait time of the caller
+            waitNanos[0] = waitNanosBefore + (System.nanoTime() - startNanos);
+        }
+    }
+
+    private Tile computeSourceTile(RasterDataNode rasterDataNode, Rectangle region, BorderExtender borderExtender) {
         MultiLevelImage image = rasterDataNode.getSourceImage();
         /////////////////////////////////////////////////////////////////////
         //
         // Note: GPF pull-processing is triggered here!
         //
         Raster awtRaster;
-        if (borderExtender != null) {
+        final boolean insideImage = image.getBounds().contains(region);
+        OperatorImage fusedImage = getFusedOperatorImage(image, region);
+        if (fusedImage != null) {
+            awtRaster = fusedImage.getUncachedData(region);
+        } else if (insideImage) {
+            // no border extension needed
+            final Raster tile = getTileMatching(image, region);
+            if (tile != null) {
+                return TileImpl.createView(rasterDataNode, tile, region);
+            }
+            awtRaster = image.getData(region); // Note: copyData is NOT faster!
+        } else if (borderExtender != null) {
             awtRaster = image.getExtendedData(region, borderExtender);
         } else {
             awtRaster = image.getData(region); // Note: copyData is NOT faster!
@@ -391,10 +434,82 @@ public class OperatorContext {
         return new TileImpl(rasterDataNode, awtRaster, region, false);
     }
 
+    /**
+     * Gets the tile of an image if the given region covers exactly that tile, so that a source tile
+     * can share the tile's data instead of copying the region. The tile's data buffer must have the
+     * same layout as a copy of the region, since operators may index source and target tile buffers
+     * alike.
+     *
+     * @return the tile, or {@code null} if the region is not one whole tile
+     */
+    private static Raster getTileMatching(RenderedImage image, Rectangle region) {
+        final Raster tile = image.getTile(getTileX(image, region.x), getTileY(image, region.y));
+        if (tile == null || !tile.getBounds().equals(region) ||
+            !(tile.getSampleModel() instanceof ComponentSampleModel) ||
+            tile.getDataBuffer().getNumBanks() != 1 || tile.getDataBuffer().getOffset() != 0 ||
+            tile.getSampleModelTranslateX() != region.x || tile.getSampleModelTranslateY() != region.y) {
+            return null;
+        }
+        final ComponentSampleModel sampleModel = (ComponentSampleModel) tile.getSampleModel();
+        if (sampleModel.getPixelStride() != 1 || sampleModel.getScanlineStride() != region.width ||
+            sampleModel.getBandOffsets()[0] != 0) {
+            return null;
+        }
+        return tile;
+    }
+
+    private static int getTileX(RenderedImage image, int x) {
+        return PlanarImage.XToTileX(x, image.getTileGridXOffset(), image.getTileWidth());
+    }
+
+    private static int getTileY(RenderedImage image, int y) {
+        return PlanarImage.YToTileY(y, image.getTileGridYOffset(), image.getTileHeight());
+    }
+
     public OperatorImage getTargetImage(Band band) {
         return targetImageMap.get(band);
     }
 
+    /**
+     * @return {@code true} if the operator is point-wise
+     * @see OperatorMetadata#pointWise()
+     */
+    public boolean isPointWise() {
+        return pointWise;
+    }
+
+    /**
+     * Gets the image of a point-wise operator whose tiles can be computed directly for this operator.
+     * The tiles of a chain of point-wise operators are then computed in one pass per tile and
+     * only the tiles of the last operator in the chain are cached.
+     */
+    private OperatorImage getFusedOperatorImage(MultiLevelImage image, Rectangle region) {
+        if (!fusePointOperators || !pointWise) {
+            return null;
+        }
+        final RenderedImage sourceImage = image.getImage(0);
+        if (!(sourceImage instanceof OperatorImage) || sourceImage instanceof OperatorImageTileStack) {
+            return null;
+        }
+        final OperatorImage operatorImage = (OperatorImage) sourceImage;
+        final OperatorContext sourceContext = operatorImage.getOperatorContext();
+        //noinspection ObjectEquality
+        if (sourceContext == this || !sourceContext.isPointWise() || !sourceContext.isComputeTileMethodUsable() ||
+            sourceContext.requiresAllBands() || !sourceContext.isComputingImageOf(operatorImage.getTargetBand()) ||
+            !operatorImage.getBounds().contains(region)) {
+            return null;
+        }
+        return operatorImage;
+    }
+
+    private static boolean isPointWise(Operator operator) {
+        if (operator instanceof PointOperator) {
+            return true;
+        }
+        final OperatorMetadata metadata = operator.getClass().getAnnotation(OperatorMetadata.class);
+        return metadata != null && metadata.pointWise();
+    }
+
     public boolean isDisposed() {
         return disposed;
     }
@@ -1088,11 +1203,50 @@ public class OperatorContext {
     }
 
     public void fireTileComputed(OperatorImage operatorImage, Rectangle destRect, long startNanos) {
-        if (tileComputationObserver != null) {
+        fireTileComputed(operatorImage, destRect, startNanos, getSourceWaitNanos());
+    }
+
+    /**
+     * @param startSourceWaitNanos the value of {@link #getSourceWaitNanos()} when the computation started
+     * @since BEAM 4.10.4
+     */
+    public void fireTileComputed(OperatorImage operatorImage, Rectangle destRect, long startNanos,
+                                 long startSourceWaitNanos) {
+        final TileComputationObserver observer = tileComputationObserver;
+        if (observer != null) {
             long endNanos = System.nanoTime();
             int tileX = operatorImage.XToTileX(destRect.x);
             int tileY = operatorImage.YToTileY(destRect.y);
-            tileComputationObserver.tileComputed(new TileComputationEvent(operatorImage, tileX, tileY, startNanos, endNanos));
+            long waitNanos = getSourceWaitNanos() - startSourceWaitNanos;
+            observer.tileComputed(new TileComputationEvent(operatorImage, tileX, tileY, startNanos, endNanos,
+                                                           waitNanos));
+        }
+    }
+
+    /**
+     * @return the total time the current thread spent in {@code getSourceTile()} while tile computations are
+     *         observed, zero otherwise
+     * @since BEAM 4.10.4
+     */
+    public long getSourceWaitNanos() {
+        return tileComputationObserver != null ? sourceWaitNanos.get()[0] : 0L;
+    }
+
+    static boolean isTileComputationObserved() {
+        return tileComputationObserver != null;
+    }
+
+    static void fireTileCacheAccessed(OperatorImage operatorImage, int tileX, int tileY, boolean hit) {
+        final TileComputationObserver observer = tileComputationObserver;
+        if (observer != null) {
+            observer.tileCacheAccessed(operatorImage, tileX, tileY, hit);
+        }
+    }
+
+    static void fireTileRequestCompleted(PlanarImage image, int tileX, int tileY, long scheduledNanos) {
+        final TileComputationObserver observer = tileComputationObserver;
+        if (observer != null) {
+            observer.tileRequestCompleted(image, tileX, tileY, scheduledNanos, System.nanoTime());
         }
     }
 
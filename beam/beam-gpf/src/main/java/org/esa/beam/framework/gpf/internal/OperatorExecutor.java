@@ -183,12 +183,16 @@ public class OperatorExecutor {
             throw error;
         }
         Point[] points = new Point[] { new Point(tileX, tileY) };
+        TileComputationListener[] tileListeners = listeners;
+        if (OperatorContext.isTileComputationObserved()) {
+            tileListeners = new TileComputationListener[] { listeners[0], new TileRequestTimer(System.nanoTime()) };
+        }
         /////////////////////////////////////////////////////////////////////
         //
         // Note: GPF pull-processing is triggered here!!!
         //
         //System.out.println("sched ("+tileX+","+tileY+") ");   //NESTMOD
-        tileScheduler.scheduleTiles(image, points, listeners);
+        tileScheduler.scheduleTiles(image, points, tileListeners);
         //
         /////////////////////////////////////////////////////////////////////
         pm.worked(1);
@@ -285,6 +289,34 @@ public class OperatorExecutor {
         }
     }
     
+    /**
+     * Reports the time from scheduling a tile to its availability, used to derive the time
+     * the request waited in the tile scheduler's queue.
+     */
+    private static class TileRequestTimer implements TileComputationListener {
+
+        private final long scheduledNanos;
+
+        TileRequestTimer(long scheduledNanos) {
+            this.scheduledNanos = scheduledNanos;
+        }
+
+        @Override
+        public void tileComputed(Object eventSource, TileRequest[] requests, PlanarImage image, int tileX, int tileY,
+                                 Raster raster) {
+            OperatorContext.fireTileRequestCompleted(image, tileX, tileY, scheduledNanos);
+        }
+
+        @Override
+        public void tileCancelled(Object eventSource, TileRequest[] requests, PlanarImage image, int tileX, int tileY) {
+        }
+
+        @Override
+        public void tileComputationFailure(Object eventSource, TileRequest[] requests, PlanarImage image, int tileX,
+                                           int tileY, Throwable situation) {
+        }
+    }
+
     private class GPFImagingListener implements ImagingListener {
 
         @Override
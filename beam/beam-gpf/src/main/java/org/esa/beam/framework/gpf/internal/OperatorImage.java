@@ -18,19 +18,37 @@ package org.esa.beam.framework.gpf.internal;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.Tile;
 import org.esa.beam.jai.ImageManager;
 
 import javax.media.jai.ImageLayout;
 import javax.media.jai.PlanarImage;
 import javax.media.jai.SourcelessOpImage;
+import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class OperatorImage extends SourcelessOpImage {
 
+    private static final int MAX_SHARED_REGIONS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
     private final OperatorContext operatorContext;
     private Band targetBand;
+    // regions computed by getUncachedData, shared by all consumers requesting the same region
+    private final Map<Rectangle, FutureTask<Raster>> sharedRegions =
+            new LinkedHashMap<Rectangle, FutureTask<Raster>>(MAX_SHARED_REGIONS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Rectangle, FutureTask<Raster>> eldest) {
+                    return size() > MAX_SHARED_REGIONS;
+                }
+            };
 
     public OperatorImage(Band targetBand, OperatorContext operatorContext) {
         this(targetBand, operatorContext, ImageManager.createSingleBandedImageLayout(targetBand));
@@ -58,9 +76,19 @@ public class OperatorImage extends SourcelessOpImage {
     }
 
 
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        if (OperatorContext.isTileComputationObserved()) {
+            final boolean hit = getTileFromCache(tileX, tileY) != null;
+            OperatorContext.fireTileCacheAccessed(this, tileX, tileY, hit);
+        }
+        return super.getTile(tileX, tileY);
+    }
+
     @Override
     protected void computeRect(PlanarImage[] ignored, WritableRaster tile, Rectangle destRect) {
         long startNanos = System.nanoTime();
+        long startSourceWaitNanos = getOperatorContext().getSourceWaitNanos();
 
         Tile targetTile;
         if (getOperatorContext().isComputingImageOf(getTargetBand())) {
@@ -79,7 +107,68 @@ public class OperatorImage extends SourcelessOpImage {
             getOperatorContext().getOperator().computeTile(getTargetBand(), targetTile, ProgressMonitor.NULL);
         }
 
-        getOperatorContext().fireTileComputed(this, destRect, startNanos);
+        getOperatorContext().fireTileComputed(this, destRect, startNanos, startSourceWaitNanos);
+    }
+
+    /**
+     * Gets the data of the given region. A tile found in the tile cache is used, otherwise the region
+     * is computed into a new raster which is not added to the tile cache. The most recently computed
+     * regions are kept, so that consumers requesting the same region, e.g. for several target bands,
+     * share one computation.
+     *
+     * @param region the region, must be within the image bounds
+     * @return the raster containing the region, must not be modified
+     */
+    Raster getUncachedData(final Rectangle region) {
+        final int tileX = XToTileX(region.x);
+        final int tileY = YToTileY(region.y);
+        if (tileX == XToTileX(region.x + region.width - 1) && tileY == YToTileY(region.y + region.height - 1)) {
+            final Raster cachedTile = getTileFromCache(tileX, tileY);
+            OperatorContext.fireTileCacheAccessed(this, tileX, tileY, cachedTile != null);
+            if (cachedTile != null) {
+                return cachedTile;
+            }
+        }
+        final FutureTask<Raster> computation;
+        synchronized (sharedRegions) {
+            FutureTask<Raster> sharedRegion = sharedRegions.get(region);
+            if (sharedRegion == null) {
+                sharedRegion = new FutureTask<Raster>(new Callable<Raster>() {
+                    @Override
+                    public Raster call() {
+                        final WritableRaster raster = createWritableRaster(
+                                sampleModel.createCompatibleSampleModel(region.width, region.height),
+                                new Point(region.x, region.y));
+                        computeRect((PlanarImage[]) null, raster, region);
+                        return raster;
+                    }
+                });
+                sharedRegions.put(new Rectangle(region), sharedRegion);
+            }
+            computation = sharedRegion;
+        }
+        // only the first caller computes the region, the others wait for it
+        computation.run();
+        try {
+            return computation.get();
+        } catch (ExecutionException e) {
+            synchronized (sharedRegions) {
+                if (sharedRegions.get(region) == computation) {
+                    sharedRegions.remove(region);
+                }
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new OperatorException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperatorException(e);
+        }
     }
 
     protected boolean requiresAllBands() {
@@ -89,6 +178,9 @@ public class OperatorImage extends SourcelessOpImage {
     @Override
     public synchronized void dispose() {
         //targetBand = null;  // NESTMOD
+        synchronized (sharedRegions) {
+            sharedRegions.clear();
+        }
         super.dispose();
     }
 
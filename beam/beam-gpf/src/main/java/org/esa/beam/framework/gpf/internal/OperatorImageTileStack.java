@@ -94,6 +94,7 @@ public class OperatorImageTileStack extends OperatorImage {
     protected void computeRect(PlanarImage[] ignored, WritableRaster tile, Rectangle destRect) {
 
         long startNanos = System.nanoTime();
+        long startSourceWaitNanos = getOperatorContext().getSourceWaitNanos();
 
         Band[] targetBands = getOperatorContext().getTargetProduct().getBands();
         Map<Band, Tile> targetTiles = new HashMap<Band, Tile>(targetBands.length * 2);
@@ -127,7 +128,7 @@ public class OperatorImageTileStack extends OperatorImage {
             /*
             getOperatorContext().addTileToLocalCache(band, tileX, tileY, writableRaster);
             */
-            getOperatorContext().fireTileComputed(operatorImage, destRect, startNanos);
+            getOperatorContext().fireTileComputed(operatorImage, destRect, startNanos, startSourceWaitNanos);
         }
     }
 
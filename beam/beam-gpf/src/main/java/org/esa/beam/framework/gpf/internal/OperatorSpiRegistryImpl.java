@@ -15,6 +15,8 @@
  */
 package org.esa.beam.framework.gpf.internal;
 
+import com.bc.ceres.core.DefaultServiceRegistry;
+import com.bc.ceres.core.ServiceKeyIndex;
 import com.bc.ceres.core.ServiceRegistry;
 import com.bc.ceres.core.ServiceRegistryManager;
 import com.bc.ceres.core.ServiceRegistryListener;
@@ -22,9 +24,10 @@ import org.esa.beam.BeamCoreActivator;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.OperatorSpiRegistry;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A registry for operator SPI instances.
@@ -37,13 +40,14 @@ public class OperatorSpiRegistryImpl implements OperatorSpiRegistry {
 
     private final ServiceRegistry<OperatorSpi> serviceRegistry;
     private final Map<String, String> aliases;
+    private final ServiceKeyIndex<OperatorSpi> aliasIndex;
 
     /**
      * The provate singleton constructor.
      */
     public OperatorSpiRegistryImpl() {
         serviceRegistry = ServiceRegistryManager.getInstance().getServiceRegistry(OperatorSpi.class);
-        aliases = new HashMap<String, String>(20);
+        aliases = new ConcurrentHashMap<String, String>(64);
         serviceRegistry.addListener(new ServiceRegistryListener<OperatorSpi>() {
             public void serviceAdded(ServiceRegistry<OperatorSpi> registry, OperatorSpi service) {
                 setAliases(service);
@@ -53,9 +57,17 @@ public class OperatorSpiRegistryImpl implements OperatorSpiRegistry {
                 unregisterAliases(service);
             }
         });
-        Set<OperatorSpi> services = serviceRegistry.getServices();
-        for (OperatorSpi operatorSpi : services) {
-            setAliases(operatorSpi);
+        aliasIndex = new ServiceKeyIndex<OperatorSpi>(serviceRegistry, new ServiceKeyIndex.KeyProvider<OperatorSpi>() {
+            @Override
+            public String[] getKeys(OperatorSpi operatorSpi) {
+                return new String[]{operatorSpi.getOperatorAlias()};
+            }
+        }, ServiceRegistryManager.getInstance().getServiceKeyCache());
+        if (!(serviceRegistry instanceof DefaultServiceRegistry)) {
+            Set<OperatorSpi> services = serviceRegistry.getServices();
+            for (OperatorSpi operatorSpi : services) {
+                setAliases(operatorSpi);
+            }
         }
     }
 
@@ -90,11 +102,30 @@ public class OperatorSpiRegistryImpl implements OperatorSpiRegistry {
         if (service != null) {
             return service;
         }
-        operatorName = aliases.get(operatorName);
-        if (operatorName != null) {
-            service = serviceRegistry.getService(operatorName);
+        service = getOperatorSpiByAlias(operatorName);
+        if (service != null) {
+            return service;
+        }
+        // declared SPIs are created on demand, the alias index creates the SPIs having the alias
+        List<OperatorSpi> services = aliasIndex.getServices(operatorName);
+        return services.isEmpty() ? null : services.get(0);
+    }
+
+    private OperatorSpi getOperatorSpiByAlias(String aliasName) {
+        String spiClassName = aliases.get(aliasName);
+        if (spiClassName != null) {
+            return serviceRegistry.getService(spiClassName);
+        }
+        return null;
+    }
+
+    /**
+     * Creates all declared SPIs, which registers their aliases.
+     */
+    private void loadAllAliases() {
+        for (OperatorSpi operatorSpi : serviceRegistry.getServices()) {
+            setAliases(operatorSpi);
         }
-        return service;
     }
 
     /**
@@ -145,16 +176,16 @@ public class OperatorSpiRegistryImpl implements OperatorSpiRegistry {
      */
 	// NESTMOD
     public Set getAliases() {
+        loadAllAliases();
         return aliases.keySet();
     }
 
     private void unregisterAliases(OperatorSpi operatorSpi) {
         Class<? extends OperatorSpi> spiClass = operatorSpi.getClass();
         String spiClassName = spiClass.getName();
-        String[] keys = aliases.keySet().toArray(new String[0]);
-        for (String key : keys) {
-            if (aliases.get(key).equalsIgnoreCase(spiClassName)) {
-                aliases.remove(key);
+        for (Map.Entry<String, String> entry : aliases.entrySet()) {
+            if (entry.getValue().equalsIgnoreCase(spiClassName)) {
+                aliases.remove(entry.getKey(), entry.getValue());
             }
         }
     }
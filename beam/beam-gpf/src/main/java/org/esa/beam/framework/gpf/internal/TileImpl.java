@@ -46,7 +46,9 @@ public final class TileImpl implements Tile {
     private final int width;
     private final int height;
     private final boolean target;
+    private final boolean view;
     private final boolean scaled;
+    private final int dataType;
     private final int scanlineOffset;
     private final int scanlineStride;
     private byte[] dataBufferByte = null;
@@ -55,8 +57,10 @@ public final class TileImpl implements Tile {
     private float[] dataBufferFloat = null;
     private double[] dataBufferDouble = null;
 
-    private ProductData dataBuffer;
-    private ProductData rawSamples;
+    private Object primitiveArray = null;
+
+    private volatile ProductData dataBuffer;
+    private volatile ProductData rawSamples;
     private boolean mustWriteSampleData;
     private SampleConverterFactory.SampleConverter sampleConverter = null;
 
@@ -70,9 +74,29 @@ public final class TileImpl implements Tile {
     }
 
     public TileImpl(RasterDataNode rasterDataNode, Raster raster, Rectangle rectangle, boolean target) {
+        this(rasterDataNode, raster, rectangle, target, false);
+    }
+
+    /**
+     * Creates a read-only source tile covering a whole image tile. The source tile shares the
+     * data buffer of the image tile, e.g. a tile in the tile cache, instead of copying it.
+     * Its raw samples are always a copy, so that changing them cannot change the image tile.
+     *
+     * @param rasterDataNode the raster data node
+     * @param imageTile      the image tile
+     * @param region         the region, must be the bounds of the image tile
+     *
+     * @return the source tile
+     */
+    static TileImpl createView(RasterDataNode rasterDataNode, Raster imageTile, Rectangle region) {
+        return new TileImpl(rasterDataNode, imageTile, region, false, true);
+    }
+
+    private TileImpl(RasterDataNode rasterDataNode, Raster raster, Rectangle rectangle, boolean target,
+                     boolean view) {
         //Assert.notNull(rasterDataNode, "rasterDataNode");
         //Assert.argument(raster.getNumBands() == 1, "raster");
-        WritableRaster writableRaster = raster instanceof WritableRaster ? (WritableRaster) raster : null;
+        WritableRaster writableRaster = !view && raster instanceof WritableRaster ? (WritableRaster) raster : null;
         //if (target) {
         //    Assert.argument(writableRaster != null, "raster");
         //}
@@ -93,8 +117,10 @@ public final class TileImpl implements Tile {
         this.width = rectangle.width;
         this.height = rectangle.height;
         this.target = target;
+        this.view = view;
         // todo - optimize getSample()/setSample() methods by using a Closure that either honours scaling / signedByte. (nf 04.2010)
         this.scaled = rasterDataNode.isScalingApplied();
+        this.dataType = rasterDataNode.getDataType();
 
         int smX0 = rectangle.x - raster.getSampleModelTranslateX();
         int smY0 = rectangle.y - raster.getSampleModelTranslateY();
@@ -192,18 +218,27 @@ public final class TileImpl implements Tile {
     }
 
     @Override
-    public synchronized ProductData getDataBuffer() {
-        if (dataBuffer == null) {
-            dataBuffer = ProductData.createInstance(rasterDataNode.getDataType(),
-                    ImageUtils.getPrimitiveArray(raster.getDataBuffer()));
+    public ProductData getDataBuffer() {
+        // no lock needed, concurrent callers at worst create two instances wrapping the same array
+        ProductData data = dataBuffer;
+        if (data == null) {
+            data = ProductData.createInstance(dataType, getPrimitiveArray());
+            dataBuffer = data;
         }
-        return dataBuffer;
+        return data;
+    }
+
+    private Object getPrimitiveArray() {
+        if (primitiveArray == null) {
+            primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+        }
+        return primitiveArray;
     }
 
     @Override
     public final byte[] getDataBufferByte() {
         if(dataBufferByte == null) {
-            Object primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+            Object primitiveArray = getPrimitiveArray();
             this.dataBufferByte = (primitiveArray instanceof byte[]) ? (byte[]) primitiveArray : null;
         }
         return dataBufferByte;
@@ -212,7 +247,7 @@ public final class TileImpl implements Tile {
     @Override
     public final short[] getDataBufferShort() {
         if(dataBufferShort == null) {
-            Object primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+            Object primitiveArray = getPrimitiveArray();
             this.dataBufferShort = (primitiveArray instanceof short[]) ? (short[]) primitiveArray : null;
         }
         return dataBufferShort;
@@ -221,7 +256,7 @@ public final class TileImpl implements Tile {
     @Override
     public final int[] getDataBufferInt() {
         if(dataBufferInt == null) {
-            Object primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+            Object primitiveArray = getPrimitiveArray();
             this.dataBufferInt = (primitiveArray instanceof int[]) ? (int[]) primitiveArray : null;
         }
         return dataBufferInt;
@@ -230,7 +265,7 @@ public final class TileImpl implements Tile {
     @Override
     public final float[] getDataBufferFloat() {
         if(dataBufferFloat == null) {
-            Object primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+            Object primitiveArray = getPrimitiveArray();
             this.dataBufferFloat = (primitiveArray instanceof float[]) ? (float[]) primitiveArray : null;
         }
         return dataBufferFloat;
@@ -239,7 +274,7 @@ public final class TileImpl implements Tile {
     @Override
     public final double[] getDataBufferDouble() {
         if(dataBufferDouble == null) {
-            Object primitiveArray = ImageUtils.getPrimitiveArray(raster.getDataBuffer());
+            Object primitiveArray = getPrimitiveArray();
             this.dataBufferDouble = (primitiveArray instanceof double[]) ? (double[]) primitiveArray : null;
         }
         return dataBufferDouble;
@@ -256,22 +291,33 @@ public final class TileImpl implements Tile {
     }
 
     @Override
-    public synchronized ProductData getRawSamples() {
-        if (rawSamples == null) {
-            ProductData dataBuffer = getDataBuffer();
-            if (width * height == dataBuffer.getNumElems()) {
-                rawSamples = dataBuffer;
-            }
+    public final int getRowOffset(int y) {
+        return scanlineOffset + (y - minY) * scanlineStride;
+    }
+
+    @Override
+    public ProductData getRawSamples() {
+        final ProductData samples = rawSamples;
+        if (samples != null) {
+            return samples;
         }
-        if (rawSamples == null) {
-            rawSamples = rasterDataNode.createCompatibleRasterData(width, height);
-            if (target) {
-                mustWriteSampleData = true;
-            } else {
-                raster.getDataElements(minX, minY, width, height, rawSamples.getElems());
+        synchronized (this) {
+            if (rawSamples == null) {
+                ProductData dataBuffer = getDataBuffer();
+                if (!view && width * height == dataBuffer.getNumElems()) {
+                    rawSamples = dataBuffer;
+                } else {
+                    final ProductData data = rasterDataNode.createCompatibleRasterData(width, height);
+                    if (target) {
+                        mustWriteSampleData = true;
+                    } else {
+                        raster.getDataElements(minX, minY, width, height, data.getElems());
+                    }
+                    rawSamples = data;
+                }
             }
+            return rawSamples;
         }
-        return rawSamples;
     }
 
     @Override
@@ -418,6 +464,229 @@ public final class TileImpl implements Tile {
         }
     }
 
+    @Override
+    public float[] getSamplesRow(int y, float[] samples) {
+        final float[] row = samples != null && samples.length >= width ? samples : new float[width];
+        final Object data = getPrimitiveArray();
+        final int offset = getRowOffset(y);
+        switch (dataType) {
+            case ProductData.TYPE_INT8: {
+                final byte[] array = (byte[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT8: {
+                final byte[] array = (byte[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xff;
+                }
+                break;
+            }
+            case ProductData.TYPE_INT16: {
+                final short[] array = (short[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT16: {
+                final short[] array = (short[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xffff;
+                }
+                break;
+            }
+            case ProductData.TYPE_INT32: {
+                final int[] array = (int[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT32: {
+                final int[] array = (int[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xffffffffL;
+                }
+                break;
+            }
+            case ProductData.TYPE_FLOAT32:
+                System.arraycopy(data, offset, row, 0, width);
+                break;
+            case ProductData.TYPE_FLOAT64: {
+                final double[] array = (double[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = (float) array[offset + i];
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("unsupported data type " + dataType);
+        }
+        if (scaled) {
+            for (int i = 0; i < width; i++) {
+                row[i] = (float) rasterDataNode.scale(row[i]);
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public double[] getSamplesRow(int y, double[] samples) {
+        final double[] row = samples != null && samples.length >= width ? samples : new double[width];
+        final Object data = getPrimitiveArray();
+        final int offset = getRowOffset(y);
+        switch (dataType) {
+            case ProductData.TYPE_INT8: {
+                final byte[] array = (byte[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT8: {
+                final byte[] array = (byte[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xff;
+                }
+                break;
+            }
+            case ProductData.TYPE_INT16: {
+                final short[] array = (short[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT16: {
+                final short[] array = (short[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xffff;
+                }
+                break;
+            }
+            case ProductData.TYPE_INT32: {
+                final int[] array = (int[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT32: {
+                final int[] array = (int[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i] & 0xffffffffL;
+                }
+                break;
+            }
+            case ProductData.TYPE_FLOAT32: {
+                final float[] array = (float[]) data;
+                for (int i = 0; i < width; i++) {
+                    row[i] = array[offset + i];
+                }
+                break;
+            }
+            case ProductData.TYPE_FLOAT64:
+                System.arraycopy(data, offset, row, 0, width);
+                break;
+            default:
+                throw new IllegalStateException("unsupported data type " + dataType);
+        }
+        if (scaled) {
+            for (int i = 0; i < width; i++) {
+                row[i] = rasterDataNode.scale(row[i]);
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public void setSamplesRow(int y, float[] samples) {
+        if (dataType == ProductData.TYPE_FLOAT32 && !scaled) {
+            System.arraycopy(samples, 0, getPrimitiveArray(), getRowOffset(y), width);
+            return;
+        }
+        if (dataType == ProductData.TYPE_FLOAT32) {
+            final float[] array = (float[]) getPrimitiveArray();
+            final int offset = getRowOffset(y);
+            for (int i = 0; i < width; i++) {
+                array[offset + i] = (float) rasterDataNode.scaleInverse(samples[i]);
+            }
+            return;
+        }
+        final Object data = getPrimitiveArray();
+        final int offset = getRowOffset(y);
+        if (dataType == ProductData.TYPE_FLOAT64) {
+            final double[] array = (double[]) data;
+            for (int i = 0; i < width; i++) {
+                array[offset + i] = scaled ? rasterDataNode.scaleInverse(samples[i]) : samples[i];
+            }
+            return;
+        }
+        for (int i = 0; i < width; i++) {
+            setIntegerSample(data, offset + i, scaled ? rasterDataNode.scaleInverse(samples[i]) : samples[i]);
+        }
+    }
+
+    @Override
+    public void setSamplesRow(int y, double[] samples) {
+        final Object data = getPrimitiveArray();
+        final int offset = getRowOffset(y);
+        if (dataType == ProductData.TYPE_FLOAT32) {
+            final float[] array = (float[]) data;
+            for (int i = 0; i < width; i++) {
+                array[offset + i] = (float) (scaled ? rasterDataNode.scaleInverse(samples[i]) : samples[i]);
+            }
+            return;
+        }
+        if (dataType == ProductData.TYPE_FLOAT64) {
+            final double[] array = (double[]) data;
+            for (int i = 0; i < width; i++) {
+                array[offset + i] = scaled ? rasterDataNode.scaleInverse(samples[i]) : samples[i];
+            }
+            return;
+        }
+        for (int i = 0; i < width; i++) {
+            setIntegerSample(data, offset + i, scaled ? rasterDataNode.scaleInverse(samples[i]) : samples[i]);
+        }
+    }
+
+    /*
+     * Sets a raw sample of an integer typed tile, cropped to the raw value range like setSample() does.
+     */
+    private void setIntegerSample(Object data, int index, double rawSample) {
+        switch (dataType) {
+            case ProductData.TYPE_INT8:
+                ((byte[]) data)[index] = (byte) crop(rawSample, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                break;
+            case ProductData.TYPE_UINT8:
+                ((byte[]) data)[index] = (byte) crop(rawSample, 0, 0xff);
+                break;
+            case ProductData.TYPE_INT16:
+                ((short[]) data)[index] = (short) crop(rawSample, Short.MIN_VALUE, Short.MAX_VALUE);
+                break;
+            case ProductData.TYPE_UINT16:
+                ((short[]) data)[index] = (short) crop(rawSample, 0, 0xffff);
+                break;
+            case ProductData.TYPE_INT32:
+                ((int[]) data)[index] = (int) crop(rawSample, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                break;
+            case ProductData.TYPE_UINT32:
+                ((int[]) data)[index] = (int) crop(rawSample, 0, 0xffffffffL);
+                break;
+            default:
+                throw new IllegalStateException("unsupported data type " + dataType);
+        }
+    }
+
+    private static long crop(double sample, long min, long max) {
+        // truncates towards zero like WritableRaster.setSample(int, int, int, double)
+        final long value = (long) sample;
+        return value < min ? min : value > max ? max : value;
+    }
+
     @Override
     public boolean getSampleBoolean(int x, int y) {
         return getSampleInt(x, y) != 0;
@@ -51,6 +51,7 @@ class CommandLineArgs {
     private boolean stackTraceDump;
     private boolean clearCacheAfterRowWrite;
     private long tileCacheCapacity;
+    private String traceFilepath;
 
     private int tileSchedulerParallelism;
 
@@ -111,6 +112,9 @@ class CommandLineArgs {
                 } else if (arg.equals("-c")) {
                     tileCacheCapacity = parseOptionArgumentBytes(arg, i);
                     i++;
+                } else if (arg.equals("-trace")) {
+                    traceFilepath = parseOptionArgument(arg, i);
+                    i++;
                 } else if (arg.equals("-inFolder")) {
                     inFolderPath = parseOptionArgument(arg, i);
                     i++;
@@ -201,6 +205,10 @@ class CommandLineArgs {
         return clearCacheAfterRowWrite;
     }
 
+    public String getTraceFilepath() {
+        return traceFilepath;
+    }
+
     public SortedMap<String, String> getParameterMap() {
         return parameterMap;
     }
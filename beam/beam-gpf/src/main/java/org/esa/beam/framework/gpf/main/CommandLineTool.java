@@ -35,6 +35,7 @@ import org.esa.beam.framework.gpf.graph.Graph;
 import org.esa.beam.framework.gpf.graph.GraphException;
 import org.esa.beam.framework.gpf.graph.Node;
 import org.esa.beam.framework.gpf.graph.NodeSource;
+import org.esa.beam.framework.gpf.monitor.TileComputationTracer;
 import org.esa.beam.gpf.operators.standard.ReadOp;
 import org.esa.beam.gpf.operators.standard.WriteOp;
 import org.esa.beam.util.logging.BeamLogManager;
@@ -137,6 +138,10 @@ class CommandLineTool {
     }
 
     private void run(CommandLineArgs lineArgs) throws ValidationException, ConversionException, IOException, GraphException {
+        if (lineArgs.getTraceFilepath() != null) {
+            System.setProperty(GPF.TILE_COMPUTATION_OBSERVER_PROPERTY, TileComputationTracer.class.getName());
+            System.setProperty(GPF.TILE_COMPUTATION_TRACE_FILE_PROPERTY, lineArgs.getTraceFilepath());
+        }
         long memoryCapacity = lineArgs.getTileCacheCapacity();
         if (memoryCapacity > 0) {
             JAI.enableDefaultTileCache();
@@ -30,17 +30,29 @@ public class TileComputationEvent {
     private final int tileY;
     private final long startNanos;
     private final long endNanos;
+    private final long sourceWaitNanos;
     private final String threadName;
 
     static int ids = 0;
 
     public TileComputationEvent(OperatorImage image, int tileX, int tileY, long startNanos, long endNanos) {
+        this(image, tileX, tileY, startNanos, endNanos, 0L);
+    }
+
+    /**
+     * @param sourceWaitNanos the part of the computation time spent in
+     *                        {@link org.esa.beam.framework.gpf.Operator#getSourceTile Operator.getSourceTile()}
+     * @since BEAM 4.10.4
+     */
+    public TileComputationEvent(OperatorImage image, int tileX, int tileY, long startNanos, long endNanos,
+                                long sourceWaitNanos) {
         this.id = ++ids;
         this.image = image;
         this.tileX = tileX;
         this.tileY = tileY;
         this.startNanos = startNanos;
         this.endNanos = endNanos;
+        this.sourceWaitNanos = sourceWaitNanos;
         this.threadName = Thread.currentThread().getName();
     }
 
@@ -68,6 +80,23 @@ public class TileComputationEvent {
         return endNanos;
     }
 
+    /**
+     * @return The time the operator was blocked in {@code getSourceTile()}, including the computation of
+     *         source tiles done in the same thread.
+     * @since BEAM 4.10.4
+     */
+    public long getSourceWaitNanos() {
+        return sourceWaitNanos;
+    }
+
+    /**
+     * @return The time spent in the operator itself, i.e. the computation time without the source wait time.
+     * @since BEAM 4.10.4
+     */
+    public long getSelfNanos() {
+        return endNanos - startNanos - sourceWaitNanos;
+    }
+
     public String getThreadName() {
         return threadName;
     }
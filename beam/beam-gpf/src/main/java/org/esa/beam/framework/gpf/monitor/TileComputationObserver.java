@@ -15,6 +15,9 @@
  */
 package org.esa.beam.framework.gpf.monitor;
 
+import org.esa.beam.framework.gpf.internal.OperatorImage;
+
+import javax.media.jai.PlanarImage;
 import java.util.logging.Logger;
 
 /**
@@ -24,6 +27,10 @@ import java.util.logging.Logger;
  * <ol>
  *     <li>{@link #start()} is called only once before any other method is called.</li>
  *     <li>{@link #tileComputed(TileComputationEvent)} is called for each tile computed by any GPF {@link org.esa.beam.framework.gpf.Operator Operator}.</li>
+ *     <li>{@link #tileCacheAccessed(OperatorImage, int, int, boolean)} is called each time a tile of an operator
+ *     image is requested.</li>
+ *     <li>{@link #tileRequestCompleted(PlanarImage, int, int, long, long)} is called each time a tile scheduled
+ *     by the framework, e.g. for writing, is available.</li>
  *     <li>{@link #stop()} is called after a {@link org.esa.beam.framework.datamodel.Product Product} has been
  *     fully written using the {@link org.esa.beam.gpf.operators.standard.WriteOp WriteOp} operator.</li>
  * </ol>
@@ -57,6 +64,36 @@ public abstract class TileComputationObserver {
      */
     public abstract void tileComputed(TileComputationEvent event);
 
+    /**
+     * Called each time a tile of an operator image is requested, before it is taken from the tile cache or
+     * computed. This method is usually called asynchronously by multiple threads. The default implementation
+     * does nothing.
+     *
+     * @param image The operator image.
+     * @param tileX The tile X index.
+     * @param tileY The tile Y index.
+     * @param hit   {@code true} if the tile is found in the tile cache.
+     * @since BEAM 4.10.4
+     */
+    public void tileCacheAccessed(OperatorImage image, int tileX, int tileY, boolean hit) {
+    }
+
+    /**
+     * Called each time a tile scheduled by the framework is available. The time between scheduling
+     * and the start of the tile computation is the time the request waited in the tile scheduler's queue.
+     * This method is usually called asynchronously by multiple threads. The default implementation does nothing.
+     *
+     * @param image          The image.
+     * @param tileX          The tile X index.
+     * @param tileY          The tile Y index.
+     * @param scheduledNanos The time the tile has been scheduled.
+     * @param completedNanos The time the tile has been available.
+     * @since BEAM 4.10.4
+     */
+    public void tileRequestCompleted(PlanarImage image, int tileX, int tileY, long scheduledNanos,
+                                     long completedNanos) {
+    }
+
     /**
      * Stops observation of tile computation events.
      */
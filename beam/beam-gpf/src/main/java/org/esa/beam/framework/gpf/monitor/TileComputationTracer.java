@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.beam.framework.gpf.monitor;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.GPF;
+import org.esa.beam.framework.gpf.internal.OperatorContext;
+import org.esa.beam.framework.gpf.internal.OperatorImage;
+
+import javax.media.jai.PlanarImage;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A tile observer which records a timeline of all tile computations and tile requests.
+ * <p/>
+ * When observation stops, the timeline is written in the Chrome trace event format (open it with
+ * {@code chrome://tracing}) to the file given by the system property {@link GPF#TILE_COMPUTATION_TRACE_FILE_PROPERTY}
+ * and a summary is logged. The summary lists for each operator the number of computed tiles, the compute time
+ * split into self time and time blocked in {@code getSourceTile()}, tile cache hits and misses, the bytes of the
+ * computed tiles (the bytes read by readers and written by writers) and the time tile requests waited in the
+ * tile scheduler's queue.
+ * <p/>
+ * May be used as a value for the 'beam.config' variable 'beam.gpf.tileComputationObserver'
+ * or enabled by the {@code -trace} option of {@code gpt}.
+ *
+ * @since BEAM 4.10.4
+ */
+public class TileComputationTracer extends TileComputationObserver {
+
+    public static final String DEFAULT_TRACE_FILE = "gpf-trace.json";
+
+    private static class RequestEvent {
+        private final PlanarImage image;
+        private final int tileX;
+        private final int tileY;
+        private final long scheduledNanos;
+        private final long completedNanos;
+
+        RequestEvent(PlanarImage image, int tileX, int tileY, long scheduledNanos, long completedNanos) {
+            this.image = image;
+            this.tileX = tileX;
+            this.tileY = tileY;
+            this.scheduledNanos = scheduledNanos;
+            this.completedNanos = completedNanos;
+        }
+    }
+
+    private static class OperatorStatistics {
+        private final String name;
+        private long tileCount;
+        private long computeNanos;
+        private long sourceWaitNanos;
+        private long bytes;
+        private long cacheHits;
+        private long cacheMisses;
+        private long requestCount;
+        private long queueWaitNanos;
+
+        OperatorStatistics(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<TileComputationEvent> computationEvents = new ArrayList<TileComputationEvent>(4096);
+    private final List<RequestEvent> requestEvents = new ArrayList<RequestEvent>(1024);
+    private final Map<OperatorContext, long[]> cacheCounters = new IdentityHashMap<OperatorContext, long[]>();
+    private final Thread shutdownHook = new Thread("GPF trace writer") {
+        @Override
+        public void run() {
+            writeResults();
+        }
+    };
+    private File traceFile;
+    private long startNanos;
+    private boolean written;
+
+    @Override
+    public void start() {
+        traceFile = new File(System.getProperty(GPF.TILE_COMPUTATION_TRACE_FILE_PROPERTY, DEFAULT_TRACE_FILE));
+        startNanos = System.nanoTime();
+        // graphs are not stopped explicitly, so the trace is also written on exit
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        getLogger().info("Starting trace of tile computations to " + traceFile.getAbsolutePath());
+    }
+
+    @Override
+    public void tileComputed(TileComputationEvent event) {
+        synchronized (computationEvents) {
+            computationEvents.add(event);
+        }
+    }
+
+    @Override
+    public void tileCacheAccessed(OperatorImage image, int tileX, int tileY, boolean hit) {
+        synchronized (cacheCounters) {
+            long[] counters = cacheCounters.get(image.getOperatorContext());
+            if (counters == null) {
+                counters = new long[2];
+                cacheCounters.put(image.getOperatorContext(), counters);
+            }
+            counters[hit ? 0 : 1]++;
+        }
+    }
+
+    @Override
+    public void tileRequestCompleted(PlanarImage image, int tileX, int tileY, long scheduledNanos,
+                                     long completedNanos) {
+        synchronized (requestEvents) {
+            requestEvents.add(new RequestEvent(image, tileX, tileY, scheduledNanos, completedNanos));
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // already shutting down
+        }
+        writeResults();
+    }
+
+    private synchronized void writeResults() {
+        if (written) {
+            return;
+        }
+        written = true;
+
+        final TileComputationEvent[] events;
+        synchronized (computationEvents) {
+            events = computationEvents.toArray(new TileComputationEvent[computationEvents.size()]);
+        }
+        final RequestEvent[] requests;
+        synchronized (requestEvents) {
+            requests = requestEvents.toArray(new RequestEvent[requestEvents.size()]);
+        }
+
+        try {
+            writeTrace(events, requests);
+            getLogger().info("Tile computation trace written to " + traceFile.getAbsolutePath());
+        } catch (IOException e) {
+            getLogger().warning("Failed to write tile computation trace: " + e.getMessage());
+        }
+        logSummary(computeStatistics(events, requests));
+    }
+
+    private void writeTrace(TileComputationEvent[] events, RequestEvent[] requests) throws IOException {
+        final Writer writer = new BufferedWriter(new FileWriter(traceFile));
+        try {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":0,\"args\":{\"name\":\"Tile requests\"}}");
+
+            final Map<String, Integer> threadIds = new HashMap<String, Integer>();
+            for (TileComputationEvent event : events) {
+                Integer tid = threadIds.get(event.getThreadName());
+                if (tid == null) {
+                    tid = threadIds.size() + 1;
+                    threadIds.put(event.getThreadName(), tid);
+                    writer.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid +
+                                 ",\"args\":{\"name\":" + quote(event.getThreadName()) + "}}");
+                }
+                final OperatorImage image = event.getImage();
+                writer.write(",\n{\"name\":" + quote(image.getOperatorContext().getId()) +
+                             ",\"cat\":\"compute\",\"ph\":\"X\",\"pid\":1,\"tid\":" + tid +
+                             ",\"ts\":" + toMicros(event.getStartNanos() - startNanos) +
+                             ",\"dur\":" + toMicros(event.getEndNanos() - event.getStartNanos()) +
+                             ",\"args\":{\"band\":" + quote(getBandName(image)) +
+                             ",\"tileX\":" + event.getTileX() + ",\"tileY\":" + event.getTileY() +
+                             ",\"selfMicros\":" + toMicros(event.getSelfNanos()) +
+                             ",\"sourceWaitMicros\":" + toMicros(event.getSourceWaitNanos()) + "}}");
+            }
+
+            int id = 0;
+            for (RequestEvent request : requests) {
+                final String name = quote(getImageName(request.image) + " tile " + request.tileX + ',' + request.tileY);
+                ++id;
+                writer.write(",\n{\"name\":" + name + ",\"cat\":\"request\",\"ph\":\"b\",\"id\":" + id +
+                             ",\"pid\":1,\"tid\":0,\"ts\":" + toMicros(request.scheduledNanos - startNanos) + '}');
+                writer.write(",\n{\"name\":" + name + ",\"cat\":\"request\",\"ph\":\"e\",\"id\":" + id +
+                             ",\"pid\":1,\"tid\":0,\"ts\":" + toMicros(request.completedNanos - startNanos) + '}');
+            }
+            writer.write("\n]}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private Map<Object, OperatorStatistics> computeStatistics(TileComputationEvent[] events,
+                                                              RequestEvent[] requests) {
+        final Map<Object, OperatorStatistics> statisticsMap = new LinkedHashMap<Object, OperatorStatistics>();
+        final Map<String, List<TileComputationEvent>> tileEvents = new HashMap<String, List<TileComputationEvent>>();
+        for (TileComputationEvent event : events) {
+            final OperatorImage image = event.getImage();
+            final OperatorStatistics statistics = getStatistics(statisticsMap, image);
+            statistics.tileCount++;
+            statistics.computeNanos += event.getEndNanos() - event.getStartNanos();
+            statistics.sourceWaitNanos += event.getSourceWaitNanos();
+            final Band band = image.getTargetBand();
+            if (band != null) {
+                final int tileWidth = Math.min(image.getTileWidth(), image.getMaxX() - image.tileXToX(event.getTileX()));
+                final int tileHeight = Math.min(image.getTileHeight(), image.getMaxY() - image.tileYToY(event.getTileY()));
+                statistics.bytes += (long) tileWidth * tileHeight * ProductData.getElemSize(band.getDataType());
+            }
+
+            final String key = getTileKey(image, event.getTileX(), event.getTileY());
+            List<TileComputationEvent> list = tileEvents.get(key);
+            if (list == null) {
+                list = new ArrayList<TileComputationEvent>(1);
+                tileEvents.put(key, list);
+            }
+            list.add(event);
+        }
+
+        synchronized (cacheCounters) {
+            for (Map.Entry<OperatorContext, long[]> entry : cacheCounters.entrySet()) {
+                OperatorStatistics statistics = statisticsMap.get(entry.getKey());
+                if (statistics == null) {
+                    statistics = new OperatorStatistics(entry.getKey().getId());
+                    statisticsMap.put(entry.getKey(), statistics);
+                }
+                statistics.cacheHits += entry.getValue()[0];
+                statistics.cacheMisses += entry.getValue()[1];
+            }
+        }
+
+        for (RequestEvent request : requests) {
+            // the queue wait ends when the computation of the tile starts, or when it is taken from the cache
+            long queueEndNanos = request.completedNanos;
+            final List<TileComputationEvent> list = tileEvents.get(getTileKey(request.image, request.tileX, request.tileY));
+            if (list != null) {
+                for (TileComputationEvent event : list) {
+                    final long eventStartNanos = event.getStartNanos();
+                    if (eventStartNanos >= request.scheduledNanos && eventStartNanos < queueEndNanos) {
+                        queueEndNanos = eventStartNanos;
+                    }
+                }
+            }
+            final Object key = request.image instanceof OperatorImage ?
+                               ((OperatorImage) request.image).getOperatorContext() : request.image;
+            OperatorStatistics statistics = statisticsMap.get(key);
+            if (statistics == null) {
+                statistics = new OperatorStatistics(getImageName(request.image));
+                statisticsMap.put(key, statistics);
+            }
+            statistics.requestCount++;
+            statistics.queueWaitNanos += queueEndNanos - request.scheduledNanos;
+        }
+        return statisticsMap;
+    }
+
+    private void logSummary(Map<Object, OperatorStatistics> statisticsMap) {
+        final StringBuilder sb = new StringBuilder("Tile computation summary, total time ");
+        sb.append(String.format(Locale.ENGLISH, "%.1f sec.%n", (System.nanoTime() - startNanos) * 1.0E-9));
+        sb.append(String.format(Locale.ENGLISH, "%-32s %8s %12s %12s %12s %10s %10s %10s %8s %12s%n",
+                                "Operator", "Tiles", "Compute(ms)", "Self(ms)", "Source(ms)",
+                                "CacheHits", "CacheMiss", "MBytes", "Requests", "Queue(ms)"));
+        final List<OperatorStatistics> statisticsList = new ArrayList<OperatorStatistics>(statisticsMap.values());
+        for (OperatorStatistics s : statisticsList) {
+            sb.append(String.format(Locale.ENGLISH, "%-32s %8d %12.1f %12.1f %12.1f %10d %10d %10.1f %8d %12.1f%n",
+                                    s.name, s.tileCount, toMillis(s.computeNanos),
+                                    toMillis(s.computeNanos - s.sourceWaitNanos), toMillis(s.sourceWaitNanos),
+                                    s.cacheHits, s.cacheMisses, s.bytes / (1024.0 * 1024.0),
+                                    s.requestCount, toMillis(s.queueWaitNanos)));
+        }
+        getLogger().info(sb.toString());
+    }
+
+    private static OperatorStatistics getStatistics(Map<Object, OperatorStatistics> statisticsMap,
+                                                    OperatorImage image) {
+        final OperatorContext operatorContext = image.getOperatorContext();
+        OperatorStatistics statistics = statisticsMap.get(operatorContext);
+        if (statistics == null) {
+            statistics = new OperatorStatistics(operatorContext.getId());
+            statisticsMap.put(operatorContext, statistics);
+        }
+        return statistics;
+    }
+
+    private static String getTileKey(PlanarImage image, int tileX, int tileY) {
+        return System.identityHashCode(image) + ":" + tileX + ',' + tileY;
+    }
+
+    private static String getBandName(OperatorImage image) {
+        return image.getTargetBand() != null ? image.getTargetBand().getName() : "";
+    }
+
+    private static String getImageName(PlanarImage image) {
+        if (image instanceof OperatorImage) {
+            final OperatorImage operatorImage = (OperatorImage) image;
+            return operatorImage.getOperatorContext().getId() + ' ' + getBandName(operatorImage);
+        }
+        return image.toString();
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos / 1000L;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos * 1.0E-6;
+    }
+
+    private static String quote(String value) {
+        final StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+}
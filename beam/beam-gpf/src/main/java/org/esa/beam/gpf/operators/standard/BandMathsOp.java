@@ -125,7 +125,8 @@ import java.util.Map;
                   copyright = "(c) 2010 by Brockmann Consult",
 		          category = "Utilities",
                   authors = "Marco Zuehlke, Norman Fomferra, Marco Peters",
-                  description = "Create a product with one or more bands using mathematical expressions.")
+                  description = "Create a product with one or more bands using mathematical expressions.",
+                  pointWise = true)
 public class BandMathsOp extends Operator {
 
     public static class BandDescriptor {
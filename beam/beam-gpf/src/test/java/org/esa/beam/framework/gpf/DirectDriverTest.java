@@ -246,6 +246,47 @@ public class DirectDriverTest extends TestCase {
             return width;
         }
 
+        @Override
+        public final int getRowOffset(int y) {
+            return (y - minY) * width;
+        }
+
+        @Override
+        public float[] getSamplesRow(int y, float[] samples) {
+            final float[] row = samples != null && samples.length >= width ? samples : new float[width];
+            final int offset = getRowOffset(y);
+            for (int i = 0; i < width; i++) {
+                row[i] = toGeoPhysical(dataBuffer.getElemFloatAt(offset + i));
+            }
+            return row;
+        }
+
+        @Override
+        public double[] getSamplesRow(int y, double[] samples) {
+            final double[] row = samples != null && samples.length >= width ? samples : new double[width];
+            final int offset = getRowOffset(y);
+            for (int i = 0; i < width; i++) {
+                row[i] = toGeoPhysical(dataBuffer.getElemDoubleAt(offset + i));
+            }
+            return row;
+        }
+
+        @Override
+        public void setSamplesRow(int y, float[] samples) {
+            final int offset = getRowOffset(y);
+            for (int i = 0; i < width; i++) {
+                dataBuffer.setElemFloatAt(offset + i, toRaw(samples[i]));
+            }
+        }
+
+        @Override
+        public void setSamplesRow(int y, double[] samples) {
+            final int offset = getRowOffset(y);
+            for (int i = 0; i < width; i++) {
+                dataBuffer.setElemDoubleAt(offset + i, toRaw(samples[i]));
+            }
+        }
+
         @Override
         public synchronized ProductData getRawSamples() {
             return dataBuffer;
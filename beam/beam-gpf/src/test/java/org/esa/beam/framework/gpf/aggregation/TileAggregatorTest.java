@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+
+package org.esa.beam.framework.gpf.aggregation;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+import static org.junit.Assert.*;
+
+public class TileAggregatorTest {
+
+    @Test
+    public void testAggregateAllTiles() throws Exception {
+        final SumAggregator aggregator = new SumAggregator(100, 70, new Dimension(32, 32));
+        final MomentsAccumulator result = aggregator.aggregate(ProgressMonitor.NULL);
+
+        assertEquals(100 * 70, result.getCount());
+        assertEquals(0.0, result.getMin(), 0.0);
+        assertEquals(100 * 70 - 1, result.getMax(), 0.0);
+        assertEquals((100 * 70 - 1) / 2.0, result.getMean(), 1e-10);
+    }
+
+    @Test
+    public void testTileAccumulatedTwiceIsCountedOnce() throws Exception {
+        final SumAggregator aggregator = new SumAggregator(100, 70, new Dimension(32, 32));
+        assertTrue(aggregator.isEmpty());
+
+        aggregator.accumulateTile(new Rectangle(0, 0, 32, 32));
+        aggregator.accumulateTile(new Rectangle(0, 0, 32, 32));
+        assertFalse(aggregator.isEmpty());
+        assertEquals(32 * 32, aggregator.getResult().getCount());
+
+        // remaining tiles are computed by aggregate
+        assertEquals(100 * 70, aggregator.aggregate(ProgressMonitor.NULL).getCount());
+    }
+
+    @Test
+    public void testPutTile() throws Exception {
+        final SumAggregator aggregator = new SumAggregator(100, 70, new Dimension(32, 32));
+        final MomentsAccumulator accumulator = new MomentsAccumulator();
+        accumulator.add(-1.0);
+        aggregator.putTile(new Rectangle(0, 0, 32, 32), accumulator);
+
+        final MomentsAccumulator result = aggregator.aggregate(ProgressMonitor.NULL);
+        assertEquals(100 * 70 - 32 * 32 + 1, result.getCount());
+        assertEquals(-1.0, result.getMin(), 0.0);
+    }
+
+    @Test
+    public void testMomentsOfLargeValues() throws Exception {
+        final MomentsAccumulator a = new MomentsAccumulator();
+        a.add(1.0e9 + 1);
+        a.add(1.0e9 + 2);
+        final MomentsAccumulator b = new MomentsAccumulator();
+        b.add(1.0e9 + 3);
+        b.add(1.0e9 + 4);
+        a.merge(b);
+        a.merge(new MomentsAccumulator());
+
+        assertEquals(4, a.getCount());
+        assertEquals(1.0e9 + 2.5, a.getMean(), 1e-6);
+        assertEquals(1.25, a.getVariance(), 1e-6);
+        assertEquals(4 * 1.0e18 * 1.25, a.getVarianceOfSquares(), 1.0e12);
+    }
+
+    @Test
+    public void testCovariance() throws Exception {
+        final CovarianceAccumulator a = new CovarianceAccumulator(2);
+        a.add(new double[]{1, 2});
+        a.add(new double[]{3, 6});
+        final CovarianceAccumulator b = new CovarianceAccumulator(2);
+        b.add(new double[]{5, 10});
+        a.merge(b);
+
+        assertEquals(3, a.getCount());
+        assertArrayEquals(new double[]{3, 6}, a.getMean(), 1e-10);
+        final double[][] cov = a.getCovariance();
+        assertEquals(8.0 / 3.0, cov[0][0], 1e-10);
+        assertEquals(16.0 / 3.0, cov[0][1], 1e-10);
+        assertEquals(cov[0][1], cov[1][0], 0.0);
+        assertEquals(32.0 / 3.0, cov[1][1], 1e-10);
+    }
+
+    @Test
+    public void testHistogramMerge() throws Exception {
+        final HistogramAccumulator a = new HistogramAccumulator(4, 0.0, 4.0);
+        a.add(0.5);
+        a.add(4.0);
+        a.add(5.0);
+        final HistogramAccumulator b = new HistogramAccumulator(4, 0.0, 4.0);
+        b.add(0.1);
+        a.merge(b);
+
+        assertArrayEquals(new int[]{2, 0, 0, 1}, a.getBins());
+        assertEquals(1, a.getOutOfRangeCount());
+    }
+
+    private static class SumAggregator extends TileAggregator<MomentsAccumulator> {
+
+        private final int width;
+
+        SumAggregator(int width, int height, Dimension tileSize) {
+            super(width, height, tileSize);
+            this.width = width;
+        }
+
+        @Override
+        protected MomentsAccumulator createAccumulator() {
+            return new MomentsAccumulator();
+        }
+
+        @Override
+        protected void accumulate(MomentsAccumulator accumulator, Rectangle rectangle) {
+            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                    accumulator.add(y * width + x);
+                }
+            }
+        }
+    }
+}
@@ -16,12 +16,15 @@
 
 package org.esa.beam.framework.gpf.internal;
 
+import com.bc.ceres.core.DefaultServiceRegistry;
 import junit.framework.TestCase;
 import org.esa.beam.framework.gpf.GPF;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.TestOps;
 import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
 
+import java.util.concurrent.Callable;
+
 /**
  * A registry for operator SPI instances.
  *
@@ -41,6 +44,39 @@ public class OperatorSpiRegistryImplTest extends TestCase {
         assertNull(GPF.getDefaultInstance().getOperatorSpiRegistry().getOperatorSpi("Heino"));
     }
 
+    public void testDeclaredSpiIsCreatedOnFirstLookup() {
+        final DefaultServiceRegistry<OperatorSpi> serviceRegistry =
+                (DefaultServiceRegistry<OperatorSpi>) GPF.getDefaultInstance().getOperatorSpiRegistry().getServiceRegistry();
+        final String spiClassName = LazyOp.Spi.class.getName();
+        final int[] creationCount = new int[1];
+        serviceRegistry.addServiceProvider(spiClassName, new Callable<OperatorSpi>() {
+            @Override
+            public OperatorSpi call() {
+                creationCount[0]++;
+                return new LazyOp.Spi();
+            }
+        });
+        try {
+            assertEquals(0, creationCount[0]);
+            final OperatorSpi spi = GPF.getDefaultInstance().getOperatorSpiRegistry().getOperatorSpi("Lazy");
+            assertNotNull(spi);
+            assertSame(LazyOp.Spi.class, spi.getClass());
+            assertSame(spi, GPF.getDefaultInstance().getOperatorSpiRegistry().getOperatorSpi("Lazy"));
+            assertEquals(1, creationCount[0]);
+        } finally {
+            serviceRegistry.removeServiceProvider(spiClassName);
+        }
+    }
+
+    @OperatorMetadata(alias = "Lazy")
+    public static class LazyOp extends TestOps.Op1 {
+        public static class Spi extends OperatorSpi {
+            public Spi() {
+                super(LazyOp.class);
+            }
+        }
+    }
+
     @OperatorMetadata(alias = "Heino")
     public static class DummyOp extends TestOps.Op1 {
         public static class Spi extends OperatorSpi {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.beam.framework.gpf.internal;
+
+import com.bc.ceres.core.ProgressMonitor;
+import junit.framework.TestCase;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
+import org.esa.beam.framework.gpf.annotations.SourceProduct;
+import org.esa.beam.framework.gpf.annotations.TargetProduct;
+
+import javax.media.jai.JAI;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+
+public class PointOperatorFusionTest extends TestCase {
+
+    private static final int W = 16;
+    private static final int H = 16;
+
+    public void testIntermediateTilesAreNotCached() {
+        final AddOneOp op1 = new AddOneOp();
+        op1.setSourceProduct(createSourceProduct());
+        final Product intermediate = op1.getTargetProduct();
+        final AddOneOp op2 = new AddOneOp();
+        op2.setSourceProduct(intermediate);
+        final Product target = op2.getTargetProduct();
+
+        final Raster raster = target.getBand("a").getSourceImage().getData(new Rectangle(0, 0, W, H));
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                assertEquals(y * W + x + 2.0F, raster.getSampleFloat(x, y, 0), 0.0F);
+            }
+        }
+
+        final RenderedImage intermediateImage = intermediate.getBand("a").getSourceImage().getImage(0);
+        assertTrue(intermediateImage instanceof OperatorImage);
+        assertEquals(4, op1.numTilesComputed);
+        for (int tileY = 0; tileY < 2; tileY++) {
+            for (int tileX = 0; tileX < 2; tileX++) {
+                assertNull(JAI.getDefaultInstance().getTileCache().getTile(intermediateImage, tileX, tileY));
+            }
+        }
+    }
+
+    public void testIntermediateTileIsSharedByTargetBands() {
+        final AddOneOp op1 = new AddOneOp();
+        op1.setSourceProduct(createSourceProduct());
+        final TwoBandsOp op2 = new TwoBandsOp();
+        op2.setSourceProduct(op1.getTargetProduct());
+        final Product target = op2.getTargetProduct();
+
+        // the bands of a tile are computed one after the other, as when writing a product
+        for (int y = 0; y < H; y += 8) {
+            for (int x = 0; x < W; x += 8) {
+                final Rectangle tileRect = new Rectangle(x, y, 8, 8);
+                final Raster rasterA = target.getBand("a").getSourceImage().getData(tileRect);
+                final Raster rasterB = target.getBand("b").getSourceImage().getData(tileRect);
+                assertEquals(y * W + x + 1.0F, rasterA.getSampleFloat(x, y, 0), 0.0F);
+                assertEquals(y * W + x + 1.0F, rasterB.getSampleFloat(x, y, 0), 0.0F);
+            }
+        }
+        assertEquals(4, op1.numTilesComputed);
+    }
+
+    private static Product createSourceProduct() {
+        final Product source = new Product("s", "t", W, H);
+        source.setPreferredTileSize(8, 8);
+        final Band band = source.addBand("a", ProductData.TYPE_FLOAT32);
+        final ProductData data = band.createCompatibleRasterData();
+        for (int i = 0; i < W * H; i++) {
+            data.setElemFloatAt(i, i);
+        }
+        band.setRasterData(data);
+        return source;
+    }
+
+    @OperatorMetadata(alias = "AddOne", pointWise = true)
+    public static class AddOneOp extends Operator {
+
+        @SourceProduct
+        Product sourceProduct;
+
+        @TargetProduct
+        Product targetProduct;
+
+        int numTilesComputed;
+
+        @Override
+        public void initialize() throws OperatorException {
+            targetProduct = new Product("t", "t", W, H);
+            targetProduct.setPreferredTileSize(8, 8);
+            targetProduct.addBand("a", ProductData.TYPE_FLOAT32);
+        }
+
+        @Override
+        public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
+            synchronized (this) {
+                numTilesComputed++;
+            }
+            final Tile sourceTile = getSourceTile(sourceProduct.getBand("a"), targetTile.getRectangle());
+            float[] row = null;
+            for (int y = targetTile.getMinY(); y <= targetTile.getMaxY(); y++) {
+                row = sourceTile.getSamplesRow(y, row);
+                for (int i = 0; i < targetTile.getWidth(); i++) {
+                    row[i] += 1.0F;
+                }
+                targetTile.setSamplesRow(y, row);
+            }
+        }
+    }
+
+    @OperatorMetadata(alias = "TwoBands", pointWise = true)
+    public static class TwoBandsOp extends Operator {
+
+        @SourceProduct
+        Product sourceProduct;
+
+        @TargetProduct
+        Product targetProduct;
+
+        @Override
+        public void initialize() throws OperatorException {
+            targetProduct = new Product("t", "t", W, H);
+            targetProduct.setPreferredTileSize(8, 8);
+            targetProduct.addBand("a", ProductData.TYPE_FLOAT32);
+            targetProduct.addBand("b", ProductData.TYPE_FLOAT32);
+        }
+
+        @Override
+        public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
+            final Tile sourceTile = getSourceTile(sourceProduct.getBand("a"), targetTile.getRectangle());
+            float[] row = null;
+            for (int y = targetTile.getMinY(); y <= targetTile.getMaxY(); y++) {
+                row = sourceTile.getSamplesRow(y, row);
+                targetTile.setSamplesRow(y, row);
+            }
+        }
+    }
+}
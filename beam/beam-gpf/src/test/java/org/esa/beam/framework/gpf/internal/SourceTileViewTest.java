@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.beam.framework.gpf.internal;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.annotations.SourceProduct;
+import org.esa.beam.framework.gpf.annotations.TargetProduct;
+import org.esa.beam.util.ImageUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.media.jai.BorderExtender;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+
+import static org.junit.Assert.*;
+
+public class SourceTileViewTest {
+
+    private static final int W = 16;
+    private static final int H = 16;
+
+    private Band band;
+    private CopyOp op;
+
+    @Before
+    public void setUp() {
+        final Product source = new Product("s", "t", W, H);
+        source.setPreferredTileSize(8, 8);
+        band = source.addBand("a", ProductData.TYPE_FLOAT32);
+        final ProductData data = band.createCompatibleRasterData();
+        for (int i = 0; i < W * H; i++) {
+            data.setElemFloatAt(i, i);
+        }
+        band.setRasterData(data);
+
+        op = new CopyOp();
+        op.setSourceProduct(source);
+        op.getTargetProduct();
+    }
+
+    @Test
+    public void testWholeImageTileIsShared() {
+        final Rectangle region = new Rectangle(8, 0, 8, 8);
+        final Tile tile = op.getSourceTile(band, region);
+
+        final Raster imageTile = band.getSourceImage().getTile(1, 0);
+        assertSame(ImageUtils.getPrimitiveArray(imageTile.getDataBuffer()), tile.getDataBufferFloat());
+        assertEquals(region, tile.getRectangle());
+        assertEquals(region.width, tile.getScanlineStride());
+        assertEquals(0, tile.getDataBufferIndex(region.x, region.y));
+        assertSamples(tile);
+
+        final ProductData rawSamples = tile.getRawSamples();
+        assertEquals(region.width * region.height, rawSamples.getNumElems());
+        assertNotSame(tile.getDataBufferFloat(), rawSamples.getElems());
+        assertEquals(9, rawSamples.getElemFloatAt(1), 0.0F);
+    }
+
+    @Test
+    public void testRegionInsideOneTileIsCopied() {
+        // operators may index the buffers of a source tile and a target tile of the same region alike
+        final Rectangle region = new Rectangle(9, 2, 4, 5);
+        final Tile tile = op.getSourceTile(band, region);
+        assertEquals(region.width * region.height, tile.getDataBufferFloat().length);
+        assertEquals(region.width, tile.getScanlineStride());
+        assertEquals(0, tile.getDataBufferIndex(region.x, region.y));
+        assertSamples(tile);
+    }
+
+    @Test
+    public void testRegionSpanningTilesIsCopied() {
+        final Tile tile = op.getSourceTile(band, new Rectangle(6, 6, 4, 4));
+        assertEquals(16, tile.getDataBufferFloat().length);
+        assertSamples(tile);
+    }
+
+    @Test
+    public void testBorderExtenderInsideImage() {
+        final Rectangle region = new Rectangle(0, 8, 8, 8);
+        final Tile tile = op.getSourceTile(band, region, BorderExtender.createInstance(BorderExtender.BORDER_COPY));
+        assertSame(ImageUtils.getPrimitiveArray(band.getSourceImage().getTile(0, 1).getDataBuffer()),
+                   tile.getDataBufferFloat());
+        assertSamples(tile);
+    }
+
+    @Test
+    public void testBorderExtenderOutsideImage() {
+        final Tile tile = op.getSourceTile(band, new Rectangle(-2, -2, 4, 4),
+                                           BorderExtender.createInstance(BorderExtender.BORDER_COPY));
+        assertEquals(0.0F, tile.getSampleFloat(-2, -2), 0.0F);
+        assertEquals(W + 1, tile.getSampleFloat(1, 1), 0.0F);
+    }
+
+    private static void assertSamples(Tile tile) {
+        for (int y = tile.getMinY(); y <= tile.getMaxY(); y++) {
+            final float[] row = tile.getSamplesRow(y, (float[]) null);
+            for (int x = tile.getMinX(); x <= tile.getMaxX(); x++) {
+                assertEquals(y * W + x, tile.getSampleFloat(x, y), 0.0F);
+                assertEquals(y * W + x, row[x - tile.getMinX()], 0.0F);
+            }
+        }
+    }
+
+    public static class CopyOp extends Operator {
+
+        @SourceProduct
+        Product sourceProduct;
+
+        @TargetProduct
+        Product targetProduct;
+
+        @Override
+        public void initialize() throws OperatorException {
+            targetProduct = new Product("t", "t", W, H);
+            targetProduct.addBand("a", ProductData.TYPE_FLOAT32);
+        }
+    }
+}
@@ -237,6 +237,50 @@ public class TileImplTest extends TestCase {
         assertEquals(10.0, samples[N - 1], 1.0e-10);
     }
 
+    public void testGetSamplesRow() {
+        Tile tile = createScaledTile(ProductData.TYPE_UINT16, 2.5);
+
+        double[] row = tile.getSamplesRow(1, (double[]) null);
+        assertEquals(W, row.length);
+        assertEquals((W + 1) * 2.5, row[0], 1.0e-10);
+        assertEquals(2 * W * 2.5, row[W - 1], 1.0e-10);
+
+        final double[] reused = tile.getSamplesRow(H - 1, row);
+        assertSame(row, reused);
+        assertEquals(((H - 1) * W + 1) * 2.5, reused[0], 1.0e-10);
+        assertEquals(N * 2.5, reused[W - 1], 1.0e-10);
+
+        tile = createIntTile(ProductData.TYPE_INT8, -N05, 0.1);
+        float[] rowF = tile.getSamplesRow(0, new float[W]);
+        assertEquals(-N05 * 0.1F, rowF[0], 1.0e-5F);
+        assertEquals((-N05 + W - 1) * 0.1F, rowF[W - 1], 1.0e-5F);
+
+        tile = createRawTile(ProductData.TYPE_FLOAT32);
+        rowF = tile.getSamplesRow(2, (float[]) null);
+        assertEquals(2 * W + 1.1F, rowF[0], 1.0e-5F);
+        assertEquals(tile.getDataBufferFloat()[tile.getRowOffset(2)], rowF[0]);
+    }
+
+    public void testSetSamplesRow() {
+        Tile tile = createScaledTile(ProductData.TYPE_UINT16, 2.5);
+
+        final double[] row = new double[W];
+        Arrays.fill(row, 12.2);
+        row[0] = -5.0;
+        tile.setSamplesRow(3, row);
+        assertEquals(0.0, tile.getSampleDouble(0, 3), 1.0e-10);
+        assertEquals(10.0, tile.getSampleDouble(1, 3), 1.0e-10);
+        assertEquals(10.0, tile.getSampleDouble(W - 1, 3), 1.0e-10);
+        assertEquals((4 * W + 1) * 2.5, tile.getSampleDouble(0, 4), 1.0e-10);
+
+        tile = createRawTile(ProductData.TYPE_FLOAT32);
+        final float[] rowF = new float[W];
+        Arrays.fill(rowF, 0.5F);
+        tile.setSamplesRow(0, rowF);
+        assertEquals(0.5F, tile.getSampleFloat(W - 1, 0), 1.0e-5F);
+        assertEquals(W + 1.1F, tile.getSampleFloat(0, 1), 1.0e-5F);
+    }
+
     static Tile createRawTile(int type) {
         return createScaledTile(type, 1.0);
     }
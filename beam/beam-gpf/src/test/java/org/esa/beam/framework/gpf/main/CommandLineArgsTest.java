@@ -195,6 +195,17 @@ public class CommandLineArgsTest extends TestCase {
         assertEquals(true, lineArgs.isClearCacheAfterRowWrite());
     }
 
+    public void testTraceOption() throws Exception {
+        CommandLineArgs lineArgs = new CommandLineArgs(new String[]{"Reproject", "source.dim"});
+        lineArgs.parseArguments();
+        assertEquals(null, lineArgs.getTraceFilepath());
+
+        lineArgs = new CommandLineArgs(new String[]{"Reproject", "-trace", "trace.json", "source.dim"});
+        lineArgs.parseArguments();
+        assertEquals("trace.json", lineArgs.getTraceFilepath());
+        assertEquals("source.dim", lineArgs.getSourceFilepathMap().get("sourceProduct"));
+    }
+
     public void testJAIOptions() throws Exception {
         CommandLineArgs lineArgs;
 
@@ -26,12 +26,14 @@ import org.esa.beam.framework.gpf.Operator;
 import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.aggregation.Accumulator;
+import org.esa.beam.framework.gpf.aggregation.CovarianceAccumulator;
+import org.esa.beam.framework.gpf.aggregation.TileAggregator;
 import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
 import org.esa.beam.framework.gpf.annotations.Parameter;
 import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
 import org.esa.beam.util.ProductUtils;
-import org.esa.beam.util.math.MathUtils;
 import org.esa.nest.util.ResourceUtils;
 
 import java.awt.*;
@@ -39,8 +41,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.io.IOException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 
@@ -78,13 +82,11 @@ public class PCAOp extends Operator {
     @Parameter(description = "Subtract mean image", defaultValue = "1", label="Subtract Mean Image")
     private boolean subtractMeanImage = false;
 
-    private boolean statsCalculated = false;
-    private int numOfPixels = 0;        // total number of pixel values
+    private volatile boolean statsCalculated = false;
     private int numOfSourceBands = 0;   // number of user selected bands
-    private double[] sum = null;        // summation of pixel values for each band
-    private double[][] sumCross = null; // summation of the dot product of each band and the master band
-    private double[] mean = null;       // mean of pixel values for each band
-    private double[][] meanCross = null;// mean of the dot product of each band and the master band
+    private double[][] covariance = null; // covariance matrix of the user selected bands
+    private double[] bandMin = null;    // min raw value for each band
+    private double[] bandMax = null;    // max raw value for each band
 
     public static final String EIGENVALUE_THRESHOLD = "Eigenvalue Threshold";
     public static final String NUMBER_EIGENVALUES = "Number of Eigenvalues";
@@ -128,34 +130,11 @@ public class PCAOp extends Operator {
             createTargetProduct();
 
             addSelectedBands();
-
-            setInitialValues();
         } catch(Throwable e) {
             throw new OperatorException(e);
         }
     }
 
-    /**
-     * Set initial values to some internal variables.
-     */
-    private void setInitialValues() {
-
-        mean = new double[numOfSourceBands];
-        meanCross = new double[numOfSourceBands][numOfSourceBands];
-        sum = new double[numOfSourceBands];
-        sumCross = new double[numOfSourceBands][numOfSourceBands];
-        for (int i = 0; i < numOfSourceBands; i++) {
-            sum[i] = 0.0;
-            mean[i] = 0.0;
-            for (int j = 0; j < numOfSourceBands; j++) {
-                sumCross[i][j] = 0.0;
-                meanCross[i][j] = 0.0;
-            }
-        }
-
-        numOfPixels = sourceProduct.getSceneRasterWidth() * sourceProduct.getSceneRasterHeight();
-    }
-
     /**
      * Create target product.
      */
@@ -287,29 +266,44 @@ public class PCAOp extends Operator {
             }
 
             final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
-            for (int i = 0; i < numOfSourceBands; i++) {
-                bandsRawSamples[i] =
-                        getSourceTile(sourceProduct.getBand(sourceBandNames[i]), targetRectangle).getRawSamples();
+            for (int j = 0; j < numOfSourceBands; j++) {
+                bandsRawSamples[j] =
+                        getSourceTile(sourceProduct.getBand(sourceBandNames[j]), targetRectangle).getRawSamples();
             }
 
+            final ProductData[] trgData = new ProductData[numPCA];
             for (int i = 0; i < numPCA; i++) {
-
-                final Band targetBand = targetProduct.getBand("PC" + i);
-                final Tile targetTile = targetTileMap.get(targetBand);
-                final ProductData trgData = targetTile.getDataBuffer();
-                final TileIndex targetIndex = new TileIndex(targetTile);
-                int index;
-                int k = 0;
-                for (int y = y0; y < y0+h; y++) {
-                    targetIndex.calculateStride(y);
-                    for (int x = x0; x < x0+w; x++) {
-                        index = targetIndex.getIndex(x);
-                        double vPCA = 0.0;
-                        for (int j = 0; j < numOfSourceBands; j++) {
-                            vPCA += bandsRawSamples[j].getElemDoubleAt(k)*eigenVectorMatrices[j][i];
+                trgData[i] = targetTileMap.get(targetProduct.getBand("PC" + i)).getDataBuffer();
+            }
+            final TileIndex targetIndex = new TileIndex(targetTileMap.get(targetProduct.getBand("PC0")));
+
+            // project the tile row by row as a product of the band sample matrix and the eigenvector matrix
+            final double[][] bandRow = new double[numOfSourceBands][w];
+            final double[] pcaRow = new double[w];
+            int k = 0;
+            for (int y = y0; y < y0+h; y++) {
+                for (int j = 0; j < numOfSourceBands; j++) {
+                    final ProductData samples = bandsRawSamples[j];
+                    final double[] row = bandRow[j];
+                    for (int x = 0; x < w; x++) {
+                        row[x] = samples.getElemDoubleAt(k + x);
+                    }
+                }
+                k += w;
+
+                final int offset = targetIndex.calculateStride(y);
+                for (int i = 0; i < numPCA; i++) {
+                    Arrays.fill(pcaRow, 0.0);
+                    for (int j = 0; j < numOfSourceBands; j++) {
+                        final double e = eigenVectorMatrices[j][i];
+                        final double[] row = bandRow[j];
+                        for (int x = 0; x < w; x++) {
+                            pcaRow[x] += row[x]*e;
                         }
-                        k++;
-                        trgData.setElemDoubleAt(index, vPCA - minPCA[i]);
+                    }
+                    final ProductData data = trgData[i];
+                    for (int x = 0; x < w; x++) {
+                        data.setElemDoubleAt(x0 + x - offset, pcaRow[x] - minPCA[i]);
                     }
                 }
             }
@@ -329,299 +323,181 @@ public class PCAOp extends Operator {
             return;
         }
 
-        final Dimension tileSize = new Dimension(256, 256);
-        final Rectangle[] tileRectangles = getAllTileRectangles(sourceProduct, tileSize);
+        final File statisticsFile = getStatisticsFile();
+        if (statisticsFile == null || !readStatistics(statisticsFile)) {
+            computeStatistics();
+            if (statisticsFile != null) {
+                writeStatistics(statisticsFile);
+            }
+        }
 
-        processStatistics(tileRectangles);
+        computeEigenDecompositionOfCovarianceMatrix();
 
-        processMin(tileRectangles);
+        computeMinPCA();
 
         statsCalculated = true;
     }
 
     /**
-     * Get an array of rectangles for all source tiles of the image
-     * @param sourceProduct the input product
-     * @param tileSize the rect sizes
-     * @return Array of rectangles
+     * Compute the covariance matrix and the value range of the user selected bands in a single parallel pass.
      */
-    private static Rectangle[] getAllTileRectangles(final Product sourceProduct, final Dimension tileSize) {
-
-        final int rasterHeight = sourceProduct.getSceneRasterHeight();
-        final int rasterWidth = sourceProduct.getSceneRasterWidth();
-
-        final Rectangle boundary = new Rectangle(rasterWidth, rasterHeight);
-
-        final int tileCountX = MathUtils.ceilInt(boundary.width / (double) tileSize.width);
-        final int tileCountY = MathUtils.ceilInt(boundary.height / (double) tileSize.height);
-
-        final Rectangle[] rectangles = new Rectangle[tileCountX * tileCountY];
-        int index = 0;
-        for (int tileY = 0; tileY < tileCountY; tileY++) {
-            for (int tileX = 0; tileX < tileCountX; tileX++) {
-                final Rectangle tileRectangle = new Rectangle(tileX * tileSize.width,
-                                                              tileY * tileSize.height,
-                                                              tileSize.width,
-                                                              tileSize.height);
-                final Rectangle intersection = boundary.intersection(tileRectangle);
-                rectangles[index] = intersection;
-                index++;
-            }
-        }
-        return rectangles;
-    }
-
-    private void processStatistics(final Rectangle[] tileRectangles) {
-        final StatusProgressMonitor status = new StatusProgressMonitor(tileRectangles.length,
-                "Computing Statistics... ");
-        int tileCnt = 0;
-
-        final ThreadManager threadManager = new ThreadManager();
+    private void computeStatistics() {
 
-        try {
-            for (final Rectangle rectangle : tileRectangles) {
-
-                Thread worker = new Thread() {
-                    final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
-                    final double[] tileSum = new double[numOfSourceBands];
-                    final double[][] tileSumCross = new double[numOfSourceBands][numOfSourceBands];
-
-                    @Override
-                    public void run() {
-                        for (int i = 0; i < numOfSourceBands; i++) {
-                            bandsRawSamples[i] =
-                                    getSourceTile(sourceProduct.getBand(sourceBandNames[i]), rectangle).getRawSamples();
-                        }
-
-                        if (subtractMeanImage) {
-
-                            final ProductData meanBandRawSamples =
-                                    getSourceTile(sourceProduct.getBand(meanImageBandName), rectangle).getRawSamples();
-
-                            computeTileStatisticsWithMeanImageSubstract(numOfSourceBands,
-                                    bandsRawSamples, meanBandRawSamples, tileSum, tileSumCross);
-
-                        } else {
-
-                            computeTileStatisticsWithoutMeanImageSubstract(numOfSourceBands,
-                                    bandsRawSamples, tileSum, tileSumCross);
-                        }
-
-                        synchronized(sum) {
-                            computeImageStatistics(tileSum, tileSumCross);
-                        }
-                    }
-                };
-                threadManager.add(worker);
-
-                status.worked(tileCnt++);
-            }
-            threadManager.finish();
-
-            completeStatistics();
-
-        } catch(Throwable e) {
-            throw new OperatorException(e);
-        } finally {
-            status.done();
+        final Band[] sourceBands = new Band[numOfSourceBands];
+        for (int i = 0; i < numOfSourceBands; i++) {
+            sourceBands[i] = sourceProduct.getBand(sourceBandNames[i]);
         }
-    }
-
-    private void processMin(final Rectangle[] tileRectangles) {
-        final StatusProgressMonitor status = new StatusProgressMonitor(tileRectangles.length,
-                "Computing Min... ");
-        int tileCnt = 0;
+        final Band meanBand = subtractMeanImage ? sourceProduct.getBand(meanImageBandName) : null;
 
-        final ThreadManager threadManager = new ThreadManager();
-
-        try {
-            initializeMin();
-
-            for(final Rectangle rectangle : tileRectangles) {
-                Thread worker = new Thread() {
-                    final double[] tileMinPCA = new double[numOfSourceBands];
-                    final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
-
-                    @Override
-                    public void run() {
-                        for (int i = 0; i < numOfSourceBands; i++) {
-                            bandsRawSamples[i] =
-                                    getSourceTile(sourceProduct.getBand(sourceBandNames[i]), rectangle).getRawSamples();
-                        }
-                        final int n = bandsRawSamples[0].getNumElems();
-
-                        Arrays.fill(tileMinPCA, Double.MAX_VALUE);
-
-                        for (int i = 0; i < numPCA; i++) {
-                            for (int k = 0; k < n; k++) {
-                                double vPCA = 0.0;
-                                for (int j = 0; j < numOfSourceBands; j++) {
-                                    vPCA += bandsRawSamples[j].getElemDoubleAt(k)*eigenVectorMatrices[j][i];
-                                }
-                                if(vPCA < tileMinPCA[i])
-                                    tileMinPCA[i] = vPCA;
-                            }
-                        }
+        final TileAggregator<StatisticsAccumulator> aggregator =
+                new TileAggregator<StatisticsAccumulator>(targetProduct) {
+            @Override
+            protected StatisticsAccumulator createAccumulator() {
+                return new StatisticsAccumulator(numOfSourceBands);
+            }
 
-                        synchronized (minPCA) {
-                            computePCAMin(tileMinPCA);
-                        }
+            @Override
+            protected void accumulate(final StatisticsAccumulator accumulator, final Rectangle rectangle) {
+                final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
+                for (int i = 0; i < numOfSourceBands; i++) {
+                    bandsRawSamples[i] = getSourceTile(sourceBands[i], rectangle).getRawSamples();
+                }
+                final ProductData meanBandRawSamples =
+                        meanBand != null ? getSourceTile(meanBand, rectangle).getRawSamples() : null;
+
+                final double[] values = new double[numOfSourceBands];
+                final double[] rawValues = new double[numOfSourceBands];
+                final int n = bandsRawSamples[0].getNumElems();
+                for (int k = 0; k < n; k++) {
+                    final double vm = meanBandRawSamples != null ? meanBandRawSamples.getElemDoubleAt(k) : 0.0;
+                    for (int i = 0; i < numOfSourceBands; i++) {
+                        rawValues[i] = bandsRawSamples[i].getElemDoubleAt(k);
+                        values[i] = rawValues[i] - vm;
                     }
-                };
-                threadManager.add(worker);
-
-                status.worked(tileCnt++);
+                    accumulator.add(values, rawValues);
+                }
             }
+        };
 
-            threadManager.finish();
-
-        } catch(Throwable e) {
-            throw new OperatorException(e);
-        } finally {
-            status.done();
-        }
+        final StatisticsAccumulator statistics = aggregator.aggregate(ProgressMonitor.NULL);
+        covariance = statistics.covariance.getCovariance();
+        bandMin = statistics.min;
+        bandMax = statistics.max;
     }
 
     /**
-     * Compute summation and cross-summation for all bands for a given tile.
-     * @param numOfSourceBands numnber of bands
-     * @param bandsRawSamples The raw data for all bands for the given tile.
-     * @param tileSum The summation for all bands for the given tile.
-     * @param tileSumCross The cross-summation for all bands for the given tile.
+     * Compute the minimum of each PCA image from the value ranges of the bands. The minimum is the smallest
+     * value a linear combination of the bands can take within their ranges, so no second pass over the
+     * source images is needed and all PCA image values are guaranteed to be non-negative.
      */
-    private static void computeTileStatisticsWithoutMeanImageSubstract (final int numOfSourceBands,
-            final ProductData[] bandsRawSamples, final double[] tileSum, final double[][] tileSumCross) {
-
-        Arrays.fill(tileSum, 0.0);
-        final int n = bandsRawSamples[0].getNumElems();
-
-        double vi, vj;
-        for (int i = 0; i < numOfSourceBands; i++) {
-            Arrays.fill(tileSumCross[i], 0.0);
-
-            for (int j = 0; j <= i; j++) {
+    private void computeMinPCA() {
 
-                //System.out.println("i = " + i + ", j = " + j);
-                if (j < i) {
-
-                    for (int k = 0; k < n; k++) {
-                        vi = bandsRawSamples[i].getElemDoubleAt(k);
-                        vj = bandsRawSamples[j].getElemDoubleAt(k);
-                        tileSumCross[i][j] += vi*vj;
-                    }
-
-                } else { // j == i
-
-                    for (int k = 0; k < n; k++) {
-                        vi = bandsRawSamples[i].getElemDoubleAt(k);
-                        tileSum[i] += vi;
-                        tileSumCross[i][j] += vi*vi;
-                    }
-                }
+        minPCA = new double[numOfSourceBands];
+        for (int i = 0; i < numPCA; i++) {
+            double min = 0.0;
+            for (int j = 0; j < numOfSourceBands; j++) {
+                final double e = eigenVectorMatrices[j][i];
+                min += e >= 0.0 ? e*bandMin[j] : e*bandMax[j];
             }
+            minPCA[i] = min;
         }
     }
 
     /**
-     * Compute summation and cross-summation for all bands for a given tile with mean image substracted.
-     * @param numOfSourceBands numnber of bands
-     * @param bandsRawSamples The raw data for all bands for the given tile.
-     * @param meanBandRawSamples The raw data for the band of mean image for the given tile.
-     * @param tileSum The summation for all bands for the given tile.
-     * @param tileSumCross The cross-summation for all bands for the given tile.
+     * Get the file caching the statistics of the source product, so that repeated runs on the same
+     * product skip the statistics pass.
+     * @return The statistics file or null if the source product has not been read from a file.
      */
-    private static void computeTileStatisticsWithMeanImageSubstract (
-            final int numOfSourceBands,
-            final ProductData[] bandsRawSamples, final ProductData meanBandRawSamples,
-            final double[] tileSum, final double[][] tileSumCross) {
+    private File getStatisticsFile() {
 
-        Arrays.fill(tileSum, 0.0);
-        final int n = bandsRawSamples[0].getNumElems();
-
-        double vi, vj, vm;
-        for (int i = 0; i < numOfSourceBands; i++) {
-            Arrays.fill(tileSumCross[i], 0.0);
-
-            for (int j = 0; j <= i; j++) {
-
-                //System.out.println("i = " + i + ", j = " + j);
-                if (j < i) {
-
-                    for (int k = 0; k < n; k++) {
-                        vm = meanBandRawSamples.getElemDoubleAt(k);
-                        vi = bandsRawSamples[i].getElemDoubleAt(k) - vm;
-                        vj = bandsRawSamples[j].getElemDoubleAt(k) - vm;
-                        tileSumCross[i][j] += vi*vj;
-                    }
-
-                } else { // j == i
-
-                    for (int k = 0; k < n; k++) {
-                        vm = meanBandRawSamples.getElemDoubleAt(k);
-                        vi = bandsRawSamples[i].getElemDoubleAt(k) - vm;
-                        tileSum[i] += vi;
-                        tileSumCross[i][j] += vi*vi;
-                    }
-                }
-            }
+        final File sourceFile = sourceProduct.getFileLocation();
+        if (sourceProduct.getProductReader() == null || sourceFile == null || !sourceFile.exists()) {
+            return null;
         }
+        final File statisticsDir = new File(ResourceUtils.getApplicationUserDir(true), "pca");
+        return new File(statisticsDir, sourceProduct.getName() + '_' +
+                Integer.toHexString(getStatisticsKey().hashCode()) + "_pca_statistics.properties");
     }
 
-    /**
-     * Compute summation and cross-summation for the whole image.
-     * @param tileSum The summation computed for each tile.
-     * @param tileSumCross The cross-summation computed for each tile.
-     */
-    private void computeImageStatistics (final double[] tileSum, final double[][] tileSumCross) {
+    private String getStatisticsKey() {
+        final File sourceFile = sourceProduct.getFileLocation();
+        return sourceFile.getAbsolutePath() + ';' + sourceFile.lastModified() + ';' +
+                Arrays.toString(sourceBandNames) + ';' + subtractMeanImage;
+    }
 
-        for (int i = 0; i < numOfSourceBands; i++) {
-            for (int j = 0; j <= i; j++) {
-                if (j < i) {
-                    sumCross[i][j] += tileSumCross[i][j];
-                } else { // j == i
-                    sum[i] += tileSum[i];
-                    sumCross[i][j] += tileSumCross[i][j];
-                }
-            }
+    private boolean readStatistics(final File file) {
+
+        if (!file.exists()) {
+            return false;
         }
-    }
+        final Properties properties = new Properties();
+        try {
+            final FileInputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+            if (!getStatisticsKey().equals(properties.getProperty("key"))) {
+                return false;
+            }
 
-    private void completeStatistics() {
-        for (int i = 0; i < numOfSourceBands; i++)  {
-            mean[i] = sum[i] / numOfPixels;
-            for (int j = 0; j <= i; j++) {
-                meanCross[i][j] = sumCross[i][j] / numOfPixels;
-                if (j != i) {
-                    meanCross[j][i] = meanCross[i][j];
+            final double[][] cov = new double[numOfSourceBands][numOfSourceBands];
+            final double[] min = new double[numOfSourceBands];
+            final double[] max = new double[numOfSourceBands];
+            for (int i = 0; i < numOfSourceBands; i++) {
+                min[i] = Double.parseDouble(properties.getProperty("min." + i));
+                max[i] = Double.parseDouble(properties.getProperty("max." + i));
+                for (int j = 0; j < numOfSourceBands; j++) {
+                    cov[i][j] = Double.parseDouble(properties.getProperty("cov." + i + '.' + j));
                 }
             }
+            covariance = cov;
+            bandMin = min;
+            bandMax = max;
+            return true;
+        } catch (Exception e) {
+            // unreadable or outdated statistics are computed again
+            return false;
         }
     }
 
-    /////////////
-    // Min
-
-    /**
-     * Set initial values to some internal variables.
-     */
-    private void initializeMin() {
+    private void writeStatistics(final File file) {
 
-        minPCA = new double[numOfSourceBands];
+        final Properties properties = new Properties();
+        properties.setProperty("key", getStatisticsKey());
         for (int i = 0; i < numOfSourceBands; i++) {
-            minPCA[i] = Double.MAX_VALUE;
+            properties.setProperty("min." + i, String.valueOf(bandMin[i]));
+            properties.setProperty("max." + i, String.valueOf(bandMax[i]));
+            for (int j = 0; j < numOfSourceBands; j++) {
+                properties.setProperty("cov." + i + '.' + j, String.valueOf(covariance[i][j]));
+            }
         }
-
-        computeEigenDecompositionOfCovarianceMatrix();
-    }
-
-    /**
-     * Compute minimum values for all PCA images.
-     * @param tileMinPCA The minimum values for all PCA images for a given tile.
-     */
-    private void computePCAMin(final double[] tileMinPCA) {
-        for (int i = 0; i < numPCA; i++) {
-            if (tileMinPCA[i] < minPCA[i]) {
-                minPCA[i] = tileMinPCA[i];
+        // written to a temporary file first, so that a concurrent or failed write never leaves a partial file
+        File tempFile = null;
+        try {
+            final File parentDir = file.getAbsoluteFile().getParentFile();
+            if (!parentDir.exists() && !parentDir.mkdirs()) {
+                throw new IOException("Failed to create directory " + parentDir);
+            }
+            tempFile = File.createTempFile(file.getName(), ".tmp", parentDir);
+            final FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                properties.store(out, "PCA statistics of " + sourceProduct.getName());
+            } finally {
+                out.close();
+            }
+            // on Windows a file cannot be renamed over an existing one
+            if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+                throw new IOException("Failed to rename " + tempFile + " to " + file);
+            }
+            tempFile = null;
+        } catch (IOException e) {
+            // the statistics are only a cache, they are computed again next time
+            getLogger().warning("Failed to write PCA statistics " + file + ": " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
             }
         }
     }
@@ -634,14 +510,7 @@ public class PCAOp extends Operator {
         eigenVectorMatrices = new double[numOfSourceBands][numOfSourceBands];
         eigenValues = new double[numOfSourceBands];
 
-        final double[][] cov = new double[numOfSourceBands][numOfSourceBands];
-        for (int i = 0; i < numOfSourceBands; i++) {
-            for (int j = 0; j < numOfSourceBands; j++) {
-                cov[i][j] = meanCross[i][j] - mean[i]*mean[j];
-            }
-        }
-
-        final Matrix Cov = new Matrix(cov);
+        final Matrix Cov = new Matrix(covariance);
         final SingularValueDecomposition Svd = Cov.svd(); // Cov = USV'
         final Matrix S = Svd.getS();
         final Matrix U = Svd.getU();
@@ -721,6 +590,45 @@ public class PCAOp extends Operator {
         }
     }
 
+    /**
+     * The covariance of the user selected bands and their value ranges.
+     */
+    private static class StatisticsAccumulator implements Accumulator<StatisticsAccumulator> {
+
+        private final CovarianceAccumulator covariance;
+        private final double[] min;
+        private final double[] max;
+
+        StatisticsAccumulator(final int numOfBands) {
+            covariance = new CovarianceAccumulator(numOfBands);
+            min = new double[numOfBands];
+            max = new double[numOfBands];
+            Arrays.fill(min, Double.MAX_VALUE);
+            Arrays.fill(max, -Double.MAX_VALUE);
+        }
+
+        void add(final double[] values, final double[] rawValues) {
+            covariance.add(values);
+            for (int i = 0; i < rawValues.length; i++) {
+                if (rawValues[i] < min[i]) {
+                    min[i] = rawValues[i];
+                }
+                if (rawValues[i] > max[i]) {
+                    max[i] = rawValues[i];
+                }
+            }
+        }
+
+        @Override
+        public void merge(final StatisticsAccumulator other) {
+            covariance.merge(other.covariance);
+            for (int i = 0; i < min.length; i++) {
+                min[i] = Math.min(min[i], other.min[i]);
+                max[i] = Math.max(max[i], other.max[i]);
+            }
+        }
+    }
+
     /**
      * The SPI is used to register this operator in the graph processing framework
      * via the SPI configuration file
@@ -20,6 +20,7 @@ import org.esa.beam.dataio.netcdf.metadata.ProfileInitPartReader;
 import org.esa.beam.dataio.netcdf.metadata.ProfilePartReader;
 import org.esa.beam.dataio.netcdf.util.RasterDigest;
 import org.esa.beam.framework.dataio.DecodeQualification;
+import org.esa.beam.framework.dataio.FileHeaderCheck;
 import org.esa.beam.framework.dataio.ProductReader;
 import org.esa.beam.framework.dataio.ProductReaderPlugIn;
 import org.esa.beam.util.io.BeamFileFilter;
@@ -28,17 +29,50 @@ import ucar.nc2.NetcdfFile;
 import java.io.File;
 import java.io.IOException;
 
-public abstract class AbstractNetCdfReaderPlugIn implements ProductReaderPlugIn {
+public abstract class AbstractNetCdfReaderPlugIn implements ProductReaderPlugIn, FileHeaderCheck {
 
     ///////////////////////////////////////////////
     // ProductReaderPlugIn related methods
     final static String[] NETCDF_FORMAT_FILE_EXTENSIONS = { "nc", "nc3", "hdf", "h5", "h4", "h5eos" };
 
+    private static final byte[] NETCDF_MAGIC = {'C', 'D', 'F'};
+    private static final byte[] HDF4_MAGIC = {0x0e, 0x03, 0x13, 0x01};
+    private static final byte[] HDF5_MAGIC = {(byte) 0x89, 'H', 'D', 'F', '\r', '\n', 0x1a, '\n'};
+
     @Override
     public final Class[] getInputTypes() {
         return new Class[]{String.class, File.class};
     }
 
+    /**
+     * Accepts netCDF-3 files, HDF4 files and HDF5 files, including netCDF-4 files. The HDF5 signature
+     * may follow a user block of 512, 1024 or 2048 bytes.
+     */
+    @Override
+    public final boolean isHeaderAccepted(byte[] header) {
+        if (startsWith(header, 0, NETCDF_MAGIC) || startsWith(header, 0, HDF4_MAGIC)) {
+            return true;
+        }
+        for (int offset = 0; offset < header.length; offset = offset == 0 ? 512 : 2 * offset) {
+            if (startsWith(header, offset, HDF5_MAGIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, byte[] magic) {
+        if (header.length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public final DecodeQualification getDecodeQualification(Object input) {
         NetcdfFile netcdfFile = null;
@@ -19,22 +19,37 @@ package com.bc.ceres.core;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * {@inheritDoc}
+ * <p/>
+ * Besides service instances, this registry accepts service providers which are declared by their
+ * class name only, see {@link #addServiceProvider(String, String, Callable)}. The class of a declared provider is
+ * neither loaded nor instantiated until the service is requested by its class name or all services are requested.
+ * All methods of this registry are thread-safe. Services are created and listeners are notified outside of the
+ * registry's lock, so that a factory or a listener may use the registry. A declared service is created only once,
+ * concurrent requests for it wait for its factory.
  */
 public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
 
     private final Class<T> serviceType;
     private final HashMap<String, T> services;
+    private final LinkedHashMap<String, FutureTask<T>> declaredServices;
+    private final HashMap<String, String> providerVersions;
     private final ArrayList<ServiceRegistryListener<T>> listeners;
 
     public DefaultServiceRegistry(Class<T> serviceType) {
         Assert.notNull(serviceType, "serviceType");
         this.serviceType = serviceType;
         this.services = new HashMap<String, T>(10);
+        this.declaredServices = new LinkedHashMap<String, FutureTask<T>>(10);
+        this.providerVersions = new HashMap<String, String>(10);
         this.listeners = new ArrayList<ServiceRegistryListener<T>>(3);
     }
 
@@ -51,6 +66,23 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
      */
     @Override
     public Set<T> getServices() {
+        final List<String> classNames;
+        synchronized (this) {
+            classNames = new ArrayList<String>(declaredServices.keySet());
+        }
+        for (String className : classNames) {
+            getService(className);
+        }
+        return getCreatedServices();
+    }
+
+    /**
+     * Gets the services created so far, without creating the declared services.
+     *
+     * @return A set of the created services.
+     * @since Ceres 0.14
+     */
+    public synchronized Set<T> getCreatedServices() {
         return new HashSet<T>(services.values());
     }
 
@@ -59,7 +91,150 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
      */
     @Override
     public T getService(String className) {
-        return services.get(className);
+        final FutureTask<T> declaration;
+        synchronized (this) {
+            final T service = services.get(className);
+            declaration = declaredServices.get(className);
+            if (service != null || declaration == null) {
+                return service;
+            }
+        }
+        return createService(className, declaration);
+    }
+
+    /**
+     * Gets the class names of all registered services, including the declared services
+     * which have not been created yet.
+     *
+     * @return The class names.
+     * @since Ceres 0.14
+     */
+    public synchronized Set<String> getServiceClassNames() {
+        final Set<String> classNames = new HashSet<String>(services.keySet());
+        classNames.addAll(declaredServices.keySet());
+        return classNames;
+    }
+
+    /**
+     * Gets the class names of the declared services which have not been created yet.
+     *
+     * @return The class names.
+     * @since Ceres 0.14
+     */
+    public synchronized Set<String> getDeclaredServiceClassNames() {
+        return new HashSet<String>(declaredServices.keySet());
+    }
+
+    /**
+     * Gets the version of a declared service provider, see {@link #addServiceProvider(String, String, Callable)}.
+     * The version is kept after the service has been created.
+     *
+     * @param className The name of the service's class.
+     * @return The version, or {@code null} if unknown.
+     * @since Ceres 0.14
+     */
+    public synchronized String getProviderVersion(String className) {
+        return providerVersions.get(className);
+    }
+
+    /**
+     * Declares a service by its class name, without a provider version.
+     *
+     * @param className The name of the service's class.
+     * @param factory   The factory creating the service.
+     * @return {@code true} if the service has been declared, {@code false} if it is already registered.
+     * @see #addServiceProvider(String, String, Callable)
+     * @since Ceres 0.14
+     */
+    public boolean addServiceProvider(String className, Callable<? extends T> factory) {
+        return addServiceProvider(className, null, factory);
+    }
+
+    /**
+     * Declares a service by its class name. The service is created by the given factory
+     * when it is requested for the first time. Then it is added to this registry and
+     * a change event is fired. A factory may return {@code null} if the service cannot be created,
+     * the declaration is dropped in this case.
+     * <p/>
+     * The provider version changes whenever the provider's class may have changed, e.g. the location and
+     * modification time of its module. It allows to cache information about the service, such as
+     * its keys in a {@link ServiceKeyCache}, without creating it.
+     *
+     * @param className       The name of the service's class.
+     * @param providerVersion The version of the provider, may be {@code null}.
+     * @param factory         The factory creating the service.
+     * @return {@code true} if the service has been declared, {@code false} if it is already registered.
+     * @since Ceres 0.14
+     */
+    public synchronized boolean addServiceProvider(String className, String providerVersion,
+                                                   final Callable<? extends T> factory) {
+        Assert.notNull(className, "className");
+        Assert.notNull(factory, "factory");
+        if (services.containsKey(className) || declaredServices.containsKey(className)) {
+            return false;
+        }
+        declaredServices.put(className, new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return factory.call();
+            }
+        }));
+        if (providerVersion != null) {
+            providerVersions.put(className, providerVersion);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a declared or already created service by its class name.
+     *
+     * @param className The name of the service's class.
+     * @return {@code true} if the service has been removed.
+     * @since Ceres 0.14
+     */
+    public boolean removeServiceProvider(String className) {
+        final T service;
+        synchronized (this) {
+            if (declaredServices.remove(className) != null) {
+                providerVersions.remove(className);
+                return true;
+            }
+            service = services.get(className);
+        }
+        return service != null && removeService(service);
+    }
+
+    private T createService(String className, FutureTask<T> declaration) {
+        // only the first caller runs the factory, the others wait for its result
+        declaration.run();
+        T service = null;
+        Exception failure = null;
+        try {
+            service = declaration.get();
+        } catch (ExecutionException e) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        }
+        synchronized (this) {
+            if (declaredServices.get(className) != declaration) {
+                // created by another thread or removed in the meantime
+                return services.get(className);
+            }
+            if (failure != null || service == null) {
+                declaredServices.remove(className);
+                providerVersions.remove(className);
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Failed to create service [" + className + "]", failure);
+        }
+        if (service == null) {
+            return null;
+        }
+        addService(service);
+        return service;
     }
 
     /**
@@ -68,11 +243,16 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
     @Override
     public boolean addService(T service) {
         Assert.notNull(service, "service");
-        final T existingService = services.put(service.getClass().getName(), service);
-        if (existingService == service) {
-            return false;
+        final List<ServiceRegistryListener<T>> listenerList;
+        synchronized (this) {
+            declaredServices.remove(service.getClass().getName());
+            final T existingService = services.put(service.getClass().getName(), service);
+            if (existingService == service) {
+                return false;
+            }
+            listenerList = new ArrayList<ServiceRegistryListener<T>>(listeners);
         }
-        for (ServiceRegistryListener<T> listener : listeners) {
+        for (ServiceRegistryListener<T> listener : listenerList) {
             listener.serviceAdded(this, service);
         }
         return true;
@@ -84,11 +264,19 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
     @Override
     public boolean removeService(T service) {
         Assert.notNull(service, "service");
-        final T existingService = services.remove(service.getClass().getName());
-        if (existingService != service) {
-            return false;
+        final List<ServiceRegistryListener<T>> listenerList;
+        synchronized (this) {
+            final T existingService = services.remove(service.getClass().getName());
+            if (existingService != service) {
+                if (existingService != null) {
+                    services.put(existingService.getClass().getName(), existingService);
+                }
+                return false;
+            }
+            providerVersions.remove(service.getClass().getName());
+            listenerList = new ArrayList<ServiceRegistryListener<T>>(listeners);
         }
-        for (ServiceRegistryListener<T> listener : listeners) {
+        for (ServiceRegistryListener<T> listener : listenerList) {
             listener.serviceRemoved(this, service);
         }
         return true;
@@ -98,7 +286,7 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
      * {@inheritDoc}
      */
     @Override
-    public List<ServiceRegistryListener<T>> getListeners() {
+    public synchronized List<ServiceRegistryListener<T>> getListeners() {
         return (List<ServiceRegistryListener<T>>) listeners.clone();
     }
 
@@ -106,7 +294,7 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
      * {@inheritDoc}
      */
     @Override
-    public void addListener(ServiceRegistryListener<T> listener) {
+    public synchronized void addListener(ServiceRegistryListener<T> listener) {
         Assert.notNull(listener, "listener");
         listeners.add(listener);
     }
@@ -115,7 +303,7 @@ public class DefaultServiceRegistry<T> implements ServiceRegistry<T> {
      * {@inheritDoc}
      */
     @Override
-    public void removeListener(ServiceRegistryListener<T> listener) {
+    public synchronized void removeListener(ServiceRegistryListener<T> listener) {
         Assert.notNull(listener, "listener");
         listeners.remove(listener);
     }
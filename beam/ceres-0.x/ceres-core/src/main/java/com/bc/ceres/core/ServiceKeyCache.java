@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A persistent cache of the keys of service providers, e.g. the format names of a reader plug-in
+ * or the alias of an operator.
+ * <p/>
+ * The keys of a provider are stored together with its provider version, see
+ * {@link DefaultServiceRegistry#addServiceProvider(String, String, java.util.concurrent.Callable)}.
+ * As long as the version does not change, the keys are taken from the cache and the provider does not
+ * have to be created to find out whether it is the one looked for.
+ *
+ * @since Ceres 0.14
+ */
+public class ServiceKeyCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File cacheFile;
+    private final Logger logger;
+    private final Map<String, Entry> entries;
+    private boolean modified;
+
+    /**
+     * Creates a cache which is kept in memory only.
+     */
+    public ServiceKeyCache() {
+        this(null, null);
+    }
+
+    /**
+     * @param cacheFile the cache file, may be {@code null} to keep the cache in memory only
+     * @param logger    the logger for failures to read or write the cache file
+     */
+    public ServiceKeyCache(File cacheFile, Logger logger) {
+        this.cacheFile = cacheFile;
+        this.logger = logger != null ? logger : Logger.getLogger(ServiceKeyCache.class.getName());
+        this.entries = new HashMap<String, Entry>(256);
+    }
+
+    /**
+     * Gets the cached keys of a service provider.
+     *
+     * @param serviceType     the service type
+     * @param className       the name of the provider's class
+     * @param providerVersion the provider version
+     * @return the keys, or {@code null} if not cached or if the provider version has changed
+     */
+    public synchronized String[] getKeys(Class<?> serviceType, String className, String providerVersion) {
+        final Entry entry = entries.get(getEntryKey(serviceType, className));
+        if (entry != null && entry.providerVersion.equals(providerVersion)) {
+            return entry.keys.clone();
+        }
+        return null;
+    }
+
+    /**
+     * Puts the keys of a service provider into the cache.
+     *
+     * @param serviceType     the service type
+     * @param className       the name of the provider's class
+     * @param providerVersion the provider version
+     * @param keys            the keys
+     */
+    public synchronized void putKeys(Class<?> serviceType, String className, String providerVersion, String[] keys) {
+        final String entryKey = getEntryKey(serviceType, className);
+        final Entry entry = entries.get(entryKey);
+        if (entry != null && entry.providerVersion.equals(providerVersion) && Arrays.equals(entry.keys, keys)) {
+            return;
+        }
+        entries.put(entryKey, new Entry(providerVersion, keys.clone()));
+        modified = true;
+    }
+
+    /**
+     * Loads the cache file. A missing, unreadable or corrupt cache file results in an empty cache.
+     */
+    public synchronized void load() {
+        entries.clear();
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return;
+        }
+        final long fileSize = cacheFile.length();
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return;
+                }
+                final int count = in.readInt();
+                checkSize(count, fileSize);
+                for (int i = 0; i < count; i++) {
+                    final String entryKey = in.readUTF();
+                    final String providerVersion = in.readUTF();
+                    final int keyCount = in.readInt();
+                    checkSize(keyCount, fileSize);
+                    final String[] keys = new String[keyCount];
+                    for (int k = 0; k < keyCount; k++) {
+                        keys[k] = in.readUTF();
+                    }
+                    entries.put(entryKey, new Entry(providerVersion, keys));
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            entries.clear();
+            logger.warning(MessageFormat.format("Failed to read service key cache [{0}]: {1}", cacheFile, e.getMessage()));
+        }
+        modified = false;
+    }
+
+    /**
+     * Saves the cache file if keys have been added since it has been loaded or saved.
+     * The cache is written to a temporary file which then replaces the cache file, so that
+     * runtimes started at the same time never read a partly written cache file.
+     */
+    public synchronized void save() {
+        if (cacheFile == null || !modified) {
+            return;
+        }
+        File tempFile = null;
+        try {
+            final File parentDir = cacheFile.getAbsoluteFile().getParentFile();
+            if (!parentDir.exists() && !parentDir.mkdirs()) {
+                throw new IOException(MessageFormat.format("Failed to create directory ''{0}''", parentDir));
+            }
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", parentDir);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    final Entry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeUTF(entry.providerVersion);
+                    out.writeInt(entry.keys.length);
+                    for (String key : entry.keys) {
+                        out.writeUTF(key);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            // on Windows a file cannot be renamed over an existing one
+            if (!tempFile.renameTo(cacheFile) && !(cacheFile.delete() && tempFile.renameTo(cacheFile))) {
+                throw new IOException(MessageFormat.format("Failed to rename ''{0}''", tempFile));
+            }
+            tempFile = null;
+            modified = false;
+        } catch (IOException e) {
+            // the cache is only an optimisation, e.g. the home directory may be read-only
+            logger.warning(MessageFormat.format("Failed to write service key cache [{0}]: {1}", cacheFile, e.getMessage()));
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static String getEntryKey(Class<?> serviceType, String className) {
+        return serviceType.getName() + '/' + className;
+    }
+
+    private static void checkSize(int size, long fileSize) throws IOException {
+        if (size < 0 || size > fileSize) {
+            throw new IOException(MessageFormat.format("Invalid size {0}", size));
+        }
+    }
+
+    private static final class Entry {
+
+        private final String providerVersion;
+        private final String[] keys;
+
+        private Entry(String providerVersion, String[] keys) {
+            this.providerVersion = providerVersion;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An index of the services of a registry by keys, e.g. the format names of reader plug-ins.
+ * <p/>
+ * For services which are declared in a {@link DefaultServiceRegistry} but not created yet, the keys are
+ * taken from a {@link ServiceKeyCache}, so that a lookup creates only the services having the key.
+ * Declared services without cached keys, e.g. on the first start or after a module has been updated,
+ * are created on the first lookup and their keys are cached.
+ *
+ * @param <T> The service type.
+ * @since Ceres 0.14
+ */
+public class ServiceKeyIndex<T> implements ServiceRegistryListener<T> {
+
+    /**
+     * Provides the keys of a service.
+     *
+     * @param <T> The service type.
+     */
+    public interface KeyProvider<T> {
+
+        /**
+         * @param service The service.
+         * @return The keys of the service.
+         */
+        String[] getKeys(T service);
+    }
+
+    private final ServiceRegistry<T> registry;
+    private final KeyProvider<T> keyProvider;
+    private final ServiceKeyCache keyCache;
+    private final Map<String, List<T>> lookups;
+    private final AtomicInteger registryVersion;
+
+    public ServiceKeyIndex(ServiceRegistry<T> registry, KeyProvider<T> keyProvider, ServiceKeyCache keyCache) {
+        Assert.notNull(registry, "registry");
+        Assert.notNull(keyProvider, "keyProvider");
+        Assert.notNull(keyCache, "keyCache");
+        this.registry = registry;
+        this.keyProvider = keyProvider;
+        this.keyCache = keyCache;
+        this.lookups = new ConcurrentHashMap<String, List<T>>(32);
+        this.registryVersion = new AtomicInteger();
+        registry.addListener(this);
+    }
+
+    /**
+     * Gets all services having the given key. Declared services which may have the key are created.
+     *
+     * @param key The key.
+     * @return The services, in no particular order.
+     */
+    public List<T> getServices(String key) {
+        List<T> services = lookups.get(key);
+        if (services != null) {
+            return services;
+        }
+        if (registry instanceof DefaultServiceRegistry) {
+            createDeclaredServices((DefaultServiceRegistry<T>) registry, key);
+        }
+        // taken after the services have been created, so that only later changes discard the result
+        final int version = registryVersion.get();
+        final Iterable<T> candidates = registry instanceof DefaultServiceRegistry ?
+                                       ((DefaultServiceRegistry<T>) registry).getCreatedServices() :
+                                       registry.getServices();
+        services = new ArrayList<T>(2);
+        for (T service : candidates) {
+            if (contains(keyProvider.getKeys(service), key)) {
+                services.add(service);
+            }
+        }
+        services = Collections.unmodifiableList(services);
+        synchronized (lookups) {
+            if (registryVersion.get() == version) {
+                lookups.put(key, services);
+            }
+        }
+        return services;
+    }
+
+    private void createDeclaredServices(DefaultServiceRegistry<T> defaultRegistry, String key) {
+        for (String className : defaultRegistry.getDeclaredServiceClassNames()) {
+            final String providerVersion = defaultRegistry.getProviderVersion(className);
+            final String[] keys = providerVersion != null ?
+                                  keyCache.getKeys(registry.getServiceType(), className, providerVersion) : null;
+            if (keys == null || contains(keys, key)) {
+                // the keys are cached by serviceAdded
+                defaultRegistry.getService(className);
+            }
+        }
+        keyCache.save();
+    }
+
+    @Override
+    public void serviceAdded(ServiceRegistry<T> registry, T service) {
+        clearLookups();
+        if (registry instanceof DefaultServiceRegistry) {
+            final String className = service.getClass().getName();
+            final String providerVersion = ((DefaultServiceRegistry<T>) registry).getProviderVersion(className);
+            if (providerVersion != null) {
+                keyCache.putKeys(registry.getServiceType(), className, providerVersion, keyProvider.getKeys(service));
+            }
+        }
+    }
+
+    @Override
+    public void serviceRemoved(ServiceRegistry<T> registry, T service) {
+        clearLookups();
+    }
+
+    private void clearLookups() {
+        synchronized (lookups) {
+            registryVersion.incrementAndGet();
+            lookups.clear();
+        }
+    }
+
+    private static boolean contains(String[] keys, String key) {
+        for (String k : keys) {
+            if (k.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
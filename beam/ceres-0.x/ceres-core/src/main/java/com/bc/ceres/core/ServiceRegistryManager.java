@@ -27,9 +27,11 @@ public class ServiceRegistryManager {
 
     private static ServiceRegistryManager instance = new ServiceRegistryManager();
     private final HashMap<Class, ServiceRegistry> serviceRegistries;
+    private volatile ServiceKeyCache serviceKeyCache;
 
     public ServiceRegistryManager() {
         serviceRegistries = new HashMap<Class, ServiceRegistry>(10);
+        serviceKeyCache = new ServiceKeyCache();
     }
 
     public static ServiceRegistryManager getInstance() {
@@ -55,6 +57,26 @@ public class ServiceRegistryManager {
         serviceRegistries.put(serviceType, serviceRegistry);
     }
 
+    /**
+     * Gets the cache of the keys of declared services, used by {@link ServiceKeyIndex}es.
+     * By default the cache is kept in memory only.
+     *
+     * @return The service key cache.
+     * @since Ceres 0.14
+     */
+    public ServiceKeyCache getServiceKeyCache() {
+        return serviceKeyCache;
+    }
+
+    /**
+     * @param serviceKeyCache The service key cache, e.g. a persistent cache set by the runtime.
+     * @since Ceres 0.14
+     */
+    public void setServiceKeyCache(ServiceKeyCache serviceKeyCache) {
+        Assert.notNull(serviceKeyCache, "serviceKeyCache");
+        this.serviceKeyCache = serviceKeyCache;
+    }
+
     protected <T> ServiceRegistry<T> createServiceRegistry(Class<T> serviceType) {
         Assert.notNull(serviceType, "serviceType");
         return new DefaultServiceRegistry<T>(serviceType);
@@ -47,11 +47,21 @@ public class ModuleLoader {
 
     private Logger logger;
     private HashSet<URL> visitedLocations;
+    private ModuleManifestCache manifestCache;
 
     public ModuleLoader(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param logger        the logger
+     * @param manifestCache the cache for the manifests of module files, may be {@code null}
+     */
+    public ModuleLoader(Logger logger, ModuleManifestCache manifestCache) {
         Assert.notNull(logger, "logger");
         this.logger = logger;
         this.visitedLocations = new HashSet<URL>(32);
+        this.manifestCache = manifestCache;
     }
 
     public ModuleImpl[] loadModules(ClassLoader classLoader, ProgressMonitor pm) throws IOException {
@@ -72,7 +82,7 @@ public class ModuleLoader {
                 if (locationUrl != null) {
                     if (!visitedLocations.contains(locationUrl)) {
                         try {
-                            ModuleImpl module = new ModuleReader(logger).readFromLocation(locationUrl);
+                            ModuleImpl module = new ModuleReader(logger, manifestCache).readFromLocation(locationUrl);
                             module.setState(ModuleState.INSTALLED);
                             moduleList.add(module);
                             visitedLocations.add(locationUrl);
@@ -140,7 +150,7 @@ public class ModuleLoader {
     public ModuleImpl loadModule(File moduleFile, ProgressMonitor pm) throws CoreException {
         pm.beginTask("Loading module", 2);
         try {
-            ModuleImpl module = new ModuleReader(logger).readFromLocation(moduleFile);
+            ModuleImpl module = new ModuleReader(logger, manifestCache).readFromLocation(moduleFile);
             pm.worked(1);
             if ("dir".equalsIgnoreCase(module.getPackaging())
                     && !moduleFile.isDirectory()) {
@@ -155,7 +165,7 @@ public class ModuleLoader {
                         logger.warning(MessageFormat.format("Failed to delete file [{0}], reason unknown.", archiveFile));
                     }
                 }
-                module = new ModuleReader(logger).readFromLocation(moduleFile);
+                module = new ModuleReader(logger, manifestCache).readFromLocation(moduleFile);
             } else {
                 pm.worked(1);
             }
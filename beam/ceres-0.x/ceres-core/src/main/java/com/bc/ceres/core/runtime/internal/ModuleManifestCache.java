@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core.runtime.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A persistent cache of module manifests.
+ * <p/>
+ * The manifest of a module is stored together with the path, size and modification time of the file
+ * it has been read from, which is the module JAR or the manifest file of an unpacked module.
+ * As long as the file does not change, the manifest is taken from the cache and the
+ * JAR does not have to be opened again on the next start of the runtime.
+ */
+public class ModuleManifestCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File cacheFile;
+    private final Logger logger;
+    private final Map<String, Entry> entries;
+    private final Set<String> usedPaths;
+    private boolean modified;
+
+    public ModuleManifestCache(File cacheFile, Logger logger) {
+        this.cacheFile = cacheFile;
+        this.logger = logger;
+        this.entries = new HashMap<String, Entry>(128);
+        this.usedPaths = new HashSet<String>(128);
+    }
+
+    /**
+     * Gets the cached manifest read from the given file.
+     *
+     * @param file the module JAR or the manifest file of an unpacked module
+     * @return the manifest content, or {@code null} if not cached or if the file has changed since
+     */
+    public synchronized byte[] getManifest(File file) {
+        final String path = file.getAbsolutePath();
+        final Entry entry = entries.get(path);
+        if (entry != null && entry.length == file.length() && entry.lastModified == file.lastModified()) {
+            usedPaths.add(path);
+            return entry.manifest;
+        }
+        return null;
+    }
+
+    /**
+     * Puts the manifest read from the given file into the cache.
+     *
+     * @param file     the module JAR or the manifest file of an unpacked module
+     * @param manifest the manifest content
+     */
+    public synchronized void putManifest(File file, byte[] manifest) {
+        final String path = file.getAbsolutePath();
+        entries.put(path, new Entry(file.length(), file.lastModified(), manifest));
+        usedPaths.add(path);
+        modified = true;
+    }
+
+    /**
+     * Loads the cache file. A missing, unreadable or corrupt cache file results in an empty cache.
+     */
+    public synchronized void load() {
+        entries.clear();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        final long fileSize = cacheFile.length();
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return;
+                }
+                final int count = in.readInt();
+                checkSize(count, fileSize);
+                for (int i = 0; i < count; i++) {
+                    final String path = in.readUTF();
+                    final long length = in.readLong();
+                    final long lastModified = in.readLong();
+                    final int manifestLength = in.readInt();
+                    checkSize(manifestLength, fileSize);
+                    final byte[] manifest = new byte[manifestLength];
+                    in.readFully(manifest);
+                    entries.put(path, new Entry(length, lastModified, manifest));
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            entries.clear();
+            logger.warning(MessageFormat.format("Failed to read module cache [{0}]: {1}", cacheFile, e.getMessage()));
+        } catch (RuntimeException e) {
+            entries.clear();
+            logger.warning(MessageFormat.format("Failed to read module cache [{0}]: {1}", cacheFile, e));
+        }
+    }
+
+    /**
+     * Saves the manifests used since the cache has been loaded, if any has been added.
+     * Manifests of modules which have not been used anymore are dropped.
+     * <p/>
+     * The cache is written to a temporary file which then replaces the cache file, so that runtimes
+     * started at the same time never read a partly written cache file.
+     */
+    public synchronized void save() {
+        if (!modified && usedPaths.size() == entries.size()) {
+            return;
+        }
+        entries.keySet().retainAll(usedPaths);
+        File tempFile = null;
+        try {
+            final File parentDir = cacheFile.getAbsoluteFile().getParentFile();
+            if (!parentDir.exists() && !parentDir.mkdirs()) {
+                throw new IOException(MessageFormat.format("Failed to create directory ''{0}''", parentDir));
+            }
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", parentDir);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    final Entry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeLong(entry.length);
+                    out.writeLong(entry.lastModified);
+                    out.writeInt(entry.manifest.length);
+                    out.write(entry.manifest);
+                }
+            } finally {
+                out.close();
+            }
+            // on Windows a file cannot be renamed over an existing one
+            if (!tempFile.renameTo(cacheFile) && !(cacheFile.delete() && tempFile.renameTo(cacheFile))) {
+                throw new IOException(MessageFormat.format("Failed to rename ''{0}''", tempFile));
+            }
+            tempFile = null;
+            modified = false;
+        } catch (IOException e) {
+            // the cache is only an optimisation, e.g. the home directory may be read-only
+            logger.warning(MessageFormat.format("Failed to write module cache [{0}]: {1}", cacheFile, e.getMessage()));
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static void checkSize(int size, long fileSize) throws IOException {
+        if (size < 0 || size > fileSize) {
+            throw new IOException(MessageFormat.format("Invalid size {0}", size));
+        }
+    }
+
+    static byte[] readFully(InputStream inputStream) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            final byte[] buffer = new byte[4096];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static final class Entry {
+
+        private final long length;
+        private final long lastModified;
+        private final byte[] manifest;
+
+        private Entry(long length, long lastModified, byte[] manifest) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.manifest = manifest;
+        }
+    }
+}
@@ -46,13 +46,16 @@ import java.util.regex.Pattern;
 public class ModuleManifestParser {
     private static final Pattern REPLACE_WHITESPACE_PATTERN = Pattern.compile("\\s{2,}");
 
+    // Setting up XStream is expensive, once configured an instance can be shared between threads
+    private static XStream sharedXStream;
+
     public ModuleManifestParser() {
     }
 
     public ModuleImpl parse(String xml) throws CoreException {
         Assert.notNull(xml, "xml");
         try {
-            ModuleImpl module = (ModuleImpl) createXStream().fromXML(xml);
+            ModuleImpl module = (ModuleImpl) getXStream().fromXML(xml);
             postProcessModule(module);
             return module;
         } catch (XStreamException e) {
@@ -63,7 +66,7 @@ public class ModuleManifestParser {
     public ModuleImpl parse(InputStream stream) throws CoreException {
         Assert.notNull(stream, "stream");
         try {
-            ModuleImpl module = (ModuleImpl) createXStream().fromXML(stream);
+            ModuleImpl module = (ModuleImpl) getXStream().fromXML(stream);
             postProcessModule(module);
             return module;
         } catch (XStreamException e) {
@@ -80,7 +83,7 @@ public class ModuleManifestParser {
     public ModuleImpl parse(Reader reader) throws CoreException {
         Assert.notNull(reader, "reader");
         try {
-            ModuleImpl module = (ModuleImpl) createXStream().fromXML(reader);
+            ModuleImpl module = (ModuleImpl) getXStream().fromXML(reader);
             postProcessModule(module);
             return module;
         } catch (XStreamException e) {
@@ -161,6 +164,13 @@ public class ModuleManifestParser {
     }
 
 
+    private static synchronized XStream getXStream() {
+        if (sharedXStream == null) {
+            sharedXStream = createXStream();
+        }
+        return sharedXStream;
+    }
+
     private static XStream createXStream() {
         XStream xstream = new XStream();
 
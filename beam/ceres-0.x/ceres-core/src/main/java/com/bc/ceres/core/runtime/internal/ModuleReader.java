@@ -32,16 +32,28 @@ import static com.bc.ceres.core.runtime.Constants.MODULE_MANIFEST_NAME;
 public class ModuleReader {
 
     private Logger logger;
+    private ModuleManifestCache manifestCache;
     public static final String[] NO_LIBS = new String[0];
 
     public ModuleReader(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param logger        the logger
+     * @param manifestCache the cache for the manifests of module files, may be {@code null}
+     */
+    public ModuleReader(Logger logger, ModuleManifestCache manifestCache) {
         this.logger = logger;
+        this.manifestCache = manifestCache;
     }
 
 
     public ModuleImpl readFromLocation(File locationFile) throws CoreException {
         final ModuleImpl module;
-        if (locationFile.isDirectory()) {
+        if (manifestCache != null) {
+            module = readFromCachedManifest(locationFile);
+        } else if (locationFile.isDirectory()) {
             module = readFromManifest(new File(locationFile, MODULE_MANIFEST_NAME));
         } else {
             try {
@@ -71,8 +83,14 @@ public class ModuleReader {
         if (manifestUrl == null) {
             throw new CoreException("Not a module URL: [" + locationUrl + "]");
         }
-        final ModuleImpl module = readFromManifest(manifestUrl, ProxyConfig.NULL);
-        initModule(module, locationUrl, UrlHelper.urlToFile(locationUrl));
+        final File locationFile = UrlHelper.urlToFile(locationUrl);
+        final ModuleImpl module;
+        if (manifestCache != null && locationFile != null && locationFile.exists()) {
+            module = readFromCachedManifest(locationFile);
+        } else {
+            module = readFromManifest(manifestUrl, ProxyConfig.NULL);
+        }
+        initModule(module, locationUrl, locationFile);
         return module;
     }
 
@@ -102,6 +120,44 @@ public class ModuleReader {
         }
     }
 
+    private ModuleImpl readFromCachedManifest(File locationFile) throws CoreException {
+        final File sourceFile;
+        if (locationFile.isDirectory()) {
+            sourceFile = new File(locationFile, MODULE_MANIFEST_NAME);
+        } else {
+            sourceFile = locationFile;
+        }
+        byte[] manifest = manifestCache.getManifest(sourceFile);
+        if (manifest == null) {
+            manifest = readManifestBytes(locationFile, sourceFile);
+            manifestCache.putManifest(sourceFile, manifest);
+        }
+        return readFromManifest(new ByteArrayInputStream(manifest));
+    }
+
+    private static byte[] readManifestBytes(File locationFile, File sourceFile) throws CoreException {
+        try {
+            if (sourceFile != locationFile) {
+                return ModuleManifestCache.readFully(new FileInputStream(sourceFile));
+            }
+            ZipFile zipFile = new ZipFile(locationFile);
+            try {
+                ZipEntry entry = zipFile.getEntry(MODULE_MANIFEST_NAME);
+                if (entry == null) {
+                    throw new CoreException(
+                            String.format("Manifest [%s] not found in [%s]", MODULE_MANIFEST_NAME, locationFile.getName()));
+                }
+                return ModuleManifestCache.readFully(zipFile.getInputStream(entry));
+            } finally {
+                zipFile.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new CoreException("Module manifest [" + sourceFile + "] not found", e);
+        } catch (IOException e) {
+            throw new CoreException(
+                    String.format("Failed to read manifest [%s] from [%s]", MODULE_MANIFEST_NAME, locationFile.getName()), e);
+        }
+    }
 
     private void initModule(ModuleImpl module, URL locationUrl, File locationFile) {
         module.setLocation(locationUrl);
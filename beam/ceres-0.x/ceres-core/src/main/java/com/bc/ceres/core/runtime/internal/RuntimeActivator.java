@@ -17,6 +17,7 @@
 package com.bc.ceres.core.runtime.internal;
 
 import com.bc.ceres.core.CoreException;
+import com.bc.ceres.core.DefaultServiceRegistry;
 import com.bc.ceres.core.ExtensionFactory;
 import com.bc.ceres.core.ExtensionManager;
 import com.bc.ceres.core.ServiceRegistry;
@@ -32,8 +33,10 @@ import com.bc.ceres.core.runtime.ModuleState;
 import com.bc.ceres.core.runtime.RuntimeRunnable;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -45,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 
 public final class RuntimeActivator implements Activator {
@@ -53,6 +57,7 @@ public final class RuntimeActivator implements Activator {
 
     private Map<String, RuntimeRunnable> applications;
     private List<ServiceRegistration> serviceRegistrations;
+    private List<ProviderDeclaration> declaredProviders;
     private ModuleContext moduleContext;
 
     public static RuntimeActivator getInstance() {
@@ -93,6 +98,7 @@ public final class RuntimeActivator implements Activator {
     private void initServiceProviders() {
         ClassLoader providerLoader = initProviderLoader();
         serviceRegistrations = new ArrayList<ServiceRegistration>(32);
+        declaredProviders = new ArrayList<ProviderDeclaration>(128);
         ExtensionPoint extensionPoint = moduleContext.getModule().getExtensionPoint("serviceProviders");
         Extension[] extensions = extensionPoint.getExtensions();
         for (Extension extension : extensions) {
@@ -109,9 +115,13 @@ public final class RuntimeActivator implements Activator {
                                 String[] providerImplClassNames = getProviderImplClassNames(serviceRegistration);
                                 if (providerImplClassNames != null) {
                                     for (String providerImplClassName : providerImplClassNames) {
-                                        Class<?> providerImplClass = getProviderImplClass(serviceRegistration, providerImplClassName);
-                                        if (providerImplClass != null) {
-                                            registerProviderImpl(serviceRegistration, providerImplClass);
+                                        if (serviceRegistration.serviceRegistry instanceof DefaultServiceRegistry) {
+                                            declareProviderImpl(serviceRegistration, providerImplClassName);
+                                        } else {
+                                            Class<?> providerImplClass = getProviderImplClass(serviceRegistration, providerImplClassName);
+                                            if (providerImplClass != null) {
+                                                registerProviderImpl(serviceRegistration, providerImplClass);
+                                            }
                                         }
                                     }
                                 }
@@ -138,6 +148,61 @@ public final class RuntimeActivator implements Activator {
         return new URLClassLoader(urlArrayList.toArray(new URL[urlArrayList.size()]), new NullClassLoader());
     }
 
+    /**
+     * Declares a service provider without loading its class. The provider is loaded and instantiated
+     * by the registry when it is requested for the first time.
+     */
+    private void declareProviderImpl(final ServiceRegistration serviceRegistration, final String providerImplClassName) {
+        DefaultServiceRegistry serviceRegistry = (DefaultServiceRegistry) serviceRegistration.serviceRegistry;
+        String providerVersion = getProviderVersion(serviceRegistration.module);
+        boolean declared = serviceRegistry.addServiceProvider(providerImplClassName, providerVersion, new Callable<Object>() {
+            @Override
+            public Object call() {
+                Class<?> providerImplClass = getProviderImplClass(serviceRegistration, providerImplClassName);
+                if (providerImplClass == null) {
+                    return null;
+                }
+                Class<?> providerClass = serviceRegistration.serviceRegistry.getServiceType();
+                if (!providerClass.isAssignableFrom(providerImplClass)) {
+                    moduleContext.getLogger().severe(String.format("Service [%s] is not of type [%s]",
+                                                                   providerImplClass.toString(),
+                                                                   providerClass.toString()));
+                    return null;
+                }
+                return getProviderImpl(providerImplClass);
+            }
+        });
+        if (declared) {
+            declaredProviders.add(new ProviderDeclaration(serviceRegistry, providerImplClassName));
+            moduleContext.getLogger().info(String.format("Module [%s]: Service [%s] declared",
+                                                         serviceRegistration.module.getSymbolicName(),
+                                                         providerImplClassName));
+        }
+    }
+
+    /**
+     * Gets a version of the providers of a module which changes whenever the module changes:
+     * the module's location and version, and the size and modification time of its JAR.
+     */
+    private static String getProviderVersion(Module module) {
+        URL location = module.getLocation();
+        StringBuilder providerVersion = new StringBuilder(location.toExternalForm());
+        providerVersion.append('|').append(module.getVersion());
+        if ("file".equals(location.getProtocol())) {
+            try {
+                File file = new File(location.toURI());
+                if (file.isFile()) {
+                    providerVersion.append('|').append(file.length()).append('|').append(file.lastModified());
+                }
+            } catch (URISyntaxException e) {
+                // keep location and version only
+            } catch (IllegalArgumentException e) {
+                // keep location and version only
+            }
+        }
+        return providerVersion.toString();
+    }
+
     private void registerProviderImpl(ServiceRegistration serviceRegistration, Class<?> providerImplClass) {
         Class<?> providerClass = serviceRegistration.serviceRegistry.getServiceType();
         if (providerClass.isAssignableFrom(providerImplClass)) {
@@ -287,6 +352,17 @@ public final class RuntimeActivator implements Activator {
         }
     }
 
+    private static class ProviderDeclaration {
+
+        final DefaultServiceRegistry serviceRegistry;
+        final String className;
+
+        public ProviderDeclaration(DefaultServiceRegistry serviceRegistry, String className) {
+            this.serviceRegistry = serviceRegistry;
+            this.className = className;
+        }
+    }
+
     private void disposeServiceProviders() {
         for (ServiceRegistration serviceRegistration : serviceRegistrations) {
             ServiceRegistry serviceRegistry = serviceRegistration.serviceRegistry;
@@ -297,6 +373,10 @@ public final class RuntimeActivator implements Activator {
                                                          serviceRegistration.providerImpl.getClass()));
         }
         serviceRegistrations.clear();
+        for (ProviderDeclaration declaration : declaredProviders) {
+            declaration.serviceRegistry.removeServiceProvider(declaration.className);
+        }
+        declaredProviders.clear();
     }
 
 
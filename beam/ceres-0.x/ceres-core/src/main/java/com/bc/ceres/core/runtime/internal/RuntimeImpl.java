@@ -20,6 +20,8 @@ import com.bc.ceres.core.Assert;
 import com.bc.ceres.core.CoreException;
 import com.bc.ceres.core.ExtensibleObject;
 import com.bc.ceres.core.ProgressMonitor;
+import com.bc.ceres.core.ServiceKeyCache;
+import com.bc.ceres.core.ServiceRegistryManager;
 import com.bc.ceres.core.SubProgressMonitor;
 import static com.bc.ceres.core.runtime.Constants.SYSTEM_MODULE_NAME;
 import com.bc.ceres.core.runtime.Module;
@@ -49,6 +51,8 @@ import java.util.logging.Logger;
 public class RuntimeImpl extends ExtensibleObject implements ModuleRuntime {
 
     public static final String UNINSTALL_FILE_SUFFIX = ".uninstall";
+    public static final String CONFIG_KEY_MODULE_CACHE_FILE = "moduleCache.file";
+    public static final String CONFIG_KEY_SERVICE_KEY_CACHE_FILE = "serviceKeyCache.file";
 
     private final RuntimeConfig config;
     private final String[] commandLineArgs;
@@ -126,6 +130,8 @@ public class RuntimeImpl extends ExtensibleObject implements ModuleRuntime {
             progressMonitor.setSubTaskName("Resolving modules");
             resolveModules(SubProgressMonitor.create(progressMonitor, 10));  // = 15%
 
+            initServiceKeyCache();
+
             progressMonitor.setSubTaskName("Starting modules");
             startModules(SubProgressMonitor.create(progressMonitor, 30)); // = 70%
             registerShutdownHook();
@@ -211,7 +217,8 @@ public class RuntimeImpl extends ExtensibleObject implements ModuleRuntime {
 
             moduleRegistry = new ModuleRegistry();
 
-            ModuleLoader moduleLoader = new ModuleLoader(getLogger());
+            ModuleManifestCache manifestCache = createManifestCache();
+            ModuleLoader moduleLoader = new ModuleLoader(getLogger(), manifestCache);
 
             if (config.getModulesDirPath() != null) {
                 loadModulesFromModulesDir(moduleLoader, SubProgressMonitor.create(pm, 1));
@@ -221,11 +228,47 @@ public class RuntimeImpl extends ExtensibleObject implements ModuleRuntime {
 
             loadModulesFromClasspath(moduleLoader, SubProgressMonitor.create(pm, 1));
 
+            if (manifestCache != null) {
+                manifestCache.save();
+            }
+
         } finally {
             pm.done();
         }
     }
 
+    /**
+     * Creates the cache of module manifests. The cache file is given by the context property
+     * {@value #CONFIG_KEY_MODULE_CACHE_FILE}, an empty value disables the cache.
+     */
+    private ModuleManifestCache createManifestCache() {
+        String defaultPath = new File(System.getProperty("user.home"),
+                                      "." + getContextId() + File.separator + "module-cache.bin").getPath();
+        String cacheFilePath = config.getContextProperty(CONFIG_KEY_MODULE_CACHE_FILE, defaultPath);
+        if (cacheFilePath == null || cacheFilePath.trim().isEmpty()) {
+            return null;
+        }
+        ModuleManifestCache manifestCache = new ModuleManifestCache(new File(cacheFilePath), getLogger());
+        manifestCache.load();
+        return manifestCache;
+    }
+
+    /**
+     * Sets a persistent cache of the keys of declared services, see {@link ServiceKeyCache}. The cache file
+     * is given by the context property {@value #CONFIG_KEY_SERVICE_KEY_CACHE_FILE}, an empty value disables the cache.
+     */
+    private void initServiceKeyCache() {
+        String defaultPath = new File(System.getProperty("user.home"),
+                                      "." + getContextId() + File.separator + "service-keys.bin").getPath();
+        String cacheFilePath = config.getContextProperty(CONFIG_KEY_SERVICE_KEY_CACHE_FILE, defaultPath);
+        if (cacheFilePath == null || cacheFilePath.trim().isEmpty()) {
+            return;
+        }
+        ServiceKeyCache serviceKeyCache = new ServiceKeyCache(new File(cacheFilePath), getLogger());
+        serviceKeyCache.load();
+        ServiceRegistryManager.getInstance().setServiceKeyCache(serviceKeyCache);
+    }
+
     private void uninstallModules(ProgressMonitor pm) {
         ModuleUninstaller moduleUninstaller = new ModuleUninstaller(getLogger());
         moduleUninstaller.uninstallModules(new File(config.getModulesDirPath()), pm);
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+public class DefaultServiceRegistryTest extends TestCase {
+
+    public void testDeclaredServiceIsCreatedOnFirstRequest() {
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final List<S> addedServices = new ArrayList<S>();
+        registry.addListener(new ServiceRegistryListener<S>() {
+            @Override
+            public void serviceAdded(ServiceRegistry<S> registry, S service) {
+                addedServices.add(service);
+            }
+
+            @Override
+            public void serviceRemoved(ServiceRegistry<S> registry, S service) {
+                addedServices.remove(service);
+            }
+        });
+        final CountingFactory factory = new CountingFactory();
+
+        assertTrue(registry.addServiceProvider(S.class.getName(), factory));
+        assertFalse(registry.addServiceProvider(S.class.getName(), factory));
+        assertTrue(registry.getServiceClassNames().contains(S.class.getName()));
+        assertEquals(0, factory.count);
+        assertEquals(0, addedServices.size());
+
+        final S service = registry.getService(S.class.getName());
+        assertNotNull(service);
+        assertSame(service, registry.getService(S.class.getName()));
+        assertEquals(1, factory.count);
+        assertEquals(1, addedServices.size());
+
+        assertTrue(registry.removeServiceProvider(S.class.getName()));
+        assertNull(registry.getService(S.class.getName()));
+        assertEquals(0, addedServices.size());
+    }
+
+    public void testGetServicesCreatesAllDeclaredServices() {
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final CountingFactory factory = new CountingFactory();
+        registry.addServiceProvider(S.class.getName(), factory);
+        registry.addServiceProvider("not.Existing", new Callable<S>() {
+            @Override
+            public S call() {
+                return null;
+            }
+        });
+
+        final Set<S> services = registry.getServices();
+        assertEquals(1, services.size());
+        assertEquals(1, factory.count);
+        assertFalse(registry.getServiceClassNames().contains("not.Existing"));
+    }
+
+    public static class S {
+    }
+
+    private static class CountingFactory implements Callable<S> {
+
+        int count;
+
+        @Override
+        public S call() {
+            count++;
+            return new S();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class ServiceKeyIndexTest extends TestCase {
+
+    private static final ServiceKeyIndex.KeyProvider<S> KEY_PROVIDER = new ServiceKeyIndex.KeyProvider<S>() {
+        @Override
+        public String[] getKeys(S service) {
+            return new String[]{service.key};
+        }
+    };
+
+    public void testAllDeclaredServicesAreCreatedIfKeysAreUnknown() {
+        final ServiceKeyCache keyCache = new ServiceKeyCache();
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final CountingFactory factoryA = declare(registry, A.class, "1");
+        final CountingFactory factoryB = declare(registry, B.class, "1");
+        final ServiceKeyIndex<S> index = new ServiceKeyIndex<S>(registry, KEY_PROVIDER, keyCache);
+
+        final List<S> services = index.getServices("a");
+        assertEquals(1, services.size());
+        assertSame(A.class, services.get(0).getClass());
+        assertEquals(1, factoryA.count);
+        assertEquals(1, factoryB.count);
+        assertSame(services, index.getServices("a"));
+
+        assertEquals("b", keyCache.getKeys(S.class, B.class.getName(), "1")[0]);
+        assertNull(keyCache.getKeys(S.class, B.class.getName(), "2"));
+    }
+
+    public void testOnlyMatchingDeclaredServiceIsCreatedIfKeysAreCached() {
+        final ServiceKeyCache keyCache = new ServiceKeyCache();
+        keyCache.putKeys(S.class, A.class.getName(), "1", new String[]{"a"});
+        keyCache.putKeys(S.class, B.class.getName(), "1", new String[]{"b"});
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final CountingFactory factoryA = declare(registry, A.class, "1");
+        final CountingFactory factoryB = declare(registry, B.class, "1");
+        final ServiceKeyIndex<S> index = new ServiceKeyIndex<S>(registry, KEY_PROVIDER, keyCache);
+
+        assertEquals(1, index.getServices("b").size());
+        assertEquals(0, factoryA.count);
+        assertEquals(1, factoryB.count);
+        assertEquals(0, index.getServices("c").size());
+        assertEquals(0, factoryA.count);
+    }
+
+    public void testChangedProviderVersionCreatesService() {
+        final ServiceKeyCache keyCache = new ServiceKeyCache();
+        keyCache.putKeys(S.class, A.class.getName(), "1", new String[]{"x"});
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final CountingFactory factoryA = declare(registry, A.class, "2");
+        final ServiceKeyIndex<S> index = new ServiceKeyIndex<S>(registry, KEY_PROVIDER, keyCache);
+
+        assertEquals(1, index.getServices("a").size());
+        assertEquals(1, factoryA.count);
+        assertEquals("a", keyCache.getKeys(S.class, A.class.getName(), "2")[0]);
+    }
+
+    public void testRegistryChangeClearsLookups() {
+        final DefaultServiceRegistry<S> registry = new DefaultServiceRegistry<S>(S.class);
+        final ServiceKeyIndex<S> index = new ServiceKeyIndex<S>(registry, KEY_PROVIDER, new ServiceKeyCache());
+
+        assertEquals(0, index.getServices("a").size());
+        final A a = new A();
+        registry.addService(a);
+        assertEquals(1, index.getServices("a").size());
+        registry.removeService(a);
+        assertEquals(0, index.getServices("a").size());
+    }
+
+    public void testCacheIsSavedAndLoaded() throws Exception {
+        final File cacheFile = File.createTempFile("service-keys", ".bin");
+        try {
+            final ServiceKeyCache keyCache = new ServiceKeyCache(cacheFile, null);
+            keyCache.putKeys(S.class, A.class.getName(), "1", new String[]{"a", "aa"});
+            keyCache.save();
+
+            final ServiceKeyCache loadedCache = new ServiceKeyCache(cacheFile, null);
+            loadedCache.load();
+            final String[] keys = loadedCache.getKeys(S.class, A.class.getName(), "1");
+            assertNotNull(keys);
+            assertEquals(2, keys.length);
+            assertEquals("aa", keys[1]);
+            assertNull(loadedCache.getKeys(S.class, B.class.getName(), "1"));
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    private static CountingFactory declare(DefaultServiceRegistry<S> registry, Class<? extends S> type,
+                                           String providerVersion) {
+        final CountingFactory factory = new CountingFactory(type);
+        registry.addServiceProvider(type.getName(), providerVersion, factory);
+        return factory;
+    }
+
+    public static class S {
+
+        final String key;
+
+        S(String key) {
+            this.key = key;
+        }
+    }
+
+    public static class A extends S {
+
+        public A() {
+            super("a");
+        }
+    }
+
+    public static class B extends S {
+
+        public B() {
+            super("b");
+        }
+    }
+
+    private static class CountingFactory implements Callable<S> {
+
+        final Class<? extends S> type;
+        int count;
+
+        CountingFactory(Class<? extends S> type) {
+            this.type = type;
+        }
+
+        @Override
+        public S call() throws Exception {
+            count++;
+            return type.newInstance();
+        }
+    }
+}
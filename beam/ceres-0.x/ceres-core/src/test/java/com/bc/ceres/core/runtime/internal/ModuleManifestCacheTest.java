@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package com.bc.ceres.core.runtime.internal;
+
+import junit.framework.TestCase;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+public class ModuleManifestCacheTest extends TestCase {
+
+    private File tempDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        tempDir = new File(System.getProperty("java.io.tmpdir"), "ModuleManifestCacheTest");
+        tempDir.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (File file : tempDir.listFiles()) {
+            file.delete();
+        }
+        tempDir.delete();
+    }
+
+    public void testManifestIsPersisted() throws IOException {
+        final File moduleFile = createFile("module-a.jar", "xyz");
+        final File cacheFile = new File(tempDir, "module-cache.bin");
+        final byte[] manifest = "<module/>".getBytes("UTF-8");
+
+        ModuleManifestCache cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertNull(cache.getManifest(moduleFile));
+        cache.putManifest(moduleFile, manifest);
+        cache.save();
+        assertTrue(cacheFile.exists());
+
+        cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertTrue(Arrays.equals(manifest, cache.getManifest(moduleFile)));
+    }
+
+    public void testChangedFileIsNotTakenFromCache() throws IOException {
+        final File moduleFile = createFile("module-b.jar", "xyz");
+        final File cacheFile = new File(tempDir, "module-cache.bin");
+
+        final ModuleManifestCache cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.putManifest(moduleFile, "<module/>".getBytes("UTF-8"));
+        assertNotNull(cache.getManifest(moduleFile));
+
+        createFile("module-b.jar", "xyz-changed");
+        assertNull(cache.getManifest(moduleFile));
+    }
+
+    public void testUnusedManifestsAreDropped() throws IOException {
+        final File moduleFileA = createFile("module-a.jar", "a");
+        final File moduleFileB = createFile("module-b.jar", "b");
+        final File cacheFile = new File(tempDir, "module-cache.bin");
+
+        ModuleManifestCache cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.putManifest(moduleFileA, "<module/>".getBytes("UTF-8"));
+        cache.putManifest(moduleFileB, "<module/>".getBytes("UTF-8"));
+        cache.save();
+
+        cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertNotNull(cache.getManifest(moduleFileA));
+        cache.save();
+
+        cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertNotNull(cache.getManifest(moduleFileA));
+        assertNull(cache.getManifest(moduleFileB));
+    }
+
+    public void testCorruptCacheFileResultsInEmptyCache() throws IOException {
+        final File moduleFile = createFile("module-a.jar", "xyz");
+        final File cacheFile = new File(tempDir, "module-cache.bin");
+
+        ModuleManifestCache cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.putManifest(moduleFile, "<module/>".getBytes("UTF-8"));
+        cache.save();
+
+        // overwrite the manifest length with a negative value
+        final RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+        try {
+            raf.seek(8);
+            raf.readUTF();
+            raf.seek(raf.getFilePointer() + 16);
+            raf.writeInt(-1);
+        } finally {
+            raf.close();
+        }
+
+        cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertNull(cache.getManifest(moduleFile));
+
+        // a huge entry count
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(cacheFile));
+        try {
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+        } finally {
+            out.close();
+        }
+        cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.load();
+        assertNull(cache.getManifest(moduleFile));
+    }
+
+    public void testSaveLeavesNoTemporaryFile() throws IOException {
+        final File moduleFile = createFile("module-a.jar", "xyz");
+        final File cacheFile = new File(tempDir, "module-cache.bin");
+        createFile("module-cache.bin", "old");
+
+        final ModuleManifestCache cache = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        cache.putManifest(moduleFile, "<module/>".getBytes("UTF-8"));
+        cache.save();
+
+        assertEquals(2, tempDir.listFiles().length);
+        final ModuleManifestCache loaded = new ModuleManifestCache(cacheFile, Logger.getAnonymousLogger());
+        loaded.load();
+        assertNotNull(loaded.getManifest(moduleFile));
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        final File file = new File(tempDir, name);
+        final FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(content.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+        return file;
+    }
+}
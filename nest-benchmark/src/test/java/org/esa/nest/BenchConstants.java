@@ -19,11 +19,12 @@ import org.esa.beam.util.PropertyMap;
 import org.esa.nest.util.Config;
 import org.esa.nest.util.ResourceUtils;
 
+import java.io.File;
+
 /**
  * Constants for benchmarking
  */
 public class BenchConstants {
-    public static int numIterations = 1;
     public static int maxDimensions = 3000;
 
     private static final PropertyMap testPreferences = Config.getConfigPropertyMap();
@@ -31,4 +32,16 @@ public class BenchConstants {
 
     private static final String testBenchmarks = testPreferences.getPropertyString(contextID+".test.RunBenchmarks");
     public static final boolean runBenchmarks = testBenchmarks != null && testBenchmarks.equalsIgnoreCase("true");
+
+    // untimed runs to let the JIT compile the hot code before measuring
+    public static int numWarmUpIterations = testPreferences.getPropertyInt(contextID+".test.BenchmarkWarmUp", 1);
+    public static int numIterations = testPreferences.getPropertyInt(contextID+".test.BenchmarkIterations", 3);
+
+    // width and height of the synthetic products
+    public static int syntheticSize = testPreferences.getPropertyInt(contextID+".test.BenchmarkSyntheticSize", 2048);
+
+    public static final File outputFolder = new File(testPreferences.getPropertyString(
+            contextID+".test.BenchmarkOutputFolder", new File(System.getProperty("java.io.tmpdir"), "nest-benchmark").getPath()));
+    public static final File resultsFile = new File(testPreferences.getPropertyString(
+            contextID+".test.BenchmarkResults", new File(outputFolder, "benchmark-results.csv").getPath()));
 }
@@ -5,6 +5,7 @@ import com.bc.ceres.core.runtime.RuntimeConfig;
 import com.bc.ceres.core.runtime.RuntimeConfigException;
 import com.bc.ceres.core.runtime.internal.DefaultRuntimeConfig;
 import junit.framework.TestCase;
+import org.esa.beam.framework.datamodel.MetadataElement;
 import org.esa.beam.framework.datamodel.Product;
 import org.esa.beam.framework.gpf.GPF;
 import org.esa.beam.framework.gpf.Operator;
@@ -13,7 +14,6 @@ import org.esa.beam.framework.gpf.internal.OperatorExecutor;
 import org.esa.beam.gpf.operators.standard.WriteOp;
 import org.esa.nest.datamodel.AbstractMetadata;
 import org.esa.nest.util.MemUtils;
-import org.esa.nest.util.ProcessTimeMonitor;
 
 import javax.media.jai.JAI;
 import java.io.File;
@@ -23,7 +23,17 @@ import java.io.File;
  */
 public abstract class Benchmark extends TestCase {
     protected OperatorSpi spi;
-    private final File outputFile = new File("e:\\out\\output.dim");
+    private final File outputFile = new File(BenchConstants.outputFolder, "output.dim");
+
+    // an analytic DEM covering the synthetic product currently processed, null for real products
+    protected File syntheticDEMFile = null;
+
+    /**
+     * A piece of work to be timed
+     */
+    public interface Task {
+        void run() throws Throwable;
+    }
 
     public Benchmark() {
         try {
@@ -63,34 +73,73 @@ public abstract class Benchmark extends TestCase {
         if(product == null) return;
 
         try {
-            if(BenchConstants.numIterations > 1) {
-                //warm up
-                run(spi, product);
-            }
-
-            final ProcessTimeMonitor timeMonitor = new ProcessTimeMonitor();
-            timeMonitor.start();
-
-            for(int i=0; i< BenchConstants.numIterations; ++i) {
-                MemUtils.freeAllMemory();
-                run(spi, product);
-            }
-            final long duration = timeMonitor.stop();
-
-            final String mission = AbstractMetadata.getAbstractedMetadata(product).getAttributeString(AbstractMetadata.MISSION);
-            final int w = product.getSceneRasterWidth();
-            final int h = product.getSceneRasterHeight();
-            final long seconds = duration / BenchConstants.numIterations;
-
-            System.out.println(spi.getOperatorAlias() +' '+ mission +' '+ product.getProductType() +' '+w +'x'+ h
-                    +" avg time: "+ ProcessTimeMonitor.formatDuration(seconds) +" ("+ seconds +" s)");
-            System.out.flush();
+            final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(product);
+            final String mission = absRoot.getAttributeString(AbstractMetadata.MISSION);
+
+            measure(spi.getOperatorAlias(), mission +' '+ product.getProductType(),
+                    product.getSceneRasterWidth(), product.getSceneRasterHeight(), new Task() {
+                public void run() throws Throwable {
+                    Benchmark.this.run(spi, product);
+                }
+            });
         } catch(Throwable t) {
             System.out.println("Test failed " + spi.getOperatorAlias() +' '+ product.getProductType());
             throw t;
         }
     }
 
+    /**
+     * Processes a synthetic product. An analytic DEM covering the product is provided in syntheticDEMFile.
+     * @param spi the operator
+     * @param product a product created by SyntheticProducts
+     * @throws Throwable on failure
+     */
+    protected final void processSynthetic(final OperatorSpi spi, final Product product) throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        syntheticDEMFile = new File(BenchConstants.outputFolder, product.getProductType() + "_dem.tif");
+        try {
+            SyntheticProducts.writeAnalyticDEM(product, syntheticDEMFile);
+            process(spi, product);
+        } finally {
+            syntheticDEMFile.delete();
+            syntheticDEMFile = null;
+            product.dispose();
+        }
+    }
+
+    /**
+     * Times a task after the warm up iterations and appends the statistics to the results file.
+     * @param name the benchmark name
+     * @param dataset the processed data
+     * @param width the raster width
+     * @param height the raster height
+     * @param task the work to be timed
+     * @return the result
+     * @throws Throwable if the task fails
+     */
+    public static BenchmarkResult measure(final String name, final String dataset, final int width, final int height,
+                                          final Task task) throws Throwable {
+        for(int i=0; i < BenchConstants.numWarmUpIterations; ++i) {
+            task.run();
+        }
+
+        final long[] nanos = new long[Math.max(1, BenchConstants.numIterations)];
+        for(int i=0; i < nanos.length; ++i) {
+            MemUtils.freeAllMemory();
+            final long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+
+        final BenchmarkResult result = new BenchmarkResult(name, dataset, width, height,
+                                                           BenchConstants.numWarmUpIterations, nanos);
+        System.out.println(result.toString());
+        System.out.flush();
+        result.appendTo(BenchConstants.resultsFile);
+        return result;
+    }
+
     private void run(final OperatorSpi spi, final Product srcProduct) throws Throwable {
         final Operator op = spi.createOperator();
         op.setSourceProduct(srcProduct);
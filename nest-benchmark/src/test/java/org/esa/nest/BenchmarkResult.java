@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * The timings of the measured iterations of a benchmark and their statistics.
+ * Results are appended as CSV rows to a results file, so that runs on different builds can be compared.
+ */
+public class BenchmarkResult {
+
+    private static final String CSV_HEADER = "time,benchmark,dataset,width,height,warmup,iterations," +
+            "min_ms,median_ms,mean_ms,stddev_ms,max_ms,java_version,os,processors";
+
+    private final String name;
+    private final String dataset;
+    private final int width;
+    private final int height;
+    private final int numWarmUpIterations;
+    private final long[] nanos;
+
+    /**
+     * @param name                the benchmark, e.g. the operator alias
+     * @param dataset             the processed data, e.g. the product type
+     * @param width               the raster width
+     * @param height              the raster height
+     * @param numWarmUpIterations the number of untimed iterations run before
+     * @param nanos               the durations of the measured iterations in nanoseconds
+     */
+    public BenchmarkResult(final String name, final String dataset, final int width, final int height,
+                           final int numWarmUpIterations, final long[] nanos) {
+        this.name = name;
+        this.dataset = dataset;
+        this.width = width;
+        this.height = height;
+        this.numWarmUpIterations = numWarmUpIterations;
+        this.nanos = nanos.clone();
+        Arrays.sort(this.nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getMinMillis() {
+        return toMillis(nanos[0]);
+    }
+
+    public double getMaxMillis() {
+        return toMillis(nanos[nanos.length - 1]);
+    }
+
+    public double getMedianMillis() {
+        final int mid = nanos.length / 2;
+        if (nanos.length % 2 == 1)
+            return toMillis(nanos[mid]);
+        return toMillis((nanos[mid - 1] + nanos[mid]) / 2);
+    }
+
+    public double getMeanMillis() {
+        double sum = 0;
+        for (long n : nanos) {
+            sum += n;
+        }
+        return toMillis(sum / nanos.length);
+    }
+
+    public double getStdDevMillis() {
+        if (nanos.length < 2)
+            return 0;
+        final double mean = getMeanMillis();
+        double sum = 0;
+        for (long n : nanos) {
+            final double d = toMillis(n) - mean;
+            sum += d * d;
+        }
+        return Math.sqrt(sum / (nanos.length - 1));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "%s %s %dx%d median %.1f ms, mean %.1f ms +- %.1f ms (%d iterations)",
+                             name, dataset, width, height, getMedianMillis(), getMeanMillis(), getStdDevMillis(),
+                             nanos.length);
+    }
+
+    public String toCSV() {
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ENGLISH);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return String.format(Locale.ENGLISH, "%s,%s,%s,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%s,%s,%d",
+                             dateFormat.format(new Date()), escape(name), escape(dataset), width, height,
+                             numWarmUpIterations, nanos.length, getMinMillis(), getMedianMillis(), getMeanMillis(),
+                             getStdDevMillis(), getMaxMillis(), escape(System.getProperty("java.version")),
+                             escape(System.getProperty("os.name") + ' ' + System.getProperty("os.arch")),
+                             Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Appends the result to a CSV file. The header is written if the file is new.
+     * @param file the results file
+     * @throws IOException if the file cannot be written
+     */
+    public void appendTo(final File file) throws IOException {
+        final File parentFolder = file.getAbsoluteFile().getParentFile();
+        if (!parentFolder.exists() && !parentFolder.mkdirs()) {
+            throw new IOException("Unable to create " + parentFolder);
+        }
+        final boolean isNew = !file.exists() || file.length() == 0;
+        final PrintWriter writer = new PrintWriter(new FileWriter(file, true));
+        try {
+            if (isNew) {
+                writer.println(CSV_HEADER);
+            }
+            writer.println(toCSV());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static double toMillis(final double nanos) {
+        return nanos / 1000000.0;
+    }
+
+    private static String escape(final String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
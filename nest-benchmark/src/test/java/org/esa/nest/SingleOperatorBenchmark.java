@@ -6,6 +6,19 @@ package org.esa.nest;
 public abstract class SingleOperatorBenchmark extends Benchmark {
 
     protected boolean skipS1 = false;
+    protected boolean skipSyntheticSLC = false;
+    protected boolean skipSyntheticGRD = false;
+
+    //Synthetic, no external data needed
+    public void testPerf_Synthetic_SLC() throws Throwable {
+        if(skipSyntheticSLC) return;
+        processSynthetic(spi, SyntheticProducts.createSLC(BenchConstants.syntheticSize, BenchConstants.syntheticSize));
+    }
+
+    public void testPerf_Synthetic_GRD() throws Throwable {
+        if(skipSyntheticGRD) return;
+        processSynthetic(spi, SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize));
+    }
 
     //RS-2
     public void testPerf_RS2_Quad() throws Throwable {
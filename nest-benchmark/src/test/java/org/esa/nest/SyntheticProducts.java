@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest;
+
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.datamodel.*;
+import org.esa.beam.framework.dataop.maptransf.Datum;
+import org.esa.beam.util.math.MathUtils;
+import org.esa.nest.datamodel.AbstractMetadata;
+import org.esa.nest.datamodel.Unit;
+import org.esa.nest.eo.Constants;
+import org.esa.nest.gpf.OperatorUtils;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic SAR products for benchmarking.
+ * <p/>
+ * The products are generated for a right looking sensor in a circular polar orbit around a spherical
+ * earth. Orbit state vectors, tie point grids and abstracted metadata are consistent with that geometry,
+ * so that geocoding operators can process them. The image data is fully developed speckle over a
+ * smooth backscatter pattern drawn from a fixed seed, so every run processes exactly the same data.
+ */
+public final class SyntheticProducts {
+
+    public static final String MISSION = "SYNTHETIC";
+
+    private static final double EARTH_RADIUS = Constants.semiMajorAxis; // m
+    private static final double ORBIT_HEIGHT = 700000.0; // m
+    private static final double ORBIT_RADIUS = EARTH_RADIUS + ORBIT_HEIGHT;
+    private static final double GM = 3.986004418e14; // m^3/s^2
+    private static final double ANGULAR_VELOCITY = Math.sqrt(GM / (ORBIT_RADIUS * ORBIT_RADIUS * ORBIT_RADIUS)); // rad/s
+    private static final double NEAR_GROUND_RANGE = 250000.0; // m
+    private static final double START_LATITUDE = 45.0; // deg
+    private static final double TRACK_LONGITUDE = 10.0; // deg
+    private static final double RADAR_FREQUENCY = 5300.0; // MHz
+    private static final double PIXEL_SPACING = 12.5; // m
+    private static final int TIE_POINT_GRID_SIZE = 11;
+    private static final int NUM_ORBIT_STATE_VECTORS = 10;
+    private static final long SEED = 42L;
+
+    private static final ProductData.UTC FIRST_LINE_TIME = AbstractMetadata.parseUTC("10-MAY-2008 20:30:46.890683");
+
+    private SyntheticProducts() {
+    }
+
+    /**
+     * Creates a single look complex product in slant range geometry with i and q bands.
+     * @param width the number of range samples
+     * @param height the number of azimuth lines
+     * @return the product
+     */
+    public static Product createSLC(final int width, final int height) {
+        final Product product = createProduct("SLC", width, height, false);
+        final float[][] iq = createComplexData(width, height);
+        addBand(product, "i_VV", Unit.REAL, iq[0]);
+        addBand(product, "q_VV", Unit.IMAGINARY, iq[1]);
+        return product;
+    }
+
+    /**
+     * Creates a detected product in ground range geometry with an amplitude band.
+     * @param width the number of range samples
+     * @param height the number of azimuth lines
+     * @return the product
+     */
+    public static Product createGRD(final int width, final int height) {
+        final Product product = createProduct("PRI", width, height, true);
+        final float[][] iq = createComplexData(width, height);
+        final float[] amplitude = new float[width * height];
+        for (int i = 0; i < amplitude.length; ++i) {
+            amplitude[i] = (float) Math.sqrt(iq[0][i] * iq[0][i] + iq[1][i] * iq[1][i]);
+        }
+        addBand(product, "Amplitude_VV", Unit.AMPLITUDE, amplitude);
+        return product;
+    }
+
+    public static boolean isSynthetic(final Product product) {
+        final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(product);
+        return absRoot != null && MISSION.equals(absRoot.getAttributeString(AbstractMetadata.MISSION, ""));
+    }
+
+    /**
+     * Writes a GeoTIFF DEM covering the given product. The elevation is an analytic function of
+     * latitude and longitude, with hills of up to 1500 m.
+     * @param product the product to be covered
+     * @param file the GeoTIFF file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAnalyticDEM(final Product product, final File file) throws IOException {
+        final GeoCoding geoCoding = product.getGeoCoding();
+        final int w = product.getSceneRasterWidth();
+        final int h = product.getSceneRasterHeight();
+        double minLat = 90, maxLat = -90, minLon = 180, maxLon = -180;
+        for (PixelPos pixelPos : new PixelPos[]{new PixelPos(0, 0), new PixelPos(w, 0),
+                                                new PixelPos(0, h), new PixelPos(w, h)}) {
+            final GeoPos geoPos = geoCoding.getGeoPos(pixelPos, null);
+            minLat = Math.min(minLat, geoPos.lat);
+            maxLat = Math.max(maxLat, geoPos.lat);
+            minLon = Math.min(minLon, geoPos.lon);
+            maxLon = Math.max(maxLon, geoPos.lon);
+        }
+        final double margin = 0.05; // deg
+        final double spacing = 1.0 / 1200.0; // 3 arc seconds
+        minLat -= margin;
+        maxLat += margin;
+        minLon -= margin;
+        maxLon += margin;
+        final int demWidth = (int) Math.ceil((maxLon - minLon) / spacing);
+        final int demHeight = (int) Math.ceil((maxLat - minLat) / spacing);
+
+        final Product dem = new Product("AnalyticDEM", "DEM", demWidth, demHeight);
+        try {
+            dem.setGeoCoding(new CrsGeoCoding(DefaultGeographicCRS.WGS84, demWidth, demHeight,
+                                              minLon, maxLat, spacing, spacing, 0.0, 0.0));
+        } catch (Exception e) {
+            throw new IOException("Unable to create DEM geocoding: " + e.getMessage());
+        }
+        final float[] elevation = new float[demWidth * demHeight];
+        for (int y = 0; y < demHeight; ++y) {
+            final double lat = maxLat - (y + 0.5) * spacing;
+            for (int x = 0; x < demWidth; ++x) {
+                final double lon = minLon + (x + 0.5) * spacing;
+                elevation[y * demWidth + x] = (float) getAnalyticElevation(lat, lon);
+            }
+        }
+        final Band band = dem.addBand("elevation", ProductData.TYPE_FLOAT32);
+        band.setUnit(Unit.METERS);
+        band.setNoDataValue(-32768);
+        band.setNoDataValueUsed(true);
+        band.setRasterData(ProductData.createInstance(elevation));
+
+        ProductIO.writeProduct(dem, file, "GeoTIFF", false);
+        dem.dispose();
+    }
+
+    /**
+     * @param lat latitude in degree
+     * @param lon longitude in degree
+     * @return the elevation of the analytic DEM in m
+     */
+    public static double getAnalyticElevation(final double lat, final double lon) {
+        return 500.0 + 400.0 * Math.sin(lat * 40.0 * MathUtils.DTOR) * Math.cos(lon * 30.0 * MathUtils.DTOR) +
+               200.0 * Math.sin((lat + lon) * 170.0 * MathUtils.DTOR);
+    }
+
+    /**
+     * Computes the sensor positions and velocities for all range lines of a synthetic product.
+     * @param height the number of azimuth lines
+     * @param sensorPosition array of [height][3] for the positions in m
+     * @param sensorVelocity array of [height][3] for the velocities in m/s
+     */
+    public static void computeSensorPositions(final int height,
+                                              final double[][] sensorPosition, final double[][] sensorVelocity) {
+        final double lineTimeInterval = getLineTimeInterval();
+        for (int y = 0; y < height; ++y) {
+            getOrbitState(y * lineTimeInterval, sensorPosition[y], sensorVelocity[y]);
+        }
+    }
+
+    public static double getLineTimeInterval() {
+        return PIXEL_SPACING / (ANGULAR_VELOCITY * EARTH_RADIUS); // s
+    }
+
+    public static double getFirstLineTimeMJD() {
+        return FIRST_LINE_TIME.getMJD();
+    }
+
+    public static double getWavelength() {
+        return Constants.lightSpeed / (RADAR_FREQUENCY * Constants.oneMillion);
+    }
+
+    private static Product createProduct(final String type, final int width, final int height,
+                                         final boolean groundRange) {
+        final Product product = new Product("Synthetic_" + type, type, width, height);
+        final double lineTimeInterval = getLineTimeInterval();
+        final ProductData.UTC lastLineTime = new ProductData.UTC(
+                FIRST_LINE_TIME.getMJD() + (height - 1) * lineTimeInterval / Constants.secondsInDay);
+        product.setStartTime(FIRST_LINE_TIME);
+        product.setEndTime(lastLineTime);
+        product.setDescription("Synthetic " + type + " product");
+
+        final double nearSlantRange = getSlantRange(NEAR_GROUND_RANGE);
+
+        final MetadataElement absRoot = AbstractMetadata.addAbstractedMetadataHeader(product.getMetadataRoot());
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.PRODUCT, product.getName());
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.PRODUCT_TYPE, type);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.MISSION, MISSION);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.ACQUISITION_MODE, "Stripmap");
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.PASS, "ASCENDING");
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.antenna_pointing, "right");
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.SAMPLE_TYPE, groundRange ? "DETECTED" : "COMPLEX");
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.mds1_tx_rx_polar, "VV");
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.first_line_time, FIRST_LINE_TIME);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.last_line_time, lastLineTime);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.line_time_interval, lineTimeInterval);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.num_output_lines, height);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.num_samples_per_line, width);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.range_spacing, PIXEL_SPACING);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.azimuth_spacing, PIXEL_SPACING);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.range_looks, 1.0);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.azimuth_looks, 1.0);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.radar_frequency, RADAR_FREQUENCY);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.pulse_repetition_frequency, 1.0 / lineTimeInterval);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.range_sampling_rate,
+                                      Constants.halfLightSpeed / PIXEL_SPACING / Constants.oneMillion);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.slant_range_to_first_pixel, nearSlantRange);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.avg_scene_height, 500.0);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.srgr_flag, groundRange ? 1 : 0);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.abs_calibration_flag, 0);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.multilook_flag, 0);
+
+        addOrbitStateVectors(absRoot, height);
+        if (groundRange) {
+            addSRGRCoefficients(absRoot, width);
+        }
+        addTiePointGrids(product, groundRange);
+        addGeoCorners(absRoot, product);
+        return product;
+    }
+
+    /**
+     * The state of the sensor at the given time since the first line, in earth fixed coordinates.
+     * The sensor moves northwards along the meridian TRACK_LONGITUDE.
+     */
+    private static void getOrbitState(final double time, final double[] position, final double[] velocity) {
+        final double phi = START_LATITUDE * MathUtils.DTOR + ANGULAR_VELOCITY * time;
+        final double cosLon = Math.cos(TRACK_LONGITUDE * MathUtils.DTOR);
+        final double sinLon = Math.sin(TRACK_LONGITUDE * MathUtils.DTOR);
+        position[0] = ORBIT_RADIUS * Math.cos(phi) * cosLon;
+        position[1] = ORBIT_RADIUS * Math.cos(phi) * sinLon;
+        position[2] = ORBIT_RADIUS * Math.sin(phi);
+        velocity[0] = -ORBIT_RADIUS * ANGULAR_VELOCITY * Math.sin(phi) * cosLon;
+        velocity[1] = -ORBIT_RADIUS * ANGULAR_VELOCITY * Math.sin(phi) * sinLon;
+        velocity[2] = ORBIT_RADIUS * ANGULAR_VELOCITY * Math.cos(phi);
+    }
+
+    private static void addOrbitStateVectors(final MetadataElement absRoot, final int height) {
+        final MetadataElement orbitVectorListElem = absRoot.getElement(AbstractMetadata.orbit_state_vectors);
+        final double duration = height * getLineTimeInterval();
+        final double margin = 20.0; // s
+        final double step = (duration + 2 * margin) / (NUM_ORBIT_STATE_VECTORS - 1);
+        final double[] position = new double[3];
+        final double[] velocity = new double[3];
+        for (int i = 0; i < NUM_ORBIT_STATE_VECTORS; ++i) {
+            final double time = -margin + i * step;
+            getOrbitState(time, position, velocity);
+
+            final MetadataElement orbitVectorElem = new MetadataElement(AbstractMetadata.orbit_vector + (i + 1));
+            orbitVectorElem.setAttributeUTC(AbstractMetadata.orbit_vector_time,
+                                            new ProductData.UTC(FIRST_LINE_TIME.getMJD() + time / Constants.secondsInDay));
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_x_pos, position[0]);
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_y_pos, position[1]);
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_z_pos, position[2]);
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_x_vel, velocity[0]);
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_y_vel, velocity[1]);
+            orbitVectorElem.setAttributeDouble(AbstractMetadata.orbit_vector_z_vel, velocity[2]);
+            orbitVectorListElem.addElement(orbitVectorElem);
+        }
+    }
+
+    /**
+     * Slant range as cubic polynomial of the ground range distance from the first pixel,
+     * interpolating the exact geometry at four points across the swath.
+     */
+    private static void addSRGRCoefficients(final MetadataElement absRoot, final int width) {
+        final int n = 4;
+        final double[][] a = new double[n][n + 1];
+        for (int i = 0; i < n; ++i) {
+            final double g = i * (width - 1) * PIXEL_SPACING / (n - 1);
+            double p = 1.0;
+            for (int j = 0; j < n; ++j) {
+                a[i][j] = p;
+                p *= g;
+            }
+            a[i][n] = getSlantRange(NEAR_GROUND_RANGE + g);
+        }
+        // Gauss-Jordan elimination, the Vandermonde matrix is well conditioned for four points
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < n; ++i) {
+                if (i == k)
+                    continue;
+                final double f = a[i][k] / a[k][k];
+                for (int j = k; j <= n; ++j) {
+                    a[i][j] -= f * a[k][j];
+                }
+            }
+        }
+
+        final MetadataElement srgrCoefficientsElem = absRoot.getElement(AbstractMetadata.srgr_coefficients);
+        final MetadataElement srgrListElem = new MetadataElement(AbstractMetadata.srgr_coef_list);
+        srgrCoefficientsElem.addElement(srgrListElem);
+        srgrListElem.setAttributeUTC(AbstractMetadata.srgr_coef_time, FIRST_LINE_TIME);
+        AbstractMetadata.addAbstractedAttribute(srgrListElem, AbstractMetadata.ground_range_origin,
+                                                ProductData.TYPE_FLOAT64, "m", "Ground Range Origin");
+        AbstractMetadata.setAttribute(srgrListElem, AbstractMetadata.ground_range_origin, 0.0);
+        for (int i = 0; i < n; ++i) {
+            final MetadataElement coefElem = new MetadataElement(AbstractMetadata.coefficient + '.' + (i + 1));
+            srgrListElem.addElement(coefElem);
+            AbstractMetadata.addAbstractedAttribute(coefElem, AbstractMetadata.srgr_coef,
+                                                    ProductData.TYPE_FLOAT64, "", "SRGR Coefficient");
+            AbstractMetadata.setAttribute(coefElem, AbstractMetadata.srgr_coef, a[i][n] / a[i][i]);
+        }
+    }
+
+    private static void addTiePointGrids(final Product product, final boolean groundRangeProduct) {
+        final int w = product.getSceneRasterWidth();
+        final int h = product.getSceneRasterHeight();
+        final int n = TIE_POINT_GRID_SIZE;
+        final float subSamplingX = (float) (w - 1) / (n - 1);
+        final float subSamplingY = (float) (h - 1) / (n - 1);
+
+        final float[] lat = new float[n * n];
+        final float[] lon = new float[n * n];
+        final float[] incidenceAngle = new float[n * n];
+        final float[] slantRangeTime = new float[n * n];
+        for (int j = 0; j < n; ++j) {
+            final double azimuthDistance = j * subSamplingY * PIXEL_SPACING;
+            final double latitude = START_LATITUDE + azimuthDistance / EARTH_RADIUS * MathUtils.RTOD;
+            for (int i = 0; i < n; ++i) {
+                final double groundRange = getGroundRange(i * subSamplingX, groundRangeProduct);
+                final double slantRange = getSlantRange(groundRange);
+                final double gamma = groundRange / EARTH_RADIUS;
+                final int k = j * n + i;
+                lat[k] = (float) latitude;
+                lon[k] = (float) (TRACK_LONGITUDE + gamma * MathUtils.RTOD / Math.cos(latitude * MathUtils.DTOR));
+                incidenceAngle[k] = (float) (Math.asin(ORBIT_RADIUS * Math.sin(gamma) / slantRange) * MathUtils.RTOD);
+                slantRangeTime[k] = (float) (slantRange / Constants.halfLightSpeed * Constants.oneBillion);
+            }
+        }
+
+        final TiePointGrid latGrid = new TiePointGrid(OperatorUtils.TPG_LATITUDE, n, n, 0.5f, 0.5f,
+                                                      subSamplingX, subSamplingY, lat);
+        latGrid.setUnit(Unit.DEGREES);
+        final TiePointGrid lonGrid = new TiePointGrid(OperatorUtils.TPG_LONGITUDE, n, n, 0.5f, 0.5f,
+                                                      subSamplingX, subSamplingY, lon, TiePointGrid.DISCONT_AT_180);
+        lonGrid.setUnit(Unit.DEGREES);
+        final TiePointGrid incidentAngleGrid = new TiePointGrid(OperatorUtils.TPG_INCIDENT_ANGLE, n, n, 0.5f, 0.5f,
+                                                                subSamplingX, subSamplingY, incidenceAngle);
+        incidentAngleGrid.setUnit(Unit.DEGREES);
+        final TiePointGrid slantRangeTimeGrid = new TiePointGrid(OperatorUtils.TPG_SLANT_RANGE_TIME, n, n, 0.5f, 0.5f,
+                                                                 subSamplingX, subSamplingY, slantRangeTime);
+        slantRangeTimeGrid.setUnit(Unit.NANOSECONDS);
+
+        product.addTiePointGrid(latGrid);
+        product.addTiePointGrid(lonGrid);
+        product.addTiePointGrid(incidentAngleGrid);
+        product.addTiePointGrid(slantRangeTimeGrid);
+        product.setGeoCoding(new TiePointGeoCoding(latGrid, lonGrid, Datum.WGS_84));
+    }
+
+    private static void addGeoCorners(final MetadataElement absRoot, final Product product) {
+        final GeoCoding geoCoding = product.getGeoCoding();
+        final int w = product.getSceneRasterWidth();
+        final int h = product.getSceneRasterHeight();
+        final GeoPos firstNear = geoCoding.getGeoPos(new PixelPos(0.5f, 0.5f), null);
+        final GeoPos firstFar = geoCoding.getGeoPos(new PixelPos(w - 0.5f, 0.5f), null);
+        final GeoPos lastNear = geoCoding.getGeoPos(new PixelPos(0.5f, h - 0.5f), null);
+        final GeoPos lastFar = geoCoding.getGeoPos(new PixelPos(w - 0.5f, h - 0.5f), null);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.first_near_lat, firstNear.lat);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.first_near_long, firstNear.lon);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.first_far_lat, firstFar.lat);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.first_far_long, firstFar.lon);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.last_near_lat, lastNear.lat);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.last_near_long, lastNear.lon);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.last_far_lat, lastFar.lat);
+        AbstractMetadata.setAttribute(absRoot, AbstractMetadata.last_far_long, lastFar.lon);
+    }
+
+    /**
+     * @return the ground range in m of the given range pixel
+     */
+    private static double getGroundRange(final double x, final boolean groundRangeProduct) {
+        if (groundRangeProduct) {
+            return NEAR_GROUND_RANGE + x * PIXEL_SPACING;
+        }
+        final double slantRange = getSlantRange(NEAR_GROUND_RANGE) + x * PIXEL_SPACING;
+        final double cosGamma = (ORBIT_RADIUS * ORBIT_RADIUS + EARTH_RADIUS * EARTH_RADIUS - slantRange * slantRange) /
+                                (2.0 * ORBIT_RADIUS * EARTH_RADIUS);
+        return Math.acos(cosGamma) * EARTH_RADIUS;
+    }
+
+    /**
+     * @return the slant range in m for the given ground range distance from the nadir track
+     */
+    private static double getSlantRange(final double groundRange) {
+        final double gamma = groundRange / EARTH_RADIUS;
+        return Math.sqrt(ORBIT_RADIUS * ORBIT_RADIUS + EARTH_RADIUS * EARTH_RADIUS -
+                         2.0 * ORBIT_RADIUS * EARTH_RADIUS * Math.cos(gamma));
+    }
+
+    /**
+     * Complex samples with circular gaussian statistics over a smooth backscatter pattern.
+     */
+    private static float[][] createComplexData(final int width, final int height) {
+        final Random random = new Random(SEED);
+        final float[] i = new float[width * height];
+        final float[] q = new float[width * height];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final double sigma = 100.0 * (1.5 + Math.sin(x * 0.01) * Math.cos(y * 0.013) +
+                                              0.5 * Math.sin((x + y) * 0.002));
+                final int k = y * width + x;
+                i[k] = (float) (sigma * random.nextGaussian());
+                q[k] = (float) (sigma * random.nextGaussian());
+            }
+        }
+        return new float[][]{i, q};
+    }
+
+    private static void addBand(final Product product, final String name, final String unit, final float[] data) {
+        final Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        band.setUnit(unit);
+        band.setRasterData(ProductData.createInstance(data));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest;
+
+import com.bc.ceres.core.ProgressMonitor;
+import junit.framework.TestCase;
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.graph.Graph;
+import org.esa.beam.framework.gpf.graph.GraphIO;
+import org.esa.beam.framework.gpf.graph.GraphProcessor;
+import org.esa.beam.util.io.FileUtils;
+import org.junit.Ignore;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * End to end benchmarks of processing graphs on synthetic data
+ */
+@Ignore
+public class TestPerfGraphs extends TestCase {
+
+    private final File outputFolder = BenchConstants.outputFolder;
+
+    public void testPerf_SpeckleMultilookTC_SLC() throws Throwable {
+        processGraph("SpeckleMultilookTC.xml",
+                     SyntheticProducts.createSLC(BenchConstants.syntheticSize, BenchConstants.syntheticSize));
+    }
+
+    public void testPerf_SpeckleMultilookTC_GRD() throws Throwable {
+        processGraph("SpeckleMultilookTC.xml",
+                     SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize));
+    }
+
+    private void processGraph(final String graphName, final Product product) throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final File inputFile = new File(outputFolder, "graph_input.dim");
+        final File outputFile = new File(outputFolder, "graph_output.dim");
+        final File demFile = new File(outputFolder, "graph_dem.tif");
+        try {
+            ProductIO.writeProduct(product, inputFile, "BEAM-DIMAP", false);
+            SyntheticProducts.writeAnalyticDEM(product, demFile);
+
+            final Map<String, String> variables = new HashMap<String, String>(3);
+            variables.put("input", inputFile.getAbsolutePath());
+            variables.put("output", outputFile.getAbsolutePath());
+            variables.put("dem", demFile.getAbsolutePath());
+
+            Benchmark.measure(graphName, product.getProductType(),
+                              product.getSceneRasterWidth(), product.getSceneRasterHeight(), new Benchmark.Task() {
+                public void run() throws Throwable {
+                    final Graph graph = readGraph(graphName, variables);
+                    new GraphProcessor().executeGraph(graph, ProgressMonitor.NULL);
+                }
+            });
+        } finally {
+            product.dispose();
+            deleteProduct(inputFile);
+            deleteProduct(outputFile);
+            demFile.delete();
+        }
+    }
+
+    private static Graph readGraph(final String graphName, final Map<String, String> variables) throws Exception {
+        final Reader reader = new InputStreamReader(TestPerfGraphs.class.getResourceAsStream("graphs/" + graphName));
+        try {
+            return GraphIO.read(reader, variables);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void deleteProduct(final File file) {
+        FileUtils.deleteTree(FileUtils.exchangeExtension(file, ".data"));
+        file.delete();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest;
+
+import com.bc.ceres.core.ProgressMonitor;
+import junit.framework.TestCase;
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.datamodel.*;
+import org.esa.beam.framework.dataop.resamp.ResamplingFactory;
+import org.esa.beam.framework.gpf.GPF;
+import org.esa.beam.util.io.FileUtils;
+import org.esa.nest.dataio.dem.FileElevationModel;
+import org.esa.nest.eo.GeoUtils;
+import org.esa.nest.eo.SARGeocoding;
+import org.junit.Ignore;
+
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmarks of the hot kernels of the SAR processing chains on synthetic data
+ */
+@Ignore
+public class TestPerfKernels extends TestCase {
+
+    private static final int NUM_SAMPLES = 1000;
+
+    private final File outputFolder = BenchConstants.outputFolder;
+
+    public void testPerf_DEMSampling() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final Product product = SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize);
+        final File demFile = new File(outputFolder, "kernel_dem.tif");
+        SyntheticProducts.writeAnalyticDEM(product, demFile);
+        final FileElevationModel dem = new FileElevationModel(demFile, ResamplingFactory.BILINEAR_INTERPOLATION_NAME);
+        try {
+            final GeoPos[] geoPositions = getGeoPositions(product);
+            Benchmark.measure("DEM bilinear sampling", "analytic DEM", NUM_SAMPLES, NUM_SAMPLES, new Benchmark.Task() {
+                public void run() throws Throwable {
+                    double sum = 0;
+                    for (GeoPos geoPos : geoPositions) {
+                        sum += dem.getElevation(geoPos);
+                    }
+                    assertTrue(sum > 0);
+                }
+            });
+        } finally {
+            dem.dispose();
+            demFile.delete();
+            product.dispose();
+        }
+    }
+
+    public void testPerf_ZeroDopplerTime() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final int size = BenchConstants.syntheticSize;
+        final Product product = SyntheticProducts.createSLC(size, size);
+        try {
+            final double[][] sensorPosition = new double[size][3];
+            final double[][] sensorVelocity = new double[size][3];
+            SyntheticProducts.computeSensorPositions(size, sensorPosition, sensorVelocity);
+
+            final GeoPos[] geoPositions = getGeoPositions(product);
+            final double[][] earthPoints = new double[geoPositions.length][3];
+            for (int i = 0; i < geoPositions.length; ++i) {
+                final GeoPos geoPos = geoPositions[i];
+                GeoUtils.geo2xyzWGS84(geoPos.lat, geoPos.lon,
+                                      SyntheticProducts.getAnalyticElevation(geoPos.lat, geoPos.lon), earthPoints[i]);
+            }
+
+            final double firstLineUTC = SyntheticProducts.getFirstLineTimeMJD();
+            final double lineTimeInterval = SyntheticProducts.getLineTimeInterval() / 86400.0; // in days
+            final double wavelength = SyntheticProducts.getWavelength();
+            Benchmark.measure("Zero Doppler time", "synthetic orbit", NUM_SAMPLES, NUM_SAMPLES, new Benchmark.Task() {
+                public void run() throws Throwable {
+                    int numValid = 0;
+                    for (double[] earthPoint : earthPoints) {
+                        final double time = SARGeocoding.getEarthPointZeroDopplerTime(
+                                firstLineUTC, lineTimeInterval, wavelength, earthPoint, sensorPosition, sensorVelocity);
+                        if (time != SARGeocoding.NonValidZeroDopplerTime)
+                            ++numValid;
+                    }
+                    assertTrue(numValid > 0);
+                }
+            });
+        } finally {
+            product.dispose();
+        }
+    }
+
+    public void testPerf_WriteReadDIMAP() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final File file = new File(outputFolder, "kernel_product.dim");
+        try {
+            measureWriteRead(file, "BEAM-DIMAP");
+        } finally {
+            FileUtils.deleteTree(FileUtils.exchangeExtension(file, ".data"));
+            file.delete();
+        }
+    }
+
+    public void testPerf_WriteReadGeoTIFF() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final File file = new File(outputFolder, "kernel_product.tif");
+        try {
+            measureWriteRead(file, "GeoTIFF");
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void measureWriteRead(final File file, final String formatName) throws Throwable {
+        final Product product = SyntheticProducts.createSLC(BenchConstants.syntheticSize, BenchConstants.syntheticSize);
+        final int w = product.getSceneRasterWidth();
+        final int h = product.getSceneRasterHeight();
+        try {
+            Benchmark.measure("Write", formatName, w, h, new Benchmark.Task() {
+                public void run() throws Throwable {
+                    ProductIO.writeProduct(product, file, formatName, false);
+                }
+            });
+            Benchmark.measure("Read", formatName, w, h, new Benchmark.Task() {
+                public void run() throws Throwable {
+                    final Product readProduct = ProductIO.readProduct(file);
+                    for (Band band : readProduct.getBands()) {
+                        band.readRasterDataFully(ProgressMonitor.NULL);
+                    }
+                    readProduct.dispose();
+                }
+            });
+        } finally {
+            product.dispose();
+        }
+    }
+
+    public void testPerf_BandMaths() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final Product product = SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize);
+        try {
+            Benchmark.measure("BandMaths", "synthetic GRD", product.getSceneRasterWidth(), product.getSceneRasterHeight(),
+                              new Benchmark.Task() {
+                public void run() throws Throwable {
+                    final Map<String, Object> parameters = new HashMap<String, Object>(3);
+                    parameters.put("bandName", "Intensity_dB");
+                    parameters.put("bandUnit", "intensity_db");
+                    parameters.put("bandExpression", "10 * log10(Amplitude_VV * Amplitude_VV + 1)");
+                    final Product targetProduct = GPF.createProduct("BandMaths", parameters, product);
+                    targetProduct.getBandAt(0).getSourceImage().getData();
+                    targetProduct.dispose();
+                }
+            });
+        } finally {
+            product.dispose();
+        }
+    }
+
+    public void testPerf_SpeckleFilters() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final Product product = SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize);
+        try {
+            for (final String filter : new String[] {"Mean", "Median", "Frost", "Gamma Map", "Lee", "Refined Lee"}) {
+                Benchmark.measure("Speckle-Filter " + filter, "synthetic GRD",
+                                  product.getSceneRasterWidth(), product.getSceneRasterHeight(), new Benchmark.Task() {
+                    public void run() throws Throwable {
+                        final Map<String, Object> parameters = new HashMap<String, Object>(2);
+                        parameters.put("sourceBands", new String[] {"Amplitude_VV"});
+                        parameters.put("filter", filter);
+                        final Product targetProduct = GPF.createProduct("Speckle-Filter", parameters, product);
+                        targetProduct.getBandAt(0).getSourceImage().getData();
+                        targetProduct.dispose();
+                    }
+                });
+            }
+        } finally {
+            product.dispose();
+        }
+    }
+
+    public void testPerf_TileCache() throws Throwable {
+        if(!BenchConstants.runBenchmarks) return;
+
+        final Product product = SyntheticProducts.createGRD(BenchConstants.syntheticSize, BenchConstants.syntheticSize);
+        final Map<String, Object> parameters = new HashMap<String, Object>(2);
+        parameters.put("bandName", "Intensity");
+        parameters.put("bandExpression", "Amplitude_VV * Amplitude_VV");
+        final Product targetProduct = GPF.createProduct("BandMaths", parameters, product);
+        try {
+            // compute all tiles once, the measured iterations take them from the tile cache
+            final RenderedImage image = targetProduct.getBandAt(0).getSourceImage();
+            image.getData();
+            Benchmark.measure("Tile cache", "BandMaths tiles", image.getWidth(), image.getHeight(), new Benchmark.Task() {
+                public void run() throws Throwable {
+                    for (int tileY = image.getMinTileY(); tileY < image.getMinTileY() + image.getNumYTiles(); ++tileY) {
+                        for (int tileX = image.getMinTileX(); tileX < image.getMinTileX() + image.getNumXTiles(); ++tileX) {
+                            assertNotNull(image.getTile(tileX, tileY));
+                        }
+                    }
+                }
+            });
+        } finally {
+            targetProduct.dispose();
+            product.dispose();
+        }
+    }
+
+    /**
+     * @return positions on a regular grid over the product
+     */
+    private static GeoPos[] getGeoPositions(final Product product) {
+        final GeoCoding geoCoding = product.getGeoCoding();
+        final int w = product.getSceneRasterWidth();
+        final int h = product.getSceneRasterHeight();
+        final GeoPos[] geoPositions = new GeoPos[NUM_SAMPLES * NUM_SAMPLES];
+        for (int j = 0; j < NUM_SAMPLES; ++j) {
+            for (int i = 0; i < NUM_SAMPLES; ++i) {
+                final PixelPos pixelPos = new PixelPos((i + 0.5f) * w / NUM_SAMPLES, (j + 0.5f) * h / NUM_SAMPLES);
+                geoPositions[j * NUM_SAMPLES + i] = geoCoding.getGeoPos(pixelPos, null);
+            }
+        }
+        return geoPositions;
+    }
+}
@@ -27,6 +27,9 @@ public class TestPerfCalibrate extends SingleOperatorBenchmark {
 
     public TestPerfCalibrate() {
         skipS1 = true;
+        // calibration needs mission specific auxiliary data
+        skipSyntheticSLC = true;
+        skipSyntheticGRD = true;
     }
 
     protected OperatorSpi CreateOperatorSpi() {
@@ -25,6 +25,12 @@ import org.junit.Ignore;
 @Ignore
 public class TestPerfElevation extends SingleOperatorBenchmark {
 
+    public TestPerfElevation() {
+        // the DEM would have to be downloaded
+        skipSyntheticSLC = true;
+        skipSyntheticGRD = true;
+    }
+
     protected OperatorSpi CreateOperatorSpi() {
         return new CreateElevationOp.Spi();
     }
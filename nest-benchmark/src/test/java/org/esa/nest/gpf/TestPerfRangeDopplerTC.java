@@ -15,6 +15,7 @@
  */
 package org.esa.nest.gpf;
 
+import org.esa.beam.framework.gpf.Operator;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.nest.SingleOperatorBenchmark;
 import org.junit.Ignore;
@@ -29,4 +30,9 @@ public class TestPerfRangeDopplerTC extends SingleOperatorBenchmark {
         return new RangeDopplerGeocodingOp.Spi();
     }
 
+    protected void setOperatorParameters(final Operator op) {
+        if(syntheticDEMFile != null) {
+            op.setParameter("externalDEMFile", syntheticDEMFile);
+        }
+    }
 }
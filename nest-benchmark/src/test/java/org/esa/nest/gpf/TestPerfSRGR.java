@@ -25,6 +25,10 @@ import org.junit.Ignore;
 @Ignore
 public class TestPerfSRGR extends SingleOperatorBenchmark {
 
+    public TestPerfSRGR() {
+        skipSyntheticGRD = true;
+    }
+
     protected OperatorSpi CreateOperatorSpi() {
         return new SRGROp.Spi();
     }
@@ -52,6 +52,9 @@ public class DBQuery {
     public static final String ORBIT_VERIFIED = "Verified";
     public static final String DB_QUERY = "dbQuery";
 
+    // number of entries of the bounding box query tested against the selection at a time
+    private static final int SPATIAL_BATCH_SIZE = 500;
+
     private String selectedMissions[] = {};
     private String selectedProductTypes[] = {};
     private String selectedAcquisitionMode = "";
@@ -67,6 +70,8 @@ public class DBQuery {
     private Calendar startDate = null;
     private Calendar endDate = null;
     private String freeQuery = "";
+    private int firstEntry = 0;
+    private int maxEntries = 0;
 
     private final Map<String, String> metadataQueryMap = new HashMap<String, String>();
 
@@ -189,6 +194,16 @@ public class DBQuery {
         return freeQuery;
     }
 
+    /**
+     * Limit the results to a page of entries
+     * @param first the index of the first entry
+     * @param max the maximum number of entries or 0 for all
+     */
+    public void setPage(final int first, final int max) {
+        firstEntry = first;
+        maxEntries = max;
+    }
+
     public ProductEntry[] queryDatabase(final ProductDB db) throws SQLException {
 
         if(StringUtils.contains(selectedMissions, ALL_MISSIONS))
@@ -293,12 +308,83 @@ public class DBQuery {
             queryStr.append(ProductTable.TABLE+'.'+AbstractMetadata.PATH+" NOT LIKE '"+excludeDir.getAbsolutePath()+"%'");
         }
 
-        if(queryStr.length() > 0) {
+        if(selectionRectangle != null) {
+            // resolve the bounding box in the database and test the footprints of the remaining entries
+            final StringBuilder spatialQueryStr = new StringBuilder(queryStr);
+            addBoundingBoxQuery(spatialQueryStr);
+            Debug.trace("Query="+spatialQueryStr);
+            final ProductEntry[] page = queryIntersectingPage(db, spatialQueryStr.toString());
+            if(page != null) {
+                return page;
+            } else if(!isSinglePointSelection()) {
+                return new ProductEntry[0];
+            }
+            // nothing found at the selected point, fall back to all entries
+        }
+
+        if(queryStr.length() > 0 || firstEntry > 0 || maxEntries > 0) {
             Debug.trace("Query="+queryStr);
-            return instersectMapSelection(db.queryProduct(queryStr.toString()));
+            return db.queryProduct(queryStr.toString(), firstEntry, maxEntries);
         } else {
-            return instersectMapSelection(db.getProductEntryList(true));
+            return db.getProductEntryList(true);
+        }
+    }
+
+    /**
+     * Get the page of entries intersecting the selection. The bounding box query is read in batches and the
+     * footprint test is applied to one batch at a time until the page is filled, all other entries are disposed.
+     * @param db the database
+     * @param spatialQueryStr the where clause including the bounding box of the selection
+     * @return the entries of the page or null if no entry intersects the selection
+     * @throws SQLException .
+     */
+    private ProductEntry[] queryIntersectingPage(final ProductDB db, final String spatialQueryStr) throws SQLException {
+        final int batchSize = maxEntries > 0 ? Math.max(maxEntries, SPATIAL_BATCH_SIZE) : 0;
+        final List<ProductEntry> page = new ArrayList<ProductEntry>(maxEntries);
+        final Set<ProductEntry> pageSet = Collections.newSetFromMap(new IdentityHashMap<ProductEntry, Boolean>());
+        int skipped = 0;
+        int offset = 0;
+        boolean pageFilled = false;
+        while(!pageFilled) {
+            final ProductEntry[] batch = db.queryProduct(spatialQueryStr, offset, batchSize);
+            for(ProductEntry entry : instersectMapSelection(batch)) {
+                if(skipped < firstEntry) {
+                    ++skipped;
+                } else if(maxEntries == 0 || page.size() < maxEntries) {
+                    page.add(entry);
+                    pageSet.add(entry);
+                }
+            }
+            for(ProductEntry entry : batch) {
+                if(!pageSet.contains(entry)) {
+                    entry.dispose();
+                }
+            }
+            offset += batch.length;
+            pageFilled = batchSize == 0 || batch.length < batchSize || page.size() == maxEntries;
         }
+        if(page.isEmpty() && skipped == 0)
+            return null;
+        return page.toArray(new ProductEntry[page.size()]);
+    }
+
+    private void addBoundingBoxQuery(final StringBuilder queryStr) {
+        // tolerance for the precision of the footprint test
+        final double eps = 0.001;
+        final double minLat = selectionRectangle.getMinX() - eps;
+        final double maxLat = selectionRectangle.getMaxX() + eps;
+        final double minLon = selectionRectangle.getMinY() - eps;
+        final double maxLon = selectionRectangle.getMaxY() + eps;
+
+        SQLUtils.addAND(queryStr);
+        queryStr.append("( "+ProductTable.TABLE+'.'+ProductEntry.MIN_LAT+" <= "+maxLat+" AND "+
+                ProductTable.TABLE+'.'+ProductEntry.MAX_LAT+" >= "+minLat+" AND "+
+                ProductTable.TABLE+'.'+ProductEntry.MIN_LON+" <= "+maxLon+" AND "+
+                ProductTable.TABLE+'.'+ProductEntry.MAX_LON+" >= "+minLon+" )");
+    }
+
+    private boolean isSinglePointSelection() {
+        return selectionRectangle.getWidth() == 0 && selectionRectangle.getHeight() == 0;
     }
 
     private void formOrbitCorrectionQuery(final StringBuilder queryStr) {
@@ -332,7 +418,7 @@ public class DBQuery {
         final Rectangle selRect = new Rectangle((int)(selectionRectangle.x*mult), (int)(selectionRectangle.y*mult),
                 (int)(selectionRectangle.width*mult), (int)(selectionRectangle.height*mult));
 
-        final boolean singlePointSelection = selectionRectangle.getWidth() == 0 && selectionRectangle.getHeight() == 0;
+        final boolean singlePointSelection = isSinglePointSelection();
 
         final Polygon p = new Polygon();
         for(final ProductEntry entry : resultsList) {
@@ -364,9 +450,6 @@ public class DBQuery {
             }
         }
 
-        if(singlePointSelection && intersectList.isEmpty())
-            return resultsList;
-
         return intersectList.toArray(new ProductEntry[intersectList.size()]);
     }
 
@@ -22,12 +22,16 @@ import org.esa.nest.util.ProductFunctions;
 
 import javax.swing.*;
 import java.io.File;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
- * Scans folders for products to add or update into the database
+ * Scans folders for products to add or update into the database.
+ * Product metadata is read by a pool of workers and new entries are saved in batches.
  */
 public final class DBScanner extends SwingWorker {
     private final ProductDB db;
@@ -37,7 +41,11 @@ public final class DBScanner extends SwingWorker {
     private final boolean generateQuicklooks;
     private final com.bc.ceres.core.ProgressMonitor pm;
     private final List<DBScannerListener> listenerList = new ArrayList<DBScannerListener>(1);
-    private final List<ErrorFile> errorList = new ArrayList<ErrorFile>();
+    private final List<ErrorFile> errorList = Collections.synchronizedList(new ArrayList<ErrorFile>());
+
+    private static final int BATCH_SIZE = 100;
+    private final int numThreads = Runtime.getRuntime().availableProcessors();
+    private final int maxPending = 2 * numThreads;
 
     public DBScanner(final ProductDB database, final File baseDir, final boolean doRecursive,
                      final boolean doQuicklooks, final com.bc.ceres.core.ProgressMonitor pm) {
@@ -88,7 +96,13 @@ public final class DBScanner extends SwingWorker {
         pm.beginTask("Scanning Files...", total);
         int i=0;
         int prodCount = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
         try {
+            // products are read by the worker pool while the database is only accessed from this thread
+            final CompletionService<ScanResult> completionService = new ExecutorCompletionService<ScanResult>(executor);
+            final List<ProductEntry> batchList = new ArrayList<ProductEntry>(BATCH_SIZE);
+            int pending = 0;
+
             for(File file : fileList) {
                 ++i;
                 String taskMsg = "Scanning "+i+" of "+total+" files ";
@@ -98,7 +112,17 @@ public final class DBScanner extends SwingWorker {
                 pm.worked(1);
 
                 // check if already exists in db
-                final ProductEntry existingEntry = db.getProductEntry(file);
+                ProductEntry existingEntry = db.getProductEntry(file);
+                if(existingEntry != null && existingEntry.getLastModified() != file.lastModified()) {
+                    // product has changed since it was added
+                    db.deleteProductEntry(existingEntry);
+                    existingEntry.dispose();
+                    existingEntry = null;
+                }
+                if(existingEntry == null) {
+                    // check if product has been moved, to relocate it without re-reading it
+                    existingEntry = db.relocateProduct(file);
+                }
                 if(existingEntry != null) {
                     // check for missing quicklook
                     if(generateQuicklooks && !existingEntry.quickLookExists()) {
@@ -112,27 +136,25 @@ public final class DBScanner extends SwingWorker {
                 if(pm.isCanceled())
                     break;
 
-                try {
-                    // quick test for common readers
-                    final Product sourceProduct = ProductIO.readProduct(file);
-                    if(sourceProduct != null) {
-                        final ProductEntry entry = db.saveProduct(sourceProduct);
-                        ++prodCount;
-                        if(!entry.quickLookExists()) {
-                            qlProductFiles.add(file);
-                            qlIDs.add(entry.getId());
-                        }
-                        sourceProduct.dispose();
-                        entry.dispose();
-                    } else if(!file.isDirectory()) {
-                        System.out.println("No reader for "+file.getAbsolutePath());
-                    }
-                } catch(Throwable e) {
-                    errorList.add(new ErrorFile(file, ErrorFile.UNREADABLE));
-                    System.out.println("Unable to read "+file.getAbsolutePath()+ '\n' +e.getMessage());
+                completionService.submit(new ProductEntryReader(file));
+                ++pending;
+
+                // limit the number of products held in memory
+                while(pending >= maxPending) {
+                    collectResult(completionService.take(), batchList);
+                    --pending;
+                }
+                if(batchList.size() >= BATCH_SIZE) {
+                    prodCount += saveBatch(batchList, qlProductFiles, qlIDs);
                 }
             }
 
+            while(pending > 0) {
+                collectResult(completionService.take(), batchList);
+                --pending;
+            }
+            prodCount += saveBatch(batchList, qlProductFiles, qlIDs);
+
             db.cleanUpRemovedProducts();
 
             notifyMSG(DBScannerListener.MSG.FOLDERS_SCANNED);
@@ -176,11 +198,53 @@ public final class DBScanner extends SwingWorker {
         } catch(Throwable e) {
             System.out.println("Scanning Exception\n"+e.getMessage());
         } finally {
+            executor.shutdownNow();
             pm.done();
         }
         return true;
     }
 
+    private void collectResult(final Future<ScanResult> future, final List<ProductEntry> batchList)
+            throws InterruptedException {
+        final ScanResult result;
+        try {
+            result = future.get();
+        } catch(ExecutionException e) {
+            System.out.println("Scanning Exception\n"+e.getCause().getMessage());
+            return;
+        }
+        if(result.entry != null) {
+            batchList.add(result.entry);
+        } else if(result.error != null) {
+            errorList.add(new ErrorFile(result.file, ErrorFile.UNREADABLE));
+            System.out.println("Unable to read "+result.file.getAbsolutePath()+ '\n' +result.error.getMessage());
+        } else if(!result.file.isDirectory()) {
+            System.out.println("No reader for "+result.file.getAbsolutePath());
+        }
+    }
+
+    private int saveBatch(final List<ProductEntry> batchList,
+                          final List<File> qlProductFiles, final List<Integer> qlIDs) {
+        int prodCount = 0;
+        try {
+            db.saveProductEntries(batchList);
+        } catch(SQLException e) {
+            System.out.println("Unable to save products\n"+e.getMessage());
+        }
+        for(ProductEntry entry : batchList) {
+            if(entry.getId() >= 0) {
+                ++prodCount;
+                if(!entry.quickLookExists()) {
+                    qlProductFiles.add(entry.getFile());
+                    qlIDs.add(entry.getId());
+                }
+            }
+            entry.dispose();
+        }
+        batchList.clear();
+        return prodCount;
+    }
+
     @Override
     public void done() {
         notifyMSG(DBScannerListener.MSG.DONE);
@@ -199,6 +263,45 @@ public final class DBScanner extends SwingWorker {
         return dirList.toArray(new File[dirList.size()]);
     }
 
+    /**
+     * Reads the metadata of a product to create its entry
+     */
+    private static class ProductEntryReader implements Callable<ScanResult> {
+        private final File file;
+
+        ProductEntryReader(final File file) {
+            this.file = file;
+        }
+
+        public ScanResult call() {
+            try {
+                final Product sourceProduct = ProductIO.readProductMetadata(file);
+                if(sourceProduct == null) {
+                    return new ScanResult(file, null, null);
+                }
+                try {
+                    return new ScanResult(file, new ProductEntry(sourceProduct), null);
+                } finally {
+                    sourceProduct.dispose();
+                }
+            } catch(Throwable e) {
+                return new ScanResult(file, null, e);
+            }
+        }
+    }
+
+    private static class ScanResult {
+        final File file;
+        final ProductEntry entry;
+        final Throwable error;
+
+        ScanResult(final File file, final ProductEntry entry, final Throwable error) {
+            this.file = file;
+            this.entry = entry;
+            this.error = error;
+        }
+    }
+
     public List<ErrorFile> getErrorList() {
         return errorList;
     }
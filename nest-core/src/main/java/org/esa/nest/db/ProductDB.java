@@ -40,6 +40,7 @@ public class ProductDB extends DAO {
 
     private static ProductDB _instance = null;
     public static final String DEFAULT_PRODUCT_DATABASE_NAME = "productDB";
+    private static final int CLEAN_UP_PAGE_SIZE = 1000;
 
     private static final String strGetProductsWhere =
             "SELECT * FROM "+ProductTable.TABLE+", "+MetadataTable.TABLE+" WHERE "+ProductTable.TABLE+".ID = "+MetadataTable.TABLE+".ID AND ";
@@ -125,6 +126,59 @@ public class ProductDB extends DAO {
         return newEntry;
     }
 
+    /**
+     * Add new entries in a single transaction
+     * @param entryList the entries to add
+     * @throws SQLException .
+     */
+    public void saveProductEntries(final List<ProductEntry> entryList) throws SQLException {
+        if(entryList.isEmpty())
+            return;
+
+        final boolean autoCommit = dbConnection.getAutoCommit();
+        dbConnection.setAutoCommit(false);
+        try {
+            for(ProductEntry entry : entryList) {
+                // product and metadata ids must stay in step, skip what the metadata table would reject
+                if(entry.getMetadata() != null && !productTable.pathExists(entry.getFile())) {
+                    addRecord(entry);
+                }
+            }
+            dbConnection.commit();
+        } catch(SQLException e) {
+            dbConnection.rollback();
+            for(ProductEntry entry : entryList) {
+                entry.setId(-1);
+            }
+            throw e;
+        } finally {
+            dbConnection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Update the path of a product which has been moved to a new location. A moved product is an entry
+     * with the same file name and modification time whose product no longer exists at its old path.
+     * Only the entries modified at the same time are loaded.
+     * @param path the new location
+     * @return the updated entry or null if no moved product was found
+     * @throws SQLException .
+     */
+    public ProductEntry relocateProduct(final File path) throws SQLException {
+        ProductEntry movedEntry = null;
+        for(ProductEntry entry : productTable.getProductEntriesModifiedAt(path.lastModified())) {
+            if(movedEntry == null && entry.getFile().getName().equals(path.getName()) && !entry.getFile().exists()) {
+                movedEntry = entry;
+            } else {
+                entry.dispose();
+            }
+        }
+        if(movedEntry != null) {
+            productTable.updatePath(movedEntry.getId(), path);
+        }
+        return movedEntry;
+    }
+
     private void addRecord(final ProductEntry record) throws SQLException {
 
         final ResultSet results = productTable.addRecord(record);
@@ -138,12 +192,20 @@ public class ProductDB extends DAO {
 
     public void cleanUpRemovedProducts() throws SQLException {
         final DBQuery dbQuery = new DBQuery();
-        final ProductEntry[] entries = dbQuery.queryDatabase(this);
-        for(ProductEntry entry : entries) {
-            if(!entry.getFile().exists()) {
-                deleteProductEntry(entry);
+        int first = 0;
+        ProductEntry[] entries;
+        do {
+            dbQuery.setPage(first, CLEAN_UP_PAGE_SIZE);
+            entries = dbQuery.queryDatabase(this);
+            for(ProductEntry entry : entries) {
+                if(!entry.getFile().exists()) {
+                    deleteProductEntry(entry);
+                } else {
+                    ++first;    // deleted entries do not count for the next page
+                }
             }
-        }
+            ProductEntry.dispose(entries);
+        } while(entries.length == CLEAN_UP_PAGE_SIZE);
     }
 
     public void deleteProductEntry(final ProductEntry entry) throws SQLException {
@@ -189,6 +251,19 @@ public class ProductDB extends DAO {
     }
 
     public ProductEntry[] queryProduct(final String queryStr) throws SQLException {
+        return queryProduct(queryStr, 0, 0);
+    }
+
+    /**
+     * Query a page of products
+     * @param queryStr the where clause
+     * @param firstEntry the index of the first entry to return
+     * @param maxEntries the maximum number of entries to return or 0 for all
+     * @return the entries ordered by id
+     * @throws SQLException .
+     */
+    public ProductEntry[] queryProduct(final String queryStr, final int firstEntry, final int maxEntries)
+            throws SQLException {
         final List<ProductEntry> listEntries = new ArrayList<ProductEntry>();
 
         final Statement queryStatement = dbConnection.createStatement();
@@ -196,7 +271,14 @@ public class ProductDB extends DAO {
         if(queryStr.isEmpty()) {
             whereStr = strGetProductsWhere.substring(0, strGetProductsWhere.lastIndexOf(" AND "));
         }
-        final ResultSet results = queryStatement.executeQuery(whereStr + queryStr);
+        // ordered by id in any case, so that pages can also be taken from the results
+        String pageStr = " ORDER BY "+ProductTable.TABLE+".ID";
+        if(firstEntry > 0 || maxEntries > 0) {
+            pageStr += " OFFSET "+firstEntry+" ROWS";
+            if(maxEntries > 0)
+                pageStr += " FETCH NEXT "+maxEntries+" ROWS ONLY";
+        }
+        final ResultSet results = queryStatement.executeQuery(whereStr + queryStr + pageStr);
         while(results.next()) {
             listEntries.add(new ProductEntry(results));
         }
@@ -42,6 +42,10 @@ public class ProductEntry {
     public final static String LAST_MODIFIED = "last_modified";
     public final static String FILE_FORMAT = "file_format";
     public final static String GEO_BOUNDARY = "geo_boundary";
+    public final static String MIN_LAT = "min_lat";
+    public final static String MAX_LAT = "max_lat";
+    public final static String MIN_LON = "min_lon";
+    public final static String MAX_LON = "max_lon";
     public final static DateFormat yyyMMdd_Format = ProductData.UTC.createDateFormat("yyy-MM-dd");
 
     private int id;
@@ -402,6 +406,22 @@ public class ProductEntry {
         return geoBound;
     }
 
+    /**
+     * Get the bounding box of the footprint
+     * @return min lat, max lat, min lon, max lon
+     */
+    public double[] getBoundingBox() {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for(GeoPos geo : getBox()) {
+            minLat = Math.min(minLat, geo.getLat());
+            maxLat = Math.max(maxLat, geo.getLat());
+            minLon = Math.min(minLon, geo.getLon());
+            maxLon = Math.max(maxLon, geo.getLon());
+        }
+        return new double[] { minLat, maxLat, minLon, maxLon };
+    }
+
     public static ProductEntry[] createProductEntryList(final File[] fileList) {
         final List<ProductEntry> entryList = new ArrayList<ProductEntry>(fileList.length);
         for(File file : fileList) {
@@ -35,6 +35,8 @@ public class ProductTable implements TableInterface {
     private PreparedStatement stmtSaveNewRecord;
     private PreparedStatement stmtGetProduct;
     private PreparedStatement stmtGetProductWithPath;
+    private PreparedStatement stmtGetProductsModifiedAt;
+    private PreparedStatement stmtUpdatePath;
     private PreparedStatement stmtDeleteProduct;
     private PreparedStatement stmtAllMissions;
     private PreparedStatement stmtAllProductTypes;
@@ -61,7 +63,11 @@ public class ProductTable implements TableInterface {
             ProductEntry.FILE_SIZE,
             ProductEntry.LAST_MODIFIED,
             ProductEntry.FILE_FORMAT,
-            ProductEntry.GEO_BOUNDARY
+            ProductEntry.GEO_BOUNDARY,
+            ProductEntry.MIN_LAT,
+            ProductEntry.MAX_LAT,
+            ProductEntry.MIN_LON,
+            ProductEntry.MAX_LON
     };
 
     private static String[] colTypes = {
@@ -85,7 +91,20 @@ public class ProductTable implements TableInterface {
             "DOUBLE",
             "DOUBLE",
             "VARCHAR(30)",
-            "VARCHAR(1200)"
+            "VARCHAR(1200)",
+            "DOUBLE",
+            "DOUBLE",
+            "DOUBLE",
+            "DOUBLE"
+    };
+
+    // indexes to resolve time and area of interest queries in the database
+    private static String[] indexes = {
+            "CREATE INDEX APP.PRODUCTS_TIME_INDEX ON "+TABLE+" ("+AbstractMetadata.first_line_time+")",
+            "CREATE INDEX APP.PRODUCTS_LAT_INDEX ON "+TABLE+" ("+ProductEntry.MIN_LAT+", "+ProductEntry.MAX_LAT+")",
+            "CREATE INDEX APP.PRODUCTS_LON_INDEX ON "+TABLE+" ("+ProductEntry.MIN_LON+", "+ProductEntry.MAX_LON+")",
+            // to find moved products
+            "CREATE INDEX APP.PRODUCTS_MODIFIED_INDEX ON "+TABLE+" ("+ProductEntry.LAST_MODIFIED+")"
     };
 
     private static final String strCreateProductTable = createTableString();
@@ -125,6 +144,12 @@ public class ProductTable implements TableInterface {
     private static final String strGetProductWithPath =
             "SELECT * FROM "+TABLE+" WHERE "+AbstractMetadata.PATH+" = ?";
 
+    private static final String strGetProductsModifiedAt =
+            "SELECT * FROM "+TABLE+" WHERE "+ProductEntry.LAST_MODIFIED+" = ?";
+
+    private static final String strUpdatePath =
+            "UPDATE "+TABLE+" SET "+AbstractMetadata.PATH+" = ? WHERE ID = ?";
+
     private static final String strUpdateProduct =
             "UPDATE "+TABLE+" SET " +
             AbstractMetadata.PATH+" = ?, " +
@@ -146,31 +171,90 @@ public class ProductTable implements TableInterface {
     public void createTable() throws SQLException {
         final Statement statement = dbConnection.createStatement();
         statement.execute(strCreateProductTable);
+        createIndexes(statement);
     }
 
     public void validateTable() throws SQLException {
         // alter table if columns are missing
         final Statement alterStatement = dbConnection.createStatement();
+        alterStatement.setMaxRows(2);
+
+        final ResultSet results = alterStatement.executeQuery("SELECT * FROM "+TABLE);
+        final ResultSetMetaData meta = results.getMetaData();
+        final List<String> existingCols = new ArrayList<String>(meta.getColumnCount());
+        for(int i=1; i <= meta.getColumnCount(); ++i) {
+            existingCols.add(meta.getColumnName(i).toUpperCase());
+        }
+        results.close();
 
         // add missing columns to the table
+        boolean boundingBoxAdded = false;
         int i=0;
         for(String n : colNames) {
-            final String testStr = "SELECT '"+n+"' FROM "+TABLE;
+            if(!existingCols.contains(n.toUpperCase())) {
+                final String alterStr = "ALTER TABLE "+TABLE+" ADD COLUMN "+ n +" "+ colTypes[i];
+                alterStatement.execute(alterStr);
+                if(n.equals(ProductEntry.MIN_LAT))
+                    boundingBoxAdded = true;
+            }
+            ++i;
+        }
+        createIndexes(alterStatement);
+
+        if(boundingBoxAdded) {
+            updateBoundingBoxes();
+        }
+    }
+
+    private static void createIndexes(final Statement statement) throws SQLException {
+        for(String indexStr : indexes) {
             try {
-                alterStatement.executeQuery(testStr);
+                statement.execute(indexStr);
             } catch(SQLException e) {
-                if(e.getSQLState().equals("42X04")) {
-                    final String alterStr = "ALTER TABLE "+TABLE+" ADD '"+ n +"' "+ colTypes[i];
-                    alterStatement.execute(alterStr);
+                // index already exists
+                if(!e.getSQLState().equals("X0Y32"))
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * Fill in the bounding box of entries added before the columns existed
+     * @throws SQLException .
+     */
+    private void updateBoundingBoxes() throws SQLException {
+        final PreparedStatement stmtUpdateBox = dbConnection.prepareStatement(
+                "UPDATE "+TABLE+" SET "+ProductEntry.MIN_LAT+" = ?, "+ProductEntry.MAX_LAT+" = ?, "+
+                ProductEntry.MIN_LON+" = ?, "+ProductEntry.MAX_LON+" = ? WHERE ID = ?");
+        final ProductEntry[] entries = getProductEntryList();
+
+        final boolean autoCommit = dbConnection.getAutoCommit();
+        dbConnection.setAutoCommit(false);
+        try {
+            for(ProductEntry entry : entries) {
+                final double[] box = entry.getBoundingBox();
+                stmtUpdateBox.clearParameters();
+                for(int i=0; i < box.length; ++i) {
+                    stmtUpdateBox.setDouble(i+1, box[i]);
                 }
+                stmtUpdateBox.setInt(5, entry.getId());
+                stmtUpdateBox.executeUpdate();
             }
-            ++i;
+            dbConnection.commit();
+        } catch(SQLException e) {
+            dbConnection.rollback();
+            throw e;
+        } finally {
+            dbConnection.setAutoCommit(autoCommit);
+            stmtUpdateBox.close();
         }
     }
 
     public void prepareStatements() throws SQLException {
         stmtSaveNewRecord = dbConnection.prepareStatement(strSaveProduct, Statement.RETURN_GENERATED_KEYS);
         stmtGetProductWithPath = dbConnection.prepareStatement(strGetProductWithPath);
+        stmtGetProductsModifiedAt = dbConnection.prepareStatement(strGetProductsModifiedAt);
+        stmtUpdatePath = dbConnection.prepareStatement(strUpdatePath);
         stmtDeleteProduct = dbConnection.prepareStatement(strDeleteProduct);
 
         stmtAllMissions = dbConnection.prepareStatement(strAllMissions);
@@ -208,6 +292,9 @@ public class ProductTable implements TableInterface {
         } else {
             stmtSaveNewRecord.setString(i++, geoStr);
         }
+        for(double bound : record.getBoundingBox()) {
+            stmtSaveNewRecord.setDouble(i++, bound);
+        }
 
         final int rowCount = stmtSaveNewRecord.executeUpdate();
         return stmtSaveNewRecord.getGeneratedKeys();
@@ -237,6 +324,24 @@ public class ProductTable implements TableInterface {
         return null;
     }
 
+    public ProductEntry[] getProductEntriesModifiedAt(final long lastModified) throws SQLException {
+        final List<ProductEntry> listEntries = new ArrayList<ProductEntry>();
+        stmtGetProductsModifiedAt.clearParameters();
+        stmtGetProductsModifiedAt.setDouble(1, lastModified);
+        final ResultSet results = stmtGetProductsModifiedAt.executeQuery();
+        while(results.next()) {
+            listEntries.add(new ProductEntry(results));
+        }
+        return listEntries.toArray(new ProductEntry[listEntries.size()]);
+    }
+
+    public void updatePath(final int id, final File path) throws SQLException {
+        stmtUpdatePath.clearParameters();
+        stmtUpdatePath.setString(1, path.getAbsolutePath());
+        stmtUpdatePath.setInt(2, id);
+        stmtUpdatePath.executeUpdate();
+    }
+
     public boolean pathExists(final File path) throws SQLException {
         if(path == null)
             return false;
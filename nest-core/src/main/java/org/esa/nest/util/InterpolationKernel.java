@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.util;
+
+/**
+ * A one-dimensional interpolation kernel for resampling SAR images.
+ * <p>
+ * A kernel interpolates a sample at position p from the samples at the taps
+ * {@code firstTap ... firstTap + length - 1}. Besides the exact weights, the weights are tabulated at
+ * {@link #NUM_BINS} sub-pixel bins, so interpolating at many different positions costs a table lookup per
+ * position. Taps outside the sample buffer are clamped to its border.
+ * </p>
+ * <p>
+ * Kernels are immutable and may be shared by all threads of an operator. A kernel should be selected once
+ * with {@link #create(String)} in {@code initialize()}. Lines are resampled by precomputing the taps and
+ * weights for all target positions with {@link #computeLineWeights} and applying them to each row
+ * with {@link #resampleLine}. Two-dimensional interpolation applies the kernel separably, see
+ * {@link #interpolate2D}. Complex data is interpolated by applying the same weights to the i and q samples.
+ * </p>
+ */
+public abstract class InterpolationKernel {
+
+    public static final String NEAREST_NEIGHBOUR = "Nearest-neighbor interpolation";
+    public static final String LINEAR = "Linear interpolation";
+    public static final String CUBIC = "Cubic interpolation";
+    public static final String CUBIC2 = "Cubic2 interpolation";
+    public static final String SINC = "Sinc interpolation";
+    public static final String LANCZOS3 = "Lanczos3 interpolation";
+
+    /**
+     * The number of sub-pixel bins of the weight tables.
+     */
+    public static final int NUM_BINS = 1024;
+
+    private final String name;
+    private final int length;
+    private final double origin;
+    private volatile double[] table;
+
+    /**
+     * @param name   the name of the kernel
+     * @param length the number of taps
+     * @param origin the distance from the first tap to the positions with a fraction of zero
+     */
+    protected InterpolationKernel(final String name, final int length, final double origin) {
+        this.name = name;
+        this.length = length;
+        this.origin = origin;
+    }
+
+    /**
+     * Creates a kernel.
+     * @param name one of the kernel names defined by this class
+     * @return the kernel
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static InterpolationKernel create(final String name) {
+        if (NEAREST_NEIGHBOUR.equals(name)) {
+            return new NearestNeighbour();
+        } else if (LINEAR.equals(name)) {
+            return new Linear();
+        } else if (CUBIC.equals(name)) {
+            return new Cubic();
+        } else if (CUBIC2.equals(name)) {
+            return new Cubic2();
+        } else if (SINC.equals(name)) {
+            return new Sinc();
+        } else if (LANCZOS3.equals(name)) {
+            return new Lanczos3();
+        }
+        throw new IllegalArgumentException("Unknown interpolation method " + name);
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of taps.
+     */
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * @param p the position
+     * @return the index of the first tap used to interpolate at the given position
+     */
+    public final int getFirstTap(final double p) {
+        return (int) Math.floor(p - origin);
+    }
+
+    /**
+     * Computes the exact weights for a position.
+     * @param p       the position
+     * @param weights the weights, an array of at least {@link #getLength() length} elements
+     * @return the index of the first tap
+     */
+    public final int getWeights(final double p, final double[] weights) {
+        final int firstTap = getFirstTap(p);
+        computeWeights(p - origin - firstTap, weights);
+        return firstTap;
+    }
+
+    /**
+     * Gets the weights of the sub-pixel bin nearest to a position.
+     * @param p       the position
+     * @param weights the weights, an array of at least {@link #getLength() length} elements
+     * @return the index of the first tap
+     */
+    public final int getTabulatedWeights(final double p, final double[] weights) {
+        final int firstTap = getFirstTap(p);
+        final int bin = (int) ((p - origin - firstTap) * NUM_BINS + 0.5);
+        System.arraycopy(getTable(), bin * length, weights, 0, length);
+        return firstTap;
+    }
+
+    /**
+     * Interpolates a sample.
+     * @param samples  the samples
+     * @param n        the number of valid samples
+     * @param firstTap the index of the first tap
+     * @param weights  the weights
+     * @return the interpolated value
+     */
+    public final double interpolate(final double[] samples, final int n, final int firstTap, final double[] weights) {
+        double v = 0.0;
+        if (firstTap >= 0 && firstTap + length <= n) {
+            for (int k = 0; k < length; ++k) {
+                v += weights[k] * samples[firstTap + k];
+            }
+        } else {
+            for (int k = 0; k < length; ++k) {
+                v += weights[k] * samples[clamp(firstTap + k, n)];
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Interpolates a sample of a row-major image buffer, applying the kernel first along the rows and then
+     * along the column, using the tabulated weights.
+     * @param samples the samples
+     * @param width   the image width
+     * @param height  the image height
+     * @param x       the x position
+     * @param y       the y position
+     * @param wx      a work array of {@link #getLength() length} elements
+     * @param wy      a work array of {@link #getLength() length} elements
+     * @return the interpolated value
+     */
+    public final double interpolate2D(final double[] samples, final int width, final int height,
+                                      final double x, final double y, final double[] wx, final double[] wy) {
+        final int x0 = getTabulatedWeights(x, wx);
+        final int y0 = getTabulatedWeights(y, wy);
+        double v = 0.0;
+        for (int j = 0; j < length; ++j) {
+            final int rowOffset = clamp(y0 + j, height) * width;
+            double rowValue = 0.0;
+            for (int i = 0; i < length; ++i) {
+                rowValue += wx[i] * samples[rowOffset + clamp(x0 + i, width)];
+            }
+            v += wy[j] * rowValue;
+        }
+        return v;
+    }
+
+    /**
+     * Computes the exact taps and weights for resampling lines at the given positions.
+     * @param positions the positions of the target samples in the coordinates of the source line
+     * @param weights   the weights, an array of {@code positions.length * length} elements
+     * @return the first tap of each position
+     */
+    public final int[] computeLineWeights(final double[] positions, final double[] weights) {
+        final int[] firstTaps = new int[positions.length];
+        final double[] w = new double[length];
+        for (int i = 0; i < positions.length; ++i) {
+            firstTaps[i] = getWeights(positions[i], w);
+            System.arraycopy(w, 0, weights, i * length, length);
+        }
+        return firstTaps;
+    }
+
+    /**
+     * Resamples a line with the taps and weights computed by {@link #computeLineWeights}.
+     * @param source    the source samples
+     * @param n         the number of valid source samples
+     * @param firstTaps the first taps
+     * @param weights   the weights
+     * @param target    the target samples, an array of at least {@code firstTaps.length} elements
+     */
+    public final void resampleLine(final double[] source, final int n, final int[] firstTaps, final double[] weights,
+                                   final double[] target) {
+        int w = 0;
+        for (int i = 0; i < firstTaps.length; ++i) {
+            final int firstTap = firstTaps[i];
+            double v = 0.0;
+            if (firstTap >= 0 && firstTap + length <= n) {
+                for (int k = 0; k < length; ++k) {
+                    v += weights[w++] * source[firstTap + k];
+                }
+            } else {
+                for (int k = 0; k < length; ++k) {
+                    v += weights[w++] * source[clamp(firstTap + k, n)];
+                }
+            }
+            target[i] = v;
+        }
+    }
+
+    /**
+     * Computes the weights.
+     * @param t       the distance of the position from the first tap minus the origin, in the range [0, 1]
+     * @param weights the weights
+     */
+    protected abstract void computeWeights(double t, double[] weights);
+
+    private double[] getTable() {
+        double[] t = table;
+        if (t == null) {
+            // concurrent initialisation computes the same table
+            t = new double[(NUM_BINS + 1) * length];
+            final double[] weights = new double[length];
+            for (int bin = 0; bin <= NUM_BINS; ++bin) {
+                computeWeights((double) bin / NUM_BINS, weights);
+                System.arraycopy(weights, 0, t, bin * length, length);
+            }
+            table = t;
+        }
+        return t;
+    }
+
+    private static int clamp(final int i, final int n) {
+        return i < 0 ? 0 : (i >= n ? n - 1 : i);
+    }
+
+    private static final class NearestNeighbour extends InterpolationKernel {
+        NearestNeighbour() {
+            super(NEAREST_NEIGHBOUR, 1, -0.5);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            weights[0] = 1.0;
+        }
+    }
+
+    private static final class Linear extends InterpolationKernel {
+        Linear() {
+            super(LINEAR, 2, 0.0);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            weights[0] = 1.0 - t;
+            weights[1] = t;
+        }
+    }
+
+    /**
+     * The weights of {@link MathUtils#interpolationCubic}.
+     */
+    private static final class Cubic extends InterpolationKernel {
+        Cubic() {
+            super(CUBIC, 4, 1.0);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            final double t2 = t*t;
+            final double t3 = t2*t;
+            weights[0] = -0.5*t3 + t2 - 0.5*t;
+            weights[1] = 1.5*t3 - 2.5*t2 + 1.0;
+            weights[2] = -1.5*t3 + 2.0*t2 + 0.5*t;
+            weights[3] = 0.5*t3 - 0.5*t2;
+        }
+    }
+
+    /**
+     * The weights of {@link MathUtils#interpolationCubic2}.
+     */
+    private static final class Cubic2 extends InterpolationKernel {
+        Cubic2() {
+            super(CUBIC2, 4, 1.0);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            final double t2 = t*t;
+            final double t3 = t2*t;
+            weights[0] = -t3 + 2.0*t2 - t;
+            weights[1] = t3 - 2.0*t2 + 1.0;
+            weights[2] = -t3 + t2 + t;
+            weights[3] = t3 - t2;
+        }
+    }
+
+    /**
+     * The Hanning windowed sinc of {@link MathUtils#interpolationSinc}, centred on the nearest sample.
+     */
+    private static final class Sinc extends InterpolationKernel {
+        Sinc() {
+            super(SINC, 5, 1.5);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            final double mu = t - 0.5;
+            double sum = 0.0;
+            for (int k = 0; k < 5; ++k) {
+                final double x = mu + 2.0 - k;
+                weights[k] = MathUtils.sinc(x) * MathUtils.hanning(x, 5);
+                sum += weights[k];
+            }
+            for (int k = 0; k < 5; ++k) {
+                weights[k] /= sum;
+            }
+        }
+    }
+
+    /**
+     * The Lanczos kernel with three lobes, normalised to preserve the mean.
+     */
+    private static final class Lanczos3 extends InterpolationKernel {
+        Lanczos3() {
+            super(LANCZOS3, 6, 2.0);
+        }
+
+        @Override
+        protected void computeWeights(final double t, final double[] weights) {
+            double sum = 0.0;
+            for (int k = 0; k < 6; ++k) {
+                final double x = t + 2.0 - k;
+                weights[k] = Math.abs(x) < 3.0 ? MathUtils.sinc(x) * MathUtils.sinc(x / 3.0) : 0.0;
+                sum += weights[k];
+            }
+            for (int k = 0; k < 6; ++k) {
+                weights[k] /= sum;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.esa.nest.db;
 
 import junit.framework.TestCase;
+import org.esa.beam.framework.datamodel.GeoPos;
 import org.esa.nest.datamodel.AbstractMetadata;
 
 import java.sql.SQLException;
@@ -60,6 +61,37 @@ public class TestDBQuery extends TestCase {
         showProductEntries(productEntryList);
     }
 
+    public void testAreaOfInterestQuery() throws SQLException {
+        final DBQuery dbQuery = new DBQuery();
+        dbQuery.setSelectionRect(new GeoPos[] { new GeoPos(40, -80), new GeoPos(50, -70) });
+        dbQuery.setPage(0, 10);
+
+        final ProductEntry[] productEntryList = dbQuery.queryDatabase(db);
+        assertTrue(productEntryList.length <= 10);
+        for(ProductEntry entry : productEntryList) {
+            final double[] box = entry.getBoundingBox();
+            assertTrue(box[0] <= 50.001 && box[1] >= 39.999);
+            assertTrue(box[2] <= -69.999 && box[3] >= -80.001);
+        }
+    }
+
+    public void testAreaOfInterestPages() throws SQLException {
+        final DBQuery dbQuery = new DBQuery();
+        dbQuery.setSelectionRect(new GeoPos[] { new GeoPos(40, -80), new GeoPos(50, -70) });
+        final ProductEntry[] allEntries = dbQuery.queryDatabase(db);
+
+        // the pages are taken from the entries intersecting the selection
+        final int pageSize = 2;
+        for(int first = 0; first < allEntries.length; first += pageSize) {
+            dbQuery.setPage(first, pageSize);
+            final ProductEntry[] page = dbQuery.queryDatabase(db);
+            assertEquals(Math.min(pageSize, allEntries.length - first), page.length);
+            for(int i = 0; i < page.length; ++i) {
+                assertEquals(allEntries[first + i].getFile(), page[i].getFile());
+            }
+        }
+    }
+
     private static void showProductEntries(final ProductEntry[] productEntryList) {
         for(ProductEntry entry : productEntryList) {
             //System.out.println(entry.getId() +" "+ entry.getName());
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.util;
+
+import junit.framework.TestCase;
+
+/**
+ * InterpolationKernel Tester.
+ */
+public class TestInterpolationKernel extends TestCase {
+
+    private static final double[] samples = {1.0, 4.0, 2.0, 7.0, 3.0, 5.0, 8.0, 6.0, 2.0, 1.0};
+
+    public void testMatchesMathUtils() {
+        final double p = 4.3;
+        final int i = (int) p;
+        final double mu = p - i;
+
+        assertEquals(MathUtils.interpolationLinear(samples[i], samples[i+1], mu), interpolate(InterpolationKernel.LINEAR, p), 1e-12);
+        assertEquals(MathUtils.interpolationCubic(samples[i-1], samples[i], samples[i+1], samples[i+2], mu),
+                     interpolate(InterpolationKernel.CUBIC, p), 1e-12);
+        assertEquals(MathUtils.interpolationCubic2(samples[i-1], samples[i], samples[i+1], samples[i+2], mu),
+                     interpolate(InterpolationKernel.CUBIC2, p), 1e-12);
+        assertEquals(MathUtils.interpolationSinc(samples[i-2], samples[i-1], samples[i], samples[i+1], samples[i+2], mu),
+                     interpolate(InterpolationKernel.SINC, p), 1e-12);
+        assertEquals(samples[i], interpolate(InterpolationKernel.NEAREST_NEIGHBOUR, p), 0.0);
+        assertEquals(samples[i+1], interpolate(InterpolationKernel.NEAREST_NEIGHBOUR, 4.7), 0.0);
+    }
+
+    public void testWeightsSumToOne() {
+        final String[] names = {InterpolationKernel.NEAREST_NEIGHBOUR, InterpolationKernel.LINEAR,
+                InterpolationKernel.CUBIC, InterpolationKernel.CUBIC2, InterpolationKernel.SINC,
+                InterpolationKernel.LANCZOS3};
+        for (String name : names) {
+            final InterpolationKernel kernel = InterpolationKernel.create(name);
+            final double[] weights = new double[kernel.getLength()];
+            for (double p = 2.0; p < 3.0; p += 0.05) {
+                kernel.getTabulatedWeights(p, weights);
+                double sum = 0.0;
+                for (double w : weights) {
+                    sum += w;
+                }
+                assertEquals(name, 1.0, sum, 1e-12);
+            }
+        }
+    }
+
+    public void testInterpolatesSamples() {
+        final InterpolationKernel kernel = InterpolationKernel.create(InterpolationKernel.LANCZOS3);
+        for (int i = 0; i < samples.length; ++i) {
+            assertEquals(samples[i], interpolate(InterpolationKernel.LANCZOS3, i), 1e-12);
+        }
+        final double[] wx = new double[kernel.getLength()];
+        final double[] wy = new double[kernel.getLength()];
+        assertEquals(samples[7], kernel.interpolate2D(samples, 5, 2, 2.0, 1.0, wx, wy), 1e-12);
+    }
+
+    public void testResampleLine() {
+        final InterpolationKernel kernel = InterpolationKernel.create(InterpolationKernel.CUBIC);
+        final double[] positions = {-0.5, 0.0, 2.25, 5.5, 9.0, 9.5};
+        final double[] weights = new double[positions.length * kernel.getLength()];
+        final int[] firstTaps = kernel.computeLineWeights(positions, weights);
+        final double[] target = new double[positions.length];
+        kernel.resampleLine(samples, samples.length, firstTaps, weights, target);
+        for (int i = 0; i < positions.length; ++i) {
+            assertEquals(interpolate(InterpolationKernel.CUBIC, positions[i]), target[i], 1e-12);
+        }
+        assertEquals(samples[9], target[4], 1e-12);
+    }
+
+    public void testUnknownKernel() {
+        try {
+            InterpolationKernel.create("Unknown interpolation");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static double interpolate(final String name, final double p) {
+        final InterpolationKernel kernel = InterpolationKernel.create(name);
+        final double[] weights = new double[kernel.getLength()];
+        final int firstTap = kernel.getWeights(p, weights);
+        return kernel.interpolate(samples, samples.length, firstTap, weights);
+    }
+}
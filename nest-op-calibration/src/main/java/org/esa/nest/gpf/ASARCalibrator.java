@@ -84,6 +84,8 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
     private float[][] oldAntennaPatternWideSwath = null; // old antenna pattern gains for single swath product, in dB
     private float[][] newAntennaPatternSingleSwath = null; // new antenna pattern gains for single swath product, in dB
     private float[][] newAntennaPatternWideSwath = null; // new antenna pattern gains for single swath product, in dB
+    private double[][] oldAntennaPatternLinear = null; // old antenna pattern gains of the product, in linear scale
+    private double[][] newAntennaPatternLinear = null; // new antenna pattern gains of the product, in linear scale
 
     private int numMPPRecords; // number of MPP ADSR records
     private String swath;
@@ -96,6 +98,8 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
 //    private double halfLightSpeedByRefSlantRange = Constants.halfLightSpeed / refSlantRange;
     private static final double refSlantRange800km = 800000.0; //  m
     private static final int INVALID_SUB_SWATH_INDEX = -1;
+    // number of azimuth lines between two range lines for which the calibration gain is computed from the geometry
+    private static final int GAIN_REFRESH_LINES = 16;
 
     public ASARCalibrator() {
     }
@@ -162,6 +166,8 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
 
             if (retroCalibrationFlag) {
                 getOldAntennaPattern();
+                oldAntennaPatternLinear = convertToLinearScale(
+                        wideSwathProductFlag ? oldAntennaPatternWideSwath : oldAntennaPatternSingleSwath);
             }
 
             if (applyAntennaPatternCorr) {
@@ -175,6 +181,8 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
                 getOrbitStateVectors();
 
                 getNewAntennaPattern();
+                newAntennaPatternLinear = convertToLinearScale(
+                        wideSwathProductFlag ? newAntennaPatternWideSwath : newAntennaPatternSingleSwath);
 
                 computeEarthRadius();
             }
@@ -872,81 +880,65 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
         }
 
         final ProductData trgData = targetTile.getDataBuffer();
-        final TileIndex srcIndex = new TileIndex(sourceRaster1);
-
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
 
+        // The calibration gain is a smooth function of the geometry. It is computed for every
+        // GAIN_REFRESH_LINES range line and linearly interpolated in azimuth for the lines in between.
         final float[] incidenceAnglesArray = new float[w];
-        final float[] slantRangeTimeArray = new float[w];
-
-        double[][] targetTileOldAntPat = null; // old antenna pattern gains for row pixels in a tile, in linear scale
-        double[][] targetTileNewAntPat = null; // new antenna pattern gains for row pixels in a tile, in linear scale
-        double[][] targetTileSlantRange = null; // slant range for pixels in a tile, in m
-
-        if (applyAntennaPatternCorr) {
-            targetTileNewAntPat = new double[h][w];
-            targetTileSlantRange = new double[h][w];
-            if (retroCalibrationFlag) {
-                targetTileOldAntPat = new double[h][w];
+        double[] gainA = new double[w];
+        double[] gainB = new double[w];
+        final double[] rowGain = new double[w];
+        int yA = y0;
+        int yB = Math.min(y0 + GAIN_REFRESH_LINES, maxY - 1);
+        computeCalibrationGainForRangeLine(x0, yA, w, prodBand, incidenceAnglesArray, gainA, pm);
+        if (yB > yA) {
+            computeCalibrationGainForRangeLine(x0, yB, w, prodBand, incidenceAnglesArray, gainB, pm);
+        }
+
+        double sigma, dn, i, q;
+        int srcIdx, trgIdx;
+        for (int y = y0; y < maxY; ++y) {
+
+            if (y > yB) {
+                final double[] tmp = gainA;
+                gainA = gainB;
+                gainB = tmp;
+                yA = yB;
+                yB = Math.min(yA + GAIN_REFRESH_LINES, maxY - 1);
+                computeCalibrationGainForRangeLine(x0, yB, w, prodBand, incidenceAnglesArray, gainB, pm);
             }
 
-            if (wideSwathProductFlag) {
-                computeWideSwathAntennaPatternForCurrentTile(x0, y0, w, h,
-                        targetTileOldAntPat, targetTileNewAntPat, targetTileSlantRange);
+            final double[] gain;
+            if (y == yA) {
+                gain = gainA;
+            } else if (y == yB) {
+                gain = gainB;
             } else {
-                computeSingleSwathAntennaPatternForCurrentTile(x0, y0, w, h,
-                        targetTileOldAntPat, targetTileNewAntPat, targetTileSlantRange, prodBand);
-            }
-        }
-
-        double sigma, dn=0, i, q;
-        final double theCalibrationFactor = newCalibrationConstant[prodBand];
-
-        int index;
-        for (int y = y0, yy = 0; y < maxY; ++y, ++yy) {
-            srcIndex.calculateStride(y);
-
-            incidenceAngle.getPixels(x0, y, w, 1,incidenceAnglesArray, pm, TiePointGrid.InterpMode.QUADRATIC);
-
-            if (applyRangeSpreadingCorr) {
-                slantRangeTime.getPixels(x0, y, w, 1,slantRangeTimeArray, pm, TiePointGrid.InterpMode.QUADRATIC);
+                final double mu = (double)(y - yA) / (double)(yB - yA);
+                for (int xx = 0; xx < w; ++xx) {
+                    rowGain[xx] = gainA[xx] + mu * (gainB[xx] - gainA[xx]);
+                }
+                gain = rowGain;
             }
 
-            for (int x = x0, xx = 0; x < maxX; ++x, ++xx) {
-                index = srcIndex.getIndex(x);
+            srcIdx = sourceRaster1.getRowOffset(y);
+            trgIdx = targetTile.getRowOffset(y);
+            for (int xx = 0; xx < w; ++xx, ++srcIdx, ++trgIdx) {
 
                 if (bandUnit == Unit.UnitType.AMPLITUDE) {
-                    dn = srcData1.getElemDoubleAt(index);
+                    dn = srcData1.getElemDoubleAt(srcIdx);
                     sigma = dn*dn;
                 } else if (bandUnit == Unit.UnitType.INTENSITY) {
-                    sigma = srcData1.getElemDoubleAt(index);
+                    sigma = srcData1.getElemDoubleAt(srcIdx);
                 } else if (bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY) {
-                    i = srcData1.getElemDoubleAt(index);
-                    q = srcData2.getElemDoubleAt(index);
+                    i = srcData1.getElemDoubleAt(srcIdx);
+                    q = srcData2.getElemDoubleAt(srcIdx);
                     sigma = i * i + q * q;
                 } else {
                     throw new OperatorException("ASAR Calibration: unhandled unit");
                 }
 
-                if (retroCalibrationFlag) { // remove old antenna pattern gain
-                    sigma *= targetTileOldAntPat[yy][xx]; // see Andrea's email dated Nov. 11, 2008
-                }
-
-                // apply calibration constant and incidence angle corrections
-                sigma *= FastMath.sin(incidenceAnglesArray[xx] * MathUtils.DTOR) / theCalibrationFactor;
-
-                if (applyRangeSpreadingCorr && targetTileSlantRange != null) { // apply range spreading loss compensation
-                    /*
-                    time = slantRangeTimeArray[xx] / 1000000000.0; //convert ns to s
-                    sigma *= Math.pow(time * halfLightSpeedByRefSlantRange, rangeSpreadingCompPower);
-                    */
-                    sigma *= Math.pow(targetTileSlantRange[yy][xx] / refSlantRange800km, rangeSpreadingCompPower);
-                }
-
-                if (applyAntennaPatternCorr) { // apply antenna pattern correction
-                    sigma /= targetTileNewAntPat[yy][xx];  // see Andrea's email dated Nov. 11, 2008
-                }
+                sigma *= gain[xx];
 
                 if (outputImageScaleInDb) { // convert calibration result to dB
                     if (sigma < underFlowFloat) {
@@ -956,11 +948,85 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
                     }
                 }
 
-                trgData.setElemDoubleAt(index, sigma);
+                trgData.setElemDoubleAt(trgIdx, sigma);
             }
         }
     }
 
+    /**
+     * Compute the product of all calibration factors for the pixels of a range line in the current tile:
+     * the calibration constant, the incidence angle, the old antenna pattern gain to be removed,
+     * the range spreading loss and the new antenna pattern gain.
+     * @param x0 The x coordinate of the upper left point in the current tile.
+     * @param y The y coordinate of the range line.
+     * @param w The width of the current tile.
+     * @param band The band index.
+     * @param incidenceAnglesArray Work array for the incidence angles of the range line.
+     * @param gain The array for the calibration gains.
+     * @param pm A progress monitor.
+     */
+    private void computeCalibrationGainForRangeLine(final int x0, final int y, final int w, final int band,
+                                                    final float[] incidenceAnglesArray, final double[] gain,
+                                                    final ProgressMonitor pm) {
+
+        final double theCalibrationFactor = newCalibrationConstant[band];
+        incidenceAngle.getPixels(x0, y, w, 1, incidenceAnglesArray, pm, TiePointGrid.InterpMode.QUADRATIC);
+        for (int xx = 0; xx < w; xx++) {
+            gain[xx] = FastMath.sin(incidenceAnglesArray[xx] * MathUtils.DTOR) / theCalibrationFactor;
+        }
+
+        if (!applyAntennaPatternCorr) {
+            return;
+        }
+
+        final double zeroDopplerTime = firstLineUTC + y*lineTimeInterval;
+        final double satelliteHeight = computeSatelliteHeight(zeroDopplerTime, orbitStateVectors);
+
+        AbstractMetadata.SRGRCoefficientList srgrConvParam = null;
+        if (srgrFlag) {
+            srgrConvParam = getSRGRCoefficientsForARangeLine(zeroDopplerTime);
+        }
+
+        for (int xx = 0; xx < w; xx++) {
+
+            final int x = x0 + xx;
+            final double slantRange = computeSlantRange(x, y, srgrConvParam); // in m
+
+            final double localEarthRadius = getEarthRadius(x, y);
+
+            final double theta = computeElevationAngle(
+                    slantRange, satelliteHeight, avgSceneHeight + localEarthRadius); // in degree
+
+            double newAntPat, oldAntPat = 1.0;
+            if (wideSwathProductFlag) {
+                int subSwathIndex = findSubSwath(theta, newRefElevationAngle);
+                newAntPat = computeAntPatGain(
+                        theta, newRefElevationAngle[subSwathIndex], newAntennaPatternLinear[subSwathIndex]);
+
+                if (retroCalibrationFlag) {
+                    subSwathIndex = findSubSwath(theta, oldRefElevationAngle);
+                    oldAntPat = computeAntPatGain(
+                            theta, oldRefElevationAngle[subSwathIndex], oldAntennaPatternLinear[subSwathIndex]);
+                }
+            } else {
+                newAntPat = computeAntPatGain(theta, newRefElevationAngle[0], newAntennaPatternLinear[band]);
+
+                if (retroCalibrationFlag) {
+                    oldAntPat = computeAntPatGain(theta, oldRefElevationAngle[0], oldAntennaPatternLinear[band]);
+                }
+            }
+
+            // remove old antenna pattern gain and apply new antenna pattern correction,
+            // see Andrea's email dated Nov. 11, 2008
+            double g = gain[xx] * oldAntPat / newAntPat;
+
+            if (applyRangeSpreadingCorr) { // apply range spreading loss compensation
+                g *= Math.pow(slantRange / refSlantRange800km, rangeSpreadingCompPower);
+            }
+            gain[xx] = g;
+        }
+    }
+
     /**
      * Compute antenna pattern for the middle row of the given tile for single swath product.
      * Here it is assumed that the elevation angles for pixels in the same column are the same.
@@ -1141,6 +1207,46 @@ public class ASARCalibrator extends BaseCalibrator implements Calibrator {
         return org.esa.nest.util.MathUtils.interpolationLinear(gain0, gain1, mu);
     }
 
+    /**
+     * Compute antenna pattern gains for the given elevation angle using linear interpolation.
+     *
+     * @param elevAngle The elevation angle (in degree) of a given pixel.
+     * @param refElevationAngle The reference elevation angle (in degree).
+     * @param antPatArray The antenna pattern array in linear scale.
+     * @return The antenna pattern gain (in linear scale).
+     */
+    private static double computeAntPatGain(double elevAngle, double refElevationAngle, double[] antPatArray) {
+
+        final double delta = 0.05;
+        int k0 = (int) ((elevAngle - refElevationAngle + 5.0) / delta);
+        if (k0 < 0) {
+            k0 = 0;
+        } else if (k0 >= antPatArray.length - 1) {
+            k0 = antPatArray.length - 2;
+        }
+        final double theta0 = refElevationAngle - 5.0 + k0*delta;
+        final double mu = (elevAngle - theta0) / delta;
+
+        return org.esa.nest.util.MathUtils.interpolationLinear(antPatArray[k0], antPatArray[k0+1], mu);
+    }
+
+    /**
+     * Convert antenna pattern gains from dB to linear scale.
+     * @param antPat The antenna pattern gains in dB.
+     * @return The antenna pattern gains in linear scale.
+     */
+    private static double[][] convertToLinearScale(final float[][] antPat) {
+
+        final double[][] linear = new double[antPat.length][];
+        for (int i = 0; i < antPat.length; i++) {
+            linear[i] = new double[antPat[i].length];
+            for (int k = 0; k < antPat[i].length; k++) {
+                linear[i][k] = Math.pow(10, (double) antPat[i][k] / 10.0);
+            }
+        }
+        return linear;
+    }
+
     //============================================================================================================
 
     /**
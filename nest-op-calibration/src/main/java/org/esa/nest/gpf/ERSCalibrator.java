@@ -84,7 +84,6 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
     private boolean applyADCSaturationCorrection = false;
     private boolean isERS1Mission = false;
     private boolean isCEOSFormat = false;
-    private boolean isAntPattAvailable = false;
     private boolean adcHasBeenTestedFlag = false;
     private boolean antennaPatternCorrectionFlag = false;
     private boolean rangeSpreadingLossCompFlag = false;
@@ -119,7 +118,7 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
     private double[] incidenceAngles = null; // for a complete range line, in radian
     private double[] lookAngles = null; // for a complete range line, in radian
     private double[] rangeSpreadingLoss = null; // for a complete range line
-    private double[] antennaPatternCorrFactor = null; // for a range line in current tile, in linear scale
+    private volatile double[] calibrationGain = null; // product of the range dependent factors for a complete range line
     private double[] antennaPatternGain = null; // used in ADC, for a range line in current tile, in linear scale
     private double[][] appendixF1 = null; // ERS-1 SAR ADC Power Loss Correction Look-up Table, in dB
     private double[][] appendixF2 = null; // ERS-2 SAR ADC Power Loss Correction Look-up Table, in dB
@@ -308,10 +307,6 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
             return;
         }
 
-        if (applyAntennaPatternCorrection && !isAntPattAvailable) {
-            computeAntennaPatternCorrectionFactors(0, sourceImageWidth);
-        }
-
         if (applyADCSaturationCorrection && !adcHasBeenTestedFlag) {
             testADC(sourceBand1, sourceBand2, bandUnit);
         }
@@ -326,50 +321,39 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
             adcPowerLoss = computeADCPowerLossValuesForCurrentTile(sourceBand1, sourceBand2, x0, y0, w, h, bandUnit);
         }
 
-        final double k = calibrationConstant * FastMath.sin(referenceIncidenceAngle);
+        final double[] gain = getCalibrationGain();
+        final double[] rowGain = new double[w];
+        if (!applyADCSaturationCorrectionToCurrentTile) {
+            System.arraycopy(gain, x0, rowGain, 0, w);
+        }
 
         double sigma, dn, i, q;
-        int index;
-        int adcJ=0;
-        for (int x = x0; x < x0 + w; x++) {
+        int srcIdx, trgIdx;
+        for (int y = y0; y < y0 + h; y++) {
 
-            final double sinIncidenceAngleByK = FastMath.sin(incidenceAngles[x]) / k;
             if (applyADCSaturationCorrectionToCurrentTile) {
-                adcJ = Math.min(((x - x0) / blockWidth), adcPowerLoss[0].length - 1);
+                final double[] adcRow = adcPowerLoss[Math.min(((y - y0) / blockHeight), adcPowerLoss.length - 1)];
+                for (int xx = 0; xx < w; xx++) {
+                    rowGain[xx] = gain[x0 + xx] * adcRow[Math.min((xx / blockWidth), adcRow.length - 1)];
+                }
             }
 
-            for (int y = y0; y < y0 + h; y++) {
-                index = sourceRaster1.getDataBufferIndex(x, y);
+            srcIdx = sourceRaster1.getRowOffset(y);
+            trgIdx = targetTile.getRowOffset(y);
+            for (int xx = 0; xx < w; xx++, srcIdx++, trgIdx++) {
 
                 if (bandUnit == Unit.UnitType.AMPLITUDE) {
-                    dn = srcData1.getElemDoubleAt(index);
+                    dn = srcData1.getElemDoubleAt(srcIdx);
                     sigma = dn*dn;
                 } else if (bandUnit == Unit.UnitType.INTENSITY) {
-                    sigma = srcData1.getElemDoubleAt(index);
+                    sigma = srcData1.getElemDoubleAt(srcIdx);
                 } else { // COMPLEX
-                    i = srcData1.getElemDoubleAt(index);
-                    q = srcData2.getElemDoubleAt(index);
+                    i = srcData1.getElemDoubleAt(srcIdx);
+                    q = srcData2.getElemDoubleAt(srcIdx);
                     sigma = i * i + q * q;
                 }
 
-                sigma *= sinIncidenceAngleByK;
-
-                if (applyAntennaPatternCorrection) {
-                    sigma *= antennaPatternCorrFactor[x];
-                }
-
-                if (applyRangeSpreadingLossCorrection) {
-                    sigma *= rangeSpreadingLoss[x];
-                }
-
-                if (applyReplicaPowerCorrection) {
-                    sigma *= replicaPulseVariationsCorrectionFactor;
-                }
-
-                if (applyADCSaturationCorrectionToCurrentTile) {
-                    final int adcI = Math.min(((y - y0) / blockHeight), adcPowerLoss.length - 1);
-                    sigma *= adcPowerLoss[adcI][adcJ];
-                }
+                sigma *= rowGain[xx];
 
                 if (outputImageScaleInDb) { // convert calibration result to dB
                     if (sigma < underFlowFloat) {
@@ -379,7 +363,7 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
                     }
                 }
 
-                trgData.setElemDoubleAt(targetTile.getDataBufferIndex(x, y), sigma);
+                trgData.setElemDoubleAt(trgIdx, sigma);
             }
         }
     } catch(Throwable e) {
@@ -387,6 +371,53 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
     }
     }
 
+    /**
+     * Get the product of the incidence angle, antenna pattern, range spreading loss and replica power
+     * correction factors for a complete range line. None of them depends on the azimuth position, so the
+     * array is computed once and then shared read-only by all tile computations.
+     * @return The calibration gain for each range column
+     */
+    private double[] getCalibrationGain() {
+
+        double[] gain = calibrationGain;
+        if (gain == null) { // computing it twice in concurrent threads gives the same result
+            gain = computeCalibrationGain();
+            calibrationGain = gain;
+        }
+        return gain;
+    }
+
+    private double[] computeCalibrationGain() {
+
+        final double k = calibrationConstant * FastMath.sin(referenceIncidenceAngle);
+
+        double[] antennaPatternCorrFactor = null;
+        if (applyAntennaPatternCorrection) {
+            antennaPatternCorrFactor = computeAntennaPatternCorrectionFactors(0, sourceImageWidth);
+        }
+
+        final double[] gain = new double[sourceImageWidth];
+        for (int x = 0; x < sourceImageWidth; x++) {
+
+            double g = FastMath.sin(incidenceAngles[x]) / k;
+
+            if (applyAntennaPatternCorrection) {
+                g *= antennaPatternCorrFactor[x];
+            }
+
+            if (applyRangeSpreadingLossCorrection) {
+                g *= rangeSpreadingLoss[x];
+            }
+
+            if (applyReplicaPowerCorrection) {
+                g *= replicaPulseVariationsCorrectionFactor;
+            }
+
+            gain[x] = g;
+        }
+        return gain;
+    }
+
     private synchronized void testADC(final Band sourceBand1, final Band sourceBand2,
                                 final Unit.UnitType bandUnit) {
         if(adcHasBeenTestedFlag) return;
@@ -1344,27 +1375,28 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
      * Compute the antenna pattern correction facotrs for a range line in current tile.
      * @param x0 The x coordinate for the pixel at the upper left corner
      * @param w The width of the tile
+     * @return The correction factors in linear scale
      */
-    private synchronized void computeAntennaPatternCorrectionFactors(final int x0, final int w) {
-
-        if(isAntPattAvailable) return;
+    private double[] computeAntennaPatternCorrectionFactors(final int x0, final int w) {
 
-        antennaPatternCorrFactor = new double[w];
+        final double[] antennaPatternCorrFactor = new double[w];
 
         if (psID.contains(VMP)) {
-            computeAntennaPatternCorrectionFactorsForVMPProduct(x0, w);
+            computeAntennaPatternCorrectionFactorsForVMPProduct(x0, w, antennaPatternCorrFactor);
         } else { // PGS (CEOS or ENVISAT)
-            computeAntennaPatternCorrectionFactorsForPGSProduct(x0, w);
+            computeAntennaPatternCorrectionFactorsForPGSProduct(x0, w, antennaPatternCorrFactor);
         }
-        isAntPattAvailable = true;
+        return antennaPatternCorrFactor;
     }
 
     /**
      * Compute antenna pattern correction factors for VMP product for a range line in current tile.
      * @param x0 The x coordinate for the pixel at the upper left corner.
      * @param w The width of the tile.
+     * @param antennaPatternCorrFactor The array for the correction factors.
      */
-    private void computeAntennaPatternCorrectionFactorsForVMPProduct(final int x0, final int w) {
+    private void computeAntennaPatternCorrectionFactorsForVMPProduct(final int x0, final int w,
+                                                                     final double[] antennaPatternCorrFactor) {
 
         // This function implements Appendix C.
         if (processingTime.compareTo(time19950716) >= 0) {
@@ -1450,7 +1482,8 @@ public final class ERSCalibrator extends BaseCalibrator implements Calibrator {
     }
 
 
-    private void computeAntennaPatternCorrectionFactorsForPGSProduct(final int x0, final int w) {
+    private void computeAntennaPatternCorrectionFactorsForPGSProduct(final int x0, final int w,
+                                                                     final double[] antennaPatternCorrFactor) {
 
         final double[] antennaPatternGain = new double[w];
         getPGSAntennaPatternGainForCurrentTile(x0, w, antennaPatternGain);
@@ -72,6 +72,9 @@ public final class GeolocationGridGeocodingOp extends Operator {
 
     public static final String PRODUCT_SUFFIX = "_EC";
 
+    private static final int CONTROL_GRID_SPACING = 16;
+    private static final double MAX_INDEX_ERROR = 0.05; // in source pixels
+
     @SourceProduct(alias="source")
     private Product sourceProduct;
     @TargetProduct
@@ -111,6 +114,8 @@ public final class GeolocationGridGeocodingOp extends Operator {
     private final Map<String, String[]> targetBandNameToSourceBandName = new HashMap<String, String[]>(10);
 
     private Resampling imgResampling = null;
+    private int sourceMargin = 0;
+    private GeoCoding sourceGeoCoding = null;
 
     private boolean nearRangeOnLeft = true;
     private boolean unBiasedZeroDoppler = false;
@@ -141,6 +146,8 @@ public final class GeolocationGridGeocodingOp extends Operator {
             getMetadata();
 
             imgResampling = ResamplingFactory.createResampling(imgResamplingMethod);
+            sourceMargin = SourceFootprint.getMargin(imgResampling);
+            sourceGeoCoding = sourceProduct.getGeoCoding();
 
             getTiePointGrids();
 
@@ -303,17 +310,18 @@ public final class GeolocationGridGeocodingOp extends Operator {
     }
 
     /**
-     * Called by the framework in order to compute a tile for the given target band.
-     * <p>The default implementation throws a runtime exception with the message "not implemented".</p>
+     * Called by the framework in order to compute the stack of tiles for the given target bands.
+     * <p>The source pixel positions are computed once for all bands of the tile. The exact mapping is evaluated
+     * on a coarse control grid only and interpolated in between, see {@link #computeSourceIndices}. The source
+     * data of the whole tile footprint is fetched with a single request per band.</p>
      *
-     * @param targetBand The target band.
-     * @param targetTile The current tile associated with the target band to be computed.
-     * @param pm         A progress monitor which should be used to determine computation cancelation requests.
-     * @throws org.esa.beam.framework.gpf.OperatorException
-     *          If an error occurs during computation of the target raster.
+     * @param targetTiles     The current tiles to be computed for each target band.
+     * @param targetRectangle The area in pixel coordinates to be computed (same for all rasters in <code>targetRasters</code>).
+     * @param pm              A progress monitor which should be used to determine computation cancelation requests.
+     * @throws OperatorException if an error occurs during computation of the target rasters.
      */
     @Override
-    public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
 
         /*
          * (7.1) Get local latitude lat(i,j) and longitude lon(i,j) for current point;
@@ -325,72 +333,46 @@ public final class GeolocationGridGeocodingOp extends Operator {
          * (7.8) Compute range image index Ir using slant range r(i,j) or ground range;
          * (7.9) Compute pixel value x(Ia,Ir) using interpolation and save it for current sample.
          */
-        final Rectangle targetTileRectangle = targetTile.getRectangle();
-        final int x0 = targetTileRectangle.x;
-        final int y0 = targetTileRectangle.y;
-        final int w  = targetTileRectangle.width;
-        final int h  = targetTileRectangle.height;
+        final int x0 = targetRectangle.x;
+        final int y0 = targetRectangle.y;
+        final int w  = targetRectangle.width;
+        final int h  = targetRectangle.height;
         //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
-        final String[] srcBandNames = targetBandNameToSourceBandName.get(targetBand.getName());
-        Band sourceBand1 = null;
-        Band sourceBand2 = null;
-        if (srcBandNames.length == 1) {
-            sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
-        } else {
-            sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
-            sourceBand2 = sourceProduct.getBand(srcBandNames[1]);
-        }
-        final double srcBandNoDataValue = sourceBand1.getNoDataValue();
-
-        final double oneBillionthHalfSpeedLight = Constants.halfLightSpeed / Constants.oneBillion;
-        final TileGeoreferencing tileGeoRef = new TileGeoreferencing(targetProduct, x0, y0, w, h);
-        final GeoCoding srcGeocoding = sourceBand1.getGeoCoding();
-
         try {
-            final ProductData trgData = targetTile.getDataBuffer();
-            final int srcMaxRange = sourceImageWidth - 1;
-            final int srcMaxAzimuth = sourceImageHeight - 1;
-            final GeoPos geoPos = new GeoPos();
-            final PixelPos pixPos = new PixelPos();
-            for (int y = y0; y < y0 + h; y++) {
-                for (int x = x0; x < x0 + w; x++) {
-
-                    final int index = targetTile.getDataBufferIndex(x, y);
-
-                    tileGeoRef.getGeoPos(x, y, geoPos);
-                    final float lat = geoPos.lat;
-                    float lon = geoPos.lon;
-                    if (lon >= 180.0) {
-                        lon -= 360.0;
-                    }
-                    geoPos.setLocation(lat, lon);
-                    srcGeocoding.getPixelPos(geoPos, pixPos);
-                    if (Float.isNaN(pixPos.x) || Float.isNaN(pixPos.y) ||
-                        pixPos.x < 0.0 || pixPos.x >= srcMaxRange || pixPos.y < 0.0 || pixPos.y >= srcMaxAzimuth) {
-                        trgData.setElemDoubleAt(index, srcBandNoDataValue);
-                        continue;
-                    }
-
-                    final double slantRange = slantRangeTime.getPixelFloat(pixPos.x, pixPos.y) * oneBillionthHalfSpeedLight;
-
-                    final double zeroDopplerTime = computeZeroDopplerTime(pixPos);
-                    double azimuthIndex = 0.0;
-                    double rangeIndex = 0.0;
-                    if (unBiasedZeroDoppler) {
-                        azimuthIndex = (zeroDopplerTime - firstLineUTC) / lineTimeInterval;
-                        rangeIndex = computeRangeIndex(zeroDopplerTime, slantRange);
-                    } else {
-                        final double zeroDopplerTimeWithoutBias = zeroDopplerTime + slantRange / Constants.halfLightSpeed / Constants.secondsInDay;
-                        azimuthIndex = (zeroDopplerTimeWithoutBias - firstLineUTC) / lineTimeInterval;
-                        rangeIndex = computeRangeIndex(zeroDopplerTimeWithoutBias, slantRange);
-                    }
-
-                    if (rangeIndex < 0.0 || rangeIndex >= srcMaxRange ||
-                        azimuthIndex < 0.0 || azimuthIndex >= srcMaxAzimuth) {
-                            trgData.setElemDoubleAt(index, srcBandNoDataValue);
-                    } else {
-                        trgData.setElemDoubleAt(index, getPixelValue(azimuthIndex, rangeIndex, sourceBand1, sourceBand2));
+            final double[] azimuthIndex = new double[w*h];
+            final double[] rangeIndex = new double[w*h];
+            computeSourceIndices(targetRectangle, azimuthIndex, rangeIndex);
+            final Rectangle sourceRectangle = getSourceRectangle(azimuthIndex, rangeIndex);
+
+            for (Map.Entry<Band, Tile> entry : targetTiles.entrySet()) {
+                final Tile targetTile = entry.getValue();
+                final String[] srcBandNames = targetBandNameToSourceBandName.get(entry.getKey().getName());
+                final Band sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
+                final Band sourceBand2 = srcBandNames.length > 1 ? sourceProduct.getBand(srcBandNames[1]) : null;
+                final double srcBandNoDataValue = sourceBand1.getNoDataValue();
+                final ProductData trgData = targetTile.getDataBuffer();
+
+                ResamplingRaster imgResamplingRaster = null;
+                if (sourceRectangle != null) {
+                    final Tile sourceTileI = getSourceTile(sourceBand1, sourceRectangle);
+                    final Tile sourceTileQ = sourceBand2 != null ? getSourceTile(sourceBand2, sourceRectangle) : null;
+                    imgResamplingRaster = new ResamplingRaster(sourceTileI, sourceTileQ);
+                }
+                final Resampling.Index imgResamplingIndex = imgResampling.createIndex();
+
+                int i = 0;
+                for (int y = y0; y < y0 + h; y++) {
+                    final int offset = targetTile.getRowOffset(y) - x0;
+                    for (int x = x0; x < x0 + w; x++, i++) {
+                        if (Double.isNaN(azimuthIndex[i])) {
+                            trgData.setElemDoubleAt(offset + x, srcBandNoDataValue);
+                        } else {
+                            imgResampling.computeIndex(rangeIndex[i] + 0.5, azimuthIndex[i] + 0.5,
+                                                       sourceImageWidth, sourceImageHeight, imgResamplingIndex);
+                            trgData.setElemDoubleAt(offset + x,
+                                                    imgResampling.resample(imgResamplingRaster, imgResamplingIndex));
+                        }
                     }
                 }
             }
@@ -401,6 +383,220 @@ public final class GeolocationGridGeocodingOp extends Operator {
         }
     }
 
+    /**
+     * Compute the azimuth and range indices in the source image for all pixels of a target tile.
+     * The exact mapping is computed on a control grid with a spacing of {@link #CONTROL_GRID_SPACING} pixels.
+     * A grid cell is interpolated bilinearly if the interpolation error at its centre is below
+     * {@link #MAX_INDEX_ERROR}, otherwise the cell is subdivided. Cells with a corner outside the source image
+     * are computed exactly pixel by pixel.
+     * @param targetRectangle The target tile rectangle.
+     * @param azimuthIndex The azimuth indices, NaN for pixels outside the source image.
+     * @param rangeIndex The range indices, NaN for pixels outside the source image.
+     * @throws Exception The exception.
+     */
+    private void computeSourceIndices(final Rectangle targetRectangle, final double[] azimuthIndex,
+                                      final double[] rangeIndex) throws Exception {
+
+        final ControlGrid grid = new ControlGrid(targetRectangle, azimuthIndex, rangeIndex);
+        final int x0 = targetRectangle.x;
+        final int y0 = targetRectangle.y;
+        final int numCols = (targetRectangle.width + CONTROL_GRID_SPACING - 1) / CONTROL_GRID_SPACING;
+        final int numRows = (targetRectangle.height + CONTROL_GRID_SPACING - 1) / CONTROL_GRID_SPACING;
+
+        // the last grid nodes lie on the first pixels after the tile
+        final int[] nodeX = new int[numCols + 1];
+        for (int i = 0; i <= numCols; i++) {
+            nodeX[i] = x0 + Math.min(i * CONTROL_GRID_SPACING, targetRectangle.width);
+        }
+        final int[] nodeY = new int[numRows + 1];
+        for (int j = 0; j <= numRows; j++) {
+            nodeY[j] = y0 + Math.min(j * CONTROL_GRID_SPACING, targetRectangle.height);
+        }
+
+        final double[][] nodes = new double[(numRows + 1) * (numCols + 1)][];
+        for (int j = 0; j <= numRows; j++) {
+            for (int i = 0; i <= numCols; i++) {
+                nodes[j * (numCols + 1) + i] = grid.computeExact(nodeX[i], nodeY[j]);
+            }
+        }
+
+        for (int j = 0; j < numRows; j++) {
+            for (int i = 0; i < numCols; i++) {
+                final int k = j * (numCols + 1) + i;
+                grid.fillCell(nodeX[i], nodeY[j], nodeX[i + 1], nodeY[j + 1],
+                              nodes[k], nodes[k + 1], nodes[k + numCols + 1], nodes[k + numCols + 2]);
+            }
+        }
+    }
+
+    /**
+     * Get the source rectangle covering the given source pixel positions and the resampling window around them.
+     * @param azimuthIndex The azimuth indices, NaN for pixels outside the source image.
+     * @param rangeIndex The range indices.
+     * @return The source rectangle, or null if no pixel is inside the source image.
+     */
+    private Rectangle getSourceRectangle(final double[] azimuthIndex, final double[] rangeIndex) {
+        double xMin = Double.MAX_VALUE, xMax = -Double.MAX_VALUE;
+        double yMin = Double.MAX_VALUE, yMax = -Double.MAX_VALUE;
+        for (int i = 0; i < azimuthIndex.length; i++) {
+            if (!Double.isNaN(azimuthIndex[i])) {
+                xMin = Math.min(xMin, rangeIndex[i]);
+                xMax = Math.max(xMax, rangeIndex[i]);
+                yMin = Math.min(yMin, azimuthIndex[i]);
+                yMax = Math.max(yMax, azimuthIndex[i]);
+            }
+        }
+        if (xMin > xMax) {
+            return null;
+        }
+
+        final int x0 = Math.max(0, (int)xMin - sourceMargin);
+        final int y0 = Math.max(0, (int)yMin - sourceMargin);
+        final int x1 = Math.min(sourceImageWidth - 1, (int)xMax + sourceMargin);
+        final int y1 = Math.min(sourceImageHeight - 1, (int)yMax + sourceMargin);
+        return new Rectangle(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
+    }
+
+    /**
+     * Compute the exact azimuth and range indices in the source image for a target pixel.
+     * @param x The x coordinate of the target pixel.
+     * @param y The y coordinate of the target pixel.
+     * @param geoPos A work object.
+     * @param pixPos A work object.
+     * @return The azimuth and range indices, or null if the pixel is outside the source image.
+     * @throws Exception The exception.
+     */
+    private double[] computeSourceIndex(final int x, final int y, final GeoPos geoPos, final PixelPos pixPos)
+            throws Exception {
+
+        final double oneBillionthHalfSpeedLight = Constants.halfLightSpeed / Constants.oneBillion;
+        final int srcMaxRange = sourceImageWidth - 1;
+        final int srcMaxAzimuth = sourceImageHeight - 1;
+
+        pixPos.setLocation(x + 0.5f, y + 0.5f);
+        targetGeoCoding.getGeoPos(pixPos, geoPos);
+        final float lat = geoPos.lat;
+        float lon = geoPos.lon;
+        if (lon >= 180.0) {
+            lon -= 360.0;
+        }
+        geoPos.setLocation(lat, lon);
+        sourceGeoCoding.getPixelPos(geoPos, pixPos);
+        if (Float.isNaN(pixPos.x) || Float.isNaN(pixPos.y) ||
+            pixPos.x < 0.0 || pixPos.x >= srcMaxRange || pixPos.y < 0.0 || pixPos.y >= srcMaxAzimuth) {
+            return null;
+        }
+
+        final double slantRange = slantRangeTime.getPixelFloat(pixPos.x, pixPos.y) * oneBillionthHalfSpeedLight;
+
+        final double zeroDopplerTime = computeZeroDopplerTime(pixPos);
+        double azimuthIndex = 0.0;
+        double rangeIndex = 0.0;
+        if (unBiasedZeroDoppler) {
+            azimuthIndex = (zeroDopplerTime - firstLineUTC) / lineTimeInterval;
+            rangeIndex = computeRangeIndex(zeroDopplerTime, slantRange);
+        } else {
+            final double zeroDopplerTimeWithoutBias = zeroDopplerTime + slantRange / Constants.halfLightSpeed / Constants.secondsInDay;
+            azimuthIndex = (zeroDopplerTimeWithoutBias - firstLineUTC) / lineTimeInterval;
+            rangeIndex = computeRangeIndex(zeroDopplerTimeWithoutBias, slantRange);
+        }
+
+        if (rangeIndex < 0.0 || rangeIndex >= srcMaxRange || azimuthIndex < 0.0 || azimuthIndex >= srcMaxAzimuth) {
+            return null;
+        }
+        return new double[] {azimuthIndex, rangeIndex};
+    }
+
+    /**
+     * Fills the source pixel positions of a target tile from the exact positions at the corners of
+     * recursively subdivided control grid cells.
+     */
+    private final class ControlGrid {
+
+        private final int x0, y0, width;
+        private final double[] azimuthIndex, rangeIndex;
+        private final GeoPos geoPos = new GeoPos();
+        private final PixelPos pixPos = new PixelPos();
+
+        ControlGrid(final Rectangle targetRectangle, final double[] azimuthIndex, final double[] rangeIndex) {
+            this.x0 = targetRectangle.x;
+            this.y0 = targetRectangle.y;
+            this.width = targetRectangle.width;
+            this.azimuthIndex = azimuthIndex;
+            this.rangeIndex = rangeIndex;
+        }
+
+        double[] computeExact(final int x, final int y) throws Exception {
+            return computeSourceIndex(x, y, geoPos, pixPos);
+        }
+
+        /**
+         * Fills the pixels [xa, xb) x [ya, yb) from the positions at the cell corners.
+         */
+        void fillCell(final int xa, final int ya, final int xb, final int yb,
+                      final double[] p00, final double[] p10, final double[] p01, final double[] p11) throws Exception {
+
+            if (xa >= xb || ya >= yb) {
+                return;
+            }
+            if (p00 == null || p10 == null || p01 == null || p11 == null || (xb - xa <= 2 && yb - ya <= 2)) {
+                fillExact(xa, ya, xb, yb);
+                return;
+            }
+
+            final int xm = (xa + xb) / 2;
+            final int ym = (ya + yb) / 2;
+            final double[] pmm = computeExact(xm, ym);
+            if (pmm != null) {
+                final double tx = (double)(xm - xa) / (xb - xa);
+                final double ty = (double)(ym - ya) / (yb - ya);
+                if (Math.abs(interpolate(p00[0], p10[0], p01[0], p11[0], tx, ty) - pmm[0]) <= MAX_INDEX_ERROR &&
+                    Math.abs(interpolate(p00[1], p10[1], p01[1], p11[1], tx, ty) - pmm[1]) <= MAX_INDEX_ERROR) {
+                    fillInterpolated(xa, ya, xb, yb, p00, p10, p01, p11);
+                    return;
+                }
+            }
+
+            final double[] pma = computeExact(xm, ya);
+            final double[] pam = computeExact(xa, ym);
+            final double[] pbm = computeExact(xb, ym);
+            final double[] pmb = computeExact(xm, yb);
+            fillCell(xa, ya, xm, ym, p00, pma, pam, pmm);
+            fillCell(xm, ya, xb, ym, pma, p10, pmm, pbm);
+            fillCell(xa, ym, xm, yb, pam, pmm, p01, pmb);
+            fillCell(xm, ym, xb, yb, pmm, pbm, pmb, p11);
+        }
+
+        private void fillExact(final int xa, final int ya, final int xb, final int yb) throws Exception {
+            for (int y = ya; y < yb; y++) {
+                int i = (y - y0) * width + xa - x0;
+                for (int x = xa; x < xb; x++, i++) {
+                    final double[] p = computeExact(x, y);
+                    azimuthIndex[i] = p != null ? p[0] : Double.NaN;
+                    rangeIndex[i] = p != null ? p[1] : Double.NaN;
+                }
+            }
+        }
+
+        private void fillInterpolated(final int xa, final int ya, final int xb, final int yb,
+                                      final double[] p00, final double[] p10, final double[] p01, final double[] p11) {
+            for (int y = ya; y < yb; y++) {
+                final double ty = (double)(y - ya) / (yb - ya);
+                int i = (y - y0) * width + xa - x0;
+                for (int x = xa; x < xb; x++, i++) {
+                    final double tx = (double)(x - xa) / (xb - xa);
+                    azimuthIndex[i] = interpolate(p00[0], p10[0], p01[0], p11[0], tx, ty);
+                    rangeIndex[i] = interpolate(p00[1], p10[1], p01[1], p11[1], tx, ty);
+                }
+            }
+        }
+
+        private double interpolate(final double v00, final double v10, final double v01, final double v11,
+                                   final double tx, final double ty) {
+            return (1 - ty) * ((1 - tx) * v00 + tx * v10) + ty * ((1 - tx) * v01 + tx * v11);
+        }
+    }
+
     /**
      * Compute zero Doppler time for a given pixel using biquadratic interpolation.
      * @param pixPos The pixel position.
@@ -462,66 +658,6 @@ public final class GeolocationGridGeocodingOp extends Operator {
         return rangeIndex;
     }
 
-    /**
-     * Compute orthorectified pixel value for given pixel.
-     * @param azimuthIndex The azimuth index for pixel in source image.
-     * @param rangeIndex The range index for pixel in source image.
-     * @return The pixel value.
-     */
-    private double getPixelValue(final double azimuthIndex, final double rangeIndex,
-                                 final Band sourceBand1, final Band sourceBand2) {
-
-        try {
-            final int x0 = (int)(rangeIndex + 0.5);
-            final int y0 = (int)(azimuthIndex + 0.5);
-            Rectangle srcRect = null;
-            Tile sourceTileI, sourceTileQ = null;
-
-            if (imgResampling.equals(Resampling.NEAREST_NEIGHBOUR)) {
-
-                srcRect = new Rectangle(x0, y0, 1, 1);
-
-            } else if (imgResampling.equals(Resampling.BILINEAR_INTERPOLATION)) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 1), Math.max(0, y0 - 1), 3, 3);
-
-            } else if (imgResampling.equals(Resampling.CUBIC_CONVOLUTION)) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
-
-            } else if (imgResampling.equals(Resampling.BISINC_INTERPOLATION)) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 3), Math.max(0, y0 - 3), 6, 6);
-
-            } else if (imgResampling.equals(Resampling.BICUBIC_INTERPOLATION)) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
-
-            } else {
-                throw new OperatorException("Unhandled interpolation method");
-            }
-
-            sourceTileI = getSourceTile(sourceBand1, srcRect);
-            if (sourceBand2 != null) {
-                sourceTileQ = getSourceTile(sourceBand2, srcRect);
-            }
-
-            final ResamplingRaster imgResamplingRaster = new ResamplingRaster(sourceTileI, sourceTileQ);
-            final Resampling resampling = imgResampling;
-            final Resampling.Index imgResamplingIndex = resampling.createIndex();
-
-            resampling.computeIndex(rangeIndex + 0.5, azimuthIndex + 0.5,
-                                       sourceImageWidth, sourceImageHeight, imgResamplingIndex);
-
-            return resampling.resample(imgResamplingRaster, imgResamplingIndex);
-
-        } catch(Throwable e) {
-            OperatorUtils.catchOperatorException(getId(), e);
-        }
-
-        return 0;
-    }
-
     public static class ResamplingRaster implements Resampling.Raster {
 
         private final Tile sourceTileI, sourceTileQ;
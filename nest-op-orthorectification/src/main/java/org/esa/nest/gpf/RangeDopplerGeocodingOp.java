@@ -854,12 +854,24 @@ public class RangeDopplerGeocodingOp extends Operator {
             final int maxX = x0 + w;
             final TileData[] trgTiles = trgTileList.toArray(new TileData[trgTileList.size()]);
 
+            // first compute the source positions of all pixels, then fetch the source data once for all of them
+            final double[] rangeIndexArray = new double[w*h];
+            final double[] azimuthIndexArray = new double[w*h];
+            final double[] slantRangeArray = new double[w*h];
+            final double[] satelliteHeightArray = new double[w*h];
+            final double[] sceneToEarthCentreArray = new double[w*h];
+            final double[] projectedIncidenceAngleArray = new double[w*h];
+            Arrays.fill(rangeIndexArray, Double.NaN);
+            final SourceFootprint footprint = new SourceFootprint(
+                    targetRectangle, sourceImageWidth, sourceImageHeight, imgResampling);
+
             for (int y = y0; y < maxY; y++) {
                 final int yy = y-y0+1;
 
                 for (int x = x0; x < maxX; x++) {
 
 					final int index = trgTiles[0].targetTile.getDataBufferIndex(x, y);
+                    final int k = (y - y0)*w + x - x0;
 
                     double alt = localDEM[yy][x-x0+1];
 
@@ -962,23 +974,56 @@ public class RangeDopplerGeocodingOp extends Operator {
                                         earthPoint[0]*earthPoint[0] + earthPoint[1]*earthPoint[1] + earthPoint[2]*earthPoint[2]);
                         }
 
-                        for(TileData tileData : trgTiles) {
-                            int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
-                            double v = getPixelValue(azimuthIndex, rangeIndex, tileData, subSwathIndex);
-
-                            if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
-                                if (localIncidenceAngles[1] != SARGeocoding.NonValidIncidenceAngle) {
-                                    v = calibrator.applyCalibration(
-                                            v, rangeIndex, azimuthIndex, slantRange, satelliteHeight, sceneToEarthCentre,
-                                            localIncidenceAngles[1], tileData.bandPolar, tileData.bandUnit, subSwathIndex); // use projected incidence angle
-                                } else {
-                                    v = tileData.noDataValue;
-                                }
+                        rangeIndexArray[k] = rangeIndex;
+                        azimuthIndexArray[k] = azimuthIndex;
+                        slantRangeArray[k] = slantRange;
+                        satelliteHeightArray[k] = satelliteHeight;
+                        sceneToEarthCentreArray[k] = sceneToEarthCentre;
+                        projectedIncidenceAngleArray[k] = localIncidenceAngles[1];
+                        footprint.add(x, y, rangeIndex, azimuthIndex);
+                        orthoDataProduced = true;
+                    }
+                }
+            }
+
+            final Rectangle[] srcRects = footprint.getRectangles();
+            for(TileData tileData : trgTiles) {
+                final Tile[] srcTilesI = new Tile[srcRects.length];
+                final Tile[] srcTilesQ = new Tile[srcRects.length];
+                for (int r = 0; r < srcRects.length; r++) {
+                    srcTilesI[r] = getSourceTile(tileData.srcBands[0], srcRects[r]);
+                    if (tileData.srcBands.length > 1) {
+                        srcTilesQ[r] = getSourceTile(tileData.srcBands[1], srcRects[r]);
+                    }
+                }
+
+                final int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
+                for (int y = y0; y < maxY; y++) {
+                    final int offset = tileData.targetTile.getRowOffset(y) - x0;
+                    for (int x = x0; x < maxX; x++) {
+                        final int k = (y - y0)*w + x - x0;
+                        if (Double.isNaN(rangeIndexArray[k])) {
+                            continue;
+                        }
+
+                        final int r = footprint.getRectangleIndex(x, y);
+                        subSwathIndex[0] = INVALID_SUB_SWATH_INDEX;
+                        double v = getPixelValue(azimuthIndexArray[k], rangeIndexArray[k], tileData,
+                                                 srcTilesI[r], srcTilesQ[r], subSwathIndex);
+
+                        if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
+                            if (projectedIncidenceAngleArray[k] != SARGeocoding.NonValidIncidenceAngle) {
+                                v = calibrator.applyCalibration(
+                                        v, rangeIndexArray[k], azimuthIndexArray[k], slantRangeArray[k],
+                                        satelliteHeightArray[k], sceneToEarthCentreArray[k],
+                                        projectedIncidenceAngleArray[k], tileData.bandPolar, tileData.bandUnit,
+                                        subSwathIndex); // use projected incidence angle
+                            } else {
+                                v = tileData.noDataValue;
                             }
-                            
-                            tileData.tileDataBuffer.setElemDoubleAt(index, v);
                         }
-                        orthoDataProduced = true;
+
+                        tileData.tileDataBuffer.setElemDoubleAt(offset + x, v);
                     }
                 }
             }
@@ -1005,49 +1050,21 @@ public class RangeDopplerGeocodingOp extends Operator {
      * @param azimuthIndex The azimuth index for pixel in source image.
      * @param rangeIndex The range index for pixel in source image.
      * @param tileData The source tile information.
+     * @param sourceTileI The source tile covering the resampling window of the pixel.
+     * @param sourceTileQ The source tile of the q band, or null.
      * @param subSwathIndex The subSwath index.
      * @return The pixel value.
      */
-    private double getPixelValue(final double azimuthIndex, final double rangeIndex,
-                                 final TileData tileData, final int[] subSwathIndex) {
-
-        try {
-            final int x0 = (int)(rangeIndex + 0.5);
-            final int y0 = (int)(azimuthIndex + 0.5);
-            Rectangle srcRect;
-
-            if (imgResampling == Resampling.BILINEAR_INTERPOLATION) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 1), Math.max(0, y0 - 1), 3, 3);
-
-            } else if (imgResampling == Resampling.NEAREST_NEIGHBOUR) {
-
-                srcRect = new Rectangle(x0, y0, 1, 1);
-
-            } else if (imgResampling == Resampling.CUBIC_CONVOLUTION) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
-
-            } else if (imgResampling == Resampling.BISINC_INTERPOLATION) {
+    private double getPixelValue(final double azimuthIndex, final double rangeIndex, final TileData tileData,
+                                 final Tile sourceTileI, final Tile sourceTileQ, final int[] subSwathIndex) {
 
-                srcRect = new Rectangle(Math.max(0, x0 - 3), Math.max(0, y0 - 3), 6, 6);
+        tileData.imgResamplingRaster.set(rangeIndex, azimuthIndex, sourceTileI, sourceTileQ);
 
-            } else if (imgResampling == Resampling.BICUBIC_INTERPOLATION) {
+        imgResampling.computeIndex(rangeIndex + 0.5, azimuthIndex + 0.5,
+                                   sourceImageWidth, sourceImageHeight, tileData.imgResamplingIndex);
 
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
-
-            } else {
-                throw new OperatorException("Unhandled interpolation method");
-            }
-
-            final Band[] srcBands = targetBandNameToSourceBand.get(tileData.bandName);
-            tileData.imgResamplingRaster.set(rangeIndex, azimuthIndex, getSourceTile(srcBands[0], srcRect),
-                    srcBands.length > 1 ? getSourceTile(srcBands[1], srcRect) : null);
-
-            imgResampling.computeIndex(rangeIndex + 0.5, azimuthIndex + 0.5,
-                                    sourceImageWidth, sourceImageHeight, tileData.imgResamplingIndex);
-
-            double v = imgResampling.resample(tileData.imgResamplingRaster, tileData.imgResamplingIndex);
+        try {
+            final double v = imgResampling.resample(tileData.imgResamplingRaster, tileData.imgResamplingIndex);
 
             subSwathIndex[0] = tileData.imgResamplingRaster.getSubSwathIndex();
 
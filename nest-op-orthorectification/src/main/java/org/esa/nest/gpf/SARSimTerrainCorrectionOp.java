@@ -889,12 +889,24 @@ public class SARSimTerrainCorrectionOp extends Operator {
                     return;
             }
 
+            // first compute the source positions of all pixels, then fetch the source data once for all of them
+            final double[] rangeIndexArray = new double[w*h];
+            final double[] azimuthIndexArray = new double[w*h];
+            final double[] slantRangeArray = new double[w*h];
+            final double[] satelliteHeightArray = new double[w*h];
+            final double[] sceneToEarthCentreArray = new double[w*h];
+            final double[] projectedIncidenceAngleArray = new double[w*h];
+            Arrays.fill(rangeIndexArray, Double.NaN);
+            final SourceFootprint maskFootprint = new SourceFootprint(
+                    targetRectangle, sourceImageWidth, sourceImageHeight, 1);
+
             for (int y = y0; y < ymax; y++) {
                 final int yy = y-y0+1;
 
                 for (int x = x0; x < xmax; x++) {
 
                     final int index = trgTiles[0].targetTile.getDataBufferIndex(x, y);
+                    final int k = (y - y0)*w + x - x0;
 
                     final double alt = localDEM[yy][x-x0+1];
 
@@ -972,59 +984,121 @@ public class SARSimTerrainCorrectionOp extends Operator {
                             }
                         }
 
-                        if (saveLayoverShadowMask) {
-                            final Rectangle srcRect = new Rectangle((int)(rangeIndex+0.5), (int)(azimuthIndex+0.5), 1, 1);
-                            final Tile sourceTile = getSourceTile(maskBand, srcRect);
-                            final int m = sourceTile.getDataBuffer().getElemIntAt(sourceTile.getDataBufferIndex(
-                                    (int)(rangeIndex+0.5), (int)(azimuthIndex+0.5)));
-                            layoverShadowingMasksBuffer.setElemIntAt(index, m);
-                        }
-
                         if (saveIncidenceAngleFromEllipsoid) {
                             incidenceAngleFromEllipsoidBuffer.setElemDoubleAt(
                                     index, incidenceAngle.getPixelFloat((float)rangeIndex, (float)azimuthIndex));
                         }
 
-                        for(RangeDopplerGeocodingOp.TileData tileData : trgTiles) {
+                        rangeIndexArray[k] = rangeIndex;
+                        azimuthIndexArray[k] = azimuthIndex;
+                        slantRangeArray[k] = slantRange;
+                        satelliteHeightArray[k] = Math.sqrt(
+                                sensorPos[0]*sensorPos[0] + sensorPos[1]*sensorPos[1] + sensorPos[2]*sensorPos[2]);
+                        sceneToEarthCentreArray[k] = Math.sqrt(
+                                earthPoint[0]*earthPoint[0] + earthPoint[1]*earthPoint[1] + earthPoint[2]*earthPoint[2]);
+                        projectedIncidenceAngleArray[k] = localIncidenceAngles[1];
+                        maskFootprint.add(x, y, rangeIndex, azimuthIndex);
+                        orthoDataProduced = true;
+                    }
+                }
+            }
 
-                            final Unit.UnitType bandUnit = getBandUnit(tileData.bandName);
-                            final String[] srcBandName = targetBandNameToSourceBandName.get(tileData.bandName);
-                            final Band srcBand = sourceProduct.getBand(srcBandName[0]);
-                            final PixelPos pixelPos = new PixelPos();
-                            final WarpOp.WarpData warpData = warpDataMap.get(srcBand);
-                            if (warpData.notEnoughGCPs) {
-                                continue;
-                            }
-                            WarpOp.getWarpedCoords(warpData, warpPolynomialOrder,
-                                                   rangeIndex, azimuthIndex, pixelPos);
-                            if (pixelPos.x < 0.0 || pixelPos.x >= srcMaxRange || pixelPos.y < 0.0 || pixelPos.y >= srcMaxAzimuth) {
-                                tileData.tileDataBuffer.setElemDoubleAt(index, tileData.noDataValue);
-                                continue;
-                            }
+            if (saveLayoverShadowMask) {
+                final Rectangle[] srcRects = maskFootprint.getRectangles();
+                final Tile[] maskTiles = new Tile[srcRects.length];
+                for (int r = 0; r < srcRects.length; r++) {
+                    maskTiles[r] = getSourceTile(maskBand, srcRects[r]);
+                }
 
-                            final int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
-                            double v = getPixelValue(pixelPos.y, pixelPos.x, tileData, subSwathIndex);
+                for (int y = y0; y < ymax; y++) {
+                    for (int x = x0; x < xmax; x++) {
+                        final int k = (y - y0)*w + x - x0;
+                        if (Double.isNaN(rangeIndexArray[k])) {
+                            continue;
+                        }
 
-                            if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
+                        final Tile sourceTile = maskTiles[maskFootprint.getRectangleIndex(x, y)];
+                        final int m = sourceTile.getDataBuffer().getElemIntAt(sourceTile.getDataBufferIndex(
+                                (int)(rangeIndexArray[k]+0.5), (int)(azimuthIndexArray[k]+0.5)));
+                        layoverShadowingMasksBuffer.setElemIntAt(trgTiles[0].targetTile.getDataBufferIndex(x, y), m);
+                    }
+                }
+            }
 
-                                if (localIncidenceAngles[1] != SARGeocoding.NonValidIncidenceAngle) {
-                                    final double satelliteHeight = Math.sqrt(
-                                            sensorPos[0]*sensorPos[0] + sensorPos[1]*sensorPos[1] + sensorPos[2]*sensorPos[2]);
+            final double[] warpedRangeIndex = new double[w*h];
+            final double[] warpedAzimuthIndex = new double[w*h];
+            final PixelPos pixelPos = new PixelPos();
+            for(RangeDopplerGeocodingOp.TileData tileData : trgTiles) {
+
+                final Unit.UnitType bandUnit = getBandUnit(tileData.bandName);
+                final String[] srcBandName = targetBandNameToSourceBandName.get(tileData.bandName);
+                final Band srcBand = sourceProduct.getBand(srcBandName[0]);
+                final WarpOp.WarpData warpData = warpDataMap.get(srcBand);
+                if (warpData.notEnoughGCPs) {
+                    continue;
+                }
 
-                                    final double sceneToEarthCentre = Math.sqrt(
-                                            earthPoint[0]*earthPoint[0] + earthPoint[1]*earthPoint[1] + earthPoint[2]*earthPoint[2]);
+                final SourceFootprint footprint = new SourceFootprint(
+                        targetRectangle, sourceImageWidth, sourceImageHeight, imgResampling);
+                for (int y = y0; y < ymax; y++) {
+                    final int offset = tileData.targetTile.getRowOffset(y) - x0;
+                    for (int x = x0; x < xmax; x++) {
+                        final int k = (y - y0)*w + x - x0;
+                        warpedRangeIndex[k] = Double.NaN;
+                        if (Double.isNaN(rangeIndexArray[k])) {
+                            continue;
+                        }
 
-                                    v = calibrator.applyCalibration(
-                                            v, rangeIndex, azimuthIndex, slantRange, satelliteHeight, sceneToEarthCentre,
-                                            localIncidenceAngles[1], tileData.bandPolar, bandUnit, subSwathIndex); // use projected incidence angle
-                                } else {
-                                    v = tileData.noDataValue;
-                                }
-                            }
+                        WarpOp.getWarpedCoords(warpData, warpPolynomialOrder,
+                                               rangeIndexArray[k], azimuthIndexArray[k], pixelPos);
+                        if (pixelPos.x < 0.0 || pixelPos.x >= srcMaxRange || pixelPos.y < 0.0 || pixelPos.y >= srcMaxAzimuth) {
+                            tileData.tileDataBuffer.setElemDoubleAt(offset + x, tileData.noDataValue);
+                            continue;
+                        }
+                        warpedRangeIndex[k] = pixelPos.x;
+                        warpedAzimuthIndex[k] = pixelPos.y;
+                        footprint.add(x, y, pixelPos.x, pixelPos.y);
+                    }
+                }
+
+                final Rectangle[] srcRects = footprint.getRectangles();
+                final Tile[] srcTilesI = new Tile[srcRects.length];
+                final Tile[] srcTilesQ = new Tile[srcRects.length];
+                for (int r = 0; r < srcRects.length; r++) {
+                    srcTilesI[r] = getSourceTile(srcBand, srcRects[r]);
+                    if (srcBandName.length > 1) {
+                        srcTilesQ[r] = getSourceTile(sourceProduct.getBand(srcBandName[1]), srcRects[r]);
+                    }
+                }
 
-                            tileData.tileDataBuffer.setElemDoubleAt(index, v);
+                final int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
+                for (int y = y0; y < ymax; y++) {
+                    final int offset = tileData.targetTile.getRowOffset(y) - x0;
+                    for (int x = x0; x < xmax; x++) {
+                        final int k = (y - y0)*w + x - x0;
+                        if (Double.isNaN(warpedRangeIndex[k])) {
+                            continue;
                         }
-                        orthoDataProduced = true;
+
+                        final int r = footprint.getRectangleIndex(x, y);
+                        subSwathIndex[0] = INVALID_SUB_SWATH_INDEX;
+                        double v = getPixelValue(warpedAzimuthIndex[k], warpedRangeIndex[k], tileData,
+                                                 srcTilesI[r], srcTilesQ[r], subSwathIndex);
+
+                        if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
+
+                            if (projectedIncidenceAngleArray[k] != SARGeocoding.NonValidIncidenceAngle) {
+                                v = calibrator.applyCalibration(
+                                        v, rangeIndexArray[k], azimuthIndexArray[k], slantRangeArray[k],
+                                        satelliteHeightArray[k], sceneToEarthCentreArray[k],
+                                        projectedIncidenceAngleArray[k], tileData.bandPolar, bandUnit,
+                                        subSwathIndex); // use projected incidence angle
+                            } else {
+                                v = tileData.noDataValue;
+                            }
+                        }
+
+                        tileData.tileDataBuffer.setElemDoubleAt(offset + x, v);
                     }
                 }
             }
@@ -1126,55 +1200,22 @@ public class SARSimTerrainCorrectionOp extends Operator {
      * @param azimuthIndex The azimuth index for pixel in source image.
      * @param rangeIndex The range index for pixel in source image.
      * @param tileData The source tile information.
+     * @param sourceTileI The source tile covering the resampling window of the pixel.
+     * @param sourceTileQ The source tile of the q band, or null.
      * @param subSwathIndex The subswath index.
      * @return The pixel value.
      */
     private double getPixelValue(final double azimuthIndex, final double rangeIndex,
                                  final RangeDopplerGeocodingOp.TileData tileData,
-                                 final int[] subSwathIndex) {
-
-        try {
-            final int x0 = (int)(rangeIndex + 0.5);
-            final int y0 = (int)(azimuthIndex + 0.5);
-            Rectangle srcRect = null;
-            Tile sourceTileI, sourceTileQ = null;
-
-            if (imgResampling == Resampling.NEAREST_NEIGHBOUR) {
-
-                srcRect = new Rectangle(x0, y0, 1, 1);
-
-            } else if (imgResampling == Resampling.BILINEAR_INTERPOLATION) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 1), Math.max(0, y0 - 1), 3, 3);
-
-            } else if (imgResampling == Resampling.CUBIC_CONVOLUTION) {
+                                 final Tile sourceTileI, final Tile sourceTileQ, final int[] subSwathIndex) {
 
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
+        tileData.imgResamplingRaster.set(rangeIndex, azimuthIndex, sourceTileI, sourceTileQ);
 
-            } else if (imgResampling == Resampling.BISINC_INTERPOLATION) {
+        imgResampling.computeIndex(rangeIndex + 0.5, azimuthIndex + 0.5,
+                                   sourceImageWidth, sourceImageHeight, tileData.imgResamplingIndex);
 
-                srcRect = new Rectangle(Math.max(0, x0 - 3), Math.max(0, y0 - 3), 6, 6);
-
-            } else if (imgResampling == Resampling.BICUBIC_INTERPOLATION) {
-
-                srcRect = new Rectangle(Math.max(0, x0 - 2), Math.max(0, y0 - 2), 5, 5);
-
-            } else {
-                throw new OperatorException("Unhandled interpolation method");
-            }
-
-            final String[] srcBandNames = targetBandNameToSourceBandName.get(tileData.bandName);
-            sourceTileI = getSourceTile(sourceProduct.getBand(srcBandNames[0]), srcRect);
-            if (srcBandNames.length > 1) {
-                sourceTileQ = getSourceTile(sourceProduct.getBand(srcBandNames[1]), srcRect);
-            }
-
-            tileData.imgResamplingRaster.set(rangeIndex, azimuthIndex, sourceTileI, sourceTileQ);
-
-            imgResampling.computeIndex(rangeIndex + 0.5, azimuthIndex + 0.5,
-                                       sourceImageWidth, sourceImageHeight, tileData.imgResamplingIndex);
-
-            double v = imgResampling.resample(tileData.imgResamplingRaster, tileData.imgResamplingIndex);
+        try {
+            final double v = imgResampling.resample(tileData.imgResamplingRaster, tileData.imgResamplingIndex);
 
             subSwathIndex[0] = tileData.imgResamplingRaster.getSubSwathIndex();
 
@@ -81,6 +81,11 @@ import java.util.List;
  * (3.8) Compute range index Ir in the source image using slant range r(tc);
  * (3.9) Compute local incidence angle;
  * (3.10)Compute backscattered power and save it as value for pixel ((int)Ia, (int)Ir);
+ *
+ * The DEM image is simulated in blocks of full width rows, each block once for the whole scene. A block is
+ * projected into the lines of its own rows, padded by the range of the azimuth shift over the scene, and the
+ * tiles add up the lines of all blocks projected into them. The layover and shadow are detected along each
+ * complete row of DEM cells.
  */
 
 @OperatorMetadata(alias="SAR-Simulation",
@@ -168,7 +173,13 @@ public final class SARSimulationOp extends Operator {
     private double[] yPosArray = null;
     private double[] zPosArray = null;
 
-    private int tileSize = 400;
+    private int tileSize = 400;                               // also the number of DEM rows simulated per block
+
+    private static final int AZIMUTH_SHIFT_SAMPLING = 20;     // pixel step for sampling the azimuth shift
+    private static final int AZIMUTH_SHIFT_MARGIN = 20;       // lines added to the sampled azimuth shift range
+    private int minAzimuthShift = 0;
+    private int maxAzimuthShift = 0;
+    private volatile SimulationBlock[] simulationBlocks = null;
 
     private AbstractMetadata.OrbitStateVector[] orbitStateVectors = null;
     private AbstractMetadata.SRGRCoefficientList[] srgrConvParams = null;
@@ -429,18 +440,21 @@ public final class SARSimulationOp extends Operator {
         }
     }
 
-    private void computeTileOverlapPercentage(final int x0, final int y0, final int w, final int h,
-                                              double[] overlapPercentages)
-            throws Exception {
+    /**
+     * Compute the range of the azimuth shift between the line of a DEM cell and the line it is projected to,
+     * sampled over the whole scene. The simulated lines of a block of DEM rows are padded by this range.
+     * @throws Exception The exceptions.
+     */
+    private void computeAzimuthShiftRange() throws Exception {
 
         final PixelPos pixPos = new PixelPos();
         final GeoPos geoPos = new GeoPos();
         final double[] earthPoint = new double[3];
         final double[] sensorPos = new double[3];
-        double tileOverlapPercentageMax = -Double.MAX_VALUE;
-        double tileOverlapPercentageMin = Double.MAX_VALUE;
-        for (int y = y0; y < y0 + h; y+=20) {
-            for (int x = x0; x < x0 + w; x+=20) {
+        double shiftMin = 0.0;
+        double shiftMax = 0.0;
+        for (int y = 0; y < sourceImageHeight; y += AZIMUTH_SHIFT_SAMPLING) {
+            for (int x = 0; x < sourceImageWidth; x += AZIMUTH_SHIFT_SAMPLING) {
                 pixPos.setLocation(x,y);
                 targetGeoCoding.getGeoPos(pixPos, geoPos);
                 final double alt = dem.getElevation(geoPos);
@@ -458,30 +472,40 @@ public final class SARSimulationOp extends Operator {
 
                 final double zeroDopplerTimeWithoutBias = zeroDopplerTime + slantRange / Constants.lightSpeedInMetersPerDay;
 
-                final int azimuthIndex = (int)((zeroDopplerTimeWithoutBias - firstLineUTC) / lineTimeInterval + 0.5);
-
-                double tileOverlapPercentage = (float)(azimuthIndex - y)/ (float)tileSize;
+                final double shift = (zeroDopplerTimeWithoutBias - firstLineUTC) / lineTimeInterval - y;
 
-                if (tileOverlapPercentage > tileOverlapPercentageMax) {
-                    tileOverlapPercentageMax = tileOverlapPercentage;
+                if (shift > shiftMax) {
+                    shiftMax = shift;
                 }
-                if (tileOverlapPercentage < tileOverlapPercentageMin) {
-                    tileOverlapPercentageMin = tileOverlapPercentage;
+                if (shift < shiftMin) {
+                    shiftMin = shift;
                 }
             }
         }
 
-        if (tileOverlapPercentageMin != Double.MAX_VALUE && tileOverlapPercentageMin < 0.0) {
-            overlapPercentages[0] = tileOverlapPercentageMin - 1.0;
-        } else {
-            overlapPercentages[0] = 0.0;
-        }
+        minAzimuthShift = (int)Math.floor(shiftMin) - AZIMUTH_SHIFT_MARGIN;
+        maxAzimuthShift = (int)Math.ceil(shiftMax) + AZIMUTH_SHIFT_MARGIN;
+    }
 
-        if (tileOverlapPercentageMax != -Double.MAX_VALUE && tileOverlapPercentageMax > 0.0) {
-            overlapPercentages[1] = tileOverlapPercentageMax + 1.0;
-        } else {
-            overlapPercentages[1] = 0.0;
+    /**
+     * Create the blocks of DEM rows. A block has the height of a tile, so the tiles of a tile row are
+     * served by the block of the same rows and by the neighbouring blocks projected into them.
+     * @throws Exception The exceptions.
+     */
+    private synchronized void initSimulationBlocks() throws Exception {
+
+        if (simulationBlocks != null) return;
+
+        getElevationModel();
+
+        computeAzimuthShiftRange();
+
+        final int numBlocks = (sourceImageHeight + tileSize - 1) / tileSize;
+        final SimulationBlock[] blocks = new SimulationBlock[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            blocks[i] = new SimulationBlock(i);
         }
+        simulationBlocks = blocks;
     }
 
     /**
@@ -502,262 +526,464 @@ public final class SARSimulationOp extends Operator {
         final int h  = targetRectangle.height;
         //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
-        double[] tileOverlapPercentage = {0.0, 0.0};
         try {
-            if (!isElevationModelAvailable) {
-                getElevationModel();
+            if (simulationBlocks == null) {
+                initSimulationBlocks();
             }
-            computeTileOverlapPercentage(x0, y0, w, h, tileOverlapPercentage);
-            //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h +
-            //                   ", tileOverlapPercentageMin = " + tileOverlapPercentage[0] +
-            //                   ", tileOverlapPercentageMax = " + tileOverlapPercentage[1]);
-        } catch(Exception e) {
-            throw new OperatorException(e);
-        }
 
-        final Tile targetTile = targetTiles.get(targetProduct.getBand(SIMULATED_BAND_NAME));
-        final ProductData masterBuffer = targetTile.getDataBuffer();
-        ProductData demBandBuffer = null;
-        ProductData zeroHeightBandBuffer = null;
-        ProductData localIncidenceAngleBandBuffer = null;
-        ProductData layoverShadowMaskBuffer = null;
-        if (saveDEM) {
-            demBandBuffer = targetTiles.get(targetProduct.getBand(demBandName)).getDataBuffer();
-        }
-        if (saveZeroHeightSimulation) {
-            zeroHeightBandBuffer = targetTiles.get(targetProduct.getBand(zeroHeightSimulationBandName)).getDataBuffer();
-        }
-        if (saveLocalIncidenceAngle) {
-            localIncidenceAngleBandBuffer = targetTiles.get(targetProduct.getBand(simulatedLocalIncidenceAngleBandName)).getDataBuffer();
+            final float[] simulated = new float[w*h];
+            final float[] zeroHeight = saveZeroHeightSimulation ? new float[w*h] : null;
+            final float[] elevation = saveDEM ? new float[w*h] : null;
+            final float[] localIncidenceAngle = saveLocalIncidenceAngle ? new float[w*h] : null;
+            final int[] layoverShadowMask = saveLayoverShadowMask ? new int[w*h] : null;
+
+            // add the simulated lines of all blocks projected into the tile, in block order
+            for (SimulationBlock block : simulationBlocks) {
+                final int yStart = Math.max(y0, block.lineStart);
+                final int yEnd = Math.min(y0 + h, block.lineEnd);
+                if (yStart >= yEnd) {
+                    continue;
+                }
+
+                final SimulatedLines lines = block.getLines();
+                for (int y = yStart; y < yEnd; y++) {
+                    final int srcOffset = (y - lines.lineStart)*sourceImageWidth + x0;
+                    final int tgtOffset = (y - y0)*w;
+                    for (int i = 0; i < w; i++) {
+                        final int s = srcOffset + i;
+                        final int t = tgtOffset + i;
+                        simulated[t] += lines.simulated[s];
+                        if (zeroHeight != null) {
+                            zeroHeight[t] += lines.zeroHeight[s];
+                        }
+                        if (elevation != null && !Float.isNaN(lines.elevation[s])) {
+                            elevation[t] = lines.elevation[s];
+                        }
+                        if (localIncidenceAngle != null && !Float.isNaN(lines.localIncidenceAngle[s])) {
+                            localIncidenceAngle[t] = lines.localIncidenceAngle[s];
+                        }
+                        if (layoverShadowMask != null) {
+                            layoverShadowMask[t] |= lines.layoverShadowMask[s];
+                        }
+                    }
+                }
+                block.release(targetRectangle);
+            }
+
+            targetTiles.get(targetProduct.getBand(SIMULATED_BAND_NAME)).setSamples(simulated);
+            if (saveDEM) {
+                targetTiles.get(targetProduct.getBand(demBandName)).setSamples(elevation);
+            }
+            if (saveZeroHeightSimulation) {
+                targetTiles.get(targetProduct.getBand(zeroHeightSimulationBandName)).setSamples(zeroHeight);
+            }
+            if (saveLocalIncidenceAngle) {
+                targetTiles.get(targetProduct.getBand(simulatedLocalIncidenceAngleBandName)).setSamples(localIncidenceAngle);
+            }
+            if (saveLayoverShadowMask) {
+                targetTiles.get(targetProduct.getBand(layoverShadowMaskBandName)).setSamples(layoverShadowMask);
+            }
+        } catch(Throwable e) {
+            OperatorUtils.catchOperatorException(getId(), e);
         }
-        if (saveLayoverShadowMask) {
-            layoverShadowMaskBuffer = targetTiles.get(targetProduct.getBand(layoverShadowMaskBandName)).getDataBuffer();
+    }
+
+    /**
+     * Simulate the lines a block of DEM rows is projected to.
+     * @param block The block.
+     * @return The simulated lines.
+     * @throws Exception The exceptions.
+     */
+    private SimulatedLines simulate(final SimulationBlock block) throws Exception {
+
+        final int ymin = block.index * tileSize;
+        final int ymax = Math.min(ymin + tileSize, sourceImageHeight);
+        final SimulatedLines lines = new SimulatedLines(block.lineStart, block.lineEnd - block.lineStart);
+        if (reGridMethod) {
+            simulateFromLatLonGrid(ymin, ymax, lines);
+        } else {
+            simulateFromImageGrid(ymin, ymax, lines);
         }
+        return lines;
+    }
 
-        final int ymin = Math.max(y0 - (int)(tileSize*tileOverlapPercentage[1]), 0);
-        final int ymax = y0 + h + (int)(tileSize*Math.abs(tileOverlapPercentage[0]));
-        final int xmax = x0 + w;
+    /**
+     * Simulate the DEM cells on a regular latitude/longitude grid covering the given image lines. The cells
+     * geocoded to other lines are left to the blocks of these lines.
+     * @param ymin The first line of the block.
+     * @param ymax The line after the last line of the block.
+     * @param lines The simulated lines.
+     * @throws Exception The exceptions.
+     */
+    private void simulateFromLatLonGrid(final int ymin, final int ymax, final SimulatedLines lines) throws Exception {
 
+        final int w = sourceImageWidth;
+        final double[] latLonMinMax = new double[4];
+        computeImageGeoBoundary(0, w, ymin, ymax, latLonMinMax);
+
+        final double latMin = latLonMinMax[0];
+        final double latMax = latLonMinMax[1];
+        final double lonMin = latLonMinMax[2];
+        final double lonMax = latLonMinMax[3];
+        final int nLat = (int)((latMax - latMin)/delLat) + 1;
+        final int nLon = (int)((lonMax - lonMin)/delLon) + 1;
+
+        final double[][] tileDEM = new double[nLat+1][nLon+1];
+        final double[][] neighbourDEM = new double[3][3];
         final PositionData posData = new PositionData();
         final GeoPos geoPos = new GeoPos();
+        final PixelPos pixPos = new PixelPos();
+        double alt;
 
         double[] slrs = null;
         double[] elev = null;
         int[] index = null;
-        final boolean[] savePixel = new boolean[w];
+        boolean[] savePixel = null;
         if (saveLayoverShadowMask) {
             slrs = new double[w];
             elev = new double[w];
             index = new int[w];
+            savePixel = new boolean[w];
         }
 
-        try {
-         if(reGridMethod) {
-             final double[] latLonMinMax = new double[4];
-             computeImageGeoBoundary(x0, xmax, ymin, ymax, latLonMinMax);
-
-             final double latMin = latLonMinMax[0];
-             final double latMax = latLonMinMax[1];
-             final double lonMin = latLonMinMax[2];
-             final double lonMax = latLonMinMax[3];
-             final int nLat = (int)((latMax - latMin)/delLat) + 1;
-             final int nLon = (int)((lonMax - lonMin)/delLon) + 1;
-
-             final double[][] tileDEM = new double[nLat+1][nLon+1];
-             final double[][] neighbourDEM = new double[3][3];
-             double alt;
-
-             for (int i = 0; i < nLat; i++) {
-                final double lat = latMin + i*delLat;
-                for (int j = 0; j < nLon; j++) {
-                    double lon = lonMin + j*delLon;
-                    if (lon >= 180.0) {
-                        lon -= 360.0;
-                    }
-                    if(saveZeroHeightSimulation) {
-                        alt = 1;
-                    } else {
-                        geoPos.setLocation((float)lat, (float)lon);
-                        alt = dem.getElevation(geoPos);
-                        if(alt == demNoDataValue)
-                            continue;
-                    }
-                    tileDEM[i][j] = alt;
-
-                    if(!getPosition(lat, lon, alt, x0, y0, w, h, posData))
+        for (int i = 0; i < nLat; i++) {
+            final double lat = latMin + i*delLat;
+            if (saveLayoverShadowMask) {
+                Arrays.fill(savePixel, false);
+            }
+            for (int j = 0; j < nLon; j++) {
+                double lon = lonMin + j*delLon;
+                if (lon >= 180.0) {
+                    lon -= 360.0;
+                }
+                geoPos.setLocation((float)lat, (float)lon);
+                if(saveZeroHeightSimulation) {
+                    alt = 1;
+                } else {
+                    alt = dem.getElevation(geoPos);
+                    if(alt == demNoDataValue)
                         continue;
+                }
+                tileDEM[i][j] = alt;
 
-                    final LocalGeometry localGeometry = new LocalGeometry(lat, lon, delLat, delLon, posData.earthPoint, posData.sensorPos);
-
-                    final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
-                            SARGeocoding.NonValidIncidenceAngle};
-
-                    int r = 0;
-                    for(int ii=Math.max(0,i-1); ii<=i+1; ++ii) {
-                        ii = Math.min(nLat, ii);
-                        int c = 0;
-                        float neighbourLat = (float)(latMin + ii*delLat);
-                        for(int jj=Math.max(0,j-1); jj<=j+1; ++jj) {
-                            jj = Math.min(nLon, jj);
-                            neighbourDEM[r][c] = tileDEM[ii][jj];
-                            if(neighbourDEM[r][c] == 0) {
-                                if(saveZeroHeightSimulation) {
-                                    neighbourDEM[r][c] = 1;
-                                } else {
-                                    geoPos.setLocation(neighbourLat, (float)(lonMin + jj*delLon));
-                                    neighbourDEM[r][c] = dem.getElevation(geoPos);
-                                }
-                                tileDEM[ii][jj] = neighbourDEM[r][c];
-                            }
-                            ++c;
-                        }
-                        ++r;
-                    }
+                targetGeoCoding.getPixelPos(geoPos, pixPos);
+                if(!pixPos.isValid() || pixPos.y < ymin || pixPos.y >= ymax)
+                    continue;
 
-                    SARGeocoding.computeLocalIncidenceAngle(
-                            localGeometry, demNoDataValue, false, true, false, 0, 0, 0, 0, neighbourDEM,
-                            localIncidenceAngles); // in degrees
+                if(!getPosition(lat, lon, alt, 0, lines.lineStart, w, lines.numLines, posData))
+                    continue;
 
-                    if (localIncidenceAngles[1] == SARGeocoding.NonValidIncidenceAngle) {
-                        continue;
+                final LocalGeometry localGeometry = new LocalGeometry(lat, lon, delLat, delLon, posData.earthPoint, posData.sensorPos);
+
+                final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
+                        SARGeocoding.NonValidIncidenceAngle};
+
+                int r = 0;
+                for(int ii=Math.max(0,i-1); ii<=i+1; ++ii) {
+                    ii = Math.min(nLat, ii);
+                    int c = 0;
+                    float neighbourLat = (float)(latMin + ii*delLat);
+                    for(int jj=Math.max(0,j-1); jj<=j+1; ++jj) {
+                        jj = Math.min(nLon, jj);
+                        neighbourDEM[r][c] = tileDEM[ii][jj];
+                        if(neighbourDEM[r][c] == 0) {
+                            if(saveZeroHeightSimulation) {
+                                neighbourDEM[r][c] = 1;
+                            } else {
+                                geoPos.setLocation(neighbourLat, (float)(lonMin + jj*delLon));
+                                neighbourDEM[r][c] = dem.getElevation(geoPos);
+                            }
+                            tileDEM[ii][jj] = neighbourDEM[r][c];
+                        }
+                        ++c;
                     }
+                    ++r;
+                }
 
-                    final double v = computeBackscatteredPower(localIncidenceAngles[1]);
+                SARGeocoding.computeLocalIncidenceAngle(
+                        localGeometry, demNoDataValue, false, true, false, 0, 0, 0, 0, neighbourDEM,
+                        localIncidenceAngles); // in degrees
 
-                    saveSimulatedData(posData.azimuthIndex, posData.rangeIndex, v, x0, y0, w, h, targetTile, masterBuffer);
+                if (localIncidenceAngles[1] == SARGeocoding.NonValidIncidenceAngle) {
+                    continue;
+                }
 
-                    int idx = 0;
-                    if(saveDEM || saveLocalIncidenceAngle)
-                        idx = targetTile.getDataBufferIndex((int)posData.rangeIndex, (int)posData.azimuthIndex);
+                final double v = computeBackscatteredPower(localIncidenceAngles[1]);
 
-                    if(saveDEM && idx >= 0) {
-                        demBandBuffer.setElemDoubleAt(idx, alt);
-                    }
-                    if(saveZeroHeightSimulation) {
-                        saveSimulatedData(posData.azimuthIndex, posData.rangeIndex, 1, x0, y0, w, h, targetTile, zeroHeightBandBuffer);
-                    }
-                    if(saveLocalIncidenceAngle && idx >= 0) {
-                        localIncidenceAngleBandBuffer.setElemDoubleAt(idx, localIncidenceAngles[1]);
-                    }
+                final int idx = lines.save(posData, alt, v, localIncidenceAngles[1]);
 
-                    if (saveLayoverShadowMask) {
-                        int rIndex = (int)posData.rangeIndex;
-                        int aIndex = (int)posData.azimuthIndex;
-                        index[rIndex] = targetTile.getDataBufferIndex(rIndex, aIndex);
-                        if(index[rIndex] < 0) {
-                            savePixel[rIndex] = false;
-                        } else {
-                            slrs[rIndex] = posData.slantRange;
-                            elev[rIndex] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
-                            savePixel[rIndex] = true;
-                        }
+                if (saveLayoverShadowMask) {
+                    final int rIndex = (int)posData.rangeIndex;
+                    index[rIndex] = idx;
+                    if(idx < 0) {
+                        savePixel[rIndex] = false;
+                    } else {
+                        slrs[rIndex] = posData.slantRange;
+                        elev[rIndex] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
+                        savePixel[rIndex] = true;
                     }
                 }
+            }
 
-                 if (saveLayoverShadowMask) {
-                     computeLayoverShadow(savePixel, slrs, index, elev, layoverShadowMaskBuffer);
-                }
+            if (saveLayoverShadowMask) {
+                computeLayoverShadow(savePixel, slrs, index, elev, lines.layoverShadowMask);
             }
-         } else {
-             final double[][] localDEM = new double[ymax-ymin+2][w+2];
-             final TileGeoreferencing tileGeoRef = new TileGeoreferencing(targetProduct, x0, ymin, w, ymax-ymin);
+        }
+    }
 
-             if(saveZeroHeightSimulation) {
-                 for (double[] aLocalDEM : localDEM) {
-                     Arrays.fill(aLocalDEM, 1);
-                 }
-             } else {
+    /**
+     * Simulate the DEM cells at the pixels of the given image lines. Each row of DEM cells is a complete
+     * range line, so the layover and shadow are detected with one sweep per row.
+     * @param ymin The first line of the block.
+     * @param ymax The line after the last line of the block.
+     * @param lines The simulated lines.
+     * @throws Exception The exceptions.
+     */
+    private void simulateFromImageGrid(final int ymin, final int ymax, final SimulatedLines lines) throws Exception {
 
-                final boolean valid = DEMFactory.getLocalDEM(
-                        dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, ymin, w, ymax-ymin, sourceProduct,
-                        true, localDEM);
+        final int w = sourceImageWidth;
+        final int h = ymax - ymin;
+        final double[][] localDEM = new double[h+2][w+2];
+        final TileGeoreferencing tileGeoRef = new TileGeoreferencing(targetProduct, 0, ymin, w, h);
 
-                 if(!valid)
-                    return;
-             }
+        if(saveZeroHeightSimulation) {
+            for (double[] aLocalDEM : localDEM) {
+                Arrays.fill(aLocalDEM, 1);
+            }
+        } else {
 
-             for (int y = ymin; y < ymax; y++) {
-                final int yy = y - ymin;
+            final boolean valid = DEMFactory.getLocalDEM(
+                    dem, demNoDataValue, demResamplingMethod, tileGeoRef, 0, ymin, w, h, sourceProduct,
+                    true, localDEM);
 
-                for (int x = x0; x < xmax; x++) {
-                    final int xx = x - x0;
-                    double alt = localDEM[yy+1][xx+1];
+            if(!valid)
+                return;
+        }
 
-                    if (alt == demNoDataValue)
-                        continue;
+        final PositionData posData = new PositionData();
+        final GeoPos geoPos = new GeoPos();
 
-                    tileGeoRef.getGeoPos(x, y, geoPos);
-                    if(!geoPos.isValid())
-                        continue;
+        double[] slrs = null;
+        double[] elev = null;
+        int[] index = null;
+        boolean[] savePixel = null;
+        if (saveLayoverShadowMask) {
+            slrs = new double[w];
+            elev = new double[w];
+            index = new int[w];
+            savePixel = new boolean[w];
+        }
 
-                    double lat = geoPos.lat;
-                    double lon = geoPos.lon;
-                    if (lon >= 180.0) {
-                        lon -= 360.0;
-                    }
+        for (int y = ymin; y < ymax; y++) {
+            final int yy = y - ymin;
+            if (saveLayoverShadowMask) {
+                Arrays.fill(savePixel, false);
+            }
 
-                    if(orbitMethod) {
-                        double[] latlon = orbit.lp2ell(new Point(x+0.5, y+0.5), meta);
-                        lat = latlon[0] * MathUtils.RTOD;
-                        lon = latlon[1] * MathUtils.RTOD;
-                        alt = dem.getElevation(new GeoPos((float)lat, (float)lon));
-                    }
+            for (int x = 0; x < w; x++) {
+                double alt = localDEM[yy+1][x+1];
 
-                    if(!getPosition(lat, lon, alt, x0, y0, w, h, posData))
-                        continue;
+                if (alt == demNoDataValue)
+                    continue;
 
-                    final LocalGeometry localGeometry = new LocalGeometry(x, y, tileGeoRef, posData.earthPoint, posData.sensorPos);
+                tileGeoRef.getGeoPos(x, y, geoPos);
+                if(!geoPos.isValid())
+                    continue;
 
-                    final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
-                            SARGeocoding.NonValidIncidenceAngle};
+                double lat = geoPos.lat;
+                double lon = geoPos.lon;
+                if (lon >= 180.0) {
+                    lon -= 360.0;
+                }
 
-                    SARGeocoding.computeLocalIncidenceAngle(
-                            localGeometry, demNoDataValue, false, true, false, x0, ymin, x, y, localDEM,
-                            localIncidenceAngles); // in degrees
+                if(orbitMethod) {
+                    double[] latlon = orbit.lp2ell(new Point(x+0.5, y+0.5), meta);
+                    lat = latlon[0] * MathUtils.RTOD;
+                    lon = latlon[1] * MathUtils.RTOD;
+                    alt = dem.getElevation(new GeoPos((float)lat, (float)lon));
+                }
 
-                    if (localIncidenceAngles[1] == SARGeocoding.NonValidIncidenceAngle)
-                        continue;
+                if(!getPosition(lat, lon, alt, 0, lines.lineStart, w, lines.numLines, posData))
+                    continue;
 
-                    final double v = computeBackscatteredPower(localIncidenceAngles[1]);
+                final LocalGeometry localGeometry = new LocalGeometry(x, y, tileGeoRef, posData.earthPoint, posData.sensorPos);
 
-                    saveSimulatedData(posData.azimuthIndex, posData.rangeIndex, v, x0, y0, w, h, targetTile, masterBuffer);
+                final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
+                        SARGeocoding.NonValidIncidenceAngle};
 
-                    int idx = 0;
-                    if(saveDEM || saveLocalIncidenceAngle)
-                        idx = targetTile.getDataBufferIndex((int)posData.rangeIndex, (int)posData.azimuthIndex);
+                SARGeocoding.computeLocalIncidenceAngle(
+                        localGeometry, demNoDataValue, false, true, false, 0, ymin, x, y, localDEM,
+                        localIncidenceAngles); // in degrees
 
-                    if(saveDEM && idx >= 0) {
-                        demBandBuffer.setElemDoubleAt(idx, alt);
-                    }
-                    if(saveZeroHeightSimulation) {
-                        saveSimulatedData(posData.azimuthIndex, posData.rangeIndex, 1, x0, y0, w, h, targetTile, zeroHeightBandBuffer);
-                    }
-                    if(saveLocalIncidenceAngle && idx >= 0) {
-                        localIncidenceAngleBandBuffer.setElemDoubleAt(idx, localIncidenceAngles[1]);
-                    }
+                if (localIncidenceAngles[1] == SARGeocoding.NonValidIncidenceAngle)
+                    continue;
 
-                    if (saveLayoverShadowMask) {
-                        int rIndex = (int)posData.rangeIndex;
-                        int aIndex = (int)posData.azimuthIndex;
-                        index[xx] = targetTile.getDataBufferIndex(rIndex, aIndex);
-                        if(index[xx] < 0) {
-                            savePixel[xx] = false;
-                        } else {
-                            slrs[xx] = posData.slantRange;
-                            elev[xx] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
-                            savePixel[xx] = true;
-                        }
-                    }
-                }
+                final double v = computeBackscatteredPower(localIncidenceAngles[1]);
+
+                final int idx = lines.save(posData, alt, v, localIncidenceAngles[1]);
 
                 if (saveLayoverShadowMask) {
-                    computeLayoverShadow(savePixel, slrs, index, elev, layoverShadowMaskBuffer);
+                    index[x] = idx;
+                    if(idx < 0) {
+                        savePixel[x] = false;
+                    } else {
+                        slrs[x] = posData.slantRange;
+                        elev[x] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
+                        savePixel[x] = true;
+                    }
                 }
+            }
 
+            if (saveLayoverShadowMask) {
+                computeLayoverShadow(savePixel, slrs, index, elev, lines.layoverShadowMask);
+            }
+        }
+    }
+
+    /**
+     * A block of DEM rows of the height of a tile. The block is simulated when the first tile it is
+     * projected into is computed, and its simulated lines are released once every tile they overlap has
+     * been served. A tile computed again after the release, e.g. after it has been dropped from the tile
+     * cache, simulates the block again and releases it right away.
+     */
+    private final class SimulationBlock {
+        final int index;
+        final int lineStart;
+        final int lineEnd;
+        private final int tileWidth;
+        private final int tileHeight;
+        private final int numXTiles;
+        private final int firstTileY;
+        private final int numTiles;
+        private final BitSet servedTiles;
+        private SimulatedLines lines = null;
+
+        SimulationBlock(final int index) {
+            this.index = index;
+            lineStart = Math.max(index * tileSize + minAzimuthShift, 0);
+            lineEnd = Math.min(Math.min((index + 1) * tileSize, sourceImageHeight) + maxAzimuthShift + 1,
+                               sourceImageHeight);
+
+            final Dimension tileDim = targetProduct.getPreferredTileSize();
+            tileWidth = tileDim.width;
+            tileHeight = tileDim.height;
+            numXTiles = (sourceImageWidth + tileWidth - 1) / tileWidth;
+            firstTileY = lineStart / tileHeight;
+            numTiles = ((lineEnd - 1) / tileHeight - firstTileY + 1) * numXTiles;
+            servedTiles = new BitSet(numTiles);
+        }
+
+        synchronized SimulatedLines getLines() throws Exception {
+            if (lines == null) {
+                lines = simulate(this);
+            }
+            return lines;
+        }
+
+        /**
+         * Mark a tile as served.
+         * @param targetRectangle The rectangle of the tile.
+         */
+        synchronized void release(final Rectangle targetRectangle) {
+            final int tileX = targetRectangle.x / tileWidth;
+            final int tileY = targetRectangle.y / tileHeight;
+            servedTiles.set((tileY - firstTileY) * numXTiles + tileX);
+            if (servedTiles.cardinality() >= numTiles) {
+                lines = null;
+            }
+        }
+    }
+
+    /**
+     * The image lines a block of DEM rows is projected to, over the full image width. The simulated
+     * intensities are accumulated. The elevation and the local incidence angle are NaN where no DEM cell is
+     * projected to.
+     */
+    private final class SimulatedLines {
+        final int lineStart;
+        final int numLines;
+        final float[] simulated;
+        final float[] zeroHeight;
+        final float[] elevation;
+        final float[] localIncidenceAngle;
+        final byte[] layoverShadowMask;
+
+        SimulatedLines(final int lineStart, final int numLines) {
+            this.lineStart = lineStart;
+            this.numLines = numLines;
+            final int size = numLines * sourceImageWidth;
+            simulated = new float[size];
+            zeroHeight = saveZeroHeightSimulation ? new float[size] : null;
+            elevation = saveDEM ? new float[size] : null;
+            localIncidenceAngle = saveLocalIncidenceAngle ? new float[size] : null;
+            layoverShadowMask = saveLayoverShadowMask ? new byte[size] : null;
+            if (elevation != null) {
+                Arrays.fill(elevation, Float.NaN);
+            }
+            if (localIncidenceAngle != null) {
+                Arrays.fill(localIncidenceAngle, Float.NaN);
+            }
+        }
+
+        /**
+         * Save a simulated DEM cell.
+         * @param posData The position of the cell in the image.
+         * @param alt The elevation of the cell.
+         * @param v The backscattered power.
+         * @param localIncidenceAngle The local incidence angle (in degree).
+         * @return The index of the pixel containing the position, -1 if outside of the lines.
+         */
+        int save(final PositionData posData, final double alt, final double v, final double localIncidenceAngle) {
+
+            add(posData.azimuthIndex, posData.rangeIndex, v, simulated);
+            if (zeroHeight != null) {
+                add(posData.azimuthIndex, posData.rangeIndex, 1, zeroHeight);
+            }
+
+            final int x = (int)posData.rangeIndex;
+            final int y = (int)posData.azimuthIndex - lineStart;
+            if (x < 0 || x >= sourceImageWidth || y < 0 || y >= numLines) {
+                return -1;
+            }
+            final int idx = y*sourceImageWidth + x;
+            if (elevation != null) {
+                elevation[idx] = (float)alt;
+            }
+            if (this.localIncidenceAngle != null) {
+                this.localIncidenceAngle[idx] = (float)localIncidenceAngle;
+            }
+            return idx;
+        }
+
+        private void add(final double azimuthIndex, final double rangeIndex, final double v, final float[] buffer) {
+            final int ia0 = (int)(azimuthIndex);
+            final int ia1 = ia0 + 1;
+            final int ir0 = (int)(rangeIndex);
+            final int ir1 = ir0 + 1;
+
+            final double wr = rangeIndex - ir0;
+            final double wa = azimuthIndex - ia0;
+            final double wac = 1 - wa;
+            final int offset0 = (ia0 - lineStart)*sourceImageWidth;
+            final int offset1 = offset0 + sourceImageWidth;
+
+            if (ir0 >= 0) {
+                final double wrc = 1 - wr;
+                if(ia0 >= lineStart) {
+                    buffer[offset0 + ir0] += wrc*wac*v;
+                }
+                if(ia1 < lineStart + numLines) {
+                    buffer[offset1 + ir0] += wrc*wa*v;
+                }
+            }
+            if (ir1 < sourceImageWidth) {
+                if(ia0 >= lineStart) {
+                    buffer[offset0 + ir1] += wr*wac*v;
+                }
+                if(ia1 < lineStart + numLines) {
+                    buffer[offset1 + ir1] += wr*wa*v;
+                }
             }
-         }
-        } catch(Throwable e) {
-            OperatorUtils.catchOperatorException(getId(), e);
         }
     }
 
@@ -860,49 +1086,9 @@ public final class SARSimulationOp extends Operator {
         return true;
     }
 
-    private static void saveSimulatedData(final double azimuthIndex, final double rangeIndex, double v,
-                                          final int x0, final int y0, final int w, final int h, final Tile targetTile,
-                                          final ProductData masterBuffer) {
-        final int ia0 = (int)(azimuthIndex);
-        final int ia1 = ia0 + 1;
-        final int ir0 = (int)(rangeIndex);
-        final int ir1 = ir0 + 1;
-
-        final double wr = rangeIndex - ir0;
-        final double wa = azimuthIndex - ia0;
-        final double wac = 1 - wa;
-
-        if (ir0 >= x0) {
-            final double wrc = 1 - wr;
-            if(ia0 >= y0) {
-                final int idx00 = targetTile.getDataBufferIndex(ir0, ia0);
-                masterBuffer.setElemDoubleAt(idx00, wrc*wac*v + masterBuffer.getElemDoubleAt(idx00));
-              //  masterBuffer.setElemDoubleAt(idx00, 0.25*v + masterBuffer.getElemDoubleAt(idx00));
-            }
-            if(ia1 < y0+h) {
-                final int idx10 = targetTile.getDataBufferIndex(ir0, ia1);
-                masterBuffer.setElemDoubleAt(idx10, wrc*wa*v + masterBuffer.getElemDoubleAt(idx10));
-            //    masterBuffer.setElemDoubleAt(idx10, 0.25*v + masterBuffer.getElemDoubleAt(idx10));
-            }
-        }
-        if (ir1 < x0+w) {
-            if(ia0 >= y0) {
-                final int idx01 = targetTile.getDataBufferIndex(ir1, ia0);
-                masterBuffer.setElemDoubleAt(idx01, wr*wac*v + masterBuffer.getElemDoubleAt(idx01));
-            //    masterBuffer.setElemDoubleAt(idx01, 0.25*v + masterBuffer.getElemDoubleAt(idx01));
-            }
-            if(ia1 < y0+h) {
-                final int idx11 = targetTile.getDataBufferIndex(ir1, ia1);
-                masterBuffer.setElemDoubleAt(idx11, wr*wa*v + masterBuffer.getElemDoubleAt(idx11));
-            //    masterBuffer.setElemDoubleAt(idx11, 0.25*v + masterBuffer.getElemDoubleAt(idx11));
-            }
-        }
-    }
-
     private void computeLayoverShadow(final boolean[] savePixel, final double[] slrs, final int[] index, final double[] elev,
-                                      final ProductData layoverShadowMaskBuffer) {
+                                      final byte[] layoverShadowMask) {
         final int length = savePixel.length;
-        try {
         if (nearRangeOnLeft) {
 
             // traverse from near range to far range to detect layover area
@@ -912,7 +1098,7 @@ public final class SARSimulationOp extends Operator {
                     if (slrs[i] > maxSlantRange) {
                         maxSlantRange = slrs[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i], 1);
+                        layoverShadowMask[index[i]] |= 1;
                     }
                 }
             }
@@ -924,7 +1110,7 @@ public final class SARSimulationOp extends Operator {
                     if (slrs[i] < minSlantRange) {
                         minSlantRange = slrs[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i], 1);
+                        layoverShadowMask[index[i]] |= 1;
                     }
                 }
             }
@@ -936,8 +1122,7 @@ public final class SARSimulationOp extends Operator {
                     if (elev[i] > maxElevAngle) {
                         maxElevAngle = elev[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i],
-                                2 + layoverShadowMaskBuffer.getElemIntAt(index[i]));
+                        layoverShadowMask[index[i]] |= 2;
                     }
                 }
             }
@@ -951,7 +1136,7 @@ public final class SARSimulationOp extends Operator {
                     if (slrs[i] > maxSlantRange) {
                         maxSlantRange = slrs[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i], 1);
+                        layoverShadowMask[index[i]] |= 1;
                     }
                 }
             }
@@ -963,7 +1148,7 @@ public final class SARSimulationOp extends Operator {
                     if (slrs[i] < minSlantRange) {
                         minSlantRange = slrs[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i], 1);
+                        layoverShadowMask[index[i]] |= 1;
                     }
                 }
             }
@@ -975,15 +1160,11 @@ public final class SARSimulationOp extends Operator {
                     if (elev[i] > maxElevAngle) {
                         maxElevAngle = elev[i];
                     } else {
-                        layoverShadowMaskBuffer.setElemIntAt(index[i],
-                                2 + layoverShadowMaskBuffer.getElemIntAt(index[i]));
+                        layoverShadowMask[index[i]] |= 2;
                     }
                 }
             }
         }
-        } catch(Exception e) {
-            e.printStackTrace();
-        }
     }
 
     /**
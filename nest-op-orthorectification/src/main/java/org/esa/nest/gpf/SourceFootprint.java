@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.gpf;
+
+import org.esa.beam.framework.dataop.resamp.Resampling;
+
+import java.awt.*;
+
+/**
+ * The source rectangles needed to resample the pixels of a target tile in a backward geocoding operator.
+ *
+ * The source positions of the target pixels are added first, then the source tiles are fetched once for each
+ * rectangle. The target tile is divided into blocks of pixels. Normally a single rectangle covers the
+ * positions of all blocks. If the footprint is sparse, e.g. in steep terrain or at the swath edges, each
+ * block gets its own rectangle, so that the source pixels between them are not read.
+ */
+final class SourceFootprint {
+
+    private static final int NUM_BLOCKS = 4;      // blocks per tile dimension
+    private static final double MAX_SPARSENESS = 2.0; // max ratio of the bounding rectangle to the block rectangles
+
+    private final Rectangle targetRectangle;
+    private final int sourceImageWidth;
+    private final int sourceImageHeight;
+    private final int margin;
+    private final int blockWidth;
+    private final int blockHeight;
+
+    private final int[] minX = new int[NUM_BLOCKS * NUM_BLOCKS];
+    private final int[] maxX = new int[NUM_BLOCKS * NUM_BLOCKS];
+    private final int[] minY = new int[NUM_BLOCKS * NUM_BLOCKS];
+    private final int[] maxY = new int[NUM_BLOCKS * NUM_BLOCKS];
+
+    private Rectangle[] rectangles = null;
+    private int[] blockRectangle = null;
+
+    /**
+     * @param targetRectangle The target tile rectangle.
+     * @param sourceImageWidth The source image width.
+     * @param sourceImageHeight The source image height.
+     * @param imgResampling The image resampling method.
+     */
+    SourceFootprint(final Rectangle targetRectangle, final int sourceImageWidth, final int sourceImageHeight,
+                    final Resampling imgResampling) {
+        this(targetRectangle, sourceImageWidth, sourceImageHeight, getMargin(imgResampling));
+    }
+
+    /**
+     * @param targetRectangle The target tile rectangle.
+     * @param sourceImageWidth The source image width.
+     * @param sourceImageHeight The source image height.
+     * @param margin The number of source pixels needed around each source position.
+     */
+    SourceFootprint(final Rectangle targetRectangle, final int sourceImageWidth, final int sourceImageHeight,
+                    final int margin) {
+        this.targetRectangle = targetRectangle;
+        this.sourceImageWidth = sourceImageWidth;
+        this.sourceImageHeight = sourceImageHeight;
+        this.margin = margin;
+        blockWidth = (targetRectangle.width + NUM_BLOCKS - 1) / NUM_BLOCKS;
+        blockHeight = (targetRectangle.height + NUM_BLOCKS - 1) / NUM_BLOCKS;
+        for (int b = 0; b < minX.length; b++) {
+            minX[b] = Integer.MAX_VALUE;
+            minY[b] = Integer.MAX_VALUE;
+            maxX[b] = Integer.MIN_VALUE;
+            maxY[b] = Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Get the number of source pixels around a source position used by the image resampling method.
+     * The resampling index of a position is computed at (rangeIndex + 0.5, azimuthIndex + 0.5).
+     * @param imgResampling The image resampling method.
+     * @return The margin in pixels.
+     */
+    static int getMargin(final Resampling imgResampling) {
+        if (imgResampling == Resampling.NEAREST_NEIGHBOUR || imgResampling == Resampling.BILINEAR_INTERPOLATION) {
+            return 1;
+        } else if (imgResampling == Resampling.CUBIC_CONVOLUTION || imgResampling == Resampling.BICUBIC_INTERPOLATION ||
+                   imgResampling == Resampling.BISINC_INTERPOLATION) {
+            return 3;
+        }
+        throw new IllegalArgumentException("Unhandled interpolation method");
+    }
+
+    /**
+     * Add the source position of a target pixel.
+     * @param x The x coordinate of the target pixel.
+     * @param y The y coordinate of the target pixel.
+     * @param rangeIndex The range index of the pixel in the source image.
+     * @param azimuthIndex The azimuth index of the pixel in the source image.
+     */
+    void add(final int x, final int y, final double rangeIndex, final double azimuthIndex) {
+        final int b = getBlock(x, y);
+        final int sx = (int)rangeIndex;
+        final int sy = (int)azimuthIndex;
+        if (sx < minX[b]) minX[b] = sx;
+        if (sx > maxX[b]) maxX[b] = sx;
+        if (sy < minY[b]) minY[b] = sy;
+        if (sy > maxY[b]) maxY[b] = sy;
+        rectangles = null;
+    }
+
+    /**
+     * @return The source rectangles, empty if no source position has been added.
+     */
+    Rectangle[] getRectangles() {
+        if (rectangles == null) {
+            computeRectangles();
+        }
+        return rectangles;
+    }
+
+    /**
+     * Get the source rectangle covering the resampling window of a target pixel added before.
+     * @param x The x coordinate of the target pixel.
+     * @param y The y coordinate of the target pixel.
+     * @return The index of the rectangle in {@link #getRectangles()}.
+     */
+    int getRectangleIndex(final int x, final int y) {
+        if (rectangles == null) {
+            computeRectangles();
+        }
+        return blockRectangle[getBlock(x, y)];
+    }
+
+    private int getBlock(final int x, final int y) {
+        return ((y - targetRectangle.y) / blockHeight) * NUM_BLOCKS + (x - targetRectangle.x) / blockWidth;
+    }
+
+    private void computeRectangles() {
+        blockRectangle = new int[minX.length];
+        final Rectangle[] blockRectangles = new Rectangle[minX.length];
+        Rectangle bounds = null;
+        long blockArea = 0;
+        int numBlocks = 0;
+        for (int b = 0; b < minX.length; b++) {
+            blockRectangle[b] = -1;
+            if (minX[b] > maxX[b]) {
+                continue;
+            }
+            final int x0 = Math.max(0, minX[b] - margin);
+            final int y0 = Math.max(0, minY[b] - margin);
+            final int x1 = Math.min(sourceImageWidth - 1, maxX[b] + margin);
+            final int y1 = Math.min(sourceImageHeight - 1, maxY[b] + margin);
+            blockRectangles[b] = new Rectangle(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
+            bounds = bounds == null ? new Rectangle(blockRectangles[b]) : bounds.union(blockRectangles[b]);
+            blockArea += (long)blockRectangles[b].width * blockRectangles[b].height;
+            numBlocks++;
+        }
+
+        if (bounds == null) {
+            rectangles = new Rectangle[0];
+        } else if ((long)bounds.width * bounds.height <= MAX_SPARSENESS * blockArea) {
+            rectangles = new Rectangle[] {bounds};
+            for (int b = 0; b < minX.length; b++) {
+                if (blockRectangles[b] != null) {
+                    blockRectangle[b] = 0;
+                }
+            }
+        } else {
+            rectangles = new Rectangle[numBlocks];
+            int r = 0;
+            for (int b = 0; b < minX.length; b++) {
+                if (blockRectangles[b] != null) {
+                    rectangles[r] = blockRectangles[b];
+                    blockRectangle[b] = r++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.gpf;
+
+import junit.framework.TestCase;
+import org.esa.beam.framework.dataop.resamp.Resampling;
+
+import java.awt.*;
+
+/**
+ * Unit test for SourceFootprint.
+ */
+public class TestSourceFootprint extends TestCase {
+
+    private static final int SRC_WIDTH = 2000;
+    private static final int SRC_HEIGHT = 2000;
+
+    private final Rectangle targetRectangle = new Rectangle(100, 200, 40, 40);
+
+    public void testMargin() {
+        assertEquals(1, SourceFootprint.getMargin(Resampling.NEAREST_NEIGHBOUR));
+        assertEquals(1, SourceFootprint.getMargin(Resampling.BILINEAR_INTERPOLATION));
+        assertEquals(3, SourceFootprint.getMargin(Resampling.CUBIC_CONVOLUTION));
+        assertEquals(3, SourceFootprint.getMargin(Resampling.BICUBIC_INTERPOLATION));
+        assertEquals(3, SourceFootprint.getMargin(Resampling.BISINC_INTERPOLATION));
+    }
+
+    public void testEmpty() {
+        final SourceFootprint footprint = new SourceFootprint(targetRectangle, SRC_WIDTH, SRC_HEIGHT, 1);
+        assertEquals(0, footprint.getRectangles().length);
+    }
+
+    public void testDenseFootprintHasSingleRectangle() {
+        final SourceFootprint footprint =
+                new SourceFootprint(targetRectangle, SRC_WIDTH, SRC_HEIGHT, Resampling.BILINEAR_INTERPOLATION);
+        // a shifted and slightly stretched footprint
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; ++y) {
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; ++x) {
+                footprint.add(x, y, 1.1 * x + 50.5, y + 300.25);
+            }
+        }
+
+        final Rectangle[] rectangles = footprint.getRectangles();
+        assertEquals(1, rectangles.length);
+        assertEquals(new Rectangle(159, 499, 46, 42), rectangles[0]);
+        assertWindowsCovered(footprint, 1, 1.1, 50.5, 1.0, 300.25);
+    }
+
+    public void testSparseFootprintHasRectanglePerBlock() {
+        final SourceFootprint footprint =
+                new SourceFootprint(targetRectangle, SRC_WIDTH, SRC_HEIGHT, Resampling.BICUBIC_INTERPOLATION);
+        // the first and last block are projected far apart, e.g. across a layover
+        addBlock(footprint, 0, 0, 10.0, 20.0);
+        addBlock(footprint, 3, 3, 1500.0, 1600.0);
+
+        final Rectangle[] rectangles = footprint.getRectangles();
+        assertEquals(2, rectangles.length);
+        final Rectangle first = rectangles[footprint.getRectangleIndex(targetRectangle.x, targetRectangle.y)];
+        final Rectangle last = rectangles[footprint.getRectangleIndex(targetRectangle.x + targetRectangle.width - 1,
+                                                                      targetRectangle.y + targetRectangle.height - 1)];
+        assertNotSame(first, last);
+        assertFalse(first.intersects(last));
+        assertTrue(first.contains(10 - 3, 20 - 3));
+        assertTrue(last.contains(1500 + 9 + 3, 1600 + 9 + 3));
+    }
+
+    public void testRectanglesAreClippedToSourceImage() {
+        final SourceFootprint footprint = new SourceFootprint(targetRectangle, SRC_WIDTH, SRC_HEIGHT, 3);
+        footprint.add(targetRectangle.x, targetRectangle.y, 0.5, 0.5);
+        footprint.add(targetRectangle.x + 1, targetRectangle.y + 1, SRC_WIDTH - 0.5, SRC_HEIGHT - 0.5);
+
+        final Rectangle[] rectangles = footprint.getRectangles();
+        assertEquals(1, rectangles.length);
+        assertEquals(new Rectangle(0, 0, SRC_WIDTH, SRC_HEIGHT), rectangles[0]);
+    }
+
+    /**
+     * Add the pixels of a block of the 4x4 blocks of the target rectangle, projected to a 10x10 source area.
+     */
+    private void addBlock(final SourceFootprint footprint, final int blockX, final int blockY,
+                          final double rangeIndex, final double azimuthIndex) {
+        final int blockSize = targetRectangle.width / 4;
+        for (int j = 0; j < blockSize; ++j) {
+            for (int i = 0; i < blockSize; ++i) {
+                footprint.add(targetRectangle.x + blockX * blockSize + i, targetRectangle.y + blockY * blockSize + j,
+                              rangeIndex + i, azimuthIndex + j);
+            }
+        }
+    }
+
+    /**
+     * Check that the rectangle of each target pixel contains the resampling window of its source position.
+     * The source positions are rangeIndex = a*x + b and azimuthIndex = c*y + d.
+     */
+    private void assertWindowsCovered(final SourceFootprint footprint, final int margin,
+                                      final double a, final double b, final double c, final double d) {
+        final Rectangle[] rectangles = footprint.getRectangles();
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; ++y) {
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; ++x) {
+                final int sx = (int)(a * x + b);
+                final int sy = (int)(c * y + d);
+                final Rectangle rectangle = rectangles[footprint.getRectangleIndex(x, y)];
+                assertTrue(rectangle.contains(sx - margin, sy - margin));
+                assertTrue(rectangle.contains(sx + margin, sy + margin));
+            }
+        }
+    }
+}
@@ -83,6 +83,17 @@ public final class OrbitalDataRecordReader {
         return false;
     }
 
+    /**
+     * Close the orbit file. The parsed records remain available.
+     * @throws IOException if the file can't be closed
+     */
+    public void close() throws IOException {
+        if(in != null) {
+            in.close();
+            in = null;
+        }
+    }
+
     boolean OpenOrbitFile(String path) {
 
         try {
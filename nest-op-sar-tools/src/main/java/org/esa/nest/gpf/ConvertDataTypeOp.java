@@ -39,7 +39,8 @@ import org.esa.beam.util.math.Range;
         category = "Utilities\\Data Conversion",
         authors = "Jun Lu, Luis Veci",
         copyright = "Copyright (C) 2013 by Array Systems Computing Inc.",
-        description="Convert product data type")
+        description="Convert product data type",
+        pointWise=true)
 public class ConvertDataTypeOp extends Operator {
 
     @SourceProduct(alias="source")
@@ -16,6 +16,7 @@
 package org.esa.nest.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
+import com.bc.ceres.core.SubProgressMonitor;
 import org.esa.beam.framework.datamodel.Band;
 import org.esa.beam.framework.datamodel.Product;
 import org.esa.beam.framework.datamodel.ProductData;
@@ -23,10 +24,14 @@ import org.esa.beam.framework.gpf.Operator;
 import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.aggregation.ComplexAccumulator;
+import org.esa.beam.framework.gpf.aggregation.MomentsAccumulator;
+import org.esa.beam.framework.gpf.aggregation.TileAggregator;
 import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
 import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
 import org.esa.beam.util.ProductUtils;
+import org.esa.nest.datamodel.Unit;
 import org.esa.nest.util.ResourceUtils;
 
 import java.awt.*;
@@ -68,9 +73,8 @@ public class DataAnalysisOp extends Operator {
     private final boolean writeToFile = true;
 
     private boolean statsCalculated = false;
-    private boolean sampleTypeIsComplex;
     private int numOfBands;
-    private int numOfPixels; // total number of pixel values
+    private long[] numOfPixels; // total number of pixel values for each band
     private double[] min;    // min of all pixel values for each band
     private double[] max;    // max of all pixel values for each band
     private double[] sum;    // summation of all pixel values for each band
@@ -83,6 +87,12 @@ public class DataAnalysisOp extends Operator {
 
     private final HashMap<String, Integer> statisticsBandIndex = new HashMap<String, Integer>();
 
+    // per tile partial statistics, merged once all tiles are done
+    private final HashMap<String, TileAggregator<MomentsAccumulator>> realAggregators =
+            new HashMap<String, TileAggregator<MomentsAccumulator>>();
+    private final HashMap<String, TileAggregator<ComplexAccumulator>> complexAggregators =
+            new HashMap<String, TileAggregator<ComplexAccumulator>>();
+
 
     /**
      * Default constructor. The graph processing framework
@@ -107,15 +117,14 @@ public class DataAnalysisOp extends Operator {
     @Override
     public void initialize() throws OperatorException {
         try {
-            //final MetadataElement abs = OperatorUtils.getAbstractedMetadata(sourceProduct);
-            //sampleTypeIsComplex = abs.getAttributeString("sample_type").contains("COMPLEX");
-
             getNumOfBandsForStatistics();
 
             setInitialValues();
 
             createTargetProduct();
 
+            createAggregators();
+
         } catch(Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
         }
@@ -123,16 +132,79 @@ public class DataAnalysisOp extends Operator {
 
     /**
      * Get the number of bands for which statistics are computed.
+     * For complex data the statistics of the intensity are computed for the i band and the q band is skipped.
      */
     void getNumOfBandsForStatistics() {
 
         numOfBands = 0;
         for(Band band : sourceProduct.getBands()) {
+            if(isQBand(band))
+                continue;
             statisticsBandIndex.put(band.getName(), numOfBands);
             numOfBands++;
         }
     }
 
+    private Band getQBand(final Band band) {
+        if(!Unit.REAL.equals(band.getUnit()))
+            return null;
+        final int index = sourceProduct.getBandIndex(band.getName());
+        if(index + 1 < sourceProduct.getNumBands()) {
+            final Band nextBand = sourceProduct.getBandAt(index + 1);
+            if(Unit.IMAGINARY.equals(nextBand.getUnit()))
+                return nextBand;
+        }
+        return null;
+    }
+
+    private boolean isQBand(final Band band) {
+        if(!Unit.IMAGINARY.equals(band.getUnit()))
+            return false;
+        final int index = sourceProduct.getBandIndex(band.getName());
+        return index > 0 && getQBand(sourceProduct.getBandAt(index - 1)) == band;
+    }
+
+    private void createAggregators() {
+        for(String bandName : statisticsBandIndex.keySet()) {
+            final Band iBand = sourceProduct.getBand(bandName);
+            final Band qBand = getQBand(iBand);
+            if(qBand != null) {
+                complexAggregators.put(bandName, new TileAggregator<ComplexAccumulator>(targetProduct) {
+                    @Override
+                    protected ComplexAccumulator createAccumulator() {
+                        return new ComplexAccumulator();
+                    }
+
+                    @Override
+                    protected void accumulate(final ComplexAccumulator accumulator, final Rectangle rectangle) {
+                        addComplexSamples(accumulator, getSourceTile(iBand, rectangle).getRawSamples(),
+                                          getSourceTile(qBand, rectangle).getRawSamples());
+                    }
+                });
+            } else {
+                realAggregators.put(bandName, new TileAggregator<MomentsAccumulator>(targetProduct) {
+                    @Override
+                    protected MomentsAccumulator createAccumulator() {
+                        return new MomentsAccumulator();
+                    }
+
+                    @Override
+                    protected void accumulate(final MomentsAccumulator accumulator, final Rectangle rectangle) {
+                        accumulator.add(getSourceTile(iBand, rectangle).getRawSamples());
+                    }
+                });
+            }
+        }
+    }
+
+    private static void addComplexSamples(final ComplexAccumulator accumulator,
+                                          final ProductData iSamples, final ProductData qSamples) {
+        final int n = iSamples.getNumElems();
+        for (int i = 0; i < n; i++) {
+            accumulator.add(iSamples.getElemDoubleAt(i), qSamples.getElemDoubleAt(i));
+        }
+    }
+
     /**
      * Set initial values to some internal variables.
      */
@@ -147,15 +219,7 @@ public class DataAnalysisOp extends Operator {
         sum = new double[numOfBands];
         sum2 = new double[numOfBands];
         sum4 = new double[numOfBands];
-        for (int i = 0; i < numOfBands; i++) {
-            min[i] = Double.MAX_VALUE;
-            max[i] = 0.0;
-            sum[i] = 0.0;
-            sum2[i] = 0.0;
-            sum4[i] = 0.0;
-        }
-
-        numOfPixels = sourceProduct.getSceneRasterWidth() * sourceProduct.getSceneRasterHeight();
+        numOfPixels = new long[numOfBands];
     }
 
     /**
@@ -199,32 +263,47 @@ public class DataAnalysisOp extends Operator {
      */
     void computeStatistics(Band targetBand, Tile targetTile, Rectangle targetTileRectangle) {
 
-        final Band sourceBand1 = sourceProduct.getBand(targetBand.getName());
+        final String bandName = targetBand.getName();
+        final Band sourceBand1 = sourceProduct.getBand(bandName);
         final Tile sourceRaster1 = getSourceTile(sourceBand1, targetTileRectangle);
         final ProductData rawSamples1 = sourceRaster1.getRawSamples();
 
-        final int idx = statisticsBandIndex.get(targetBand.getName());
-        final int n = rawSamples1.getNumElems();
-        double v, v2;
-        for (int i = 0; i < n; i++) {
-
-            if(sampleTypeIsComplex) {
-                // todo
-            }
-            v = rawSamples1.getElemDoubleAt(i);
-            if(v > max[idx])
-                max[idx] = v;
-            if(v < min[idx])
-                min[idx] = v;
-            v2 = v*v;
-            sum[idx] += v;
-            sum2[idx] += v2;
-            sum4[idx] += v2*v2;
+        // the source tile fetched for the copy is accumulated directly
+        if(realAggregators.containsKey(bandName)) {
+            final MomentsAccumulator accumulator = new MomentsAccumulator();
+            accumulator.add(rawSamples1);
+            realAggregators.get(bandName).putTile(targetTileRectangle, accumulator);
+            statsCalculated = true;
+        } else if(complexAggregators.containsKey(bandName)) {
+            final ComplexAccumulator accumulator = new ComplexAccumulator();
+            addComplexSamples(accumulator, rawSamples1,
+                              getSourceTile(getQBand(sourceBand1), targetTileRectangle).getRawSamples());
+            complexAggregators.get(bandName).putTile(targetTileRectangle, accumulator);
+            statsCalculated = true;
         }
 
         // copy source data to target
         targetTile.setRawSamples(rawSamples1);
+    }
 
+    /**
+     * Compute the statistics of the whole image. Tiles not yet computed are read in parallel.
+     * @param pm a progress monitor
+     */
+    public void computeStatistics(final ProgressMonitor pm) {
+        pm.beginTask("Computing statistics...", numOfBands);
+        try {
+            for (String bandName : statisticsBandIndex.keySet()) {
+                final int bandIdx = statisticsBandIndex.get(bandName);
+                if(realAggregators.containsKey(bandName)) {
+                    setMoments(bandIdx, realAggregators.get(bandName).aggregate(SubProgressMonitor.create(pm, 1)));
+                } else {
+                    setMoments(bandIdx, complexAggregators.get(bandName).aggregate(SubProgressMonitor.create(pm, 1)).getIntensity());
+                }
+            }
+        } finally {
+            pm.done();
+        }
         statsCalculated = true;
     }
 
@@ -238,25 +317,32 @@ public class DataAnalysisOp extends Operator {
             return;
         }
 
-        completeStatistics();
+        for (String bandName : statisticsBandIndex.keySet()) {
+            final int bandIdx = statisticsBandIndex.get(bandName);
+            if(realAggregators.containsKey(bandName)) {
+                setMoments(bandIdx, realAggregators.get(bandName).getResult());
+            } else {
+                setMoments(bandIdx, complexAggregators.get(bandName).getResult().getIntensity());
+            }
+        }
 
         if(writeToFile)
             writeStatsToFile();
     }
 
-    private void completeStatistics() {
-        for (String bandName : statisticsBandIndex.keySet())  {
-
-                final int bandIdx = statisticsBandIndex.get(bandName);
-                final double m = sum[bandIdx] / numOfPixels;
-                final double m2 = sum2[bandIdx] / numOfPixels;
-                final double m4 = sum4[bandIdx] / numOfPixels;
-
-                mean[bandIdx] = m;
-                std[bandIdx] = Math.sqrt(m2 - m*m);
-                coefVar[bandIdx] = Math.sqrt(m4 - m2*m2) / m2;
-                enl[bandIdx] = m2*m2 / (m4 - m2*m2);
-        }
+    private void setMoments(final int bandIdx, final MomentsAccumulator moments) {
+        numOfPixels[bandIdx] = moments.getCount();
+        min[bandIdx] = moments.getMin();
+        max[bandIdx] = moments.getMax();
+        sum[bandIdx] = moments.getSum();
+        sum2[bandIdx] = moments.getSum2();
+        sum4[bandIdx] = moments.getSum4();
+        mean[bandIdx] = moments.getMean();
+        std[bandIdx] = moments.getStandardDeviation();
+        final double m2 = moments.getMeanOfSquares();
+        final double variance2 = moments.getVarianceOfSquares();
+        coefVar[bandIdx] = Math.sqrt(variance2) / m2;
+        enl[bandIdx] = m2*m2 / variance2;
     }
 
     private void writeStatsToFile() {
@@ -279,7 +365,7 @@ public class DataAnalysisOp extends Operator {
 
                 p.println();
                 p.println("Band: " + bandName);
-                p.format("Total pixels = %d", numOfPixels);
+                p.format("Total pixels = %d", numOfPixels[bandIdx]);
                 p.println();
                 p.format("Min = %8.3f", min[bandIdx]);
                 p.println();
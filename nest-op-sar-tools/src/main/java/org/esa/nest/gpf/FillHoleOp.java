@@ -17,7 +17,6 @@ package org.esa.nest.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.beam.framework.datamodel.Band;
-import org.esa.beam.framework.datamodel.PixelPos;
 import org.esa.beam.framework.datamodel.Product;
 import org.esa.beam.framework.datamodel.ProductData;
 import org.esa.beam.framework.gpf.Operator;
@@ -28,12 +27,21 @@ import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
 import org.esa.beam.framework.gpf.annotations.Parameter;
 import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
-import org.esa.nest.util.MathUtils;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Fill hole pixels in source product with linear interpolations in both x and y directions.
+ * Fill hole pixels in source product by push-pull interpolation.
+ *
+ * The valid pixels are averaged into an image pyramid (push) and the holes are filled from the
+ * bilinearly interpolated coarser levels (pull), so holes of any size are filled in a single pass.
+ * The coarse levels are computed once per band for the whole image. Each tile computes the finer
+ * levels from a source rectangle aligned to the blocks of the coarse level, so the results are
+ * the same as for the whole image and seamless across tiles.
  */
 
 @OperatorMetadata(alias="Fill-Hole",
@@ -58,7 +66,13 @@ public final class FillHoleOp extends Operator {
     private int sourceImageWidth;
     private int sourceImageHeight;
 
-    private enum Direction { UP, DOWN, LEFT, RIGHT }
+    // coarse levels computed for the whole image are at most this size
+    private static final int MAX_COARSE_SIZE = 1024;
+    private static final int CHUNK_SIZE = 512;
+
+    private int coarseLevel;    // the pyramid level computed for the whole image
+    private int blockSize;      // size of a coarse level pixel in source pixels
+    private final Map<String, CoarseLevel> coarseLevels = new HashMap<String, CoarseLevel>(10);
 
     /**
      * Initializes this operator and sets the one and only target product.
@@ -92,6 +106,12 @@ public final class FillHoleOp extends Operator {
     private void getSourceImageDimension() {
         sourceImageWidth = sourceProduct.getSceneRasterWidth();
         sourceImageHeight = sourceProduct.getSceneRasterHeight();
+
+        coarseLevel = 0;
+        while((sourceImageWidth >> coarseLevel) > MAX_COARSE_SIZE || (sourceImageHeight >> coarseLevel) > MAX_COARSE_SIZE) {
+            ++coarseLevel;
+        }
+        blockSize = 1 << coarseLevel;
     }
 
     /**
@@ -150,20 +170,37 @@ public final class FillHoleOp extends Operator {
             final int h  = targetTileRectangle.height;
             //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
-            final Rectangle sourceTileRectangle = getSourceRectangle(x0, y0, w, h);
             final Band sourceBand = sourceProduct.getBand(targetBand.getName());
+            final CoarseLevel coarse = getCoarseLevel(sourceBand);
+
+            final Rectangle sourceTileRectangle = getSourceRectangle(x0, y0, w, h);
             final Tile sourceTile = getSourceTile(sourceBand, sourceTileRectangle);
             final ProductData srcData = sourceTile.getDataBuffer();
             final ProductData trgData = targetTile.getDataBuffer();
 
+            // fill from the coarse level down to the source resolution
+            Level fineLevel = coarse.level;
+            float[] filled = coarse.filled;
+            if(!coarse.isEmpty && coarseLevel > 0) {
+                final Level[] levels = new Level[coarseLevel];
+                levels[0] = readLevel(sourceTile, sourceTileRectangle);
+                for(int k = 1; k < coarseLevel; ++k) {
+                    levels[k] = push(levels[k-1]);
+                }
+                for(int k = coarseLevel - 1; k >= 0; --k) {
+                    filled = pull(levels[k], fineLevel, filled);
+                    fineLevel = levels[k];
+                }
+            }
+
             final int maxY = y0 + h;
             final int maxX = x0 + w;
             double v;
             for (int y = y0; y < maxY; ++y) {
                 for (int x = x0; x < maxX; ++x) {
                     v = srcData.getElemDoubleAt(sourceTile.getDataBufferIndex(x, y));
-                    if (v == NoDataValue) {
-                        v = getPixelValueByInterpolation(x, y, srcData, sourceTile);
+                    if (v == NoDataValue && !coarse.isEmpty) {
+                        v = filled[(y - fineLevel.y0) * fineLevel.width + (x - fineLevel.x0)];
                     }
                     trgData.setElemDoubleAt(targetTile.getDataBufferIndex(x, y), v);
                 }
@@ -177,6 +214,7 @@ public final class FillHoleOp extends Operator {
 
     /**
      * Get source tile rectangle.
+     * The target rectangle is extended to the coarse level blocks plus one block in all directions.
      * @param tx0 X coordinate for the upper left corner pixel in the target tile.
      * @param ty0 Y coordinate for the upper left corner pixel in the target tile.
      * @param tw The target tile width.
@@ -184,127 +222,187 @@ public final class FillHoleOp extends Operator {
      * @return The source tile rectangle.
      */
     private Rectangle getSourceRectangle(final int tx0, final int ty0, final int tw, final int th) {
-        // extend target rectangle by 20% to all directions
-        final int x0 = Math.max(0, tx0 - tw/5);
-        final int y0 = Math.max(0, ty0 - th/5);
-        final int xMax = Math.min(tx0 + tw - 1 + tw/5, sourceImageWidth);
-        final int yMax = Math.min(ty0 + th - 1 + th/5, sourceImageHeight);
-        final int w = xMax - x0 + 1;
-        final int h = yMax - y0 + 1;
-        return new Rectangle(x0, y0, w, h);
+        final int x0 = Math.max(0, (tx0 / blockSize - 1) * blockSize);
+        final int y0 = Math.max(0, (ty0 / blockSize - 1) * blockSize);
+        final int xMax = Math.min(((tx0 + tw + blockSize - 1) / blockSize + 1) * blockSize, sourceImageWidth);
+        final int yMax = Math.min(((ty0 + th + blockSize - 1) / blockSize + 1) * blockSize, sourceImageHeight);
+        return new Rectangle(x0, y0, xMax - x0, yMax - y0);
     }
 
     /**
-     * Compute pixel value using linear interpolations in both x and y direction.
-     * @param x The X coordinate of the given pixel.
-     * @param y The Y coordinate of the given pixel.
-     * @param srcData The source data.
-     * @param srcTile The source tile.
-     * @return The interpolated pixel value.
+     * Get the filled coarse level of a band. It is computed once for the whole image.
+     * @param sourceBand The source band.
+     * @return The coarse level.
      */
-    private double getPixelValueByInterpolation(
-            final int x, final int y, final ProductData srcData, final Tile srcTile) {
-
-        final PixelPos pixelUp = new PixelPos(x, y);
-        final PixelPos pixelDown = new PixelPos(x, y);
-        final PixelPos pixelLeft = new PixelPos(x, y);
-        final PixelPos pixelRight = new PixelPos(x, y);
-
-        final double vUp = getNearestNonHolePixelPosition(x, y, srcData, srcTile, pixelUp, Direction.UP);
-        final double vDown = getNearestNonHolePixelPosition(x, y, srcData, srcTile, pixelDown, Direction.DOWN);
-        final double vLeft = getNearestNonHolePixelPosition(x, y, srcData, srcTile, pixelLeft, Direction.LEFT);
-        final double vRight = getNearestNonHolePixelPosition(x, y, srcData, srcTile, pixelRight, Direction.RIGHT);
-
-        double v1 = NoDataValue;
-        if (vUp != NoDataValue && vDown != NoDataValue) {
-            final double mu = (y - pixelUp.y) / (pixelDown.y - pixelUp.y);
-            v1 = MathUtils.interpolationLinear(vUp, vDown, mu);
+    private synchronized CoarseLevel getCoarseLevel(final Band sourceBand) {
+        CoarseLevel coarse = coarseLevels.get(sourceBand.getName());
+        if(coarse != null)
+            return coarse;
+
+        // push the whole image to the coarse level in chunks aligned to the coarse blocks
+        final int chunkSize = Math.max(1, CHUNK_SIZE / blockSize) * blockSize;
+        final Level level = new Level(0, 0, (sourceImageWidth + blockSize - 1) >> coarseLevel,
+                                      (sourceImageHeight + blockSize - 1) >> coarseLevel);
+        for(int y = 0; y < sourceImageHeight; y += chunkSize) {
+            for(int x = 0; x < sourceImageWidth; x += chunkSize) {
+                final Rectangle rect = new Rectangle(x, y, Math.min(chunkSize, sourceImageWidth - x),
+                                                     Math.min(chunkSize, sourceImageHeight - y));
+                Level chunk = readLevel(getSourceTile(sourceBand, rect), rect);
+                for(int k = 0; k < coarseLevel; ++k) {
+                    chunk = push(chunk);
+                }
+                for(int j = 0; j < chunk.height; ++j) {
+                    final int srcIdx = j * chunk.width;
+                    final int dstIdx = (chunk.y0 + j) * level.width + chunk.x0;
+                    System.arraycopy(chunk.values, srcIdx, level.values, dstIdx, chunk.width);
+                    System.arraycopy(chunk.weights, srcIdx, level.weights, dstIdx, chunk.width);
+                }
+            }
+            checkForCancellation();
         }
 
-        double v2 = NoDataValue;
-        if (vLeft != NoDataValue && vRight != NoDataValue) {
-            final double mu = (x - pixelLeft.x) / (pixelRight.x - pixelLeft.x);
-            v2 = MathUtils.interpolationLinear(vLeft, vRight, mu);
+        // push to a single pixel and pull back down to the coarse level
+        Level top = level;
+        final List<Level> levels = new ArrayList<Level>();
+        while(top.width > 1 || top.height > 1) {
+            levels.add(top);
+            top = push(top);
         }
 
-        if (v1 != NoDataValue && v2 != NoDataValue) {
-            return(v1 + v2)/2.0;
-        } else if (v1 != NoDataValue) {
-            return v1;
-        } else if (v2 != NoDataValue) {
-            return v2;
-        } else {
-            return NoDataValue;
+        final boolean isEmpty = top.weights[0] == 0;
+        float[] filled = top.values;
+        Level coarser = top;
+        for(int k = levels.size() - 1; k >= 0; --k) {
+            filled = pull(levels.get(k), coarser, filled);
+            coarser = levels.get(k);
         }
+
+        coarse = new CoarseLevel(level, filled, isEmpty);
+        coarseLevels.put(sourceBand.getName(), coarse);
+        return coarse;
     }
 
     /**
-     * Get the position and value for the nearest non-hole pixel in a given direction.
-     * @param x The X coordinate of the given pixel.
-     * @param y The Y coordinate of the given pixel.
-     * @param srcData The source data.
+     * Read the source data into a pyramid level. Hole pixels get a weight of zero.
      * @param srcTile The source tile.
-     * @param pixel The pixel position.
-     * @param dir The direction enum which can be "up", "down", "left" and "right".
-     * @return The pixel value.
+     * @param rect The rectangle to read.
+     * @return The level.
      */
-    private double getNearestNonHolePixelPosition(final int x, final int y, final ProductData srcData,
-                                                  final Tile srcTile, final PixelPos pixel, final Direction dir) {
-
-        final Rectangle srcTileRectangle = srcTile.getRectangle();
-        final int x0 = srcTileRectangle.x;
-        final int y0 = srcTileRectangle.y;
-        final int w  = srcTileRectangle.width;
-        final int h  = srcTileRectangle.height;
-
-        double v = 0.0;
-        if (dir == Direction.UP) {
-
-            for (int yy = y; yy >= y0; yy--) {
-                v = srcData.getElemDoubleAt(srcTile.getDataBufferIndex(x, yy));
-                if (v != NoDataValue) {
-                    pixel.y = yy;
-                    return v;
+    private Level readLevel(final Tile srcTile, final Rectangle rect) {
+        final ProductData srcData = srcTile.getDataBuffer();
+        final Level level = new Level(rect.x, rect.y, rect.width, rect.height);
+        int i = 0;
+        for(int y = rect.y; y < rect.y + rect.height; ++y) {
+            for(int x = rect.x; x < rect.x + rect.width; ++x) {
+                final double v = srcData.getElemDoubleAt(srcTile.getDataBufferIndex(x, y));
+                if(v != NoDataValue) {
+                    level.values[i] = (float)v;
+                    level.weights[i] = 1;
                 }
+                ++i;
             }
+        }
+        return level;
+    }
 
-        } else if (dir == Direction.DOWN) {
-
-            for (int yy = y; yy < y0 + h; yy++) {
-                v = srcData.getElemDoubleAt(srcTile.getDataBufferIndex(x, yy));
-                if (v != NoDataValue) {
-                    pixel.y = yy;
-                    return v;
+    /**
+     * Compute the next coarser level as the weighted mean of each 2x2 block.
+     * @param fine The fine level. Its origin must be even.
+     * @return The coarse level.
+     */
+    private static Level push(final Level fine) {
+        final int cx0 = fine.x0 / 2;
+        final int cy0 = fine.y0 / 2;
+        final Level coarse = new Level(cx0, cy0, (fine.x0 + fine.width + 1) / 2 - cx0,
+                                       (fine.y0 + fine.height + 1) / 2 - cy0);
+        for(int j = 0; j < coarse.height; ++j) {
+            final int fy0 = 2 * (cy0 + j) - fine.y0;
+            for(int i = 0; i < coarse.width; ++i) {
+                final int fx0 = 2 * (cx0 + i) - fine.x0;
+                double sumW = 0, sumV = 0;
+                for(int fy = fy0; fy < fy0 + 2 && fy < fine.height; ++fy) {
+                    for(int fx = fx0; fx < fx0 + 2 && fx < fine.width; ++fx) {
+                        final int idx = fy * fine.width + fx;
+                        sumW += fine.weights[idx];
+                        sumV += fine.weights[idx] * fine.values[idx];
+                    }
                 }
-            }
-
-        } else if (dir == Direction.LEFT) {
-
-            for (int xx = x; xx >= x0; xx--) {
-                v = srcData.getElemDoubleAt(srcTile.getDataBufferIndex(xx, y));
-                if (v != NoDataValue) {
-                    pixel.x = xx;
-                    return v;
+                final int idx = j * coarse.width + i;
+                if(sumW > 0) {
+                    coarse.values[idx] = (float)(sumV / sumW);
+                    coarse.weights[idx] = (float)Math.min(1.0, sumW);
                 }
             }
+        }
+        return coarse;
+    }
 
-        } else if (dir == Direction.RIGHT) {
-
-            for (int xx = x; xx < x0 + w; xx++) {
-                v = srcData.getElemDoubleAt(srcTile.getDataBufferIndex(xx, y));
-                if (v != NoDataValue) {
-                    pixel.x = xx;
-                    return v;
+    /**
+     * Fill a level from the bilinear interpolation of the filled next coarser level.
+     * @param fine The fine level.
+     * @param coarse The coarse level.
+     * @param coarseFilled The filled values of the coarse level.
+     * @return The filled values of the fine level.
+     */
+    private static float[] pull(final Level fine, final Level coarse, final float[] coarseFilled) {
+        final float[] filled = new float[fine.values.length];
+        final int cxMax = coarse.width - 1;
+        final int cyMax = coarse.height - 1;
+        for(int j = 0; j < fine.height; ++j) {
+            final double cy = (fine.y0 + j) / 2.0 - 0.25 - coarse.y0;
+            final int cy0 = (int)Math.floor(cy);
+            final double wy = cy - cy0;
+            final int r0 = Math.max(0, Math.min(cyMax, cy0)) * coarse.width;
+            final int r1 = Math.max(0, Math.min(cyMax, cy0 + 1)) * coarse.width;
+            for(int i = 0; i < fine.width; ++i) {
+                final int idx = j * fine.width + i;
+                final double w = fine.weights[idx];
+                if(w >= 1) {
+                    filled[idx] = fine.values[idx];
+                    continue;
                 }
+                final double cx = (fine.x0 + i) / 2.0 - 0.25 - coarse.x0;
+                final int cx0 = (int)Math.floor(cx);
+                final double wx = cx - cx0;
+                final int c0 = Math.max(0, Math.min(cxMax, cx0));
+                final int c1 = Math.max(0, Math.min(cxMax, cx0 + 1));
+                final double v = (1 - wy) * ((1 - wx) * coarseFilled[r0 + c0] + wx * coarseFilled[r0 + c1]) +
+                                 wy * ((1 - wx) * coarseFilled[r1 + c0] + wx * coarseFilled[r1 + c1]);
+                filled[idx] = (float)(w * fine.values[idx] + (1 - w) * v);
             }
-
-        } else {
-            throw new OperatorException("Invalid direction");
         }
+        return filled;
+    }
 
-        return NoDataValue;
+    /**
+     * A level of the pyramid with its origin in level coordinates.
+     */
+    private static final class Level {
+        final int x0, y0, width, height;
+        final float[] values;
+        final float[] weights;
+
+        Level(final int x0, final int y0, final int width, final int height) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.height = height;
+            this.values = new float[width * height];
+            this.weights = new float[width * height];
+        }
     }
 
+    private static final class CoarseLevel {
+        final Level level;
+        final float[] filled;
+        final boolean isEmpty;
+
+        CoarseLevel(final Level level, final float[] filled, final boolean isEmpty) {
+            this.level = level;
+            this.filled = filled;
+            this.isEmpty = isEmpty;
+        }
+    }
 
     /**
      * The SPI is used to register this operator in the graph processing framework
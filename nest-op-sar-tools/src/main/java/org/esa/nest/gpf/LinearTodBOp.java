@@ -42,7 +42,8 @@ import java.util.HashMap;
         category = "Utilities\\Data Conversion",
         authors = "Jun Lu, Luis Veci",
         copyright = "Copyright (C) 2013 by Array Systems Computing Inc.",
-        description="Converts bands to dB")
+        description="Converts bands to dB",
+        pointWise=true)
 public final class LinearTodBOp extends Operator {
 
     @SourceProduct(alias="source")
@@ -32,6 +32,7 @@ import org.esa.nest.datamodel.Unit;
 import org.esa.nest.eo.Constants;
 
 import java.awt.*;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -181,48 +182,35 @@ public final class MultilookOp extends Operator {
                 }
             }
 
-            final ProductData trgData = targetTile.getDataBuffer();
-
-            final ProductData srcData1 = sourceRaster1.getDataBuffer();
-            final ProductData srcData2 = sourceRaster2 != null ? sourceRaster2.getDataBuffer() : null;
-
-            final TileIndex trgIndex = new TileIndex(targetTile);
-            final TileIndex srcIndex = new TileIndex(sourceRaster1);
-
             final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
             final boolean isdB = bandUnit == Unit.UnitType.INTENSITY_DB || bandUnit == Unit.UnitType.AMPLITUDE_DB;
             final boolean isComplex = outputIntensity && (bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY);
 
-            double meanValue;
-            int offset;
             final int maxy = ty0 + th;
-            final int maxx = tx0 + tw;
-            if(nRgLooks == 1 && nAzLooks == 1) {
+            if(nRgLooks == 1 && nAzLooks == 1 && !isComplex &&
+               targetTile.getDataBuffer().getType() == sourceRaster1.getDataBuffer().getType()) {
                 //no mean
-                if(!isComplex && targetTile.getDataBuffer().getType() == sourceRaster1.getDataBuffer().getType()) {
-                    targetTile.setRawSamples(sourceRaster1.getRawSamples());
-                } else {
-                    for (int ty = ty0; ty < maxy; ty++) {
-                        offset = trgIndex.calculateStride(ty);
-                        for (int tx = tx0; tx < maxx; tx++) {
-                            final int index = tx - offset;
-                            final double i = srcData1.getElemDoubleAt(index);
-                            if(srcData2 != null) {
-                                final double q = srcData2.getElemDoubleAt(index);
-                                trgData.setElemDoubleAt(index, i*i + q*q);
-                            } else {
-                                trgData.setElemDoubleAt(index, i);
-                            }
-                        }
-                    }
-                }
+                targetTile.setRawSamples(sourceRaster1.getRawSamples());
             } else {
+                final double[] trgRow = new double[tw];
+                double[] srcRow1 = null, srcRow2 = null;
                 for (int ty = ty0; ty < maxy; ty++) {
-                    trgIndex.calculateStride(ty);
-                    for (int tx = tx0; tx < maxx; tx++) {
-                        meanValue = getMeanValue(tx, ty, srcData1, srcData2, srcIndex, nRgLooks, nAzLooks, isdB, isComplex);
-                        trgData.setElemDoubleAt(trgIndex.getIndex(tx), meanValue);
+                    Arrays.fill(trgRow, 0.0);
+                    final int yStart = ty * nAzLooks;
+                    final int yEnd = yStart + nAzLooks;
+                    for (int y = yStart; y < yEnd; y++) {
+                        srcRow1 = sourceRaster1.getSamplesRow(y, srcRow1);
+                        if (isComplex) {
+                            srcRow2 = sourceRaster2.getSamplesRow(y, srcRow2);
+                        }
+                        addLooks(srcRow1, srcRow2, trgRow, tw, nRgLooks, isdB, isComplex);
                     }
+
+                    final double n = nRgLooks * nAzLooks;
+                    for (int tx = 0; tx < tw; tx++) {
+                        trgRow[tx] = isdB ? 10.0*Math.log10(trgRow[tx] / n) : trgRow[tx] / n; // linear to dB
+                    }
+                    targetTile.setSamplesRow(ty, trgRow);
                 }
             }
         } catch(Throwable e) {
@@ -363,60 +351,39 @@ public final class MultilookOp extends Operator {
     }
 
     /**
-     * Compute the mean value of pixels of the source image in the sliding window.
-     * @param tx The x coordinate of a pixel in the current target tile.
-     * @param ty The y coordinate of a pixel in the current target tile.
-     * @param srcData1 The product data for i band in case of complex product.
-     * @param srcData2 The product data for q band in case of complex product.
+     * Add the pixels of a source row to the sums of the looks of a target row.
+     * @param srcRow1 The pixel values of the source row, the i band in case of complex product.
+     * @param srcRow2 The pixel values of the q band in case of complex product.
+     * @param trgRow The sums of the looks of the target row.
+     * @param tw The target row width.
      * @param nRgLooks number of range looks
-     * @param nAzLooks number of azimuth looks
-     * @return The mean value.
+     * @param isdB True if the pixel values are in dB.
+     * @param isComplex True if the intensity of complex data is averaged.
      */
-    private static double getMeanValue(final int tx, final int ty,
-                                       final ProductData srcData1, final ProductData srcData2,
-                                       final TileIndex srcIndex,
-                                       final int nRgLooks, final int nAzLooks,
-                                       final boolean isdB, final boolean isComplex) {
-
-        final int xStart = tx * nRgLooks;
-        final int yStart = ty * nAzLooks;
-        final int xEnd = xStart + nRgLooks;
-        final int yEnd = yStart + nAzLooks;
-
-        double meanValue = 0.0;
-        int offset;
-        if (isdB) {
-            for (int y = yStart; y < yEnd; y++) {
-                offset = srcIndex.calculateStride(y);
+    private static void addLooks(final double[] srcRow1, final double[] srcRow2, final double[] trgRow,
+                                 final int tw, final int nRgLooks, final boolean isdB, final boolean isComplex) {
+
+        for (int tx = 0; tx < tw; tx++) {
+            final int xStart = tx * nRgLooks;
+            final int xEnd = xStart + nRgLooks;
+            double sum = 0.0;
+            if (isdB) {
                 for (int x = xStart; x < xEnd; x++) {
-                    meanValue += Math.pow(10, srcData1.getElemDoubleAt(x-offset) / 10.0); // dB to linear
+                    sum += Math.pow(10, srcRow1[x] / 10.0); // dB to linear
                 }
-            }
-
-            meanValue /= (nRgLooks * nAzLooks);
-            return 10.0*Math.log10(meanValue); // linear to dB
-        } else if (isComplex) { // COMPLEX
-            double i, q;
-            int index;
-            for (int y = yStart; y < yEnd; y++) {
-                offset = srcIndex.calculateStride(y);
+            } else if (isComplex) { // COMPLEX
                 for (int x = xStart; x < xEnd; x++) {
-                    index = x-offset;
-                    i = srcData1.getElemDoubleAt(index);
-                    q = srcData2.getElemDoubleAt(index);
-                    meanValue += i*i + q*q;
+                    final double i = srcRow1[x];
+                    final double q = srcRow2[x];
+                    sum += i*i + q*q;
                 }
-            }
-        } else {
-            for (int y = yStart; y < yEnd; y++) {
-                offset = srcIndex.calculateStride(y);
+            } else {
                 for (int x = xStart; x < xEnd; x++) {
-                    meanValue += srcData1.getElemDoubleAt(x-offset);
+                    sum += srcRow1[x];
                 }
             }
+            trgRow[tx] += sum;
         }
-
-        return meanValue / (nRgLooks * nAzLooks);
     }
 
     /**
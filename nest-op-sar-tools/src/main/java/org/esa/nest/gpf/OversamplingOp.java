@@ -34,6 +34,7 @@ import org.esa.nest.eo.Constants;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Oversample
@@ -98,6 +99,14 @@ public class OversamplingOp extends Operator {
     private static final String ENVISAT = "ENVISAT";
     private static final String OTHER = "OTHER";
 
+    private static final ConcurrentHashMap<Integer, DoubleFFT_1D> fftPlans = new ConcurrentHashMap<Integer, DoubleFFT_1D>();
+    private static final ThreadLocal<WorkBuffers> workBuffers = new ThreadLocal<WorkBuffers>() {
+        @Override
+        protected WorkBuffers initialValue() {
+            return new WorkBuffers();
+        }
+    };
+
     /**
      * Initializes this operator and sets the one and only target product.
      * <p>The target product can be either defined by a field of type {@link org.esa.beam.framework.datamodel.Product} annotated with the
@@ -514,16 +523,16 @@ public class OversamplingOp extends Operator {
                         throw new OperatorException("q band is missing from target product");
                     }
 
-                    computeOverSampledTileForComplexImage(targetBands[i].getName(),
-                                                          targetBands[i+1].getName(),
-                                                          targetTileMap.get(targetBands[i]),
-                                                          targetTileMap.get(targetBands[i+1]));
+                    computeOverSampledTile(sourceProduct.getBand(targetBands[i].getName()),
+                                           sourceProduct.getBand(targetBands[i+1].getName()),
+                                           targetTileMap.get(targetBands[i]),
+                                           targetTileMap.get(targetBands[i+1]));
                     i++;
 
                 } else {
 
-                    computeOverSampledTileForRealImage(targetBands[i].getName(),
-                                                       targetTileMap.get(targetBands[i]));
+                    computeOverSampledTile(sourceProduct.getBand(targetBands[i].getName()), null,
+                                           targetTileMap.get(targetBands[i]), null);
                 }
 
             }
@@ -535,11 +544,25 @@ public class OversamplingOp extends Operator {
         }
     }
 
-    private void computeOverSampledTileForRealImage(String targetBandName, Tile targetTile) {
+    /**
+     * Oversamples a tile by zero padding its spectrum, first in azimuth for each column, centred on the
+     * Doppler centroid of the column, then in range for each line.
+     * The source tile is extended by margins on the sides inside the image, which are tapered towards the outer
+     * border, so the circular convolution of the FFT does not leak the opposite tile border into the tile.
+     *
+     * @param iBand       the source band, or the i band of complex data
+     * @param qBand       the q band of complex data, null for detected data
+     * @param iTargetTile the target tile, or the i target tile of complex data
+     * @param qTargetTile the q target tile of complex data, null for detected data
+     */
+    private void computeOverSampledTile(final Band iBand, final Band qBand,
+                                        final Tile iTargetTile, final Tile qTargetTile) {
 
-        final ProductData tgtData = targetTile.getDataBuffer();
+        final boolean isComplex = qBand != null;
+        final ProductData iTgtData = iTargetTile.getDataBuffer();
+        final ProductData qTgtData = isComplex ? qTargetTile.getDataBuffer() : null;
 
-        final Rectangle targetTileRectangle = targetTile.getRectangle();
+        final Rectangle targetTileRectangle = iTargetTile.getRectangle();
         final int tx0 = targetTileRectangle.x;
         final int ty0 = targetTileRectangle.y;
         final int targetTileWidth = targetTileRectangle.width;
@@ -555,46 +578,46 @@ public class OversamplingOp extends Operator {
         final int overSampledSourceTileWidth  = (int)(widthRatio * sourceTileWidth + 0.5);
         final int overSampledSourceTileHeight = (int)(heightRatio * sourceTileHeight + 0.5);
 
-        final double[][]tmpI = new double[overSampledSourceTileHeight][sourceTileWidth];
-        final double[][]tmpQ = new double[overSampledSourceTileHeight][sourceTileWidth];
-
-        final Band srcBand = sourceProduct.getBand(targetBandName);
-        final Tile srcRaster = getSourceTile(srcBand, sourceTileRectangle);
-        final ProductData srcData = srcRaster.getDataBuffer();
-
-        final double[] rowArray = new double[sourceTileWidth*2];
+        final Tile iRaster = getSourceTile(iBand, sourceTileRectangle);
+        final ProductData iSrcData = iRaster.getDataBuffer();
+        final ProductData qSrcData = isComplex ? getSourceTile(qBand, sourceTileRectangle).getDataBuffer() : null;
 
-        // perform 1-D FFT on each row
-        final DoubleFFT_1D src_row_fft = new DoubleFFT_1D(sourceTileWidth);
-        for (int y = 0; y < sourceTileHeight; y++) {
-            getRowData(sy0 + y, sx0, sourceTileWidth, srcData, srcRaster, rowArray);
-            src_row_fft.complexForward(rowArray);
-            for (int x = 0; x < sourceTileWidth; x++) {
-                tmpI[y][x] = rowArray[2*x];
-                tmpQ[y][x] = rowArray[2*x+1];
-            }
-        }
+        final double[] rowTaper = computeTaper(sourceTileWidth, overlapInfo.numOfLinesOnLeft,
+                                               overlapInfo.numOfLinesOnRight);
+        final double[] colTaper = computeTaper(sourceTileHeight, overlapInfo.numOfLinesOnTop,
+                                               overlapInfo.numOfLinesOnBottom);
 
-        final int d = (int)(sourceTileHeight/2 + 0.5);
+        final WorkBuffers buffers = workBuffers.get();
+        // azimuth oversampled columns, stored column by column as interleaved complex values
+        final double[] colSpec = buffers.get(0, 2*overSampledSourceTileHeight*sourceTileWidth);
+        final double[] colArray = buffers.get(1, 2*sourceTileHeight);
+        final double[] zeroPaddedColSpec = buffers.get(2, 2*overSampledSourceTileHeight);
 
-        final double[] colArray = new double[2*sourceTileHeight];
-        final double[] zeroPaddedColSpec = new double[2*overSampledSourceTileHeight];
+        final int halfHeight = sourceTileHeight/2;
+        final double heightByPRF = sourceTileHeight / prf;
 
         // perform 1-D FFT, zero padding and IFFT on each column
-        final DoubleFFT_1D src_col_fft = new DoubleFFT_1D(sourceTileHeight);
-        final DoubleFFT_1D tgt_col_fft = new DoubleFFT_1D(overSampledSourceTileHeight);
+        final DoubleFFT_1D src_col_fft = getFFT(sourceTileHeight);
+        final DoubleFFT_1D tgt_col_fft = getFFT(overSampledSourceTileHeight);
         for (int x = 0; x < sourceTileWidth; x++) {
-            getColData(x, sourceTileHeight, colArray, tmpI, tmpQ);
+            getColData(sx0 + x, sy0, sourceTileHeight, rowTaper[x], colTaper, iSrcData, qSrcData, iRaster, colArray);
             src_col_fft.complexForward(colArray);
+
+            int d = halfHeight;
+            if (isComplex) {
+                final int idxFdc = (int)(dopplerCentroidFreq[sx0 + x] * heightByPRF + 0.5);
+                d = ((idxFdc + halfHeight) % sourceTileHeight + sourceTileHeight) % sourceTileHeight;
+            }
+
             paddingZeros(colArray, sourceTileHeight, overSampledSourceTileHeight, d, zeroPaddedColSpec);
             tgt_col_fft.complexInverse(zeroPaddedColSpec, true);
-            saveOverSampledCol(zeroPaddedColSpec, x, overSampledSourceTileHeight, tmpI, tmpQ);
+            System.arraycopy(zeroPaddedColSpec, 0, colSpec, 2*x*overSampledSourceTileHeight,
+                             2*overSampledSourceTileHeight);
         }
 
-        final double[] tgtRow = new double[overSampledSourceTileWidth*2];
+        final double[] rowArray = buffers.get(3, 2*sourceTileWidth);
+        final double[] tgtRow = buffers.get(4, 2*overSampledSourceTileWidth);
 
-        // perform 1-D IFFT on each row
-        final DoubleFFT_1D tgt_row_fft = new DoubleFFT_1D(overSampledSourceTileWidth);
         int ySt = 0;
         if (overlapInfo.topOverlapped) {
             ySt = (int)(heightRatio*overlapInfo.numOfLinesOnTop);
@@ -604,11 +627,22 @@ public class OversamplingOp extends Operator {
             xSt = (int)(widthRatio*overlapInfo.numOfLinesOnLeft);
         }
 
+        // perform 1-D FFT, zero padding and IFFT on the rows of the target tile only
+        final DoubleFFT_1D src_row_fft = getFFT(sourceTileWidth);
+        final DoubleFFT_1D tgt_row_fft = getFFT(overSampledSourceTileWidth);
+        final int halfWidth = sourceTileWidth/2;
         for (int y = 0; y < targetTileHeight; y++) {
-            getRowData(y+ySt, sourceTileWidth, overSampledSourceTileWidth, tgtRow, tmpI, tmpQ);
+            getRowData(y + ySt, sourceTileWidth, overSampledSourceTileHeight, colSpec, rowArray);
+            src_row_fft.complexForward(rowArray);
+            paddingZeros(rowArray, sourceTileWidth, overSampledSourceTileWidth, halfWidth, tgtRow);
             tgt_row_fft.complexInverse(tgtRow, true);
-            saveOverSampledComplexImage(tgtRow, ty0 + y, tx0, targetTileWidth, xSt,
-                                        widthRatioByHeightRatio, tgtData, targetTile);
+            if (isComplex) {
+                saveOverSampledComplexImage(tgtRow, ty0 + y, tx0, targetTileWidth, xSt, widthRatioByHeightRatio,
+                                            iTgtData, qTgtData, iTargetTile);
+            } else {
+                saveOverSampledComplexImage(tgtRow, ty0 + y, tx0, targetTileWidth, xSt,
+                                            widthRatioByHeightRatio, iTgtData, iTargetTile);
+            }
         }
     }
 
@@ -654,173 +688,70 @@ public class OversamplingOp extends Operator {
         return new Rectangle(sx0Ext, sy0Ext, swExt, shExt);
     }
 
-    //==================================================================================================================
-
-    private void computeOverSampledTileForComplexImage(
-            String iBandName, String qBandName, Tile iTargetTile, Tile qTargetTile) {
-
-        final ProductData iTgtData = iTargetTile.getDataBuffer();
-        final ProductData qTgtData = qTargetTile.getDataBuffer();
-
-        final Rectangle targetTileRectangle = iTargetTile.getRectangle();
-        final int tx0 = targetTileRectangle.x;
-        final int ty0 = targetTileRectangle.y;
-        final int targetTileWidth = targetTileRectangle.width;
-        final int targetTileHeight = targetTileRectangle.height;
-
-        final OverlapInfo overlapInfo = new OverlapInfo();
-        final Rectangle sourceTileRectangle = getSourceTileRectangle(targetTileRectangle, overlapInfo);
-        final int sx0 = sourceTileRectangle.x;
-        final int sy0 = sourceTileRectangle.y;
-        final int sourceTileWidth = sourceTileRectangle.width;
-        final int sourceTileHeight = sourceTileRectangle.height;
-
-        final int overSampledSourceTileWidth  = (int)(widthRatio * sourceTileWidth + 0.5);
-        final int overSampledSourceTileHeight = (int)(heightRatio * sourceTileHeight + 0.5);
-
-        final double[][]tmpI = new double[overSampledSourceTileHeight][sourceTileWidth];
-        final double[][]tmpQ = new double[overSampledSourceTileHeight][sourceTileWidth];
-
-        final Band iBand = sourceProduct.getBand(iBandName);
-        final Band qBand = sourceProduct.getBand(qBandName);
-
-        final Tile iRaster = getSourceTile(iBand, sourceTileRectangle);
-        final Tile qRaster = getSourceTile(qBand, sourceTileRectangle);
-
-        final ProductData iSrcData = iRaster.getDataBuffer();
-        final ProductData qSrcData = qRaster.getDataBuffer();
-
-        final double[] rowArray = new double[sourceTileWidth*2];
-
-        // perform 1-D FFT on each row
-        final DoubleFFT_1D src_row_fft = new DoubleFFT_1D(sourceTileWidth);
-        for (int y = 0; y < sourceTileHeight; y++) {
-            getRowData(sy0 + y, sx0, sourceTileWidth, iSrcData, qSrcData, iRaster, rowArray);
-            src_row_fft.complexForward(rowArray);
-            for (int x = 0; x < sourceTileWidth; x++) {
-                tmpI[y][x] = rowArray[2*x];
-                tmpQ[y][x] = rowArray[2*x+1];
+    /**
+     * Gets a plan for complex FFTs of the given length. Plans are shared by all threads, their
+     * tables are not modified by the transforms.
+     */
+    private static DoubleFFT_1D getFFT(final int length) {
+        DoubleFFT_1D fft = fftPlans.get(length);
+        if (fft == null) {
+            fft = new DoubleFFT_1D(length);
+            final DoubleFFT_1D existingFFT = fftPlans.putIfAbsent(length, fft);
+            if (existingFFT != null) {
+                fft = existingFFT;
             }
         }
-
-        final double[] colArray = new double[2*sourceTileHeight];
-        final double[] zeroPaddedColSpec = new double[2*overSampledSourceTileHeight];
-
-        final int halfHeight = sourceTileHeight/2;
-        final double heightByPRF = sourceTileHeight / prf;
-
-        // perform 1-D FFT, zero padding and IFFT on each column
-        final DoubleFFT_1D src_col_fft = new DoubleFFT_1D(sourceTileHeight);
-        final DoubleFFT_1D tgt_col_fft = new DoubleFFT_1D(overSampledSourceTileHeight);
-        for (int x = 0; x < sourceTileWidth; x++) {
-            getColData(x, sourceTileHeight, colArray, tmpI, tmpQ);
-            src_col_fft.complexForward(colArray);
-
-            final int idxFdc = (int)(dopplerCentroidFreq[sx0 + x] * heightByPRF + 0.5);
-            final int d = (idxFdc + halfHeight) % sourceTileHeight;
-
-            paddingZeros(colArray, sourceTileHeight, overSampledSourceTileHeight, d, zeroPaddedColSpec);
-            tgt_col_fft.complexInverse(zeroPaddedColSpec, true);
-            saveOverSampledCol(zeroPaddedColSpec, x, overSampledSourceTileHeight, tmpI, tmpQ);
-        }
-
-        final double[] tgtRow = new double[overSampledSourceTileWidth*2];
-
-        // zero padding and perform 1-D IFFT on each row
-        final DoubleFFT_1D tgt_row_fft = new DoubleFFT_1D(overSampledSourceTileWidth);
-        int ySt = 0;
-        if (overlapInfo.topOverlapped) {
-            ySt = (int)(heightRatio*overlapInfo.numOfLinesOnTop);
-        }
-        int xSt = 0;
-        if (overlapInfo.leftOverlapped) {
-            xSt = (int)(widthRatio*overlapInfo.numOfLinesOnLeft);
-        }
-
-        for (int y = 0; y < targetTileHeight; y++) {
-            getRowData(y+ySt, sourceTileWidth, overSampledSourceTileWidth, tgtRow, tmpI, tmpQ);
-            tgt_row_fft.complexInverse(tgtRow, true);
-            saveOverSampledComplexImage(tgtRow, ty0 + y, tx0, targetTileWidth, xSt, widthRatioByHeightRatio,
-                                        iTgtData, qTgtData, iTargetTile);
-        }
+        return fft;
     }
 
-    private static void getRowData(final int sy, final int sx0, final int sw,
-                                       final ProductData srcData, final Tile srcRaster,
-                                       final double[] array) {
+    /**
+     * Computes weights which are one inside the tile and fall off with a raised cosine over the margins.
+     */
+    private static double[] computeTaper(final int length, final int leadingMargin, final int trailingMargin) {
 
-        int k = 0;
-        final int length = sx0 + sw;
-        for (int sx = sx0; sx < length; ++sx) {
-            array[k++] = srcData.getElemDoubleAt(srcRaster.getDataBufferIndex(sx, sy));
-            array[k++] = 0.0;
+        final double[] taper = new double[length];
+        Arrays.fill(taper, 1.0);
+        for (int i = 0; i < leadingMargin; ++i) {
+            taper[i] = 0.5*(1.0 - Math.cos(Math.PI*(i + 0.5)/leadingMargin));
         }
+        for (int i = 0; i < trailingMargin; ++i) {
+            taper[length - 1 - i] = 0.5*(1.0 - Math.cos(Math.PI*(i + 0.5)/trailingMargin));
+        }
+        return taper;
     }
 
-    private static void getRowData(final int sy, final int sx0, final int sw,
-                                   final ProductData iData, final ProductData qData,
+    private static void getColData(final int sx, final int sy0, final int sh, final double rowWeight,
+                                   final double[] colTaper, final ProductData iData, final ProductData qData,
                                    final Tile iRaster, final double[] array) {
 
-        int index;
         int k = 0;
-        final int length = sx0 + sw;
-        for (int sx = sx0; sx < length; ++sx) {
-            index = iRaster.getDataBufferIndex(sx, sy);
-            array[k++] = iData.getElemDoubleAt(index);
-            array[k++] = qData.getElemDoubleAt(index);
+        for (int y = 0; y < sh; ++y) {
+            final int index = iRaster.getDataBufferIndex(sx, sy0 + y);
+            final double w = rowWeight*colTaper[y];
+            array[k++] = w*iData.getElemDoubleAt(index);
+            array[k++] = qData != null ? w*qData.getElemDoubleAt(index) : 0.0;
         }
     }
 
-    private static void getColData(final int x, final int sourceTileHeight, final double[] array,
-                            final double[][] tmpI, final double[][] tmpQ) {
+    private static void getRowData(final int y, final int sourceTileWidth, final int colLength,
+                                   final double[] colSpec, final double[] array) {
 
         int k = 0;
-        for (int y = 0; y < sourceTileHeight; ++y) {
-            array[k++] = tmpI[y][x];
-            array[k++] = tmpQ[y][x];
+        int index = 2*y;
+        final int colStride = 2*colLength;
+        for (int x = 0; x < sourceTileWidth; ++x) {
+            array[k++] = colSpec[index];
+            array[k++] = colSpec[index + 1];
+            index += colStride;
         }
     }
 
-    private static void paddingZeros(final double[] colSpec, final int sourceTileHeight, final int targetTileHeight,
-                                         final int d, final double[] array) {
+    private static void paddingZeros(final double[] spec, final int sourceLength, final int targetLength,
+                                     final int d, final double[] array) {
 
-        Arrays.fill(array, 0.0);
-        final int s1 = 0;
-        final int s2 = d*2;
-        final int S1 = 0;
-        final int S2 = 2*(targetTileHeight - sourceTileHeight + d);
-        System.arraycopy(colSpec, s1, array, S1, s2);
-        System.arraycopy(colSpec, s2, array, S2, (sourceTileHeight - d)*2);
-    }
-
-    private static void saveOverSampledCol(final double[] overSampledCol, final int x, final int targetTileHeight,
-                                    final double[][] tmpI, final double[][] tmpQ) {
-
-        int k = 0;
-        for (int y = 0; y < targetTileHeight; ++y) {
-            tmpI[y][x] = overSampledCol[k++];
-            tmpQ[y][x] = overSampledCol[k++];
-        }
-    }
-
-    private static void getRowData(final int y, final int sourceTileWidth, final int targetTileWidth, final double[] array,
-                            final double[][] tmpI, final double[][] tmpQ) {
-
-        Arrays.fill(array, 0.0);
-
-        final int firstHalfSourceTileWidth = (int)(sourceTileWidth/2 + 0.5);
-        int k = 0;
-        for (int x = 0; x < firstHalfSourceTileWidth; ++x) {
-            array[k++] = tmpI[y][x];
-            array[k++] = tmpQ[y][x];
-        }
-
-        final int secondHalfSourceTileWidth = sourceTileWidth - firstHalfSourceTileWidth;
-        k = 2*(targetTileWidth - secondHalfSourceTileWidth);
-        for (int x = firstHalfSourceTileWidth; x < sourceTileWidth; ++x) {
-            array[k++] = tmpI[y][x];
-            array[k++] = tmpQ[y][x];
-        }
+        Arrays.fill(array, 0, 2*targetLength, 0.0);
+        System.arraycopy(spec, 0, array, 0, d*2);
+        System.arraycopy(spec, d*2, array, 2*(targetLength - sourceLength + d), (sourceLength - d)*2);
     }
 
     private static void saveOverSampledComplexImage(final double[] overSampledRow, final int ty, final int tx0,
@@ -848,6 +779,20 @@ public class OversamplingOp extends Operator {
         }
     }
 
+    /**
+     * Work arrays of a thread, reused for all tiles computed by the thread.
+     */
+    private static final class WorkBuffers {
+        private final double[][] arrays = new double[5][];
+
+        double[] get(final int i, final int length) {
+            if (arrays[i] == null || arrays[i].length < length) {
+                arrays[i] = new double[length];
+            }
+            return arrays[i];
+        }
+    }
+
     private static class OverlapInfo {
         public boolean topOverlapped;
         public boolean bottomOverlapped;
@@ -30,6 +30,7 @@ import org.esa.beam.util.ProductUtils;
 import org.esa.nest.datamodel.AbstractMetadata;
 import org.esa.nest.datamodel.Unit;
 import org.esa.nest.eo.GeoUtils;
+import org.esa.nest.util.InterpolationKernel;
 import org.esa.nest.util.MathUtils;
 
 import java.awt.*;
@@ -62,7 +63,7 @@ public class SRGROp extends Operator {
 //               interval = "(1, *)", defaultValue = "100", label="Number of Range Points")
     private int numRangePoints = 100;
 
-    @Parameter(valueSet = {nearestNeighbourStr, linearStr, cubicStr, cubic2Str, sincStr},
+    @Parameter(valueSet = {nearestNeighbourStr, linearStr, cubicStr, cubic2Str, sincStr, lanczos3Str},
             defaultValue = linearStr, label="Interpolation Method")
     private String interpolationMethod = linearStr;
 
@@ -81,14 +82,14 @@ public class SRGROp extends Operator {
     private int targetImageWidth;
     private int targetImageHeight;
 
-    private enum Interpolation { NEAREST_NEIGHBOR, LINEAR, CUBIC, CUBIC2, SINC }
-    private Interpolation interpMethod = Interpolation.LINEAR;
+    private InterpolationKernel kernel = null;
 
-    private static final String nearestNeighbourStr = "Nearest-neighbor interpolation";
-    private static final String linearStr = "Linear interpolation";
-    private static final String cubicStr = "Cubic interpolation";
-    private static final String cubic2Str = "Cubic2 interpolation";
-    private static final String sincStr = "Sinc interpolation";
+    private static final String nearestNeighbourStr = InterpolationKernel.NEAREST_NEIGHBOUR;
+    private static final String linearStr = InterpolationKernel.LINEAR;
+    private static final String cubicStr = InterpolationKernel.CUBIC;
+    private static final String cubic2Str = InterpolationKernel.CUBIC2;
+    private static final String sincStr = InterpolationKernel.SINC;
+    private static final String lanczos3Str = InterpolationKernel.LANCZOS3;
 
     /**
      * Initializes this operator and sets the one and only target product.
@@ -134,17 +135,7 @@ public class SRGROp extends Operator {
 
             createTargetProduct();
 
-            if (interpolationMethod.equals(nearestNeighbourStr)) {
-                interpMethod = Interpolation.NEAREST_NEIGHBOR;
-            } else if (interpolationMethod.equals(linearStr))  {
-                interpMethod = Interpolation.LINEAR;
-            } else if (interpolationMethod.equals(cubicStr)) {
-                interpMethod = Interpolation.CUBIC;
-            } else if (interpolationMethod.equals(cubic2Str)) {
-                interpMethod = Interpolation.CUBIC2;
-            } else if (interpolationMethod.equals(sincStr)) {
-                interpMethod = Interpolation.SINC;
-            }
+            kernel = InterpolationKernel.create(interpolationMethod);
 
         } catch(Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
@@ -198,74 +189,41 @@ public class SRGROp extends Operator {
         final int th = targetTileRectangle.height;
         //System.out.println("tx0 = " + tx0 + ", ty0 = " + ty0 + ", tw = " + tw + ", th = " + th);
 
+        // the slant range positions and the kernel weights are the same for all rows of the tile
+        final double[] positions = new double[tw];
+        for (int x = tx0; x < tx0 + tw; x++) {
+            positions[x - tx0] = getSlantRangePixelPosition((double)x);
+        }
+        final double[] weights = new double[tw * kernel.getLength()];
+        final int[] firstTaps = kernel.computeLineWeights(positions, weights);
+
         // compute ground range image pixel values
         final Band sourceBand = sourceProduct.getBand(targetBand.getName());
-        final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand); 
-        final Rectangle sourceTileRectangle = getSourceRectangle(tx0, ty0, tw, th);
+        final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand);
+        final Rectangle sourceTileRectangle = getSourceRectangle(firstTaps, ty0, th);
         final Tile sourceRaster = getSourceTile(sourceBand, sourceTileRectangle);
-
-        final ProductData trgData = targetTile.getDataBuffer();
         final ProductData srcData = sourceRaster.getDataBuffer();
 
-        int p0 = 0, p1 = 0, p2 = 0, p3 = 0, p4 = 0;
-        double v0 = 0.0, v1 = 0.0, v2 = 0.0, v3 = 0.0, v4 = 0.0, v = 0.0;
-        double mu = 0.0;
+        final int sx0 = sourceTileRectangle.x;
+        final int sw = sourceTileRectangle.width;
+        for (int i = 0; i < tw; i++) {
+            firstTaps[i] -= sx0;
+        }
 
-        for (int x = tx0; x < tx0 + tw; x++) {
-            final double p = getSlantRangePixelPosition((double)x);
-            if (interpMethod.equals(Interpolation.NEAREST_NEIGHBOR)) {
-                p0 = Math.min((int)(p + 0.5), sourceImageWidth - 1);
-            } else if (interpMethod.equals(Interpolation.LINEAR))  {
-                p0 = Math.min((int)p, sourceImageWidth - 2);
-                p1 = p0 + 1;
-                mu = p - p0;
-            } else if (interpMethod.equals(Interpolation.CUBIC) || interpMethod.equals(Interpolation.CUBIC2)) {
-                p1 = Math.min((int)p, sourceImageWidth - 1);
-                p0 = Math.max(p1 - 1, 0);
-                p2 = Math.min(p1 + 1, sourceImageWidth - 1);
-                p3 = Math.min(p1 + 2, sourceImageWidth - 1);
-                mu = Math.min(p - p1, 1.0);
-            } else if (interpMethod.equals(Interpolation.SINC)) {
-                p2 = Math.min((int)(p + 0.5), sourceImageWidth - 1);
-                p0 = Math.max(p2 - 2, 0);
-                p1 = Math.max(p2 - 1, 0);
-                p3 = Math.min(p2 + 1, sourceImageWidth - 1);
-                p4 = Math.min(p2 + 2, sourceImageWidth - 1);
-                mu = p - p2;
+        final double[] srcLine = new double[sw];
+        final double[] trgLine = new double[tw];
+        for (int y = ty0; y < ty0 + th; y++) {
+            final int srcOffset = sourceRaster.getRowOffset(y);
+            for (int i = 0; i < sw; i++) {
+                srcLine[i] = srcData.getElemDoubleAt(srcOffset + i);
             }
-
-            for (int y = ty0; y < ty0 + th; y++) {
-                if (interpMethod.equals(Interpolation.NEAREST_NEIGHBOR)) {
-                    v = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p0, y));
-                } else if (interpMethod.equals(Interpolation.LINEAR))  {
-                    v0 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p0, y));
-                    v1 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p1, y));
-                    v = MathUtils.interpolationLinear(v0, v1, mu);
-                } else if (interpMethod.equals(Interpolation.CUBIC))  {
-                    v0 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p0, y));
-                    v1 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p1, y));
-                    v2 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p2, y));
-                    v3 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p3, y));
-                    v = MathUtils.interpolationCubic(v0, v1, v2, v3, mu);
-                } else if (interpMethod.equals(Interpolation.CUBIC2))  {
-                    v0 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p0, y));
-                    v1 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p1, y));
-                    v2 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p2, y));
-                    v3 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p3, y));
-                    v = MathUtils.interpolationCubic2(v0, v1, v2, v3, mu);
-                } else if (interpMethod.equals(Interpolation.SINC)) {
-                    v0 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p0, y));
-                    v1 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p1, y));
-                    v2 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p2, y));
-                    v3 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p3, y));
-                    v4 = srcData.getElemDoubleAt(sourceRaster.getDataBufferIndex(p4, y));
-                    v = MathUtils.interpolationSinc(v0, v1, v2, v3, v4, mu);
-                }
-                if (bandUnit == Unit.UnitType.INTENSITY) {
-                    v = Math.max(v, 0.0);
+            kernel.resampleLine(srcLine, sw, firstTaps, weights, trgLine);
+            if (bandUnit == Unit.UnitType.INTENSITY) {
+                for (int i = 0; i < tw; i++) {
+                    trgLine[i] = Math.max(trgLine[i], 0.0);
                 }
-                trgData.setElemDoubleAt(targetTile.getDataBufferIndex(x, y), v);
             }
+            targetTile.setSamplesRow(y, trgLine);
         }
       } catch(Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
@@ -274,11 +232,18 @@ public class SRGROp extends Operator {
         }
     }
 
-    private Rectangle getSourceRectangle(final int tx0, final int ty0, final int tw, final int th) {
-        final int xMin = (int)(getSlantRangePixelPosition((double)Math.max(tx0-2, 0)));
-        final int xMax = (int)getSlantRangePixelPosition((double)tx0 + tw + 2);
-        final int sw = Math.min(xMax - xMin + 1, sourceImageWidth);
-        return new Rectangle(xMin, ty0, sw, th);
+    /**
+     * Get the source rectangle covering all kernel taps of the target tile columns.
+     * @param firstTaps The first kernel tap of each target column.
+     * @param ty0 The y coordinate of the target tile.
+     * @param th The height of the target tile.
+     * @return The source rectangle.
+     */
+    private Rectangle getSourceRectangle(final int[] firstTaps, final int ty0, final int th) {
+        final int xMin = Math.min(Math.max(firstTaps[0], 0), sourceImageWidth - 1);
+        final int xMax = Math.max(Math.min(firstTaps[firstTaps.length - 1] + kernel.getLength() - 1,
+                                           sourceImageWidth - 1), xMin);
+        return new Rectangle(xMin, ty0, xMax - xMin + 1, th);
     }
 
     /**
@@ -293,12 +258,7 @@ public class SRGROp extends Operator {
             return 0.0;
         }
 
-        final double dg = groundRangeSpacing * x;
-        double ds = 0.0;
-        for (int j = 0; j < warpPolynomialOrder + 1; j++) {
-            ds += Math.pow(dg, (double)j) * warpPolynomialCoef[j];
-        }
-        return ds / slantRangeSpacing;
+        return MathUtils.computePolynomialValue(groundRangeSpacing * x, warpPolynomialCoef) / slantRangeSpacing;
     }
 
     /**
@@ -89,6 +89,11 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
                defaultValue = WINDOW_SIZE_3x3, label="Window Size")
     private String windowSize = WINDOW_SIZE_3x3;
 
+    @Parameter(description = "The number of images before and after each image in the stack used to filter it." +
+            " With 0 all images of the stack are used.", interval = "[0, *)", defaultValue = "0",
+            label="Temporal Window Radius")
+    private int temporalWindowRadius = 0;
+
     private int halfWindowWidth = 0;
     private int halfWindowHeight = 0;
     private int sourceImageWidth = 0;
@@ -209,7 +214,10 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
 
     /**
      * Called by the framework in order to compute the stack of tiles for the given target bands.
-     * <p>The default implementation throws a runtime exception with the message "not implemented".</p>
+     * <p>The bands are processed one after the other, so only one source tile is held at a time. The local
+     * means of a band are computed from a summed-area table and kept in its target tile until the ratio
+     * average of the band is known. Ratios of bands which have left the temporal window are kept in a ring
+     * buffer so that they can be removed from the running ratio sums.</p>
      *
      * @param targetTiles     The current tiles to be computed for each target band.
      * @param targetRectangle The area in pixel coordinates to be computed (same for all rasters in <code>targetRasters</code>).
@@ -224,65 +232,57 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
         final int w  = targetRectangle.width;
         final int h  = targetRectangle.height;
         //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
-        
+
         final Band[] targetBands = targetProduct.getBands();
         final int numBands = targetBands.length;
+        final Tile[] targetTile = new Tile[numBands];
         final ProductData[] targetData = new ProductData[numBands];
-        for (int i = 0; i < numBands; i++) {
-            Tile targetTile = targetTiles.get(targetBands[i]);
-            targetData[i] = targetTile.getDataBuffer();
-        }
-
-        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-
-        final Tile[] sourceTile = new Tile[numBands];
-        final ProductData[] sourceData = new ProductData[numBands];
         final double[] bandNoDataValues = new double[numBands];
         for (int i = 0; i < numBands; i++) {
-            final Band srcBand = sourceProduct.getBand(targetBands[i].getName());
-            sourceTile[i] = getSourceTile(srcBand, sourceRectangle);
-            sourceData[i] = sourceTile[i].getDataBuffer();
-            bandNoDataValues[i] = srcBand.getNoDataValue();
+            targetTile[i] = targetTiles.get(targetBands[i]);
+            targetData[i] = targetTile[i].getDataBuffer();
+            bandNoDataValues[i] = sourceProduct.getBand(targetBands[i].getName()).getNoDataValue();
         }
 
-        final double[] localMeans = new double[numBands];
-        double srcDataValue = 0.0;
-        final int yMax = y0 + h;
-        for(int y = y0; y < yMax; y++) {
-            final int xMax = x0 + w;
-            for (int x = x0; x < xMax; x++) {
-
-                final int sourceIndex = sourceTile[0].getDataBufferIndex(x, y);
-
-                double sum = 0.0;
-                int n = 0;
-                for (int i = 0; i < numBands; i++) {
-                    srcDataValue = sourceData[i].getElemDoubleAt(sourceIndex);
-                    if (srcDataValue == bandNoDataValues[i]) {
-                        localMeans[i] = bandNoDataValues[i];
-                        continue;
-                    }
+        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
+        final WindowSums windowSums = new WindowSums(sourceRectangle, targetRectangle);
 
-                    localMeans[i] = computeLocalMean(x, y, sourceTile[i], sourceData[i], bandNoDataValues[i]);
+        // the ratios of a band are only needed again if the band leaves the temporal window of a later band
+        final int radius = temporalWindowRadius > 0 ? temporalWindowRadius : numBands;
+        final int ringSize = radius < numBands - 1 ? Math.min(2 * radius + 1, numBands) : 1;
+        final float[][] ratios = new float[ringSize][w * h];
+        final double[] ratioSums = new double[w * h];
+        final int[] ratioCounts = new int[w * h];
 
-                    if (localMeans[i] != 0.0) {
-                        sum += sourceData[i].getElemDoubleAt(sourceIndex) / localMeans[i];
+        pm.beginTask("Filtering...", numBands);
+        try {
+            for (int k = 0; k < numBands; k++) {
+                final Band srcBand = sourceProduct.getBand(targetBands[k].getName());
+                final Tile sourceTile = getSourceTile(srcBand, sourceRectangle);
+                final float[] ratio = ratios[k % ratios.length];
+
+                windowSums.compute(sourceTile, bandNoDataValues[k]);
+                computeLocalMeans(sourceTile, targetTile[k], targetData[k], bandNoDataValues[k], windowSums, ratio);
+                addRatios(ratio, ratioSums, ratioCounts, 1);
+
+                if (k - radius >= 0) {
+                    applyRatioAverage(targetTile[k - radius], targetData[k - radius], bandNoDataValues[k - radius],
+                                      ratioSums, ratioCounts);
+                    if (k - 2 * radius >= 0) {
+                        addRatios(ratios[(k - 2 * radius) % ratios.length], ratioSums, ratioCounts, -1);
                     }
-                    n++;
-                }
-                if (n > 0) {
-                    sum /= n;
                 }
+                pm.worked(1);
+            }
 
-                final int targetIndex = targetTiles.get(targetBands[0]).getDataBufferIndex(x, y);
-                for (int i = 0; i < numBands; i++) {
-                    if (localMeans[i] != bandNoDataValues[i]) {
-                        targetData[i].setElemDoubleAt(targetIndex, sum * localMeans[i]);
-                    } else {
-                        targetData[i].setElemDoubleAt(targetIndex, bandNoDataValues[i]);
-                    }
+            for (int j = Math.max(0, numBands - radius); j < numBands; j++) {
+                applyRatioAverage(targetTile[j], targetData[j], bandNoDataValues[j], ratioSums, ratioCounts);
+                if (j - radius >= 0 && j + 1 < numBands) {
+                    addRatios(ratios[(j - radius) % ratios.length], ratioSums, ratioCounts, -1);
                 }
             }
+        } finally {
+            pm.done();
         }
     }
 
@@ -297,42 +297,160 @@ public class MultiTemporalSpeckleFilterOp extends Operator {
     private Rectangle getSourceRectangle(final int tx0, final int ty0, final int tw, final int th) {
         final int x0 = Math.max(0, tx0 - halfWindowWidth);
         final int y0 = Math.max(0, ty0 - halfWindowHeight);
-        final int xMax = Math.min(tx0 + tw - 1 + halfWindowWidth, sourceImageWidth);
-        final int yMax = Math.min(ty0 + th - 1 + halfWindowHeight, sourceImageHeight);
+        final int xMax = Math.min(tx0 + tw - 1 + halfWindowWidth, sourceImageWidth - 1);
+        final int yMax = Math.min(ty0 + th - 1 + halfWindowHeight, sourceImageHeight - 1);
         final int w = xMax - x0 + 1;
         final int h = yMax - y0 + 1;
         return new Rectangle(x0, y0, w, h);
     }
 
     /**
-     * Compute mean value for pixels in a window with given center.
-     * @param xc X coordinate of the center pixel.
-     * @param yc Y coordinate of the center pixel.
+     * Compute the local means of a band into its target tile and the ratios of the source pixels to their local means.
+     * Pixels with no-data value get the no-data value as local mean and NaN as ratio.
      * @param srcTile Source tile.
-     * @param srcData Source data.
+     * @param tgtTile Target tile.
+     * @param tgtData Target data.
+     * @param noDataValue The noDataValue for source band.
+     * @param windowSums The window sums of the source tile.
+     * @param ratio The ratios of the target tile pixels.
+     */
+    private static void computeLocalMeans(final Tile srcTile, final Tile tgtTile, final ProductData tgtData,
+                                          final double noDataValue, final WindowSums windowSums, final float[] ratio) {
+        final ProductData srcData = srcTile.getDataBuffer();
+        final int x0 = tgtTile.getMinX();
+        final int y0 = tgtTile.getMinY();
+        final int w = tgtTile.getWidth();
+        final int h = tgtTile.getHeight();
+        final int srcXOffset = x0 - srcTile.getMinX();
+
+        int i = 0;
+        for (int y = 0; y < h; y++) {
+            final int srcOffset = srcTile.getRowOffset(y0 + y) + srcXOffset;
+            final int tgtOffset = tgtTile.getRowOffset(y0 + y);
+            for (int x = 0; x < w; x++, i++) {
+                final double value = srcData.getElemDoubleAt(srcOffset + x);
+                if (value == noDataValue) {
+                    tgtData.setElemDoubleAt(tgtOffset + x, noDataValue);
+                    ratio[i] = Float.NaN;
+                    continue;
+                }
+
+                final double localMean = windowSums.getMean(x, y);
+                tgtData.setElemDoubleAt(tgtOffset + x, localMean);
+                ratio[i] = localMean != 0.0 ? (float) (value / localMean) : 0.0f;
+            }
+        }
+    }
+
+    /**
+     * Add the ratios of a band to the ratio sums or remove them.
+     * @param ratio The ratios of the band, NaN for no-data pixels.
+     * @param ratioSums The ratio sums.
+     * @param ratioCounts The number of ratios in the sums.
+     * @param sign 1 to add the ratios, -1 to remove them.
+     */
+    private static void addRatios(final float[] ratio, final double[] ratioSums, final int[] ratioCounts,
+                                  final int sign) {
+        for (int i = 0; i < ratio.length; i++) {
+            if (!Float.isNaN(ratio[i])) {
+                ratioSums[i] += sign * ratio[i];
+                ratioCounts[i] += sign;
+            }
+        }
+    }
+
+    /**
+     * Multiply the local means in a target tile with the average of the ratios in its temporal window.
+     * @param tgtTile Target tile.
+     * @param tgtData Target data holding the local means.
      * @param noDataValue The noDataValue for source band.
-     * @return The mean value.
+     * @param ratioSums The ratio sums.
+     * @param ratioCounts The number of ratios in the sums.
      */
-    private double computeLocalMean(int xc, int yc, Tile srcTile, ProductData srcData, double noDataValue) {
-        final int x0 = Math.max(0, xc - halfWindowWidth);
-        final int y0 = Math.max(0, yc - halfWindowHeight);
-        final int xMax = Math.min(xc + halfWindowWidth, sourceImageWidth-1);
-        final int yMax = Math.min(yc + halfWindowHeight, sourceImageHeight-1);
-
-        double mean = 0.0;
-        double value = 0.0;
-        int n = 0;
-        for (int y = y0; y < yMax; y++) {
-            for (int x = x0; x < xMax; x++) {
-                final int index = srcTile.getDataBufferIndex(x, y);
-                value = srcData.getElemDoubleAt(index);
-                if (value != noDataValue) {
-                    mean += value;
-                    n++;
+    private static void applyRatioAverage(final Tile tgtTile, final ProductData tgtData, final double noDataValue,
+                                          final double[] ratioSums, final int[] ratioCounts) {
+        final int y0 = tgtTile.getMinY();
+        final int w = tgtTile.getWidth();
+        final int h = tgtTile.getHeight();
+
+        int i = 0;
+        for (int y = 0; y < h; y++) {
+            final int tgtOffset = tgtTile.getRowOffset(y0 + y);
+            for (int x = 0; x < w; x++, i++) {
+                final double localMean = tgtData.getElemDoubleAt(tgtOffset + x);
+                if (localMean != noDataValue && ratioCounts[i] > 0) {
+                    tgtData.setElemDoubleAt(tgtOffset + x, localMean * ratioSums[i] / ratioCounts[i]);
                 }
             }
         }
-        return mean/n;
+    }
+
+    /**
+     * Summed-area tables of the valid pixel values and of the number of valid pixels of a source tile, giving
+     * the mean over the window around each target pixel in constant time.
+     */
+    private final class WindowSums {
+
+        private final Rectangle sourceRectangle;
+        private final int stride;
+        private final double[] sums;
+        private final int[] counts;
+        private final int[] x0;
+        private final int[] x1;
+        private final int[] y0;
+        private final int[] y1;
+
+        WindowSums(final Rectangle sourceRectangle, final Rectangle targetRectangle) {
+            this.sourceRectangle = sourceRectangle;
+            stride = sourceRectangle.width + 1;
+            sums = new double[stride * (sourceRectangle.height + 1)];
+            counts = new int[sums.length];
+
+            // window bounds of each target column and row in table coordinates, clipped to the source rectangle
+            x0 = new int[targetRectangle.width];
+            x1 = new int[targetRectangle.width];
+            for (int x = 0; x < x0.length; x++) {
+                final int xc = targetRectangle.x + x - sourceRectangle.x;
+                x0[x] = Math.max(0, xc - halfWindowWidth);
+                x1[x] = Math.min(sourceRectangle.width, xc + halfWindowWidth + 1);
+            }
+            y0 = new int[targetRectangle.height];
+            y1 = new int[targetRectangle.height];
+            for (int y = 0; y < y0.length; y++) {
+                final int yc = targetRectangle.y + y - sourceRectangle.y;
+                y0[y] = Math.max(0, yc - halfWindowHeight) * stride;
+                y1[y] = Math.min(sourceRectangle.height, yc + halfWindowHeight + 1) * stride;
+            }
+        }
+
+        void compute(final Tile srcTile, final double noDataValue) {
+            final ProductData srcData = srcTile.getDataBuffer();
+            final int xOffset = sourceRectangle.x - srcTile.getMinX();
+            for (int y = 0; y < sourceRectangle.height; y++) {
+                final int srcOffset = srcTile.getRowOffset(sourceRectangle.y + y) + xOffset;
+                final int above = y * stride;
+                final int row = above + stride;
+                double rowSum = 0.0;
+                int rowCount = 0;
+                for (int x = 0; x < sourceRectangle.width; x++) {
+                    final double value = srcData.getElemDoubleAt(srcOffset + x);
+                    if (value != noDataValue) {
+                        rowSum += value;
+                        rowCount++;
+                    }
+                    sums[row + x + 1] = sums[above + x + 1] + rowSum;
+                    counts[row + x + 1] = counts[above + x + 1] + rowCount;
+                }
+            }
+        }
+
+        double getMean(final int x, final int y) {
+            final int a = y0[y] + x0[x];
+            final int b = y0[y] + x1[x];
+            final int c = y1[y] + x0[x];
+            final int d = y1[y] + x1[x];
+            return (sums[d] - sums[b] - sums[c] + sums[a]) / (counts[d] - counts[b] - counts[c] + counts[a]);
+        }
     }
 
 
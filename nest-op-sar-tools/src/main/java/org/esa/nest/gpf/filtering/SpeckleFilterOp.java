@@ -19,7 +19,6 @@ import com.bc.ceres.core.ProgressMonitor;
 import org.apache.commons.math.util.FastMath;
 import org.esa.beam.framework.datamodel.Band;
 import org.esa.beam.framework.datamodel.Product;
-import org.esa.beam.framework.datamodel.ProductData;
 import org.esa.beam.framework.gpf.Operator;
 import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.OperatorSpi;
@@ -30,7 +29,6 @@ import org.esa.beam.framework.gpf.annotations.SourceProduct;
 import org.esa.beam.framework.gpf.annotations.TargetProduct;
 import org.esa.nest.datamodel.Unit;
 import org.esa.nest.gpf.OperatorUtils;
-import org.esa.nest.gpf.TileIndex;
 
 import java.awt.*;
 import java.util.Arrays;
@@ -224,70 +222,58 @@ public class SpeckleFilterOp extends Operator {
             final int sh = srcTileRectangle.height;
 
             final double[] neighborValues = new double[filterSizeX*filterSizeY];
-            final ProductData trgData = targetTile.getDataBuffer();
-
-            final ProductData srcData1 = sourceRaster1.getDataBuffer();
-            ProductData srcData2 = null;
-            if(sourceRaster2 != null)
-                srcData2 = sourceRaster2.getDataBuffer();
-
-            final TileIndex trgIndex = new TileIndex(targetTile);
-            final TileIndex srcIndex = new TileIndex(sourceRaster1);
-
+            final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+            final double[] srcPlane = getSourcePlane(sourceRaster1, sourceRaster2, isComplex);
 
             double cu, cu2, n;
 
             switch (filter) {
                 case MEAN_SPECKLE_FILTER:
 
-                    computeMean(srcData1, srcData2, trgData, bandUnit, neighborValues, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh);
+                    computeMean(srcPlane, targetTile, neighborValues, x0, y0, w, h, sx0, sy0, sw, sh);
 
                     break;
                 case MEDIAN_SPECKLE_FILTER:
 
-                    computeMedian(srcData1, srcData2, trgData, bandUnit, neighborValues, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh);
+                    computeMedian(srcPlane, targetTile, neighborValues, x0, y0, w, h, sx0, sy0, sw, sh);
 
                     break;
                 case FROST_SPECKLE_FILTER:
 
-                    computeFrost(srcData1, srcData2, trgData, bandUnit, neighborValues, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh);
+                    computeFrost(srcPlane, targetTile, neighborValues, x0, y0, w, h, sx0, sy0, sw, sh);
 
                     break;
                 case GAMMA_MAP_SPECKLE_FILTER:
 
                     if (estimateENL) {
-                        n = computeEquivalentNumberOfLooks(sourceRaster1, sourceRaster2, bandUnit, x0, y0, w, h);
+                        n = computeEquivalentNumberOfLooks(srcPlane, isComplex || bandUnit == Unit.UnitType.INTENSITY,
+                                x0, y0, w, h, sx0, sy0, sw);
                     } else {
                         n = enl;
                     }
                     cu = 1.0 / Math.sqrt(n);
                     cu2 = cu * cu;
 
-                    computeGammaMap(srcData1, srcData2, trgData, bandUnit, neighborValues, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh, cu, cu2, n);
+                    computeGammaMap(srcPlane, targetTile, neighborValues, x0, y0, w, h, sx0, sy0, sw, sh, cu, cu2, n);
 
                     break;
                 case LEE_SPECKLE_FILTER:
 
                     if (estimateENL) {
-                        n = computeEquivalentNumberOfLooks(sourceRaster1, sourceRaster2, bandUnit, x0, y0, w, h);
+                        n = computeEquivalentNumberOfLooks(srcPlane, isComplex || bandUnit == Unit.UnitType.INTENSITY,
+                                x0, y0, w, h, sx0, sy0, sw);
                     } else {
                         n = enl;
                     }
                     cu = 1.0 / Math.sqrt(n);
                     cu2 = cu * cu;
 
-                    computeLee(srcData1, srcData2, trgData, bandUnit, neighborValues, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh, cu, cu2);
+                    computeLee(srcPlane, targetTile, neighborValues, x0, y0, w, h, sx0, sy0, sw, sh, cu, cu2);
 
                     break;
                 case LEE_REFINED_FILTER:
 
-                    computeRefinedLee(srcData1, srcData2, trgData, bandUnit, srcIndex, trgIndex,
-                            x0, y0, w, h, sx0, sy0, sw, sh);
+                    computeRefinedLee(srcPlane, targetTile, x0, y0, w, h, sx0, sy0, sw, sh);
                     break;
             }
 
@@ -334,12 +320,42 @@ public class SpeckleFilterOp extends Operator {
         return new Rectangle(sx0, sy0, sw, sh);
     }
 
+    /**
+     * Read the source tile into a row-major array of width sw, computing the intensity of complex data once per pixel.
+     * @param sourceRaster1 The source tile for the 1st band.
+     * @param sourceRaster2 The source tile for the 2nd band.
+     * @param isComplex True if the bands are the i and q bands of complex data.
+     * @return The source pixel values.
+     */
+    private static double[] getSourcePlane(final Tile sourceRaster1, final Tile sourceRaster2, final boolean isComplex) {
+
+        final int sy0 = sourceRaster1.getMinY();
+        final int sw = sourceRaster1.getWidth();
+        final int sh = sourceRaster1.getHeight();
+        final double[] plane = new double[sw * sh];
+
+        double[] iRow = null, qRow = null;
+        for (int y = 0; y < sh; ++y) {
+            iRow = sourceRaster1.getSamplesRow(sy0 + y, iRow);
+            final int stride = y * sw;
+            if (isComplex) {
+                qRow = sourceRaster2.getSamplesRow(sy0 + y, qRow);
+                for (int x = 0; x < sw; ++x) {
+                    final double i = iRow[x];
+                    final double q = qRow[x];
+                    plane[stride + x] = i*i + q*q;
+                }
+            } else {
+                System.arraycopy(iRow, 0, plane, stride, sw);
+            }
+        }
+        return plane;
+    }
+
     /**
      * Filter the given tile of image with Mean filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param neighborValues data to fill
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
@@ -352,31 +368,27 @@ public class SpeckleFilterOp extends Operator {
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs during computation of the filtered value.
      */
-    private void computeMean(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                             final Unit.UnitType unit, final double[] neighborValues,
-                             final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeMean(final double[] srcPlane, final Tile targetTile, final double[] neighborValues,
                              final int x0, final int y0, final int w, final int h,
                              final int sx0, final int sy0, final int sw, final int sh) {
 
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
 
-                getNeighborValues(x, y, sx0, sy0, sw, sh, srcData1, srcData2, srcIndex, unit, neighborValues);
+                getNeighborValues(x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborValues);
 
-                trgData.setElemDoubleAt(x-offset, getMeanValue(neighborValues));
+                trgRow[x] = getMeanValue(neighborValues);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
     /**
      * Filter the given tile of image with Median filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param neighborValues data to fill
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
@@ -389,31 +401,27 @@ public class SpeckleFilterOp extends Operator {
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs during computation of the filtered value.
      */
-    private void computeMedian(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                               final Unit.UnitType unit, final double[] neighborValues,
-                               final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeMedian(final double[] srcPlane, final Tile targetTile, final double[] neighborValues,
                                final int x0, final int y0, final int w, final int h,
                                final int sx0, final int sy0, final int sw, final int sh) {
 
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
 
-                getNeighborValues(x, y, sx0, sy0, sw, sh, srcData1, srcData2, srcIndex, unit, neighborValues);
+                getNeighborValues(x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborValues);
 
-                trgData.setElemDoubleAt(x-offset, getMedianValue(neighborValues));
+                trgRow[x] = getMedianValue(neighborValues);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
     /**
      * Filter the given tile of image with Frost filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param neighborValues data to fill
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
@@ -426,34 +434,30 @@ public class SpeckleFilterOp extends Operator {
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs during computation of the filtered value.
      */
-    private void computeFrost(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                              final Unit.UnitType unit, final double[] neighborValues,
-                              final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeFrost(final double[] srcPlane, final Tile targetTile, final double[] neighborValues,
                               final int x0, final int y0, final int w, final int h,
                               final int sx0, final int sy0, final int sw, final int sh) {
 
         final double[] mask = new double[filterSizeX*filterSizeY];
         getFrostMask(mask);
 
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
 
-                getNeighborValues(x, y, sx0, sy0, sw, sh, srcData1, srcData2, srcIndex, unit, neighborValues);
+                getNeighborValues(x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborValues);
 
-                trgData.setElemDoubleAt(x-offset, getFrostValue(neighborValues, mask));
+                trgRow[x] = getFrostValue(neighborValues, mask);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
     /**
      * Filter the given tile of image with Gamma filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param neighborValues data to fill
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
@@ -466,32 +470,28 @@ public class SpeckleFilterOp extends Operator {
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs during computation of the filtered value.
      */
-    private void computeGammaMap(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                                 final Unit.UnitType unit, final double[] neighborValues,
-                                 final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeGammaMap(final double[] srcPlane, final Tile targetTile, final double[] neighborValues,
                                  final int x0, final int y0, final int w, final int h,
                                  final int sx0, final int sy0, final int sw, final int sh,
                                  final double cu, final double cu2, final double enl) {
 
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
 
-                getNeighborValues(x, y, sx0, sy0, sw, sh, srcData1, srcData2, srcIndex, unit, neighborValues);
+                getNeighborValues(x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborValues);
 
-                trgData.setElemDoubleAt(x-offset, getGammaMapValue(neighborValues, cu, cu2, enl));
+                trgRow[x] = getGammaMapValue(neighborValues, cu, cu2, enl);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
     /**
      * Filter the given tile of image with Lee filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param neighborValues data to fill
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
@@ -504,23 +504,21 @@ public class SpeckleFilterOp extends Operator {
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs during computation of the filtered value.
      */
-    private void computeLee(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                            final Unit.UnitType unit, final double[] neighborValues,
-                            final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeLee(final double[] srcPlane, final Tile targetTile, final double[] neighborValues,
                             final int x0, final int y0, final int w, final int h,
                             final int sx0, final int sy0, final int sw, final int sh,
                             final double cu, final double cu2) {
 
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
 
-                getNeighborValues(x, y, sx0, sy0, sw, sh, srcData1, srcData2, srcIndex, unit, neighborValues);
+                getNeighborValues(x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborValues);
 
-                trgData.setElemDoubleAt(x-offset, getLeeValue(neighborValues, cu, cu2));
+                trgRow[x] = getLeeValue(neighborValues, cu, cu2);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
@@ -532,67 +530,33 @@ public class SpeckleFilterOp extends Operator {
      * @param sy0 Y coordinate of pixel at upper left corner of source tile.
      * @param sw Source tile width.
      * @param sh Source tile height.
-     * @param srcData1 The source ProductData for 1st band.
-     * @param srcData2 The source ProductData for 2nd band.
-     * @param bandUnit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
      * @param neighborValues Array holding the pixel values.
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs in obtaining the pixel values.
      */
     private void getNeighborValues(final int x, final int y, final int sx0, final int sy0, final int sw, final int sh,
-                                   final ProductData srcData1, final ProductData srcData2, final TileIndex srcIndex,
-                                   final Unit.UnitType bandUnit, final double[] neighborValues) {
-
-        if (bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY) {
-
-            for (int j = 0; j < filterSizeY; ++j) {
+                                   final double[] srcPlane, final double[] neighborValues) {
 
-                int yj = y - halfSizeY + j;
-                if (yj < sy0) {
-                    yj = sy0;
-                } else if (yj >= sy0 + sh) {
-                    yj = sy0 + sh - 1;
-                }
-
-                final int stride = j*filterSizeX;
-                final int offset = srcIndex.calculateStride(yj);
-                for (int i = 0; i < filterSizeX; ++i) {
+        for (int j = 0; j < filterSizeY; ++j) {
 
-                    int xi = x - halfSizeX + i;
-                    if (xi < sx0) {
-                        xi = sx0;
-                    } else if (xi >= sx0 + sw) {
-                        xi = sx0 + sw - 1;
-                    }
-                    int idx = xi-offset;
-                    double I = srcData1.getElemDoubleAt(idx);
-                    double Q = srcData2.getElemDoubleAt(idx);
-                    neighborValues[stride + j] = I*I + Q*Q;
-                }
+            int yj = y - halfSizeY + j;
+            if (yj < sy0) {
+                yj = sy0;
+            } else if (yj >= sy0 + sh) {
+                yj = sy0 + sh - 1;
             }
+            final int stride = j*filterSizeX;
+            final int offset = (yj - sy0)*sw - sx0;
+            for (int i = 0; i < filterSizeX; ++i) {
 
-        } else {
-
-            for (int j = 0; j < filterSizeY; ++j) {
-
-                int yj = y - halfSizeY + j;
-                if (yj < sy0) {
-                    yj = sy0;
-                } else if (yj >= sy0 + sh) {
-                    yj = sy0 + sh - 1;
-                }
-                final int stride = j*filterSizeX;
-                final int offset = srcIndex.calculateStride(yj);
-                for (int i = 0; i < filterSizeX; ++i) {
-
-                    int xi = x - halfSizeX + i;
-                    if (xi < sx0) {
-                        xi = sx0;
-                    } else if (xi >= sx0 + sw) {
-                        xi = sx0 + sw - 1;
-                    }
-                    neighborValues[stride + i] = srcData1.getElemDoubleAt(xi-offset);
+                int xi = x - halfSizeX + i;
+                if (xi < sx0) {
+                    xi = sx0;
+                } else if (xi >= sx0 + sw) {
+                    xi = sx0 + sw - 1;
                 }
+                neighborValues[stride + i] = srcPlane[offset + xi];
             }
         }
     }
@@ -775,56 +739,30 @@ public class SpeckleFilterOp extends Operator {
 
     /**
      * Compute the equivalent number of looks.
-     * @param sourceRaster1 The source tile for 1st band.
-     * @param sourceRaster2 The source tile for 2nd band.
-     * @param bandUnit Unit for 1st band.
+     * @param srcPlane The source pixel values.
+     * @param isIntensity True if the source pixel values are intensities, false for amplitudes.
      * @param x0 X coordinate of the upper left corner point of the target tile rectangle.
      * @param y0 Y coordinate of the upper left corner point of the target tile rectangle.
      * @param w The width of the target tile rectangle.
      * @param h The height of the target tile rectangle.
+     * @param sx0 X coordinate of pixel at upper left corner of source tile.
+     * @param sy0 Y coordinate of pixel at upper left corner of source tile.
+     * @param sw Source tile width.
      * @return The equivalent number of looks.
      */
-    private double computeEquivalentNumberOfLooks(
-            final Tile sourceRaster1, final Tile sourceRaster2, final Unit.UnitType bandUnit,
-            final int x0, final int y0, final int w, final int h) {
-
-        final ProductData srcData1 = sourceRaster1.getDataBuffer();
-        ProductData srcData2 = null;
-        if(sourceRaster2 != null) {
-            srcData2 = sourceRaster2.getDataBuffer();
-        }
+    private static double computeEquivalentNumberOfLooks(
+            final double[] srcPlane, final boolean isIntensity,
+            final int x0, final int y0, final int w, final int h, final int sx0, final int sy0, final int sw) {
 
         double enl = 1.0;
-        if (bandUnit != null && (bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY)) {
+        if (isIntensity) {
             double sum = 0;
             double sum2 = 0;
             for (int y = y0; y < y0 + h; y++) {
+                final int offset = (y - sy0)*sw - sx0;
                 for (int x = x0; x < x0 + w; x++) {
 
-                    final int idx = sourceRaster1.getDataBufferIndex(x, y);
-                    final double i = srcData1.getElemDoubleAt(idx);
-                    final double q = srcData2.getElemDoubleAt(idx);
-                    double v = i*i + q*q;
-                    sum += v;
-                    sum2 += v*v;
-                }
-            }
-
-            if (sum != 0.0 && sum2 > 0.0) {
-                final double area = h * w;
-                final double m = sum / area;
-                final double m2 = sum2 / area;
-                final double mm = m*m;
-                enl = mm / (m2 - mm);
-            }
-
-        } else if (bandUnit != null && bandUnit == Unit.UnitType.INTENSITY) {
-            double sum = 0;
-            double sum2 = 0;
-            for (int y = y0; y < y0 + h; y++) {
-                for (int x = x0; x < x0 + w; x++) {
-
-                    final double v = srcData1.getElemDoubleAt(sourceRaster1.getDataBufferIndex(x, y));
+                    final double v = srcPlane[offset + x];
                     sum += v;
                     sum2 += v*v;
                 }
@@ -843,9 +781,10 @@ public class SpeckleFilterOp extends Operator {
             double sum2 = 0;
             double sum4 = 0;
             for (int y = y0; y < y0 + h; y++) {
+                final int offset = (y - sy0)*sw - sx0;
                 for (int x = x0; x < x0 + w; x++) {
 
-                    final double v = srcData1.getElemDoubleAt(sourceRaster1.getDataBufferIndex(x, y));
+                    final double v = srcPlane[offset + x];
                     final double v2 = v*v;
                     sum2 += v2;
                     sum4 += v2*v2;
@@ -866,10 +805,8 @@ public class SpeckleFilterOp extends Operator {
 
     /**
      * Filter the given tile of image with refined Lee filter.
-     * @param srcData1 The source ProductData for the 1st band.
-     * @param srcData2 The source ProductData for the 2nd band.
-     * @param trgData target ProductData
-     * @param unit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
+     * @param targetTile The target tile.
      * @param x0 X coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param y0 Y coordinate for the upper-left point of the target_Tile_Rectangle.
      * @param w Width for the target_Tile_Rectangle.
@@ -879,23 +816,21 @@ public class SpeckleFilterOp extends Operator {
      * @param sw src rect w
      * @param sh src rect h
      */
-    private void computeRefinedLee(final ProductData srcData1, final ProductData srcData2, final ProductData trgData,
-                                   final Unit.UnitType unit,
-                                   final TileIndex srcIndex, final TileIndex trgIndex,
+    private void computeRefinedLee(final double[] srcPlane, final Tile targetTile,
                                    final int x0, final int y0, final int w, final int h,
                                    final int sx0, final int sy0, final int sw, final int sh) {
 
         final double[][] neighborPixelValues = new double[filterSizeY][filterSizeX];
+        final double[] trgRow = new double[w];
         final int maxY = y0 + h;
-        final int maxX = x0 + w;
         for (int y = y0; y < maxY; ++y) {
-            final int offset = trgIndex.calculateStride(y);
-            for (int x = x0; x < maxX; ++x) {
+            for (int x = 0; x < w; ++x) {
                 final int n = getNeighborValuesWithoutBorderExt(
-                        x, y, sx0, sy0, sw, sh, srcData1, srcData2, unit, neighborPixelValues, srcIndex);
+                        x0 + x, y, sx0, sy0, sw, sh, srcPlane, neighborPixelValues);
 
-                trgData.setElemDoubleAt(x-offset, getRefinedLeeValue(n, neighborPixelValues));
+                trgRow[x] = getRefinedLeeValue(n, neighborPixelValues);
             }
+            targetTile.setSamplesRow(y, trgRow);
         }
     }
 
@@ -907,67 +842,34 @@ public class SpeckleFilterOp extends Operator {
      * @param sy0 Y coordinate of pixel at upper left corner of source tile.
      * @param sw Source tile width.
      * @param sh Source tile height.
-     * @param srcData1 databuffer 1
-     * @param srcData2 databuffer 2
-     * @param bandUnit Unit for the 1st band.
+     * @param srcPlane The source pixel values.
      * @param neighborPixelValues 2-D array holding the pixel valuse.
      * @return The number of valid pixels.
      * @throws org.esa.beam.framework.gpf.OperatorException
      *          If an error occurs in obtaining the pixel values.
      */
     private int getNeighborValuesWithoutBorderExt(final int x, final int y, final int sx0, final int sy0,
-                                                  final int sw, final int sh,
-                                                  final ProductData srcData1, final ProductData srcData2,
-                                                  final Unit.UnitType bandUnit,
-                                                  final double[][] neighborPixelValues,
-                                                  final TileIndex srcIndex) {
+                                                  final int sw, final int sh, final double[] srcPlane,
+                                                  final double[][] neighborPixelValues) {
         final int maxY = sy0 + sh;
         final int maxX = sx0 + sw;
         int k = 0;
-        if (bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY) {
-
-            for (int j = 0; j < filterSizeY; ++j) {
-                final int yj = y - halfSizeY + j;
-                if(yj < sy0 || yj >= maxY) {
-                    for (int i = 0; i < filterSizeX; ++i) {
-                        neighborPixelValues[j][i] = NonValidPixelValue;
-                    }
-                    continue;
-                }
-                final int offset = srcIndex.calculateStride(yj);
+        for (int j = 0; j < filterSizeY; ++j) {
+            final int yj = y - halfSizeY + j;
+            if(yj < sy0 || yj >= maxY) {
                 for (int i = 0; i < filterSizeX; ++i) {
-                    final int xi = x - halfSizeX + i;
-                    if (xi < sx0 || xi >= maxX) {
-                        neighborPixelValues[j][i] = NonValidPixelValue;
-                    } else {
-                        final int idx = xi-offset;
-                        final double I = srcData1.getElemDoubleAt(idx);
-                        final double Q = srcData2.getElemDoubleAt(idx);
-                        neighborPixelValues[j][i] = I*I + Q*Q;
-                        k++;
-                    }
+                    neighborPixelValues[j][i] = NonValidPixelValue;
                 }
+                continue;
             }
-
-        } else {
-
-            for (int j = 0; j < filterSizeY; ++j) {
-                final int yj = y - halfSizeY + j;
-                if(yj < sy0 || yj >= maxY) {
-                    for (int i = 0; i < filterSizeX; ++i) {
-                        neighborPixelValues[j][i] = NonValidPixelValue;
-                    }
-                    continue;
-                }
-                final int offset = srcIndex.calculateStride(yj);
-                for (int i = 0; i < filterSizeX; ++i) {
-                    final int xi = x - halfSizeX + i;
-                    if (xi < sx0 || xi >= maxX) {
-                        neighborPixelValues[j][i] = NonValidPixelValue;
-                    } else {
-                        neighborPixelValues[j][i] = srcData1.getElemDoubleAt(xi-offset);
-                        k++;
-                    }
+            final int offset = (yj - sy0)*sw - sx0;
+            for (int i = 0; i < filterSizeX; ++i) {
+                final int xi = x - halfSizeX + i;
+                if (xi < sx0 || xi >= maxX) {
+                    neighborPixelValues[j][i] = NonValidPixelValue;
+                } else {
+                    neighborPixelValues[j][i] = srcPlane[offset + xi];
+                    k++;
                 }
             }
         }
@@ -23,6 +23,11 @@ import org.esa.nest.datamodel.Orbits;
 import org.esa.nest.util.ftpUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -128,4 +133,74 @@ public abstract class BaseOrbitFile implements OrbitFile {
         }
     }
 
+    /**
+     * A cache of fully read orbit readers shared between products using the same orbit file.
+     * The least recently used reader is closed when the cache is full.
+     * <p/>
+     * The methods of the cache are thread-safe. The cached readers are used by concurrent operators,
+     * so a reader must hold all orbit data in memory and must not be modified once cached.
+     *
+     * @param <R> the reader type
+     */
+    protected static class ReaderCache<R> {
+
+        private static final int MAX_CACHED_READERS = 10;
+
+        private final Map<File, R> readers = new LinkedHashMap<File, R>(MAX_CACHED_READERS + 1, 0.75f, true);
+
+        /**
+         * Get a reader that has already read the given orbit file
+         * @param file the orbit file
+         * @return the reader or null if not cached
+         */
+        public synchronized R get(final File file) {
+            return readers.get(file.getAbsoluteFile());
+        }
+
+        /**
+         * Keep a reader that has read all of the given orbit file. If another thread has cached a reader
+         * for the file in the meantime, the given reader is closed and the cached one is returned.
+         * @param file the orbit file
+         * @param reader the reader
+         * @return the shared reader to use
+         */
+        public R put(final File file, final R reader) {
+            final List<R> closedReaders = new ArrayList<R>(1);
+            final R sharedReader;
+            synchronized(this) {
+                final File key = file.getAbsoluteFile();
+                final R cachedReader = readers.get(key);
+                if(cachedReader != null) {
+                    closedReaders.add(reader);
+                    sharedReader = cachedReader;
+                } else {
+                    readers.put(key, reader);
+                    final Iterator<R> it = readers.values().iterator();
+                    while(readers.size() > MAX_CACHED_READERS) {
+                        closedReaders.add(it.next());
+                        it.remove();
+                    }
+                    sharedReader = reader;
+                }
+            }
+            for(R closedReader : closedReaders) {
+                try {
+                    close(closedReader);
+                } catch(IOException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            return sharedReader;
+        }
+
+        /**
+         * Release the resources of a reader removed from the cache. Operators still using it
+         * only access its orbit data in memory.
+         * @param reader the reader
+         * @throws IOException if the reader can't be closed
+         */
+        protected void close(final R reader) throws IOException {
+        }
+    }
+
 }
@@ -68,12 +68,11 @@ public class DelftOrbitFile extends BaseOrbitFile {
      */
     private void init(final Product sourceProduct) throws Exception {
 
-        delftReader = OrbitalDataRecordReader.getInstance();
         // get product start time
         final Date startDate = sourceProduct.getStartTime().getAsDate();
 
         // find orbit file in the folder
-        orbitFile = FindDelftOrbitFile(delftReader, startDate);
+        orbitFile = FindDelftOrbitFile(startDate);
 
         if(orbitFile == null) {
             throw new IOException("Unable to find suitable orbit file.\n" +
@@ -86,12 +85,11 @@ public class DelftOrbitFile extends BaseOrbitFile {
 
     /**
      * Find DELFT orbit file.
-     * @param delftReader The DELFT oribit reader.
      * @param productDate The start date of the product.
      * @return The orbit file.
      * @throws Exception The exceptions.
      */
-    private File FindDelftOrbitFile(final OrbitalDataRecordReader delftReader, final Date productDate)
+    private File FindDelftOrbitFile(final Date productDate)
             throws Exception  {
 
         final String mission = absRoot.getAttributeString(AbstractMetadata.MISSION);
@@ -148,8 +146,36 @@ public class DelftOrbitFile extends BaseOrbitFile {
         }
 
         // read content of the orbit file
-        delftReader.readOrbitFile(orbitFile.getAbsolutePath());
+        delftReader = getDelftReader(orbitFile);
 
         return orbitFile;
     }
+
+    private static final ReaderCache<OrbitalDataRecordReader> readerCache = new ReaderCache<OrbitalDataRecordReader>() {
+        @Override
+        protected void close(final OrbitalDataRecordReader reader) throws IOException {
+            reader.close();
+        }
+    };
+
+    /**
+     * Get a reader with the orbit file read. Readers are shared once read.
+     * @param file the orbit file
+     * @return the reader
+     * @throws Exception The exceptions.
+     */
+    private static OrbitalDataRecordReader getDelftReader(final File file) throws Exception {
+        OrbitalDataRecordReader reader = readerCache.get(file);
+        if(reader == null) {
+            reader = new OrbitalDataRecordReader();
+            try {
+                reader.readOrbitFile(file.getAbsolutePath());
+            } catch(Exception e) {
+                reader.close();
+                throw e;
+            }
+            reader = readerCache.put(file, reader);
+        }
+        return reader;
+    }
 }
\ No newline at end of file
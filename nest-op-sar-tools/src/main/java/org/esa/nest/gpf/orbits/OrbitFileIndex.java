@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.gpf.orbits;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Index of the validity periods of the orbit files in a folder.
+ * The index is saved in the folder so that orbit files only need to be opened once.
+ */
+public final class OrbitFileIndex {
+
+    public static final String INDEX_FILE_NAME = "orbit_index.txt";
+
+    private static final Map<String, OrbitFileIndex> indexMap = new HashMap<String, OrbitFileIndex>(10);
+
+    private final File folder;
+    private final ValidityReader validityReader;
+    private final Map<String, Entry> entryMap = new HashMap<String, Entry>(100);
+
+    // entries sorted by start time and the latest stop time of all entries up to each index
+    private Entry[] sortedEntries = new Entry[0];
+    private double[] maxStopTimes = new double[0];
+
+    /**
+     * Reads the validity period of an orbit file
+     */
+    public interface ValidityReader {
+
+        /**
+         * Get the validity of an orbit file
+         * @param file the orbit file
+         * @return the start and stop time in MJD
+         * @throws Exception if the file is not an orbit file
+         */
+        public double[] readValidity(final File file) throws Exception;
+    }
+
+    private OrbitFileIndex(final File folder, final ValidityReader validityReader) {
+        this.folder = folder;
+        this.validityReader = validityReader;
+    }
+
+    /**
+     * Get the index of an orbit folder. The index is loaded and brought up to date on first use.
+     * @param folder the orbit folder
+     * @param validityReader reads the validity of orbit files not yet in the index
+     * @return the index
+     */
+    public static OrbitFileIndex getIndex(final File folder, final ValidityReader validityReader) {
+        final String key = folder.getAbsolutePath();
+        synchronized(indexMap) {
+            OrbitFileIndex index = indexMap.get(key);
+            if(index == null) {
+                index = new OrbitFileIndex(folder, validityReader);
+                index.load();
+                index.refresh();
+                indexMap.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Find the orbit file valid for the given time
+     * @param mjd the time in MJD
+     * @return the orbit file or null if not found
+     */
+    public synchronized File findOrbitFile(final double mjd) {
+        // last entry starting before the time
+        int lo = 0, hi = sortedEntries.length - 1, found = -1;
+        while(lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if(sortedEntries[mid].start <= mjd) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        // prefer the latest start, go back only while an earlier file may still be valid
+        for(int i = found; i >= 0 && maxStopTimes[i] > mjd; --i) {
+            if(sortedEntries[i].stop > mjd) {
+                final File file = new File(folder, sortedEntries[i].path);
+                if(file.exists())
+                    return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add new or changed files in the folder to the index and remove deleted ones
+     */
+    public synchronized void refresh() {
+        final List<File> fileList = new ArrayList<File>(100);
+        listFiles(folder, fileList);
+
+        boolean changed = false;
+        final Set<String> existingPaths = new HashSet<String>(fileList.size());
+        for(File file : fileList) {
+            final String path = getRelativePath(file);
+            existingPaths.add(path);
+
+            final Entry entry = entryMap.get(path);
+            if(entry != null && entry.length == file.length() && entry.lastModified == file.lastModified())
+                continue;
+
+            try {
+                final double[] validity = validityReader.readValidity(file);
+                entryMap.put(path, new Entry(path, validity[0], validity[1], file.length(), file.lastModified()));
+            } catch(Exception e) {
+                // not an orbit file, remember it to avoid opening it again
+                entryMap.put(path, new Entry(path, 0, 0, file.length(), file.lastModified()));
+            }
+            changed = true;
+        }
+        if(entryMap.keySet().retainAll(existingPaths)) {
+            changed = true;
+        }
+
+        if(changed) {
+            sortEntries();
+            save();
+        }
+    }
+
+    private void listFiles(final File dir, final List<File> fileList) {
+        final File[] list = dir.listFiles();
+        if(list == null) return;
+
+        for(File f : list) {
+            if(f.isDirectory()) {
+                listFiles(f, fileList);
+            } else if(!f.getName().startsWith(INDEX_FILE_NAME)) {   // the index or a temporary index
+                fileList.add(f);
+            }
+        }
+    }
+
+    private String getRelativePath(final File file) {
+        return file.getAbsolutePath().substring(folder.getAbsolutePath().length() + 1);
+    }
+
+    private void sortEntries() {
+        final List<Entry> list = new ArrayList<Entry>(entryMap.size());
+        for(Entry entry : entryMap.values()) {
+            if(entry.stop > entry.start) {
+                list.add(entry);
+            }
+        }
+        Collections.sort(list);
+
+        sortedEntries = list.toArray(new Entry[list.size()]);
+        maxStopTimes = new double[sortedEntries.length];
+        double maxStop = -Double.MAX_VALUE;
+        for(int i = 0; i < sortedEntries.length; ++i) {
+            maxStop = Math.max(maxStop, sortedEntries[i].stop);
+            maxStopTimes[i] = maxStop;
+        }
+    }
+
+    private void load() {
+        final File indexFile = new File(folder, INDEX_FILE_NAME);
+        if(!indexFile.exists())
+            return;
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(indexFile));
+            String line;
+            while((line = reader.readLine()) != null) {
+                final Entry entry = Entry.parse(line);
+                if(entry != null) {
+                    entryMap.put(entry.path, entry);
+                }
+            }
+        } catch(IOException e) {
+            System.out.println("Unable to read orbit index "+indexFile+ '\n' +e.getMessage());
+            entryMap.clear();
+        } finally {
+            close(reader);
+        }
+        sortEntries();
+    }
+
+    private void save() {
+        if(!folder.exists())
+            return;
+
+        // write a temporary file and rename it, so that other processes never read a partly written index
+        final File indexFile = new File(folder, INDEX_FILE_NAME);
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(INDEX_FILE_NAME, ".tmp", folder);
+            final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(tempFile)));
+            try {
+                for(Entry entry : entryMap.values()) {
+                    writer.println(entry.format());
+                }
+            } finally {
+                writer.close();
+            }
+            if(writer.checkError())
+                throw new IOException("Unable to write "+tempFile);
+            // on Windows a file cannot be renamed over an existing one
+            if(!tempFile.renameTo(indexFile) && !(indexFile.delete() && tempFile.renameTo(indexFile)))
+                throw new IOException("Unable to rename "+tempFile);
+            tempFile = null;
+        } catch(IOException e) {
+            // folder may be read only, the index is kept in memory
+            System.out.println("Unable to write orbit index "+indexFile+ '\n' +e.getMessage());
+        } finally {
+            if(tempFile != null)
+                tempFile.delete();
+        }
+    }
+
+    private static void close(final Closeable closeable) {
+        if(closeable != null) {
+            try {
+                closeable.close();
+            } catch(IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private final static class Entry implements Comparable<Entry> {
+        final String path;
+        final double start;
+        final double stop;
+        final long length;
+        final long lastModified;
+
+        Entry(final String path, final double start, final double stop, final long length, final long lastModified) {
+            this.path = path;
+            this.start = start;
+            this.stop = stop;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        public int compareTo(final Entry other) {
+            return Double.compare(start, other.start);
+        }
+
+        String format() {
+            return start +"\t"+ stop +"\t"+ length +"\t"+ lastModified +"\t"+ path;
+        }
+
+        static Entry parse(final String line) {
+            final String[] tokens = line.split("\t", 5);
+            if(tokens.length != 5)
+                return null;
+            try {
+                return new Entry(tokens[4], Double.parseDouble(tokens[0]), Double.parseDouble(tokens[1]),
+                                 Long.parseLong(tokens[2]), Long.parseLong(tokens[3]));
+            } catch(NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -74,7 +74,6 @@ public class PrareOrbitFile extends BaseOrbitFile {
      */
     private void init(final Product sourceProduct) throws IOException {
 
-        prareReader = PrareOrbitReader.getInstance();
         final String mission = absRoot.getAttributeString(AbstractMetadata.MISSION);
         
         // construct path to the orbit file folder
@@ -99,22 +98,60 @@ public class PrareOrbitFile extends BaseOrbitFile {
         final File localPath = new File(orbitPath);
 
         // find orbit file in the folder
-        orbitFile = FindPrareOrbitFile(prareReader, localPath, startMJD);
+        final OrbitFileIndex index = OrbitFileIndex.getIndex(localPath, validityReader);
+        orbitFile = index.findOrbitFile(startMJD);
         if(orbitFile == null) {
             final String remotePath = remoteBaseFolder +'/'+ folder;
             getRemotePrareFiles(remotePath, localPath, getPrefix(year, month));
             // find again in newly downloaded folder
-            orbitFile = FindPrareOrbitFile(prareReader, localPath, startMJD);
+            index.refresh();
+            orbitFile = index.findOrbitFile(startMJD);
             if(orbitFile == null) {
                 // check next month
                 getRemotePrareFiles(remotePath, localPath, getPrefix(year, month+1));
-                orbitFile = FindPrareOrbitFile(prareReader, localPath, startMJD);
+                index.refresh();
+                orbitFile = index.findOrbitFile(startMJD);
             }
         }
 
         if(orbitFile == null) {
             throw new IOException("Unable to find suitable orbit file \n"+orbitPath+"\nPlease check your firewall settings");
         }
+
+        prareReader = getPrareReader(orbitFile);
+    }
+
+    private static final OrbitFileIndex.ValidityReader validityReader = new OrbitFileIndex.ValidityReader() {
+        public double[] readValidity(final File file) throws Exception {
+            final PrareOrbitReader reader = new PrareOrbitReader();
+            reader.readOrbitHeader(file);
+            return new double[] { reader.getSensingStart(), reader.getSensingStop() };
+        }
+    };
+
+    // the PRARE reader closes the file after parsing, so there is nothing to release on eviction
+    private static final ReaderCache<PrareOrbitReader> readerCache = new ReaderCache<PrareOrbitReader>();
+
+    /**
+     * Get the PRARE reader of an orbit file. The header and trajectory records are parsed
+     * once and the reader is shared by all products within the file's validity period.
+     * @param file the orbit file
+     * @return the reader
+     * @throws IOException if the file can't be parsed
+     */
+    private static PrareOrbitReader getPrareReader(final File file) throws IOException {
+        PrareOrbitReader reader = readerCache.get(file);
+        if(reader == null) {
+            reader = new PrareOrbitReader();
+            try {
+                reader.readOrbitHeader(file);
+                reader.readOrbitData(file);
+            } catch(Exception e) {
+                throw new IOException("Unable to parse file: "+e.toString());
+            }
+            reader = readerCache.put(file, reader);
+        }
+        return reader;
     }
 
     private static String getPrefix(int year, int month) {
@@ -164,45 +201,4 @@ public class PrareOrbitFile extends BaseOrbitFile {
             System.out.println(e.getMessage());
         }
     }
-
-    /**
-     * Find PRARE orbit file.
-     * @param prareReader The PRARE oribit reader.
-     * @param path The path to the orbit file.
-     * @param startMJD The start date of the product.
-     * @return The orbit file.
-     * @throws IOException if can't read file
-     */
-    private static File FindPrareOrbitFile(final PrareOrbitReader prareReader, final File path,
-                                           final double startMJD) throws IOException {
-
-        final File[] list = path.listFiles();
-        if(list == null) return null;
-
-        // loop through all orbit files in the given folder
-        for(File f : list) {
-
-            if (f.isDirectory()) {
-                continue;
-            }
-
-            // read header record of each orbit file
-            prareReader.readOrbitHeader(f);
-
-            // get the start and end dates and compare them against product start date
-            final float startDateInMJD = prareReader.getSensingStart(); // in days
-            final float stopDateInMJD = prareReader.getSensingStop(); // in days
-            if (startDateInMJD <= startMJD && startMJD < stopDateInMJD) {
-                try {
-                    // read orbit data records in each orbit file
-                    prareReader.readOrbitData(f);
-                    return f;
-                } catch(Exception e) {
-                    throw new IOException("Unable to parse file: "+e.toString());    
-                }
-            }
-        }
-
-        return null;
-    }
 }
\ No newline at end of file
@@ -53,6 +53,10 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
     @Parameter(description = "The list of polarisations", label="Polarisations")
     private String[] selectedPolarisations;
 
+    @Parameter(description = "The number of lines over which adjacent bursts are cross-faded at their seam, 0 for a hard cut",
+               interval = "[0, *)", defaultValue = "0", label = "Burst Seam Blending Lines")
+    private int seamBlendingLines = 0;
+
     private MetadataElement absRoot = null;
     private String acquisitionMode = null;
 
@@ -69,6 +73,15 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
 
     private SubSwathInfo[] subSwath = null;
 
+    // index maps depending only on the target row or column, computed once in initialize
+    private int[][] sourceLine = null;           // [subswath][target row] source line or -1 if no burst covers it
+    private int[][] blendLine = null;            // [subswath][target row] line of the other burst at a seam or -1
+    private float[][] blendWeight = null;        // [subswath][target row] weight of blendLine
+    private boolean[][] rowInSubSwath = null;    // [subswath][target row] row within the subswath time span
+    private int[][] sourceSample = null;         // [subswath][target column] source sample
+    private int[] columnSubSwath0 = null;        // [target column] first subswath (1-based) or -1
+    private int[] columnSubSwath1 = null;        // [target column] second subswath in overlaps or -1
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -111,6 +124,8 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
 
             computeTargetWidthAndHeight();
 
+            computeIndexMaps();
+
             createTargetProduct();
 
             updateTargetProductMetadata();
@@ -317,6 +332,73 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
                 targetDeltaSlantRangeTime);
     }
 
+    /**
+     * Compute the burst source lines and seam blending weights of each target row and the subswaths and
+     * source samples of each target column.
+     */
+    private void computeIndexMaps() {
+
+        sourceLine = new int[numOfSubSwath][targetHeight];
+        blendLine = new int[numOfSubSwath][targetHeight];
+        blendWeight = new float[numOfSubSwath][targetHeight];
+        rowInSubSwath = new boolean[numOfSubSwath][targetHeight];
+        sourceSample = new int[numOfSubSwath][targetWidth];
+
+        final BurstInfo burstInfo = new BurstInfo();
+        for (int s = 0; s < numOfSubSwath; s++) {
+            final SubSwathInfo sw = subSwath[s];
+            for (int y = 0; y < targetHeight; y++) {
+                final double targetLineTime = targetFirstLineTime + y*targetLineTimeInterval;
+                rowInSubSwath[s][y] = targetLineTime >= sw.firstLineTime && targetLineTime <= sw.lastLineTime;
+
+                blendLine[s][y] = -1;
+                if (!getLineIndicesInSourceProduct(y, sw, burstInfo)) {
+                    sourceLine[s][y] = -1;
+                    continue;
+                }
+                final boolean secondBurst = burstInfo.sy1 != -1 && burstInfo.targetTime > burstInfo.midTime;
+                sourceLine[s][y] = secondBurst ? burstInfo.sy1 : burstInfo.sy0;
+
+                if (seamBlendingLines > 0 && burstInfo.sy1 != -1) {
+                    // the blending window is centred on the seam and clipped to the burst overlap
+                    final double halfWindow = Math.min(seamBlendingLines / 2.0,
+                            (sw.burstLastLineTime[burstInfo.burstNum0] - sw.burstFirstLineTime[burstInfo.burstNum1]) /
+                                    (2.0 * targetLineTimeInterval));
+                    final double linesFromSeam = (burstInfo.targetTime - burstInfo.midTime) / targetLineTimeInterval;
+                    if (Math.abs(linesFromSeam) < halfWindow) {
+                        final double weight1 = 0.5 + linesFromSeam / (2.0 * halfWindow);
+                        blendLine[s][y] = secondBurst ? burstInfo.sy0 : burstInfo.sy1;
+                        blendWeight[s][y] = (float) (secondBurst ? 1.0 - weight1 : weight1);
+                    }
+                }
+            }
+
+            for (int x = 0; x < targetWidth; x++) {
+                sourceSample[s][x] = getSampleIndexInSourceProduct(x, sw);
+            }
+        }
+
+        columnSubSwath0 = new int[targetWidth];
+        columnSubSwath1 = new int[targetWidth];
+        for (int x = 0; x < targetWidth; x++) {
+            final double targetSampleSlrTime = targetSlantRangeTimeToFirstPixel + x*targetDeltaSlantRangeTime;
+            columnSubSwath0[x] = -1;
+            columnSubSwath1[x] = -1;
+            for (int i = 1; i <= numOfSubSwath; i++) {
+                final SubSwathInfo info = subSwath[i - 1];
+                if (targetSampleSlrTime >= info.slrTimeToFirstPixel &&
+                    targetSampleSlrTime <= info.slrTimeToLastPixel) {
+                    if (columnSubSwath0[x] == -1) {
+                        columnSubSwath0[x] = i;
+                    } else {
+                        columnSubSwath1[x] = i;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
     private void createTargetProduct() {
 
         targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(), targetWidth, targetHeight);
@@ -597,7 +679,6 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
                  sourceRectangle[k++] = getSourceRectangle(tx0, ty0, tw, th, i);
             }
 
-            final BurstInfo burstInfo = new BurstInfo();
             final int lastX = tx0 + tw;
             final String bandNameI = "i_" + acquisitionMode;
             final String bandNameQ = "q_" + acquisitionMode;
@@ -609,11 +690,11 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
 
                     if (tileInOneSubSwath) {
                         computeTileInOneSwath(tx0, ty0, lastX, th, firstSubSwathIndex, pol,
-                                sourceRectangle, bandNameI, bandNameQ, targetTileI, targetTileQ, burstInfo);
+                                sourceRectangle, bandNameI, bandNameQ, targetTileI, targetTileQ);
 
                     } else {
                         computeMultipleSubSwaths(tx0, ty0, lastX, th, firstSubSwathIndex, lastSubSwathIndex, pol,
-                                sourceRectangle, bandNameI, bandNameQ, targetTileI, targetTileQ, burstInfo);
+                                sourceRectangle, bandNameI, bandNameQ, targetTileI, targetTileQ);
 
                     }
                 }
@@ -627,8 +708,7 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
                                        final int firstSubSwathIndex, final String pol,
                                        final Rectangle[] sourceRectangle,
                                        final String bandNameI, final String bandNameQ,
-                                       final Tile targetTileI, final Tile targetTileQ,
-                                       final BurstInfo burstInfo) {
+                                       final Tile targetTileI, final Tile targetTileQ) {
 
         final int yMin = computeYMin(subSwath[firstSubSwathIndex - 1]);
         final int yMax = computeYMax(subSwath[firstSubSwathIndex-1]);
@@ -650,35 +730,52 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
         final short[] tgtArrayI = (short[])targetTileI.getDataBuffer().getElems();
         final short[] tgtArrayQ = (short[])targetTileQ.getDataBuffer().getElems();
 
+        final int[] lines = sourceLine[firstSubSwathIndex-1];
+        final int[] otherLines = blendLine[firstSubSwathIndex-1];
+        final float[] weights = blendWeight[firstSubSwathIndex-1];
+        final int sx = sourceSample[firstSubSwathIndex-1][tx0];
+
         for (int y = firstY; y < lastY; y++) {
 
-            if(!getLineIndicesInSourceProduct(y, subSwath[firstSubSwathIndex-1], burstInfo)) {
+            final int sy = lines[y];
+            if (sy == -1) {
                 continue;
             }
 
             final int tgtOffset = tgtIndex.calculateStride(y);
-            final SubSwathInfo firstSubSwath = subSwath[firstSubSwathIndex-1];
-            int offset;
-            if (burstInfo.sy1 != -1 && burstInfo.targetTime > burstInfo.midTime) {
-                offset = srcTileIndex.calculateStride(burstInfo.sy1);
+            final int offset = srcTileIndex.calculateStride(sy);
+
+            if (otherLines[y] == -1) {
+                System.arraycopy(srcArrayI, sx-offset, tgtArrayI, tx0-tgtOffset, lastX-tx0);
+                System.arraycopy(srcArrayQ, sx-offset, tgtArrayQ, tx0-tgtOffset, lastX-tx0);
             } else {
-                offset = srcTileIndex.calculateStride(burstInfo.sy0);
+                blendRun(srcArrayI, srcArrayQ, sx-offset, sx-srcTileIndex.calculateStride(otherLines[y]), weights[y],
+                         tgtArrayI, tgtArrayQ, tx0-tgtOffset, lastX-tx0);
             }
+        }
+    }
 
-            final int sx = (int)Math.round(( (targetSlantRangeTimeToFirstPixel + tx0*targetDeltaSlantRangeTime)
-                    - firstSubSwath.slrTimeToFirstPixel)/targetDeltaSlantRangeTime);
-
-            System.arraycopy(srcArrayI, sx-offset, tgtArrayI, tx0-tgtOffset, lastX-tx0);
-            System.arraycopy(srcArrayQ, sx-offset, tgtArrayQ, tx0-tgtOffset, lastX-tx0);
+    /**
+     * Cross-fade a run of pixels of two bursts at their seam.
+     */
+    private static void blendRun(final short[] srcArrayI, final short[] srcArrayQ,
+                                 final int srcIdx, final int otherSrcIdx, final float otherWeight,
+                                 final short[] tgtArrayI, final short[] tgtArrayQ, final int tgtIdx, final int length) {
+        for (int i = 0; i < length; i++) {
+            tgtArrayI[tgtIdx+i] = blend(srcArrayI[srcIdx+i], srcArrayI[otherSrcIdx+i], otherWeight);
+            tgtArrayQ[tgtIdx+i] = blend(srcArrayQ[srcIdx+i], srcArrayQ[otherSrcIdx+i], otherWeight);
         }
     }
 
+    private static short blend(final short value, final short otherValue, final float otherWeight) {
+        return (short)Math.round(value + otherWeight*(otherValue - value));
+    }
+
     private void computeMultipleSubSwaths(final int tx0, final int ty0, final int lastX, final int th,
                                           final int firstSubSwathIndex, final int lastSubSwathIndex, final String pol,
                                           final Rectangle[] sourceRectangle,
                                           final String bandNameI, final String bandNameQ,
-                                          final Tile targetTileI, final Tile targetTileQ,
-                                          final BurstInfo burstInfo) {
+                                          final Tile targetTileI, final Tile targetTileQ) {
         final int numOfSourceTiles = lastSubSwathIndex - firstSubSwathIndex + 1;
         final TileIndex tgtIndex = new TileIndex(targetTileI);
         final Tile[] srcTiles = new Tile[numOfSourceTiles];
@@ -701,64 +798,103 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
             k++;
         }
 
-        int sy;
         for (int y = ty0; y < ty0 + th; y++) {
             final int tgtOffset = tgtIndex.calculateStride(y);
+            final double targetLineTime = targetFirstLineTime + y*targetLineTimeInterval;
 
-            for (int x = tx0; x < lastX; x++) {
+            int x = tx0;
+            while (x < lastX) {
 
-                int subswathIndex = getSubSwathIndex(x, y, firstSubSwathIndex, lastSubSwathIndex, pol, burstInfo);
-                if (subswathIndex == -1) {
+                // subswaths covering the pixel
+                int swath0 = columnSubSwath0[x];
+                int swath1 = columnSubSwath1[x];
+                if (swath1 != -1 && !rowInSubSwath[swath1-1][y]) {
+                    swath1 = -1;
+                }
+                if (swath0 != -1 && !rowInSubSwath[swath0-1][y]) {
+                    swath0 = swath1;
+                    swath1 = -1;
+                }
+                if (swath0 == -1 || (swath1 == -1 && sourceLine[swath0-1][y] == -1)) {
+                    x++;
                     continue;
                 }
-                if(!getLineIndicesInSourceProduct(y, subSwath[subswathIndex-1], burstInfo)) {
+
+                if (swath1 == -1) {
+                    // block copy of the run of pixels inside a single subswath
+                    k = swath0 - firstSubSwathIndex;
+                    final int[] samples = sourceSample[swath0-1];
+                    final int sx = samples[x];
+                    int runEnd = x + 1;
+                    while (runEnd < lastX && columnSubSwath0[runEnd] == swath0 && columnSubSwath1[runEnd] == -1 &&
+                            samples[runEnd] == sx + runEnd - x) {
+                        runEnd++;
+                    }
+                    final int idx = srcTiles[k].getDataBufferIndex(sx, sourceLine[swath0-1][y]);
+                    final int otherIdx = blendLine[swath0-1][y] == -1 ? -1 :
+                            srcTiles[k].getDataBufferIndex(sx, blendLine[swath0-1][y]);
+                    if (idx >= 0 && otherIdx >= 0) {
+                        blendRun(srcArrayI[k], srcArrayQ[k], idx, otherIdx, blendWeight[swath0-1][y],
+                                 tgtArrayI, tgtArrayQ, x-tgtOffset, runEnd-x);
+                    } else if (idx >= 0) {
+                        System.arraycopy(srcArrayI[k], idx, tgtArrayI, x-tgtOffset, runEnd-x);
+                        System.arraycopy(srcArrayQ[k], idx, tgtArrayQ, x-tgtOffset, runEnd-x);
+                    }
+                    x = runEnd;
                     continue;
                 }
 
-                short iVal = 0, qVal = 0;
-                k = subswathIndex - firstSubSwathIndex;
+                // overlap of two subswaths, use the subswath with the lower noise
+                int subswathIndex = swath0;
+                final double noise0 = getSubSwathNoise(x, targetLineTime, subSwath[swath0 - 1], pol);
+                final double noise1 = getSubSwathNoise(x, targetLineTime, subSwath[swath1 - 1], pol);
+                if (noise0 > noise1) {
+                    subswathIndex = swath1;
+                }
 
-                int sx = getSampleIndexInSourceProduct(x, subSwath[subswathIndex-1]);
-                if (burstInfo.sy1 != -1 && burstInfo.targetTime > burstInfo.midTime) {
-                    sy = burstInfo.sy1;
-                } else {
-                    sy = burstInfo.sy0;
+                int sy = sourceLine[subswathIndex-1][y];
+                if (sy == -1) {
+                    x++;
+                    continue;
                 }
-                int idx = srcTiles[k].getDataBufferIndex(sx, sy);
 
+                short iVal = 0, qVal = 0;
+                k = subswathIndex - firstSubSwathIndex;
+                int idx = srcTiles[k].getDataBufferIndex(sourceSample[subswathIndex-1][x], sy);
                 if(idx >= 0) {
                     iVal = srcArrayI[k][idx];
                     qVal = srcArrayQ[k][idx];
                 }
+                int usedSubswathIndex = idx >= 0 ? subswathIndex : -1;
 
-                double intensity = iVal*iVal+qVal*qVal;
-                //if(burstInfo.swath1 != -1 && iVal == 0 && qVal == 0) {
-                if(burstInfo.swath1 != -1 && intensity < 300) {
+                final double intensity = iVal*iVal+qVal*qVal;
+                if(intensity < 300) {
                     // edge of swaths found therefore use other swath
-                    if(subswathIndex == burstInfo.swath0)
-                        subswathIndex = burstInfo.swath1;
-                    else
-                        subswathIndex = burstInfo.swath0;
-
-                    getLineIndicesInSourceProduct(y, subSwath[subswathIndex-1], burstInfo);
-
+                    subswathIndex = (subswathIndex == swath0) ? swath1 : swath0;
                     k = subswathIndex - firstSubSwathIndex;
-
-                    sx = getSampleIndexInSourceProduct(x, subSwath[subswathIndex-1]);
-                    if (burstInfo.sy1 != -1 && burstInfo.targetTime > burstInfo.midTime) {
-                        sy = burstInfo.sy1;
-                    } else {
-                        sy = burstInfo.sy0;
-                    }
-                    idx = srcTiles[k].getDataBufferIndex(sx, sy);
+                    sy = sourceLine[subswathIndex-1][y];
+                    idx = sy == -1 ? -1 : srcTiles[k].getDataBufferIndex(sourceSample[subswathIndex-1][x], sy);
 
                     if(idx >=0 && !(srcArrayI[k][idx] == 0 && srcArrayQ[k][idx] == 0)) {
                         iVal = srcArrayI[k][idx];
                         qVal = srcArrayQ[k][idx];
+                        usedSubswathIndex = subswathIndex;
+                    }
+                }
+
+                final int otherSy = usedSubswathIndex == -1 ? -1 : blendLine[usedSubswathIndex-1][y];
+                if (otherSy != -1) {
+                    k = usedSubswathIndex - firstSubSwathIndex;
+                    final int otherIdx = srcTiles[k].getDataBufferIndex(sourceSample[usedSubswathIndex-1][x], otherSy);
+                    if (otherIdx >= 0) {
+                        final float w = blendWeight[usedSubswathIndex-1][y];
+                        iVal = blend(iVal, srcArrayI[k][otherIdx], w);
+                        qVal = blend(qVal, srcArrayQ[k][otherIdx], w);
                     }
                 }
                 tgtArrayI[x-tgtOffset] = iVal;
                 tgtArrayQ[x-tgtOffset] = qVal;
+                x++;
             }
         }
     }
@@ -850,44 +986,6 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
         return (int)((subSwath.lastLineTime - targetFirstLineTime)/targetLineTimeInterval);
     }
 
-    private int getSubSwathIndex(final int tx, final int ty, final int firstSubSwathIndex, final int lastSubSwathIndex,
-                                 final String pol, final BurstInfo burstInfo) {
-
-        final double targetSampleSlrTime = targetSlantRangeTimeToFirstPixel + tx*targetDeltaSlantRangeTime;
-        final double targetLineTime = targetFirstLineTime + ty*targetLineTimeInterval;
-
-        burstInfo.swath0 = -1;
-        burstInfo.swath1 = -1;
-        int cnt = 0;
-        SubSwathInfo info;
-        for (int i = firstSubSwathIndex; i <= lastSubSwathIndex; i++) {
-            int i_1 = i - 1;
-            info = subSwath[i_1];
-            if (targetLineTime >= info.firstLineTime &&
-                targetLineTime <= info.lastLineTime &&
-                targetSampleSlrTime >= info.slrTimeToFirstPixel &&
-                targetSampleSlrTime <= info.slrTimeToLastPixel) {
-
-                if(cnt==0) {
-                    burstInfo.swath0 = i;
-                } else {
-                    burstInfo.swath1 = i;
-                    break;
-                }
-                ++cnt;
-            }
-        }
-
-        if(burstInfo.swath1 != -1) {
-            final double noise0 = getSubSwathNoise(tx, targetLineTime, subSwath[burstInfo.swath0 - 1], pol);
-            final double noise1 = getSubSwathNoise(tx, targetLineTime, subSwath[burstInfo.swath1 - 1], pol);
-            if (noise0 > noise1) {
-                return burstInfo.swath1;
-            }
-        }
-        return burstInfo.swath0;
-    }
-
     private double getSubSwathNoise(final int tx, final double targetLineTime,
                                     final SubSwathInfo sw, final String pol) {
 
@@ -976,8 +1074,6 @@ public final class Sentinel1DeburstTOPSAROp extends Operator {
     private static class BurstInfo {
         public int sy0 = -1;
         public int sy1 = -1;
-        public int swath0;
-        public int swath1;
         public int burstNum0 = 0;
         public int burstNum1 = 0;
 
@@ -33,6 +33,7 @@ import java.util.Map;
 public class Sentinel1DeburstTOPSAROpUI extends BaseOperatorUI {
 
     private final JList<String> polList = new JList<String>();
+    private final JTextField seamBlendingLines = new JTextField("");
 
     @Override
     public JComponent CreateOpTab(String operatorName, Map<String, Object> parameterMap, AppContext appContext) {
@@ -55,6 +56,7 @@ public class Sentinel1DeburstTOPSAROpUI extends BaseOperatorUI {
 
             OperatorUIUtils.initParamList(polList, polarisations);
         }
+        seamBlendingLines.setText(String.valueOf(paramMap.get("seamBlendingLines")));
     }
 
     @Override
@@ -66,6 +68,7 @@ public class Sentinel1DeburstTOPSAROpUI extends BaseOperatorUI {
     public void updateParameters() {
 
         OperatorUIUtils.updateParamList(polList, paramMap, "selectedPolarisations");
+        paramMap.put("seamBlendingLines", Integer.parseInt(seamBlendingLines.getText()));
     }
 
     private JComponent createPanel() {
@@ -74,6 +77,8 @@ public class Sentinel1DeburstTOPSAROpUI extends BaseOperatorUI {
         final GridBagConstraints gbc = DialogUtils.createGridBagConstraints();
 
         DialogUtils.addComponent(contentPane, gbc, "Polarisations:", polList);
+        gbc.gridy++;
+        DialogUtils.addComponent(contentPane, gbc, "Burst Seam Blending Lines:", seamBlendingLines);
 
         DialogUtils.fillPanel(contentPane, gbc);
 
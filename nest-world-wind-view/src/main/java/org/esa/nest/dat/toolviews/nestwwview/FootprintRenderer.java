@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.dat.toolviews.nestwwview;
+
+import gov.nasa.worldwind.geom.Angle;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.Renderable;
+
+import javax.media.opengl.GL;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Draws the outlines of many products in a single pass.
+ * Outlines outside of the visible sector are skipped and the model coordinates of the outline
+ * vertices are only recomputed when the globe or the vertical exaggeration changes.
+ */
+class FootprintRenderer implements Renderable {
+
+    // lift the outlines a little above the terrain to avoid z-fighting
+    private static final double SURFACE_OFFSET = 100.0;
+    // time after which the terrain elevation under a visible outline is sampled again
+    private static final long ELEVATION_REFRESH_MILLIS = 2000;
+
+    private final Map<String, Footprint[]> footprintTable = new ConcurrentHashMap<String, Footprint[]>();
+    private Color color = Color.WHITE;
+    private Color highlightColor = Color.RED;
+    private volatile String highlightedName = null;
+
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    public void setHighlightColor(Color highlightColor) {
+        this.highlightColor = highlightColor;
+    }
+
+    /**
+     * Adds the outlines of a product
+     * @param name the unique name of the product
+     * @param outlines the outlines, each given as closed sequence of lat/lon pairs in degrees
+     */
+    public void addFootprint(final String name, final List<double[]> outlines) {
+        final Footprint[] footprints = new Footprint[outlines.size()];
+        for (int i = 0; i < footprints.length; ++i) {
+            footprints[i] = new Footprint(outlines.get(i));
+        }
+        footprintTable.put(name, footprints);
+    }
+
+    public void removeFootprint(final String name) {
+        footprintTable.remove(name);
+    }
+
+    public boolean contains(final String name) {
+        return footprintTable.containsKey(name);
+    }
+
+    public String[] getNames() {
+        return footprintTable.keySet().toArray(new String[footprintTable.size()]);
+    }
+
+    public void setHighlighted(final String name) {
+        highlightedName = name;
+    }
+
+    public void render(final DrawContext dc) {
+        if (footprintTable.isEmpty())
+            return;
+
+        final Globe globe = dc.getGlobe();
+        final double verticalExaggeration = dc.getVerticalExaggeration();
+        final Sector visibleSector = dc.getVisibleSector();
+        final long now = System.currentTimeMillis();
+
+        final List<Footprint> normal = new ArrayList<Footprint>(footprintTable.size());
+        final List<Footprint> highlighted = new ArrayList<Footprint>(4);
+        final String selName = highlightedName;
+        for (Map.Entry<String, Footprint[]> entry : footprintTable.entrySet()) {
+            final boolean highlight = entry.getKey().equals(selName);
+            for (Footprint footprint : entry.getValue()) {
+                if (visibleSector != null && !visibleSector.intersects(footprint.sector))
+                    continue;
+                footprint.update(globe, verticalExaggeration, now);
+                if (highlight)
+                    highlighted.add(footprint);
+                else
+                    normal.add(footprint);
+            }
+        }
+        if (normal.isEmpty() && highlighted.isEmpty())
+            return;
+
+        final GL gl = dc.getGL();
+        gl.glPushAttrib(GL.GL_CURRENT_BIT | GL.GL_LINE_BIT | GL.GL_ENABLE_BIT | GL.GL_COLOR_BUFFER_BIT |
+                        GL.GL_DEPTH_BUFFER_BIT | GL.GL_HINT_BIT);
+        gl.glMatrixMode(GL.GL_MODELVIEW);
+        gl.glPushMatrix();
+        try {
+            gl.glDisable(GL.GL_TEXTURE_2D);
+            gl.glEnable(GL.GL_BLEND);
+            gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+            gl.glEnable(GL.GL_LINE_SMOOTH);
+            gl.glHint(GL.GL_LINE_SMOOTH_HINT, GL.GL_NICEST);
+            gl.glDepthFunc(GL.GL_LEQUAL);
+            gl.glLineWidth(1f);
+
+            drawFootprints(gl, normal, color);
+            drawFootprints(gl, highlighted, highlightColor);
+        } finally {
+            gl.glPopMatrix();
+            gl.glPopAttrib();
+        }
+    }
+
+    private static void drawFootprints(final GL gl, final List<Footprint> footprints, final Color color) {
+        if (footprints.isEmpty())
+            return;
+
+        gl.glColor4ub((byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue(), (byte) color.getAlpha());
+        for (Footprint footprint : footprints) {
+            final double[] points = footprint.points;
+            final Vec4 ref = footprint.referencePoint;
+            gl.glPushMatrix();
+            gl.glTranslated(ref.x, ref.y, ref.z);
+            gl.glBegin(GL.GL_LINE_STRIP);
+            for (int i = 0; i < points.length; i += 3) {
+                gl.glVertex3d(points[i], points[i + 1], points[i + 2]);
+            }
+            gl.glEnd();
+            gl.glPopMatrix();
+        }
+    }
+
+    /**
+     * A single closed outline with its vertices in model coordinates relative to a reference point
+     */
+    private static final class Footprint {
+        final double[] latLons;
+        final Sector sector;
+
+        double[] points;
+        Vec4 referencePoint;
+        private Globe globe;
+        private double verticalExaggeration;
+        private long updateTime;
+
+        Footprint(final double[] latLons) {
+            this.latLons = latLons;
+
+            double minLat = 90, maxLat = -90, minLon = 180, maxLon = -180;
+            for (int i = 0; i < latLons.length; i += 2) {
+                minLat = Math.min(minLat, latLons[i]);
+                maxLat = Math.max(maxLat, latLons[i]);
+                minLon = Math.min(minLon, latLons[i + 1]);
+                maxLon = Math.max(maxLon, latLons[i + 1]);
+            }
+            sector = Sector.fromDegrees(minLat, maxLat, minLon, maxLon);
+        }
+
+        void update(final Globe globe, final double verticalExaggeration, final long now) {
+            if (points != null && globe == this.globe && verticalExaggeration == this.verticalExaggeration &&
+                now - updateTime < ELEVATION_REFRESH_MILLIS)
+                return;
+
+            final int numPoints = latLons.length / 2;
+            final double[] newPoints = new double[numPoints * 3];
+            Vec4 ref = null;
+            for (int i = 0; i < numPoints; ++i) {
+                final Angle lat = Angle.fromDegreesLatitude(latLons[2 * i]);
+                final Angle lon = Angle.fromDegreesLongitude(latLons[2 * i + 1]);
+                final double elevation = (globe.getElevation(lat, lon) + SURFACE_OFFSET) * verticalExaggeration;
+                final Vec4 p = globe.computePointFromPosition(lat, lon, elevation);
+                if (ref == null)
+                    ref = p;
+                newPoints[3 * i] = p.x - ref.x;
+                newPoints[3 * i + 1] = p.y - ref.y;
+                newPoints[3 * i + 2] = p.z - ref.z;
+            }
+            points = newPoints;
+            referencePoint = ref != null ? ref : Vec4.ZERO;
+            this.globe = globe;
+            this.verticalExaggeration = verticalExaggeration;
+            updateTime = now;
+        }
+    }
+}
@@ -15,12 +15,9 @@
  */
 package org.esa.nest.dat.toolviews.nestwwview;
 
-import gov.nasa.worldwind.geom.Angle;
-import gov.nasa.worldwind.geom.Position;
-import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.layers.RenderableLayer;
-import gov.nasa.worldwind.render.Polyline;
-import gov.nasa.worldwind.render.SurfaceImage;
+import gov.nasa.worldwind.render.DrawContext;
 import org.esa.beam.framework.dataio.ProductSubsetDef;
 import org.esa.beam.framework.datamodel.*;
 import org.esa.beam.framework.dataop.maptransf.IdentityTransformDescriptor;
@@ -35,7 +32,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -44,21 +40,23 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
-
+ * Shows the footprints and the images of the opened products
  */
 public class ProductLayer extends RenderableLayer {
     private Product selectedProduct = null;
     private final boolean enableSurfaceImages;
 
-    private final ConcurrentHashMap<String, Polyline[]> outlineTable = new ConcurrentHashMap<String, Polyline[]>();
-    private final ConcurrentHashMap<String, SurfaceImage> imageTable = new ConcurrentHashMap<String, SurfaceImage>();
+    private final FootprintRenderer footprints = new FootprintRenderer();
+    private final ConcurrentHashMap<String, ProductTileSet> imageTable = new ConcurrentHashMap<String, ProductTileSet>();
 
     ProductLayer(boolean showSurfaceImages) {
         enableSurfaceImages = showSurfaceImages;
+        footprints.setHighlightColor(Color.RED);
+        addRenderable(footprints);
     }
 
     public String[] getProductNames() {
-        return outlineTable.keySet().toArray(new String[outlineTable.size()]);
+        return footprints.getNames();
     }
 
     private static String getUniqueName(final Product product) {
@@ -74,39 +72,30 @@ public class ProductLayer extends RenderableLayer {
     public void setOpacity(double opacity) {
         super.setOpacity(opacity);
 
-        for (Map.Entry<String, SurfaceImage> entry : this.imageTable.entrySet()) {
+        for (Map.Entry<String, ProductTileSet> entry : this.imageTable.entrySet()) {
             entry.getValue().setOpacity(opacity);
         }
     }
 
     public void setOpacity(String name, double opacity) {
-        final SurfaceImage img = imageTable.get(name);
+        final ProductTileSet img = imageTable.get(name);
         if (img != null)
             img.setOpacity(opacity);
     }
 
     public double getOpacity(String name) {
-        final SurfaceImage img = imageTable.get(name);
+        final ProductTileSet img = imageTable.get(name);
         if (img != null)
             return img.getOpacity();
         else {
-            final Polyline[] lineList = outlineTable.get(name);
-            return lineList != null ? 1 : 0;
+            return footprints.contains(name) ? 1 : 0;
         }
     }
 
     public void setSelectedProduct(Product product) {
         selectedProduct = product;
         if (selectedProduct != null) {
-            final String selName = getUniqueName(selectedProduct);
-            for (String name : outlineTable.keySet()) {
-                final Polyline[] lineList = outlineTable.get(name);
-                final boolean highlight = name.equals(selName);
-                for (Polyline line : lineList) {
-                    line.setHighlighted(highlight);
-                    line.setHighlightColor(Color.RED);
-                }
-            }
+            footprints.setHighlighted(getUniqueName(selectedProduct));
         }
     }
 
@@ -116,7 +105,7 @@ public class ProductLayer extends RenderableLayer {
 
     public void addProduct(final Product product) {
         final String name = getUniqueName(product);
-        if (this.outlineTable.get(name) != null)
+        if (footprints.contains(name))
             return;
 
         final GeoCoding geoCoding = product.getGeoCoding();
@@ -135,44 +124,53 @@ public class ProductLayer extends RenderableLayer {
         }
     }
 
+    @Override
+    protected void doRender(DrawContext dc) {
+        // images first so that the footprints are drawn on top
+        for (ProductTileSet tileSet : imageTable.values()) {
+            tileSet.render(dc);
+        }
+        super.doRender(dc);
+    }
+
     private void addSurfaceImage(final Product product) {
         final String name = getUniqueName(product);
 
         final SwingWorker worker = new SwingWorker() {
 
             @Override
-            protected SurfaceImage doInBackground() throws Exception {
-                final Product newProduct = createSubsampledProduct(product);
-
-                final Band band = newProduct.getBandAt(0);
-                final BufferedImage image = ProductUtils.createRgbImage(new RasterDataNode[]{band},
-                                           band.getImageInfo(com.bc.ceres.core.ProgressMonitor.NULL),
-                                           com.bc.ceres.core.ProgressMonitor.NULL);
-
-                final GeoPos geoPos1 = product.getGeoCoding().getGeoPos(new PixelPos(0, 0), null);
-                final GeoPos geoPos2 = product.getGeoCoding().getGeoPos(new PixelPos(product.getSceneRasterWidth()-1,
-                                                                                        product.getSceneRasterHeight()-1),
-                                                                           null);
-
-                final Sector sector = new Sector(Angle.fromDegreesLatitude(geoPos1.getLat()),
-                                                 Angle.fromDegreesLatitude(geoPos2.getLat()),
-                                                 Angle.fromDegreesLongitude(geoPos1.getLon()),
-                                                 Angle.fromDegreesLongitude(geoPos2.getLon()));
-
-                final SurfaceImage si = new SurfaceImage(image, sector);
-                si.setOpacity(getOpacity());
-                return si;
+            protected ProductTileSet doInBackground() throws Exception {
+                final String quicklookBandName = ProductUtils.findSuitableQuicklookBandName(product);
+                final Band band = createGeographicProduct(product, quicklookBandName, 1, null).getBandAt(0);
+                final MapInfo mapInfo = isMapProjected(product) ? null :
+                                        ((MapGeoCoding) band.getGeoCoding()).getMapInfo();
+
+                final ProductTileSet.LevelSource levelSource = new ProductTileSet.LevelSource() {
+                    public Band createLevelBand(int level) throws IOException {
+                        return createGeographicProduct(product, quicklookBandName, 1 << level, mapInfo).getBandAt(0);
+                    }
+                };
+                final ProductTileSet tileSet = new ProductTileSet(band, levelSource, new Runnable() {
+                    public void run() {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                firePropertyChange(AVKey.LAYER, null, ProductLayer.this);
+                            }
+                        });
+                    }
+                });
+                tileSet.setOpacity(getOpacity());
+                return tileSet;
             }
 
             @Override
             public void done() {
 
                 try {
-                    if (imageTable.contains(name))
-                        removeImage(name);
-                    final SurfaceImage si = (SurfaceImage) get();
-                    addRenderable(si);
-                    imageTable.put(name, si);
+                    removeImage(name);
+                    final ProductTileSet tileSet = (ProductTileSet) get();
+                    imageTable.put(name, tileSet);
+                    firePropertyChange(AVKey.LAYER, null, ProductLayer.this);
                 } catch (Exception e) {
                     //VisatApp.getApp().showErrorDialog(e.getMessage());
                 }
@@ -185,36 +183,31 @@ public class ProductLayer extends RenderableLayer {
         final int step = Math.max(16, (product.getSceneRasterWidth() + product.getSceneRasterHeight()) / 250);
         final GeneralPath[] boundaryPaths = ProductUtils.createGeoBoundaryPaths(product, null, step);
 
-        final Polyline[] polyLineList = new Polyline[boundaryPaths.length];
-        int i = 0;
+        final List<double[]> outlines = new ArrayList<double[]>(boundaryPaths.length);
         for (GeneralPath boundaryPath : boundaryPaths) {
             final PathIterator it = boundaryPath.getPathIterator(null);
             final float[] floats = new float[2];
-            final List<Position> positions = new ArrayList<Position>(4);
-
-            it.currentSegment(floats);
-            final Position firstPosition = new Position(Angle.fromDegreesLatitude(floats[1]),
-                                                        Angle.fromDegreesLongitude(floats[0]), 0.0);
-            positions.add(firstPosition);
-            it.next();
+            final List<float[]> positions = new ArrayList<float[]>(64);
 
             while(!it.isDone()) {
                 it.currentSegment(floats);
-                positions.add(new Position(Angle.fromDegreesLatitude(floats[1]),
-                                   Angle.fromDegreesLongitude(floats[0]), 0.0));
+                positions.add(new float[] { floats[1], floats[0] });
                 it.next();
             }
+            if(positions.isEmpty())
+                continue;
             // close the loop
-            positions.add(firstPosition);
-
-            polyLineList[i] = new Polyline();
-            polyLineList[i].setFollowTerrain(true);
-            polyLineList[i].setPositions(positions);
+            positions.add(positions.get(0));
 
-            addRenderable(polyLineList[i]);
-            ++i;
+            final double[] latLons = new double[positions.size() * 2];
+            int i = 0;
+            for (float[] pos : positions) {
+                latLons[i++] = pos[0];
+                latLons[i++] = pos[1];
+            }
+            outlines.add(latLons);
         }
-        outlineTable.put(getUniqueName(product), polyLineList);
+        footprints.addFootprint(getUniqueName(product), outlines);
     }
 
     private void addWaveProduct(final Product product) {
@@ -223,8 +216,7 @@ public class ProductLayer extends RenderableLayer {
         if (ggADS == null) return;
 
         final MetadataElement[] geoElemList = ggADS.getElements();
-        final Polyline[] lineList = new Polyline[geoElemList.length];
-        int cnt = 0;
+        final List<double[]> outlines = new ArrayList<double[]>(geoElemList.length);
         for (MetadataElement geoElem : geoElemList) {
             final double lat = geoElem.getAttributeDouble("center_lat", 0.0) / Constants.oneMillion;
             final double lon = geoElem.getAttributeDouble("center_long", 0.0) / Constants.oneMillion;
@@ -238,21 +230,14 @@ public class ProductLayer extends RenderableLayer {
             final GeoUtils.LatLonHeading corner3 = GeoUtils.vincenty_direct(r2.lon, r2.lat, 2500, heading - 90.0);
             final GeoUtils.LatLonHeading corner4 = GeoUtils.vincenty_direct(r2.lon, r2.lat, 2500, heading + 90.0);
 
-            final List<Position> positions = new ArrayList<Position>(4);
-            positions.add(new Position(Angle.fromDegreesLatitude(corner1.lat), Angle.fromDegreesLongitude(corner1.lon), 0.0));
-            positions.add(new Position(Angle.fromDegreesLatitude(corner2.lat), Angle.fromDegreesLongitude(corner2.lon), 0.0));
-            positions.add(new Position(Angle.fromDegreesLatitude(corner4.lat), Angle.fromDegreesLongitude(corner4.lon), 0.0));
-            positions.add(new Position(Angle.fromDegreesLatitude(corner3.lat), Angle.fromDegreesLongitude(corner3.lon), 0.0));
-            positions.add(new Position(Angle.fromDegreesLatitude(corner1.lat), Angle.fromDegreesLongitude(corner1.lon), 0.0));
-
-            final Polyline line = new Polyline();
-            line.setFollowTerrain(true);
-            line.setPositions(positions);
-
-            addRenderable(line);
-            lineList[cnt++] = line;
+            outlines.add(new double[] {
+                    corner1.lat, corner1.lon,
+                    corner2.lat, corner2.lon,
+                    corner4.lat, corner4.lon,
+                    corner3.lat, corner3.lon,
+                    corner1.lat, corner1.lon });
         }
-        outlineTable.put(getUniqueName(product), lineList);
+        footprints.addFootprint(getUniqueName(product), outlines);
     }
 
     public void removeProduct(final Product product) {
@@ -261,20 +246,13 @@ public class ProductLayer extends RenderableLayer {
     }
 
     private void removeOutline(String imagePath) {
-        final Polyline[] lineList = this.outlineTable.get(imagePath);
-        if (lineList != null) {
-            for (Polyline line : lineList) {
-                this.removeRenderable(line);
-            }
-            this.outlineTable.remove(imagePath);
-        }
+        footprints.removeFootprint(imagePath);
     }
 
     private void removeImage(String imagePath) {
-        final SurfaceImage si = this.imageTable.get(imagePath);
-        if (si != null) {
-            this.removeRenderable(si);
-            this.imageTable.remove(imagePath);
+        final ProductTileSet tileSet = this.imageTable.remove(imagePath);
+        if (tileSet != null) {
+            tileSet.dispose();
         }
     }
 
@@ -285,27 +263,52 @@ public class ProductLayer extends RenderableLayer {
         return absRoot != null && !absRoot.getAttributeString(AbstractMetadata.map_projection, "").isEmpty();
     }
 
-    private static Product createSubsampledProduct(final Product product) throws IOException {
+    /**
+     * Creates a product of the quicklook band in a geographic lat/lon grid, subsampled for a level of the tile set.
+     * The pixels are computed on demand by the image tiles shown.
+     *
+     * @param subSampling the subsampling of the level
+     * @param mapInfo     the lat/lon grid of the full resolution product, or null to create it
+     */
+    private static Product createGeographicProduct(final Product product, final String quicklookBandName,
+                                                   final int subSampling, final MapInfo mapInfo) throws IOException {
 
-        final String quicklookBandName = ProductUtils.findSuitableQuicklookBandName(product);
         final ProductSubsetDef productSubsetDef = new ProductSubsetDef("subset");
-        int scaleFactor = product.getSceneRasterWidth() / 1000;
-        if (scaleFactor < 1) {
-            scaleFactor = 1;
-        }
-        productSubsetDef.setSubSampling(scaleFactor, scaleFactor);
+        productSubsetDef.setSubSampling(subSampling, subSampling);
         productSubsetDef.setTreatVirtualBandsAsRealBands(true);
         productSubsetDef.setNodeNames(new String[] {quicklookBandName} );
         Product productSubset = product.createSubset(productSubsetDef, quicklookBandName, null);
 
         if(!isMapProjected(product)) {
-            final MapInfo mapInfo = ProductUtils.createSuitableMapInfo(productSubset,
+            final MapInfo levelMapInfo;
+            if(mapInfo == null) {
+                levelMapInfo = ProductUtils.createSuitableMapInfo(productSubset,
                                                 MapProjectionRegistry.getProjection(IdentityTransformDescriptor.NAME),
                                                 0.0,
                                                 product.getBand(quicklookBandName).getNoDataValue());
-            productSubset = productSubset.createProjectedProduct(mapInfo, quicklookBandName, null);
+            } else {
+                levelMapInfo = createSubsampledMapInfo(mapInfo, subSampling);
+            }
+            productSubset = productSubset.createProjectedProduct(levelMapInfo, quicklookBandName, null);
         }
 
         return productSubset;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a grid with the same upper left corner and pixels subSampling times the size of the given grid,
+     * so that the levels of a tile set line up.
+     */
+    private static MapInfo createSubsampledMapInfo(final MapInfo mapInfo, final int subSampling) {
+        final MapInfo subsampledMapInfo = mapInfo.createDeepClone();
+        subsampledMapInfo.setEasting(mapInfo.getEasting() - mapInfo.getPixelX() * mapInfo.getPixelSizeX());
+        subsampledMapInfo.setNorthing(mapInfo.getNorthing() + mapInfo.getPixelY() * mapInfo.getPixelSizeY());
+        subsampledMapInfo.setPixelX(0.0f);
+        subsampledMapInfo.setPixelY(0.0f);
+        subsampledMapInfo.setPixelSizeX(mapInfo.getPixelSizeX() * subSampling);
+        subsampledMapInfo.setPixelSizeY(mapInfo.getPixelSizeY() * subSampling);
+        subsampledMapInfo.setSceneWidth((mapInfo.getSceneWidth() + subSampling - 1) / subSampling);
+        subsampledMapInfo.setSceneHeight((mapInfo.getSceneHeight() + subSampling - 1) / subSampling);
+        return subsampledMapInfo;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2013 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.nest.dat.toolviews.nestwwview;
+
+import com.bc.ceres.core.ProgressMonitor;
+import gov.nasa.worldwind.geom.LatLon;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.SurfaceImage;
+import org.esa.beam.framework.datamodel.*;
+import org.esa.beam.jai.ImageManager;
+
+import javax.media.jai.PlanarImage;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The image of a product as a quadtree of surface image tiles.
+ * Each level of the quadtree is taken from its own band, subsampled by a power of two, so that close views
+ * show the full resolution and distant views only read a few coarse tiles of a subsampled product.
+ * Tiles are created in the background while they are visible and are kept in a small LRU cache.
+ */
+final class ProductTileSet {
+
+    private static final int TILE_SIZE = 256;
+    private static final int MAX_CACHED_TILES = 128;
+    private static final int MAX_CACHED_SECTORS = 4096;
+    // a tile is refined when its pixels are larger than this number of screen pixels
+    private static final double MAX_PIXEL_RATIO = 1.5;
+
+    private static final ExecutorService tileLoader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "WorldWind product tile loader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /**
+     * Creates the bands of the levels of a tile set.
+     */
+    interface LevelSource {
+
+        /**
+         * @param level the level, the band of level n is subsampled by 2^n
+         * @return the band of the level, in the same geographic grid as the band of level 0
+         * @throws IOException if the band cannot be created
+         */
+        Band createLevelBand(int level) throws IOException;
+    }
+
+    private final Band band;
+    private final LevelSource levelSource;
+    private final ImageInfo imageInfo;
+    private final GeoCoding geoCoding;
+    private final int levelCount;
+    private final Sector sector;
+    private final Runnable tileLoadedHandler;
+
+    private final Band[] levelBands;
+    private final RenderedImage[] levelImages;
+    private final Map<Long, SurfaceImage> tileCache = Collections.synchronizedMap(
+            new LinkedHashMap<Long, SurfaceImage>(MAX_CACHED_TILES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SurfaceImage> eldest) {
+                    return size() > MAX_CACHED_TILES;
+                }
+            });
+    // the frame in which a pending tile was last requested, tiles not requested in the last frame are cancelled
+    private final Map<Long, Long> pendingTiles = new ConcurrentHashMap<Long, Long>();
+    private final AtomicLong frameCount = new AtomicLong();
+    private final Map<Long, Sector> sectorCache = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Sector>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Sector> eldest) {
+                    return size() > MAX_CACHED_SECTORS;
+                }
+            });
+
+    private volatile double opacity = 1.0;
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates the tile set and the colour palette of the image from its coarsest level.
+     *
+     * @param band              a band of a product in geographic lat/lon projection
+     * @param levelSource       creates the bands of the subsampled levels
+     * @param tileLoadedHandler called in the tile loader thread whenever a tile becomes available
+     * @throws IOException if the band of the coarsest level cannot be created
+     */
+    ProductTileSet(final Band band, final LevelSource levelSource, final Runnable tileLoadedHandler)
+            throws IOException {
+        this.band = band;
+        this.levelSource = levelSource;
+        this.geoCoding = band.getGeoCoding();
+        this.levelCount = getLevelCount(band.getSceneRasterWidth(), band.getSceneRasterHeight());
+        this.levelBands = new Band[levelCount];
+        this.levelImages = new RenderedImage[levelCount];
+        this.tileLoadedHandler = tileLoadedHandler;
+        this.sector = computeSector(0, 0, band.getSceneRasterWidth(), band.getSceneRasterHeight());
+        levelBands[0] = band;
+        this.imageInfo = getLevelBand(levelCount - 1).getImageInfo(ProgressMonitor.NULL);
+    }
+
+    /**
+     * @return the number of levels needed for the coarsest level to fit into one tile
+     */
+    static int getLevelCount(final int width, final int height) {
+        int levelCount = 1;
+        while (Math.max(width, height) > TILE_SIZE << (levelCount - 1)) {
+            ++levelCount;
+        }
+        return levelCount;
+    }
+
+    public double getOpacity() {
+        return opacity;
+    }
+
+    public void setOpacity(final double opacity) {
+        this.opacity = opacity;
+        synchronized (tileCache) {
+            for (SurfaceImage tile : tileCache.values()) {
+                tile.setOpacity(opacity);
+            }
+        }
+    }
+
+    public void dispose() {
+        disposed = true;
+        tileCache.clear();
+        pendingTiles.clear();
+        sectorCache.clear();
+    }
+
+    public void render(final DrawContext dc) {
+        frameCount.incrementAndGet();
+        if (opacity <= 0 || !isVisible(dc, sector))
+            return;
+
+        final List<SurfaceImage> drawList = new ArrayList<SurfaceImage>(32);
+        final int topLevel = levelCount - 1;
+        final int numTilesX = getNumTiles(getLevelWidth(topLevel));
+        final int numTilesY = getNumTiles(getLevelHeight(topLevel));
+        for (int ty = 0; ty < numTilesY; ++ty) {
+            for (int tx = 0; tx < numTilesX; ++tx) {
+                selectTiles(dc, topLevel, tx, ty, drawList);
+            }
+        }
+        for (SurfaceImage tile : drawList) {
+            tile.render(dc);
+        }
+    }
+
+    /**
+     * Collects the tiles to draw, coarse tiles first. A tile is drawn until all its visible children are loaded.
+     */
+    private void selectTiles(final DrawContext dc, final int level, final int tx, final int ty,
+                             final List<SurfaceImage> drawList) {
+        final Sector tileSector = getTileSector(level, tx, ty);
+        if (!isVisible(dc, tileSector))
+            return;
+
+        final SurfaceImage tile = tileCache.get(getTileKey(level, tx, ty));
+        if (tile == null) {
+            requestTile(level, tx, ty);
+            return;
+        }
+
+        if (level > 0 && needsRefinement(dc, tileSector, level, tx, ty)) {
+            final int childLevel = level - 1;
+            final int numTilesX = getNumTiles(getLevelWidth(childLevel));
+            final int numTilesY = getNumTiles(getLevelHeight(childLevel));
+
+            boolean childrenLoaded = true;
+            for (int cy = 2 * ty; cy <= 2 * ty + 1 && cy < numTilesY; ++cy) {
+                for (int cx = 2 * tx; cx <= 2 * tx + 1 && cx < numTilesX; ++cx) {
+                    if (!tileCache.containsKey(getTileKey(childLevel, cx, cy)) &&
+                        isVisible(dc, getTileSector(childLevel, cx, cy))) {
+                        childrenLoaded = false;
+                    }
+                }
+            }
+            if (!childrenLoaded) {
+                drawList.add(tile);
+            }
+            for (int cy = 2 * ty; cy <= 2 * ty + 1 && cy < numTilesY; ++cy) {
+                for (int cx = 2 * tx; cx <= 2 * tx + 1 && cx < numTilesX; ++cx) {
+                    selectTiles(dc, childLevel, cx, cy, drawList);
+                }
+            }
+        } else {
+            drawList.add(tile);
+        }
+    }
+
+    private boolean needsRefinement(final DrawContext dc, final Sector tileSector,
+                                    final int level, final int tx, final int ty) {
+        final Rectangle rect = getTileRectangle(level, tx, ty);
+        final Globe globe = dc.getGlobe();
+        final double tilePixelSize = tileSector.getDeltaLatRadians() * globe.getRadius() / rect.height;
+
+        final LatLon centroid = tileSector.getCentroid();
+        final Vec4 center = globe.computePointFromPosition(centroid.getLatitude(), centroid.getLongitude(), 0);
+        final double distance = dc.getView().getEyePoint().distanceTo3(center);
+        final Rectangle viewport = dc.getView().getViewport();
+        final double screenPixelSize = 2 * distance * Math.tan(dc.getView().getFieldOfView().radians / 2) /
+                                       Math.max(1, viewport.width);
+        return tilePixelSize > MAX_PIXEL_RATIO * screenPixelSize;
+    }
+
+    private static boolean isVisible(final DrawContext dc, final Sector tileSector) {
+        final Sector visibleSector = dc.getVisibleSector();
+        return tileSector != null && (visibleSector == null || visibleSector.intersects(tileSector));
+    }
+
+    /**
+     * Queues a tile for loading. A tile waiting in the queue is skipped if it was not requested in the
+     * current or the previous frame, so that tiles which went out of view do not hold up the visible ones.
+     */
+    private void requestTile(final int level, final int tx, final int ty) {
+        final Long key = getTileKey(level, tx, ty);
+        if (disposed || pendingTiles.put(key, frameCount.get()) != null)
+            return;
+
+        tileLoader.submit(new Runnable() {
+            public void run() {
+                final Long requestFrame = pendingTiles.get(key);
+                if (disposed || requestFrame == null)
+                    return;
+                if (requestFrame < frameCount.get() - 1) {
+                    // out of view, unless it has just been requested again
+                    if (!pendingTiles.remove(key, requestFrame)) {
+                        tileLoader.submit(this);
+                    }
+                    return;
+                }
+                try {
+                    final SurfaceImage tile = createTile(level, tx, ty);
+                    if (tile != null && !disposed) {
+                        tileCache.put(key, tile);
+                        tileLoadedHandler.run();
+                    }
+                } catch (Throwable e) {
+                    System.out.println("Unable to create World Wind tile of " + band.getName() + ": " + e.getMessage());
+                } finally {
+                    pendingTiles.remove(key);
+                }
+            }
+        });
+    }
+
+    private SurfaceImage createTile(final int level, final int tx, final int ty) throws IOException {
+        final Sector tileSector = getTileSector(level, tx, ty);
+        if (tileSector == null)
+            return null;
+
+        final RenderedImage image;
+        synchronized (levelImages) {
+            if (levelImages[level] == null) {
+                levelImages[level] = ImageManager.getInstance().createColoredBandImage(
+                        new RasterDataNode[]{getLevelBand(level)}, imageInfo, 0);
+            }
+            image = levelImages[level];
+        }
+        final Rectangle rect = getTileRectangle(level, tx, ty).intersection(
+                new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (rect.isEmpty())
+            return null;
+        final BufferedImage tileImage = PlanarImage.wrapRenderedImage(image).getAsBufferedImage(rect,
+                                                                                              image.getColorModel());
+        final SurfaceImage tile = new SurfaceImage(tileImage, tileSector);
+        tile.setOpacity(opacity);
+        return tile;
+    }
+
+    private Band getLevelBand(final int level) throws IOException {
+        synchronized (levelBands) {
+            if (levelBands[level] == null) {
+                levelBands[level] = levelSource.createLevelBand(level);
+            }
+            return levelBands[level];
+        }
+    }
+
+    private int getLevelWidth(final int level) {
+        return (band.getSceneRasterWidth() + (1 << level) - 1) >> level;
+    }
+
+    private int getLevelHeight(final int level) {
+        return (band.getSceneRasterHeight() + (1 << level) - 1) >> level;
+    }
+
+    private static int getNumTiles(final int size) {
+        return (size + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * @return the tile rectangle in the coordinates of its level image
+     */
+    private Rectangle getTileRectangle(final int level, final int tx, final int ty) {
+        final int x = tx * TILE_SIZE;
+        final int y = ty * TILE_SIZE;
+        return new Rectangle(x, y, Math.min(TILE_SIZE, getLevelWidth(level) - x),
+                             Math.min(TILE_SIZE, getLevelHeight(level) - y));
+    }
+
+    private Sector getTileSector(final int level, final int tx, final int ty) {
+        final Long key = getTileKey(level, tx, ty);
+        Sector tileSector = sectorCache.get(key);
+        if (tileSector == null) {
+            final Rectangle rect = getTileRectangle(level, tx, ty);
+            final int x0 = rect.x << level;
+            final int y0 = rect.y << level;
+            final int x1 = Math.min(band.getSceneRasterWidth(), (rect.x + rect.width) << level);
+            final int y1 = Math.min(band.getSceneRasterHeight(), (rect.y + rect.height) << level);
+            tileSector = computeSector(x0, y0, x1, y1);
+            if (tileSector != null) {
+                sectorCache.put(key, tileSector);
+            }
+        }
+        return tileSector;
+    }
+
+    /**
+     * @return the sector covered by the pixel corners, or null if not geo-coded
+     */
+    private Sector computeSector(final int x0, final int y0, final int x1, final int y1) {
+        final GeoPos geoPos1 = geoCoding.getGeoPos(new PixelPos(x0, y0), null);
+        final GeoPos geoPos2 = geoCoding.getGeoPos(new PixelPos(x1, y1), null);
+        if (!geoPos1.isValid() || !geoPos2.isValid())
+            return null;
+        return Sector.fromDegrees(Math.min(geoPos1.getLat(), geoPos2.getLat()),
+                                  Math.max(geoPos1.getLat(), geoPos2.getLat()),
+                                  Math.min(geoPos1.getLon(), geoPos2.getLon()),
+                                  Math.max(geoPos1.getLon(), geoPos2.getLon()));
+    }
+
+    private static Long getTileKey(final int level, final int tx, final int ty) {
+        return ((long) level << 56) | ((long) ty << 28) | tx;
+    }
+}